@@ -54,7 +54,6 @@ import net.imglib2.converter.RealLUTConverter;
 import net.imglib2.display.ColorTable;
 import net.imglib2.display.projector.composite.CompositeXYProjector;
 import net.imglib2.display.screenimage.awt.ARGBScreenImage;
-import net.imglib2.img.cell.AbstractCellImg;
 import net.imglib2.type.numeric.RealType;
 import net.imglib2.util.Binning;
 import net.imglib2.util.Intervals;
@@ -99,7 +98,7 @@ public class DefaultDatasetView extends AbstractDataView implements DatasetView
 
 	private ARGBScreenImage screenImage;
 
-	private CompositeXYProjector<? extends RealType<?>> projector;
+	private TiledCompositeXYProjector<? extends RealType<?>> projector;
 
 	private final ArrayList<RealLUTConverter<? extends RealType<?>>> converters =
 		new ArrayList<>();
@@ -262,7 +261,7 @@ public class DefaultDatasetView extends AbstractDataView implements DatasetView
 
 		resetColorTables(colorMode == ColorMode.GRAYSCALE);
 		projector.setComposite(colorMode == ColorMode.COMPOSITE);
-		projector.map();
+		projector.mapIfChanged();
 	}
 
 	// TODO - add this kind of mapping code to the Imglib Projector classes. Here
@@ -434,7 +433,8 @@ public class DefaultDatasetView extends AbstractDataView implements DatasetView
 			updateLUTs();
 		}
 
-		projector.map();
+		// NB: in composite mode, a new channel position changes nothing
+		projector.mapIfChanged();
 
 		super.setPosition(position, axis);
 	}
@@ -519,18 +519,11 @@ public class DefaultDatasetView extends AbstractDataView implements DatasetView
 			converters.add(converter);
 		}
 
-		final ImgPlus<?> img = getData().getImgPlus();
-
-		if (AbstractCellImg.class.isAssignableFrom(img.getImg().getClass())) {
-			projector =
-				new SourceOptimizedCompositeXYProjector(getData().getImgPlus(),
-					screenImage, converters, channelDimIndex);
-		}
-		else {
-			projector =
-				new CompositeXYProjector(getData().getImgPlus(), screenImage,
-					converters, channelDimIndex);
-		}
+		// NB: one random access per channel, as in
+		// SourceOptimizedCompositeXYProjector, so also suits cell images
+		projector =
+			new TiledCompositeXYProjector(getData().getImgPlus(), screenImage,
+				converters, channelDimIndex, threadService);
 
 		projector.setComposite(composite);
 	}
@@ -0,0 +1,347 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2017 Board of Regents of the University of
+ * Wisconsin-Madison, Broad Institute of MIT and Harvard, and Max Planck
+ * Institute of Molecular Cell Biology and Genetics.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.display;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import net.imglib2.Interval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.converter.Converter;
+import net.imglib2.converter.RealLUTConverter;
+import net.imglib2.display.ColorTable;
+import net.imglib2.display.projector.composite.CompositeXYProjector;
+import net.imglib2.display.screenimage.awt.ARGBScreenImage;
+import net.imglib2.type.numeric.ARGBType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+
+import org.scijava.thread.ThreadService;
+
+/**
+ * As {@link CompositeXYProjector}, but renders the target {@link
+ * ARGBScreenImage} in bands of rows, which are composited in parallel when a
+ * {@link ThreadService} is given.
+ * <p>
+ * For {@link UnsignedByteType} and {@link UnsignedShortType} sources with
+ * {@link RealLUTConverter}s, each channel's color table and display range are
+ * flattened once into an {@code int} ARGB lookup table, so that compositing a
+ * pixel is a table lookup per channel rather than a converter call. Color
+ * tables are assumed not to change in place; set a new table instead.
+ * </p>
+ * <p>
+ * {@link #map()} always renders the whole target. {@link #mapIfChanged()}
+ * renders only when the position, composite channels, color tables or display
+ * ranges have changed since the last render, or when a region has been marked
+ * dirty with {@link #invalidate(Interval)}; in the latter case only the rows of
+ * the dirty region are rendered.
+ * </p>
+ */
+public class TiledCompositeXYProjector<A> extends CompositeXYProjector<A> {
+
+	/** Height of each band of rows rendered as one task. */
+	private static final int BAND_HEIGHT = 64;
+
+	/** Images with fewer pixels than this are rendered on the calling thread. */
+	private static final int PARALLEL_THRESHOLD = 256 * 1024;
+
+	private final RandomAccessibleInterval<A> source;
+
+	private final ARGBScreenImage target;
+
+	private final ArrayList<Converter<A, ARGBType>> converters;
+
+	private final int dimIndex;
+
+	private final ThreadService threadService;
+
+	/** Bits per sample of the fast path: 8, 16, or 0 if there is none. */
+	private final int fastBits;
+
+	/** Flattened lookup tables, one per converter, built on demand. */
+	private final Lookup[] lookups;
+
+	/** Render state as of the last render, or null if never rendered. */
+	private Object[] lastState;
+
+	/** Dirty rows still to render, or {@code dirtyMin > dirtyMax} if none. */
+	private long dirtyMin = Long.MAX_VALUE, dirtyMax = Long.MIN_VALUE;
+
+	public TiledCompositeXYProjector(final RandomAccessibleInterval<A> source,
+		final ARGBScreenImage target,
+		final ArrayList<Converter<A, ARGBType>> converters, final int dimIndex,
+		final ThreadService threadService)
+	{
+		super(source, target, converters, dimIndex);
+		this.source = source;
+		this.target = target;
+		this.converters = converters;
+		this.dimIndex = dimIndex;
+		this.threadService = threadService;
+		lookups = new Lookup[converters.size()];
+
+		final Object type = source.randomAccess().get();
+		if (type instanceof UnsignedByteType) fastBits = 8;
+		else if (type instanceof UnsignedShortType) fastBits = 16;
+		else fastBits = 0;
+	}
+
+	// -- TiledCompositeXYProjector methods --
+
+	/**
+	 * Marks the rows of the given target region as needing to be rendered by the
+	 * next call to {@link #mapIfChanged()}, e.g. after those pixels of the source
+	 * have changed.
+	 */
+	public synchronized void invalidate(final Interval region) {
+		dirtyMin = Math.min(dirtyMin, Math.max(region.min(1), target.min(1)));
+		dirtyMax = Math.max(dirtyMax, Math.min(region.max(1), target.max(1)));
+	}
+
+	/**
+	 * Renders the target if anything affecting it has changed since the last
+	 * render; only dirty rows are rendered if nothing but the source data has
+	 * changed.
+	 *
+	 * @return true if anything was rendered
+	 */
+	public synchronized boolean mapIfChanged() {
+		final int size = dimIndex < 0 ? 1 : updateCurrentArrays();
+		if (!Arrays.equals(lastState, state(size))) {
+			render(size, target.min(1), target.max(1));
+			return true;
+		}
+		if (dirtyMin > dirtyMax) return false;
+		render(size, dirtyMin, dirtyMax);
+		return true;
+	}
+
+	/** Renders only the rows of the target intersecting the given region. */
+	public synchronized void map(final Interval region) {
+		final int size = dimIndex < 0 ? 1 : updateCurrentArrays();
+		render(size, Math.max(region.min(1), target.min(1)), Math.min(region.max(
+			1), target.max(1)));
+	}
+
+	// -- Projector methods --
+
+	@Override
+	public synchronized void map() {
+		final int size = dimIndex < 0 ? 1 : updateCurrentArrays();
+		render(size, target.min(1), target.max(1));
+	}
+
+	// -- Helper methods --
+
+	/** Renders target rows {@code [y0, y1]}, in parallel bands if large. */
+	private void render(final int size, final long y0, final long y1) {
+		final Object[] state = state(size);
+		if (y0 <= y1) {
+			final long[] pos = new long[position.length];
+			for (int d = 2; d < pos.length; d++) {
+				pos[d] = position[d];
+			}
+			final long[] channels = new long[size];
+			final Converter<A, ARGBType>[] convs = Arrays.copyOf(
+				currentConverters, size);
+			final int[][] tables = new int[size][];
+			for (int i = 0; i < size; i++) {
+				channels[i] = dimIndex < 0 ? 0 : currentPositions[i];
+				if (dimIndex < 0) convs[i] = converters.get(0);
+				tables[i] = table(convs[i]);
+			}
+
+			final long rows = y1 - y0 + 1;
+			final int threads = threadService == null ? 1 : Math.min(Runtime
+				.getRuntime().availableProcessors(), (int) ((rows + BAND_HEIGHT - 1) /
+					BAND_HEIGHT));
+			if (threads < 2 || rows * target.dimension(0) < PARALLEL_THRESHOLD) {
+				renderBand(pos, channels, convs, tables, y0, y1);
+			}
+			else {
+				final List<Future<?>> futures = new ArrayList<>();
+				for (long y = y0; y <= y1; y += BAND_HEIGHT) {
+					final long start = y, end = Math.min(y1, y + BAND_HEIGHT - 1);
+					futures.add(threadService.run(() -> renderBand(pos, channels, convs,
+						tables, start, end)));
+				}
+				try {
+					for (final Future<?> f : futures) {
+						f.get();
+					}
+				}
+				catch (final InterruptedException exc) {
+					Thread.currentThread().interrupt();
+				}
+				catch (final ExecutionException exc) {
+					final Throwable cause = exc.getCause();
+					if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+					throw new IllegalStateException(cause);
+				}
+			}
+		}
+		lastState = state;
+		dirtyMin = Long.MAX_VALUE;
+		dirtyMax = Long.MIN_VALUE;
+	}
+
+	/** Composites target rows {@code [y0, y1]} into the screen image. */
+	private void renderBand(final long[] pos, final long[] channels,
+		final Converter<A, ARGBType>[] convs, final int[][] tables, final long y0,
+		final long y1)
+	{
+		final int size = channels.length;
+		final int width = (int) target.dimension(0);
+		final long x0 = target.min(0);
+		final int[] data = target.getData();
+		final int[] aSum = new int[width], rSum = new int[width],
+				gSum = new int[width], bSum = new int[width];
+		final ARGBType argb = new ARGBType();
+
+		final List<RandomAccess<A>> accesses = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			final RandomAccess<A> ra = source.randomAccess();
+			final long[] p = pos.clone();
+			if (dimIndex >= 0) p[dimIndex] = channels[i];
+			ra.setPosition(p);
+			accesses.add(ra);
+		}
+
+		for (long y = y0; y <= y1; y++) {
+			Arrays.fill(aSum, 0);
+			Arrays.fill(rSum, 0);
+			Arrays.fill(gSum, 0);
+			Arrays.fill(bSum, 0);
+			for (int i = 0; i < size; i++) {
+				final RandomAccess<A> ra = accesses.get(i);
+				ra.setPosition(x0, 0);
+				ra.setPosition(y, 1);
+				final int[] table = tables[i];
+				for (int x = 0; x < width; x++) {
+					final int value;
+					if (table == null) {
+						convs[i].convert(ra.get(), argb);
+						value = argb.get();
+					}
+					else if (fastBits == 8) {
+						value = table[((UnsignedByteType) ra.get()).get()];
+					}
+					else value = table[((UnsignedShortType) ra.get()).get()];
+					aSum[x] += value >>> 24;
+					rSum[x] += (value >> 16) & 0xff;
+					gSum[x] += (value >> 8) & 0xff;
+					bSum[x] += value & 0xff;
+					ra.fwd(0);
+				}
+			}
+			int o = (int) ((y - target.min(1)) * width);
+			for (int x = 0; x < width; x++) {
+				data[o++] = (Math.min(aSum[x], 255) << 24) | (Math.min(rSum[x],
+					255) << 16) | (Math.min(gSum[x], 255) << 8) | Math.min(bSum[x], 255);
+			}
+		}
+	}
+
+	/**
+	 * Gets the flattened ARGB table for the given converter, or null if it must
+	 * be called per pixel.
+	 */
+	private int[] table(final Converter<A, ARGBType> converter) {
+		if (fastBits == 0 || !(converter instanceof RealLUTConverter)) return null;
+		final RealLUTConverter<?> lut = (RealLUTConverter<?>) converter;
+		final int c = converters.indexOf(converter);
+		Lookup l = lookups[c];
+		if (l == null || !l.isFor(lut)) {
+			l = new Lookup(lut, 1 << fastBits);
+			lookups[c] = l;
+		}
+		return l.table;
+	}
+
+	/**
+	 * Gets everything the rendered image depends on, other than the source data:
+	 * the position, the composited channels and their color tables and ranges.
+	 */
+	private Object[] state(final int size) {
+		final Object[] state = new Object[position.length + 5 * size];
+		for (int d = 0; d < position.length; d++) {
+			// NB: the channels actually shown are recorded below
+			if (d != dimIndex) state[d] = position[d];
+		}
+		for (int i = 0; i < size; i++) {
+			final int o = position.length + 5 * i;
+			final Converter<A, ARGBType> converter = dimIndex < 0 ? converters.get(0)
+				: currentConverters[i];
+			state[o] = dimIndex < 0 ? 0 : currentPositions[i];
+			state[o + 1] = converter;
+			if (converter instanceof RealLUTConverter) {
+				final RealLUTConverter<?> lut = (RealLUTConverter<?>) converter;
+				state[o + 2] = lut.getLUT();
+				state[o + 3] = lut.getMin();
+				state[o + 4] = lut.getMax();
+			}
+		}
+		return state;
+	}
+
+	// -- Helper classes --
+
+	/** A color table and display range flattened into ARGB values. */
+	private static class Lookup {
+
+		private final ColorTable lut;
+
+		private final double min, max;
+
+		private final int[] table;
+
+		private Lookup(final RealLUTConverter<?> converter, final int length) {
+			lut = converter.getLUT();
+			min = converter.getMin();
+			max = converter.getMax();
+			table = new int[length];
+			for (int v = 0; v < length; v++) {
+				table[v] = lut.lookupARGB(min, max, v);
+			}
+		}
+
+		private boolean isFor(final RealLUTConverter<?> converter) {
+			return converter.getLUT() == lut && converter.getMin() == min &&
+				converter.getMax() == max;
+		}
+	}
+
+}
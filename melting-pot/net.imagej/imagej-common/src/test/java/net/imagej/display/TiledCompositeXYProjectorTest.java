@@ -0,0 +1,217 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2017 Board of Regents of the University of
+ * Wisconsin-Madison, Broad Institute of MIT and Harvard, and Max Planck
+ * Institute of Molecular Cell Biology and Genetics.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.display;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import net.imglib2.FinalInterval;
+import net.imglib2.converter.Converter;
+import net.imglib2.converter.RealLUTConverter;
+import net.imglib2.display.ColorTable;
+import net.imglib2.display.projector.composite.CompositeXYProjector;
+import net.imglib2.display.screenimage.awt.ARGBScreenImage;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.type.numeric.ARGBType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.FloatType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.thread.ThreadService;
+
+/**
+ * Tests {@link TiledCompositeXYProjector}.
+ */
+public class TiledCompositeXYProjectorTest {
+
+	private static final int WIDTH = 600, HEIGHT = 500, CHANNELS = 3;
+
+	private Context context;
+
+	private ThreadService threadService;
+
+	@Before
+	public void setUp() {
+		context = new Context(ThreadService.class);
+		threadService = context.service(ThreadService.class);
+	}
+
+	@After
+	public void tearDown() {
+		context.dispose();
+	}
+
+	@Test
+	public void testUnsignedByte() {
+		final Img<UnsignedByteType> img = ArrayImgs.unsignedBytes(WIDTH, HEIGHT,
+			CHANNELS);
+		fill(img);
+		assertMatchesComposite(img, 0, 255);
+	}
+
+	@Test
+	public void testUnsignedShort() {
+		final Img<UnsignedShortType> img = ArrayImgs.unsignedShorts(WIDTH, HEIGHT,
+			CHANNELS);
+		fill(img);
+		assertMatchesComposite(img, 100, 40000);
+	}
+
+	@Test
+	public void testFloat() {
+		final Img<FloatType> img = ArrayImgs.floats(WIDTH, HEIGHT, CHANNELS);
+		fill(img);
+		assertMatchesComposite(img, 0, 1000);
+	}
+
+	@Test
+	public void testMapIfChanged() {
+		final Img<UnsignedByteType> img = ArrayImgs.unsignedBytes(WIDTH, HEIGHT,
+			CHANNELS);
+		fill(img);
+		final ArrayList<Converter<UnsignedByteType, ARGBType>> converters =
+			converters(0, 255);
+		final ARGBScreenImage screen = new ARGBScreenImage(WIDTH, HEIGHT);
+		final TiledCompositeXYProjector<UnsignedByteType> projector =
+			new TiledCompositeXYProjector<>(img, screen, converters, 2,
+				threadService);
+		projector.setComposite(true);
+
+		assertTrue(projector.mapIfChanged());
+		assertFalse(projector.mapIfChanged());
+
+		// a new channel position changes nothing in composite mode
+		projector.setPosition(1, 2);
+		assertFalse(projector.mapIfChanged());
+
+		// a new color table or range does
+		((RealLUTConverter<?>) converters.get(1)).setLUT(ColorTables.MAGENTA);
+		assertTrue(projector.mapIfChanged());
+		((RealLUTConverter<?>) converters.get(1)).setMax(128);
+		assertTrue(projector.mapIfChanged());
+		assertFalse(projector.mapIfChanged());
+
+		// changed source data: only the invalidated rows are rendered
+		final int[] before = screen.getData().clone();
+		fill(img, 7);
+		projector.invalidate(new FinalInterval(new long[] { 0, 10 }, new long[] {
+			WIDTH - 1, 19 }));
+		assertTrue(projector.mapIfChanged());
+		final int[] after = screen.getData();
+		for (int y = 0; y < HEIGHT; y++) {
+			final boolean dirty = y >= 10 && y <= 19;
+			boolean changed = false;
+			for (int x = 0; x < WIDTH; x++) {
+				changed |= before[y * WIDTH + x] != after[y * WIDTH + x];
+			}
+			if (!dirty) assertFalse("row " + y, changed);
+		}
+
+		// ... and match a full render
+		final ARGBScreenImage expected = new ARGBScreenImage(WIDTH, HEIGHT);
+		final CompositeXYProjector<UnsignedByteType> reference =
+			new CompositeXYProjector<>(img, expected, converters, 2);
+		reference.setComposite(true);
+		reference.map();
+		for (int y = 10; y <= 19; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				assertEquals(expected.getData()[y * WIDTH + x], after[y * WIDTH + x]);
+			}
+		}
+	}
+
+	// -- Helper methods --
+
+	private <T extends RealType<T>> void assertMatchesComposite(final Img<T> img,
+		final double min, final double max)
+	{
+		for (final boolean composite : new boolean[] { true, false }) {
+			final ArrayList<Converter<T, ARGBType>> converters = converters(min,
+				max);
+			final ARGBScreenImage expected = new ARGBScreenImage(WIDTH, HEIGHT);
+			final CompositeXYProjector<T> reference = new CompositeXYProjector<>(img,
+				expected, converters, 2);
+			reference.setComposite(composite);
+			reference.setPosition(1, 2);
+			reference.map();
+
+			for (final ThreadService ts : new ThreadService[] { null,
+				threadService })
+			{
+				final ARGBScreenImage actual = new ARGBScreenImage(WIDTH, HEIGHT);
+				final TiledCompositeXYProjector<T> projector =
+					new TiledCompositeXYProjector<>(img, actual, converters, 2, ts);
+				projector.setComposite(composite);
+				projector.setPosition(1, 2);
+				projector.map();
+				assertArrayEquals(expected.getData(), actual.getData());
+			}
+		}
+	}
+
+	private static <T extends RealType<T>> ArrayList<Converter<T, ARGBType>>
+		converters(final double min, final double max)
+	{
+		final ArrayList<Converter<T, ARGBType>> converters = new ArrayList<>();
+		for (int c = 0; c < CHANNELS; c++) {
+			converters.add(new RealLUTConverter<T>(min, max, ColorTables
+				.getDefaultColorTable(c)));
+		}
+		return converters;
+	}
+
+	private static <T extends RealType<T>> void fill(final Img<T> img) {
+		fill(img, 1);
+	}
+
+	private static <T extends RealType<T>> void fill(final Img<T> img,
+		final int seed)
+	{
+		final double range = img.firstElement().getMaxValue() > 65535 ? 1000 : img
+			.firstElement().getMaxValue();
+		long i = seed;
+		for (final T t : img) {
+			i = i * 6364136223846793005L + 1442695040888963407L;
+			t.setReal(((i >>> 33) % (long) (range + 1)));
+		}
+	}
+}
@@ -68,6 +68,9 @@ public abstract class AbstractImageMetadata implements ImageMetadata {
 	/** Cached list of significant (non-trailing length 1) axes. */
 	private transient List<CalibratedAxis> effectiveAxes;
 
+	/** Cached plane geometry; cleared whenever the axes or pixel type change. */
+	private transient PlaneLayout layout;
+
 	/** Width (in pixels) of thumbnail planes in this image. */
 	@Field(label = "thumbSizeX")
 	private long thumbSizeX;
@@ -188,6 +191,7 @@ public abstract class AbstractImageMetadata implements ImageMetadata {
 	@Override
 	public void setPixelType(final int pixelType) {
 		this.pixelType = pixelType;
+		layout = null;
 	}
 
 	@Override
@@ -219,6 +223,7 @@ public abstract class AbstractImageMetadata implements ImageMetadata {
 	@Override
 	public void setInterleavedAxisCount(final int count) {
 		interleavedAxisCount = count;
+		layout = null;
 	}
 
 	@Override
@@ -459,6 +464,16 @@ public abstract class AbstractImageMetadata implements ImageMetadata {
 		return getAxesLengths(getAxesNonPlanar());
 	}
 
+	@Override
+	public PlaneLayout getLayout() {
+		PlaneLayout l = layout;
+		if (l == null) {
+			l = new PlaneLayout(this);
+			layout = l;
+		}
+		return l;
+	}
+
 	@Override
 	public boolean isOrderCertain() {
 		return orderCertain;
@@ -597,7 +612,7 @@ public abstract class AbstractImageMetadata implements ImageMetadata {
 		this.thumbnail = toCopy.isThumbnail();
 		this.thumbSizeX = toCopy.getThumbSizeX();
 		this.thumbSizeY = toCopy.getThumbSizeY();
-		this.planarAxisCount = toCopy.getPlanarAxisCount();
+		setPlanarAxisCount(toCopy.getPlanarAxisCount());
 	}
 
 	@Override
@@ -620,6 +635,7 @@ public abstract class AbstractImageMetadata implements ImageMetadata {
 	{
 		this.name = name;
 		this.axes = new ArrayList<>(axes);
+		clearCachedAxes();
 		setAxisLengths(lengths.clone());
 		this.bitsPerPixel = bitsPerPixel;
 		this.falseColor = falseColor;
@@ -627,6 +643,7 @@ public abstract class AbstractImageMetadata implements ImageMetadata {
 		this.littleEndian = littleEndian;
 		this.orderCertain = orderCertain;
 		this.pixelType = pixelType;
+		layout = null;
 	}
 
 	// -- Named API methods --
@@ -704,13 +721,14 @@ public abstract class AbstractImageMetadata implements ImageMetadata {
 	}
 
 	/**
-	 * Resets the cached planar and non-planar axes. Used after the axes or
-	 * planarAxisCount are modified.
+	 * Resets the cached planar and non-planar axes and the plane layout. Used
+	 * after the axes or planarAxisCount are modified.
 	 */
 	private void clearCachedAxes() {
 		planarAxes = null;
 		extendedAxes = null;
 		effectiveAxes = null;
+		layout = null;
 	}
 
 	private void updateLength(final AxisType axisType, final long value) {
@@ -718,6 +736,7 @@ public abstract class AbstractImageMetadata implements ImageMetadata {
 		// only effectiveAxes needs to be cleared here, because it's the only
 		// cached axis that can be affected by axis lengths.
 		effectiveAxes = null;
+		layout = null;
 	}
 
 	// If spatial == true, returns every non-CHANNEL axis after both X and Y
@@ -30,6 +30,7 @@
 package io.scif;
 
 import io.scif.config.SCIFIOConfig;
+import io.scif.io.AsyncDataHandle;
 import io.scif.util.SCIFIOMetadataTools;
 
 import java.io.IOException;
@@ -39,7 +40,9 @@ import java.util.Set;
 import org.scijava.io.handle.DataHandle;
 import org.scijava.io.handle.DataHandleService;
 import org.scijava.io.location.Location;
+import org.scijava.io.location.RemoteLocation;
 import org.scijava.plugin.Parameter;
+import org.scijava.thread.ThreadService;
 
 /**
  * Abstract superclass of all SCIFIO {@link io.scif.Parser} implementations.
@@ -62,6 +65,9 @@ public abstract class AbstractParser<M extends TypedMetadata> extends
 	@Parameter
 	private DataHandleService handles;
 
+	@Parameter(required = false)
+	private ThreadService threadService;
+
 	// -- Parser API Methods --
 
 	@Override
@@ -213,6 +219,11 @@ public abstract class AbstractParser<M extends TypedMetadata> extends
 				meta.populateImageMetadata();
 				return meta;
 			}
+			if (loc instanceof RemoteLocation && threadService != null) {
+				// let range reads of remote sources overlap
+				handle = new AsyncDataHandle(handles, handle, threadService
+					.getExecutorService());
+			}
 		}
 		return parse(handle, meta, config);
 	}
@@ -30,6 +30,9 @@
 package io.scif;
 
 import io.scif.config.SCIFIOConfig;
+import io.scif.io.AsyncReads;
+import io.scif.io.VectoredRead;
+import io.scif.metrics.MetricsService;
 import io.scif.util.FormatTools;
 import io.scif.util.SCIFIOMetadataTools;
 
@@ -61,6 +64,9 @@ public abstract class AbstractReader<M extends TypedMetadata, P extends DataPlan
 	@Parameter
 	private DataHandleService handles;
 
+	@Parameter
+	private MetricsService metrics;
+
 	/** Metadata for the current image source. */
 	private M metadata;
 
@@ -149,7 +155,7 @@ public abstract class AbstractReader<M extends TypedMetadata, P extends DataPlan
 				"attempting-to-open-an-svs-or-jpeg-2000-file.-what-does-this-mean", e);
 		}
 
-		return openPlane(imageIndex, planeIndex, plane, bounds, config);
+		return openMeteredPlane(imageIndex, planeIndex, plane, bounds, config);
 	}
 
 	@Override
@@ -166,8 +172,8 @@ public abstract class AbstractReader<M extends TypedMetadata, P extends DataPlan
 		final Plane plane, final Interval bounds, final SCIFIOConfig config)
 		throws FormatException, IOException
 	{
-		return openPlane(imageIndex, planeIndex, this.<P> castToTypedPlane(plane),
-			bounds, config);
+		return openMeteredPlane(imageIndex, planeIndex, this
+			.<P> castToTypedPlane(plane), bounds, config);
 	}
 
 	@Override
@@ -268,6 +274,9 @@ public abstract class AbstractReader<M extends TypedMetadata, P extends DataPlan
 				setMetadata(getFormat().createParser().parse(loc, config));
 			}
 			else {
+				if (metrics.isEnabled()) {
+					metrics.count(MetricsService.HANDLE_OPENS, getFormatName(), 1);
+				}
 				setMetadata(getFormat().createParser().parse(stream, config));
 				setSource(stream);
 			}
@@ -353,14 +362,15 @@ public abstract class AbstractReader<M extends TypedMetadata, P extends DataPlan
 	public P openPlane(final int imageIndex, final long planeIndex, final P plane,
 		final SCIFIOConfig config) throws FormatException, IOException
 	{
-		return openPlane(imageIndex, planeIndex, plane, plane.getBounds(), config);
+		return openMeteredPlane(imageIndex, planeIndex, plane, plane.getBounds(),
+			config);
 	}
 
 	@Override
 	public P openPlane(final int imageIndex, final long planeIndex, final P plane,
 		final Interval bounds) throws FormatException, IOException
 	{
-		return openPlane(imageIndex, planeIndex, plane, plane.getBounds(),
+		return openMeteredPlane(imageIndex, planeIndex, plane, plane.getBounds(),
 			new SCIFIOConfig());
 	}
 
@@ -385,21 +395,24 @@ public abstract class AbstractReader<M extends TypedMetadata, P extends DataPlan
 		final Interval bounds, final int scanlinePad, final P plane)
 		throws IOException
 	{
-		final int bpp = FormatTools.getBytesPerPixel(metadata.get(imageIndex)
-			.getPixelType());
+		final PlaneLayout layout = metadata.get(imageIndex).getLayout();
+		final int bpp = layout.getBytesPerPixel();
 
 		final byte[] bytes = plane.getBytes();
-		final int xIndex = metadata.get(imageIndex).getAxisIndex(Axes.X);
-		final int yIndex = metadata.get(imageIndex).getAxisIndex(Axes.Y);
-		if (SCIFIOMetadataTools.wholePlane(imageIndex, metadata, bounds) &&
-			scanlinePad == 0)
-		{
-			s.read(bytes);
+		long bytesRead = 0;
+		long seeks = 0;
+		final int xIndex = layout.getXIndex();
+		final int yIndex = layout.getYIndex();
+		// rows of a sub-region are gathered into one vectored read
+		final VectoredRead reads = new VectoredRead();
+		long pos = s.offset();
+		if (scanlinePad == 0 && layout.isWholePlane(bounds)) {
+			bytesRead += AsyncReads.isAsync(s) ? //
+				AsyncReads.read(s, s.offset(), bytes, 0, bytes.length) : //
+				s.read(bytes);
 		}
-		else if (SCIFIOMetadataTools.wholeRow(imageIndex, metadata, bounds) &&
-			scanlinePad == 0)
-		{
-			if (metadata.get(imageIndex).getInterleavedAxisCount() > 0) {
+		else if (scanlinePad == 0 && layout.isWholeRow(bounds)) {
+			if (layout.isInterleaved()) {
 				int bytesToSkip = bpp;
 				bytesToSkip *= bounds.max(xIndex);
 				int bytesToRead = bytesToSkip;
@@ -414,38 +427,38 @@ public abstract class AbstractReader<M extends TypedMetadata, P extends DataPlan
 						bytesToRead *= bounds.max(i);
 					}
 				}
-				s.skip(bytesToSkip);
-				s.read(bytes, 0, bytesToRead);
+				if (bytesToSkip > 0) {
+					s.skip(bytesToSkip);
+					seeks++;
+				}
+				bytesRead += s.read(bytes, 0, bytesToRead);
 			}
 			else {
 				final int rowLen = (int) (bpp * bounds.max(xIndex));
 				final int h = (int) bounds.max(yIndex);
 				final int y = (int) bounds.min(yIndex);
-				long c = metadata.get(imageIndex).getAxisLength(Axes.CHANNEL);
-				if (c <= 0 || !metadata.get(imageIndex).isMultichannel()) c = 1;
+				final long c = layout.getPlanarChannelCount();
 				for (int channel = 0; channel < c; channel++) {
 
-					s.skipBytes(y * rowLen);
-					s.read(bytes, channel * h * rowLen, h * rowLen);
-					if (channel < c - 1) {
-						// no need to skip bytes after reading final channel
-						s.skipBytes((int) (metadata.get(imageIndex).getAxisLength(Axes.Y) -
-							y - h) * rowLen);
-					}
+					pos += y * rowLen;
+					reads.add(pos, bytes, channel * h * rowLen, h * rowLen);
+					pos += h * rowLen;
+					// skip the rest of the channel
+					pos += (layout.getAxisLength(yIndex) - y - h) * rowLen;
 				}
 			}
 		}
 		else {
-			final int scanlineWidth = (int) metadata.get(imageIndex).getAxisLength(
-				Axes.X) + scanlinePad;
-			if (metadata.get(imageIndex).getInterleavedAxisCount() > 0) {
+			final int scanlineWidth = (int) layout.getAxisLength(xIndex) +
+				scanlinePad;
+			if (layout.isInterleaved()) {
 				long planeProduct = bpp;
 				for (int i = 0; i < bounds.numDimensions(); i++) {
-					if (i != xIndex && i != yIndex) planeProduct *= metadata.get(
-						imageIndex).getAxisLength(i);
+					if (i != xIndex && i != yIndex) planeProduct *= layout.getAxisLength(
+						i);
 				}
 				int bytesToSkip = scanlineWidth * (int) planeProduct;
-				s.skipBytes((int) bounds.min(yIndex) * bytesToSkip);
+				pos += bounds.min(yIndex) * bytesToSkip;
 
 				bytesToSkip = bpp;
 				int bytesToRead = bytesToSkip;
@@ -455,41 +468,41 @@ public abstract class AbstractReader<M extends TypedMetadata, P extends DataPlan
 				bytesToSkip *= planeProduct;
 
 				for (int row = 0; row <= bounds.max(yIndex); row++) {
-					s.skipBytes(bytesToSkip);
-					s.read(bytes, row * bytesToRead, bytesToRead);
-					if (row < bounds.max(yIndex)) {
-						// no need to skip bytes after reading final row
-						s.skipBytes((int) (planeProduct * (scanlineWidth - bounds.dimension(
-							xIndex))));
-					}
+					pos += bytesToSkip;
+					reads.add(pos, bytes, row * bytesToRead, bytesToRead);
+					pos += bytesToRead;
+					pos += planeProduct * (scanlineWidth - bounds.dimension(xIndex));
 				}
 			}
 			else {
-				final long c = metadata.get(imageIndex).getAxisLength(Axes.CHANNEL);
+				final long c = layout.getAxisLength(layout.getChannelIndex());
 
 				final int w = (int) bounds.max(xIndex);
 				final int h = (int) bounds.max(yIndex);
 				final int x = (int) bounds.min(xIndex);
 				final int y = (int) bounds.min(yIndex);
 				for (int channel = 0; channel < c; channel++) {
-					s.skipBytes(y * scanlineWidth * bpp);
+					pos += y * scanlineWidth * bpp;
 					for (int row = 0; row < h; row++) {
-						s.skipBytes(x * bpp);
-						s.read(bytes, channel * w * h * bpp + row * w * bpp, w * bpp);
-						if (row < h - 1 || channel < c - 1) {
-							// no need to skip bytes after reading final row of
-							// final channel
-							s.skipBytes(bpp * (scanlineWidth - w - x));
-						}
-					}
-					if (channel < c - 1) {
-						// no need to skip bytes after reading final channel
-						s.skipBytes(scanlineWidth * bpp * (int) (metadata.get(imageIndex)
-							.getAxisLength(Axes.Y) - y - h));
+						pos += x * bpp;
+						reads.add(pos, bytes, channel * w * h * bpp + row * w * bpp, w *
+							bpp);
+						pos += w * bpp;
+						pos += bpp * (scanlineWidth - w - x);
 					}
+					pos += scanlineWidth * bpp * (layout.getAxisLength(yIndex) - y - h);
 				}
 			}
 		}
+		if (reads.getRangeCount() > 0) {
+			bytesRead += reads.read(s);
+			seeks += reads.getSeekCount();
+		}
+		if (metrics.isEnabled()) {
+			final String key = getFormatName();
+			metrics.count(MetricsService.BYTES_READ, key, bytesRead);
+			metrics.count(MetricsService.SEEKS, key, seeks);
+		}
 		return plane;
 	}
 
@@ -508,4 +521,28 @@ public abstract class AbstractReader<M extends TypedMetadata, P extends DataPlan
 			metadata = null;
 		}
 	}
+
+	// -- Helper methods --
+
+	/**
+	 * Delegates to the format-specific
+	 * {@link #openPlane(int, long, DataPlane, Interval, SCIFIOConfig)},
+	 * recording the opened plane and the time taken with the
+	 * {@link MetricsService}.
+	 */
+	private P openMeteredPlane(final int imageIndex, final long planeIndex,
+		final P plane, final Interval bounds, final SCIFIOConfig config)
+		throws FormatException, IOException
+	{
+		if (!metrics.isEnabled()) {
+			return openPlane(imageIndex, planeIndex, plane, bounds, config);
+		}
+		final long start = System.nanoTime();
+		final P result = openPlane(imageIndex, planeIndex, plane, bounds, config);
+		final long elapsed = System.nanoTime() - start;
+		final String key = getFormatName();
+		metrics.record(MetricsService.OPEN_TIME, key, elapsed);
+		metrics.count(MetricsService.PLANES_OPENED, key, 1);
+		return result;
+	}
 }
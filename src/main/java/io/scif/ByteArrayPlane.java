@@ -29,6 +29,7 @@
 
 package io.scif;
 
+import io.scif.util.ByteArrayPool;
 import io.scif.util.FormatTools;
 
 import net.imglib2.Interval;
@@ -38,6 +39,10 @@ import org.scijava.util.ArrayUtils;
 /**
  * A naive {@link io.scif.Plane} implementation that uses {@code byte[]} for its
  * underlying data type.
+ * <p>
+ * Blank planes draw their arrays from the {@link ByteArrayPool#getShared()
+ * shared pool}, and {@link #close()} returns them.
+ * </p>
  *
  * @see io.scif.Plane
  * @see io.scif.DataPlane
@@ -45,6 +50,11 @@ import org.scijava.util.ArrayUtils;
  */
 public class ByteArrayPlane extends AbstractPlane<byte[], ByteArrayPlane> {
 
+	// -- Fields --
+
+	/** Array taken from the pool by {@link #blankPlane}, if any. */
+	private byte[] pooled;
+
 	// -- Constructor --
 	
 	public ByteArrayPlane() {
@@ -63,12 +73,38 @@ public class ByteArrayPlane extends AbstractPlane<byte[], ByteArrayPlane> {
 		return getData();
 	}
 
+	/**
+	 * Sets this plane's data to an array taken from the
+	 * {@link ByteArrayPool#getShared() shared pool}. Unlike {@link #setData},
+	 * {@link #close()} returns the array to the pool.
+	 *
+	 * @param data Array taken from the shared pool.
+	 * @return This plane, for chaining.
+	 */
+	public ByteArrayPlane setPooledData(final byte[] data) {
+		setData(data);
+		pooled = data;
+		return this;
+	}
+
+	/**
+	 * Returns this plane's array to the shared pool, if the array came from the
+	 * pool and is still this plane's data. Arrays supplied through
+	 * {@link #setData} belong to the caller and are left alone.
+	 */
+	@Override
+	public void close() {
+		if (pooled != null && getData() == pooled) {
+			setData(null);
+			ByteArrayPool.getShared().give(pooled);
+		}
+		pooled = null;
+	}
+
 	// -- AbstractPlane API --
 
 	@Override
 	protected byte[] blankPlane(final Interval bounds) {
-		byte[] buf = null;
-
 		final long[] sizes = new long[bounds.numDimensions() + 1];
 		for (int i = 0; i < sizes.length - 1; i++) {
 			sizes[i] = bounds.dimension(i);
@@ -76,7 +112,7 @@ public class ByteArrayPlane extends AbstractPlane<byte[], ByteArrayPlane> {
 		sizes[sizes.length - 1] = FormatTools.getBytesPerPixel(getImageMetadata()
 			.getPixelType());
 
-		buf = ArrayUtils.allocate(sizes);
-		return buf;
+		pooled = ByteArrayPool.getShared().take(ArrayUtils.safeMultiply32(sizes));
+		return pooled;
 	}
 }
@@ -29,15 +29,33 @@
 
 package io.scif;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.Vector;
-
-import org.scijava.util.StringUtils;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Default {@link MetaTable} implementation. Provides a copying constructor and
  * a {@link #putList(String, Object)} implementation.
+ * <p>
+ * Keys are trimmed and interned, so the many tables of a large dataset share
+ * one copy of each key. When filtering is enabled, keys are sanitized as they
+ * are put, since they decide which entry a value replaces; string values are
+ * stored raw and only sanitized the first time the table is read or
+ * serialized, so parsers that populate tables nobody looks at never pay for
+ * it. Short sanitized string values are interned as well, as the same values
+ * recur across the planes and series of a dataset.
+ * </p>
+ * <p>
+ * As with {@link HashMap}, a table may be read from several threads once it
+ * has been populated; the first read sanitizes the pending values under a
+ * lock.
+ * </p>
  *
  * @see MetaTable
  * @author Mark Hiner
@@ -46,10 +64,27 @@ public class DefaultMetaTable extends HashMap<String, Object> implements
 	MetaTable
 {
 
+	// -- Constants --
+
+	private static final long serialVersionUID = 1L;
+
+	/** Maximum length of a key or string value in a filtered table. */
+	private static final int MAX_LENGTH = 8192;
+
+	/** Maximum length of a string value that is interned. */
+	private static final int MAX_INTERNED_LENGTH = 32;
+
+	/** Sequences removed from filtered entries to prevent XML parsing errors. */
+	private static final String[] INVALID_SEQUENCES = { "&lt;", "&gt;", "&amp;",
+		"<", ">", "&" };
+
 	// -- Fields --
 
 	private boolean filtered;
 
+	/** Number of values stored as {@link Unsanitized}. */
+	private transient volatile int unsanitized;
+
 	// -- Constructors --
 
 	public DefaultMetaTable() {
@@ -74,7 +109,9 @@ public class DefaultMetaTable extends HashMap<String, Object> implements
 	// -- MetaTable API Methods --
 
 	@Override
-	public void putList(final String key, final Object value) {
+	public void putList(String key, final Object value) {
+		if (key == null || value == null) return;
+		key = key.trim();
 		Object list = get(key);
 
 		if (list == null) list = new Vector<>();
@@ -95,52 +132,341 @@ public class DefaultMetaTable extends HashMap<String, Object> implements
 	}
 
 	@Override
-	public Object put(String key, Object value) {
+	public Object put(final String key, final Object value) {
 		if (key == null || value == null /* || TODO !isMetadataCollected() */) {
 			return null;
 		}
 
-		key = key.trim();
+		if (filtered) return putFiltered(key, value);
+
+		return super.put(key.trim().intern(), value instanceof Character ? String
+			.valueOf(value) : value);
+	}
+
+	// -- Map API Methods --
+
+	@Override
+	public Object get(final Object key) {
+		sanitize();
+		return super.get(key);
+	}
+
+	@Override
+	public Object getOrDefault(final Object key, final Object defaultValue) {
+		sanitize();
+		return super.getOrDefault(key, defaultValue);
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		sanitize();
+		return super.containsKey(key);
+	}
+
+	@Override
+	public boolean containsValue(final Object value) {
+		sanitize();
+		return super.containsValue(value);
+	}
+
+	@Override
+	public int size() {
+		sanitize();
+		return super.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		sanitize();
+		return super.isEmpty();
+	}
+
+	@Override
+	public Set<String> keySet() {
+		sanitize();
+		return super.keySet();
+	}
+
+	@Override
+	public Collection<Object> values() {
+		sanitize();
+		return super.values();
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		sanitize();
+		return super.entrySet();
+	}
+
+	@Override
+	public Object remove(final Object key) {
+		sanitize();
+		return super.remove(key);
+	}
+
+	@Override
+	public boolean remove(final Object key, final Object value) {
+		sanitize();
+		return super.remove(key, value);
+	}
+
+	@Override
+	public Object putIfAbsent(final String key, final Object value) {
+		sanitize();
+		return super.putIfAbsent(key, value);
+	}
+
+	@Override
+	public Object replace(final String key, final Object value) {
+		sanitize();
+		return super.replace(key, value);
+	}
+
+	@Override
+	public boolean replace(final String key, final Object oldValue,
+		final Object newValue)
+	{
+		sanitize();
+		return super.replace(key, oldValue, newValue);
+	}
+
+	@Override
+	public Object computeIfAbsent(final String key,
+		final Function<? super String, ? extends Object> mappingFunction)
+	{
+		sanitize();
+		return super.computeIfAbsent(key, mappingFunction);
+	}
+
+	@Override
+	public Object computeIfPresent(final String key,
+		final BiFunction<? super String, ? super Object, ? extends Object> remappingFunction)
+	{
+		sanitize();
+		return super.computeIfPresent(key, remappingFunction);
+	}
+
+	@Override
+	public Object compute(final String key,
+		final BiFunction<? super String, ? super Object, ? extends Object> remappingFunction)
+	{
+		sanitize();
+		return super.compute(key, remappingFunction);
+	}
+
+	@Override
+	public Object merge(final String key, final Object value,
+		final BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction)
+	{
+		sanitize();
+		return super.merge(key, value, remappingFunction);
+	}
+
+	@Override
+	public void forEach(final BiConsumer<? super String, ? super Object> action) {
+		sanitize();
+		super.forEach(action);
+	}
+
+	@Override
+	public void replaceAll(
+		final BiFunction<? super String, ? super Object, ? extends Object> function)
+	{
+		sanitize();
+		super.replaceAll(function);
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		unsanitized = 0;
+	}
+
+	@Override
+	public Object clone() {
+		sanitize();
+		return super.clone();
+	}
+
+	// -- Serialization --
+
+	/** Ensures pending values are sanitized before this table is serialized. */
+	private Object writeReplace() {
+		sanitize();
+		return this;
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Stores the given entry if it survives filtering: only simple values with
+	 * printable, reasonably sized keys and values that contain no XML markup.
+	 * String values are held raw until the table is next read.
+	 *
+	 * @return The previous value of the sanitized key, or null if the entry was
+	 *         filtered out.
+	 */
+	private Object putFiltered(final String key, final Object value) {
+		final String k = sanitizeKey(key);
+		if (k == null) return null;
 
 		final boolean string = value instanceof String ||
 			value instanceof Character;
-		final boolean simple = string || value instanceof Number ||
-			value instanceof Boolean;
-
-		// string value, if passed in value is a string
-		String val = string ? String.valueOf(value) : null;
-
-		if (filtered) {
-			// filter out complex data types
-			if (!simple) return null;
-
-			// verify key & value are reasonable length
-			final int maxLen = 8192;
-			if (key.length() > maxLen) return null;
-			if (string && val.length() > maxLen) return null;
-
-			// remove all non-printable characters
-			key = StringUtils.sanitize(key);
-			if (string) val = StringUtils.sanitize(val);
-
-			// verify key contains at least one alphabetic character
-			if (!key.matches(".*[a-zA-Z].*")) return null;
-
-			// remove &lt;, &gt; and &amp; to prevent XML parsing errors
-			final String[] invalidSequences = new String[] { "&lt;", "&gt;", "&amp;",
-				"<", ">", "&" };
-			for (final String invalidSequence : invalidSequences) {
-				key = key.replaceAll(invalidSequence, "");
-				if (string) val = val.replaceAll(invalidSequence, "");
+
+		// filter out complex data types
+		if (!string && !(value instanceof Number) && !(value instanceof Boolean)) {
+			return null;
+		}
+
+		// the previous value is only known once a pending value is sanitized
+		Object previous = super.get(k);
+		if (previous instanceof Unsanitized) {
+			unsanitized--;
+			previous = ((Unsanitized) previous).resolve();
+		}
+
+		if (!string) {
+			super.put(k, value);
+			return previous;
+		}
+		super.put(k, new Unsanitized(String.valueOf(value), previous));
+		unsanitized++;
+		return previous;
+	}
+
+	/** Sanitizes any pending string values, dropping those that are invalid. */
+	private void sanitize() {
+		if (unsanitized == 0) return;
+		synchronized (this) {
+			if (unsanitized == 0) return;
+			final Iterator<Map.Entry<String, Object>> entries = super.entrySet()
+				.iterator();
+			while (entries.hasNext()) {
+				final Map.Entry<String, Object> entry = entries.next();
+				if (!(entry.getValue() instanceof Unsanitized)) continue;
+				final Object value = ((Unsanitized) entry.getValue()).resolve();
+				if (value == null) entries.remove();
+				else entry.setValue(value);
 			}
+			unsanitized = 0;
+		}
+	}
+
+	/**
+	 * Trims and sanitizes a key.
+	 *
+	 * @return The interned key, or null if it is filtered out.
+	 */
+	private static String sanitizeKey(String key) {
+		key = key.trim();
+
+		// verify key is reasonable length
+		if (key.length() > MAX_LENGTH) return null;
+
+		// remove all non-printable characters
+		key = stripNonPrintable(key);
+
+		// verify key contains at least one alphabetic character
+		if (!hasLetter(key)) return null;
+
+		// remove &lt;, &gt; and &amp; to prevent XML parsing errors
+		key = removeInvalidSequences(key);
 
-			// verify key & value are not empty
-			if (key.length() == 0) return null;
-			if (string && val.trim().length() == 0) return null;
+		// verify key is not empty
+		if (key.length() == 0) return null;
 
-			if (string) value = val;
+		return key.intern();
+	}
+
+	/**
+	 * Sanitizes a string value.
+	 *
+	 * @return The sanitized value, or null if it is filtered out.
+	 */
+	private static String sanitizeValue(String val) {
+		// verify value is reasonable length
+		if (val.length() > MAX_LENGTH) return null;
+
+		// remove all non-printable characters
+		val = stripNonPrintable(val);
+
+		// remove &lt;, &gt; and &amp; to prevent XML parsing errors
+		val = removeInvalidSequences(val);
+
+		// verify value is not empty
+		if (val.trim().length() == 0) return null;
+
+		return val.length() <= MAX_INTERNED_LENGTH ? val.intern() : val;
+	}
+
+	/**
+	 * As {@link org.scijava.util.StringUtils#sanitize(String)}, but returns the
+	 * given string itself when there is nothing to remove.
+	 */
+	private static String stripNonPrintable(final String s) {
+		final int length = s.length();
+		int i = 0;
+		while (i < length && printable(s.charAt(i)))
+			i++;
+		if (i == length) return s;
+
+		final StringBuilder sb = new StringBuilder(length - 1);
+		sb.append(s, 0, i);
+		for (; i < length; i++) {
+			final char c = s.charAt(i);
+			if (printable(c)) sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	private static boolean printable(final char c) {
+		return c == '\t' || c == '\n' || (c >= ' ' && c <= '~');
+	}
+
+	private static boolean hasLetter(final String s) {
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) return true;
 		}
+		return false;
+	}
+
+	/**
+	 * Removes each of {@link #INVALID_SEQUENCES} in turn, skipping the work
+	 * entirely for the common case of a string with no markup characters.
+	 */
+	private static String removeInvalidSequences(String s) {
+		if (s.indexOf('&') < 0 && s.indexOf('<') < 0 && s.indexOf('>') < 0) {
+			return s;
+		}
+		for (final String invalidSequence : INVALID_SEQUENCES) {
+			s = s.replace(invalidSequence, "");
+		}
+		return s;
+	}
+
+	// -- Helper classes --
 
-		return super.put(key, val == null ? value : val);
+	/**
+	 * A string value awaiting sanitization, along with the value it replaced,
+	 * which stays in effect if this one is filtered out.
+	 */
+	private static final class Unsanitized {
+
+		private final String raw;
+
+		private final Object replaced;
+
+		private Unsanitized(final String raw, final Object replaced) {
+			this.raw = raw;
+			this.replaced = replaced;
+		}
+
+		/** Gets the value in effect for this entry, or null if there is none. */
+		private Object resolve() {
+			final String value = sanitizeValue(raw);
+			return value == null ? replaced : value;
+		}
 	}
 }
@@ -372,6 +372,15 @@ public interface ImageMetadata extends Named, HasMetaTable {
 	 */
 	long[] getAxesLengthsNonPlanar();
 
+	/**
+	 * Returns a precomputed snapshot of this image's plane geometry. The same
+	 * instance is returned until this metadata is modified, making it suitable
+	 * for per-plane and per-pixel code paths.
+	 *
+	 * @return The current {@link PlaneLayout} of this image
+	 */
+	PlaneLayout getLayout();
+
 	// TODO: Consider typing rois and tables on more specific data structures.
 
 	/** Retrieves the ROIs associated with this image. */
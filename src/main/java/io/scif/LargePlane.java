@@ -0,0 +1,89 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif;
+
+import io.scif.util.FormatTools;
+import io.scif.util.LargeByteBuffer;
+
+import net.imglib2.Interval;
+
+/**
+ * A {@link io.scif.Plane} implementation that stores its data off-heap in a
+ * {@link LargeByteBuffer}, indexed by {@code long}. Use it for planes whose
+ * size exceeds what a {@code byte[]} can hold.
+ *
+ * @see io.scif.LargePlaneReader
+ * @see io.scif.util.LargeByteBuffer
+ */
+public class LargePlane extends AbstractPlane<LargeByteBuffer, LargePlane> {
+
+	// -- Constructor --
+
+	public LargePlane() {
+		super();
+	}
+
+	public LargePlane(final ImageMetadata meta, final Interval bounds) {
+		super(meta, bounds);
+	}
+
+	// -- LargePlane API methods --
+
+	/** Gets the size of this plane's data in bytes. */
+	public long getSize() {
+		return getData().capacity();
+	}
+
+	// -- Plane API methods --
+
+	/**
+	 * Gets a copy of this plane's data. Changes to the returned array are not
+	 * reflected in the plane.
+	 *
+	 * @throws UnsupportedOperationException if the plane does not fit in a
+	 *           {@code byte[]}; use {@link #getData()} instead
+	 */
+	@Override
+	public byte[] getBytes() {
+		return getData().toArray();
+	}
+
+	// -- AbstractPlane API --
+
+	@Override
+	protected LargeByteBuffer blankPlane(final Interval bounds) {
+		long size = FormatTools.getBytesPerPixel(getImageMetadata()
+			.getPixelType());
+		for (int i = 0; i < bounds.numDimensions(); i++) {
+			size *= bounds.dimension(i);
+		}
+		return new LargeByteBuffer(size);
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif;
+
+import io.scif.util.LargeByteBuffer;
+
+import java.io.IOException;
+
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
+
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.location.Location;
+
+/**
+ * A {@link Reader} that can read planes into off-heap {@link LargePlane}s,
+ * including planes larger than {@link Integer#MAX_VALUE} bytes.
+ * <p>
+ * Large planes bypass reader filters, which work on arrays; given a
+ * {@link io.scif.filters.ReaderFilter}, use its
+ * {@link io.scif.filters.ReaderFilter#getTail() tail}.
+ * </p>
+ *
+ * @see io.scif.LargePlane
+ */
+public interface LargePlaneReader extends Reader {
+
+	/**
+	 * Reads the given region of a plane into a new {@link LargePlane}.
+	 *
+	 * @param imageIndex the image index within the dataset.
+	 * @param planeIndex the plane index within the image.
+	 * @param bounds bounds of the planar axes.
+	 * @return The requested region, stored off-heap.
+	 * @throws FormatException if the plane cannot be read this way, e.g.
+	 *           because it is compressed.
+	 */
+	LargePlane openLargePlane(int imageIndex, long planeIndex, Interval bounds)
+		throws FormatException, IOException;
+
+	/** As {@link #openLargePlane(int, long, Interval)} for a whole plane. */
+	default LargePlane openLargePlane(final int imageIndex,
+		final long planeIndex) throws FormatException, IOException
+	{
+		return openLargePlane(imageIndex, planeIndex, new FinalInterval(
+			getMetadata().get(imageIndex).getAxesLengthsPlanar()));
+	}
+
+	/**
+	 * Reads an uncompressed plane region into the given {@link LargePlane}, as
+	 * {@link #readPlane(DataHandle, int, Interval, Plane)} does for arrays.
+	 * <p>
+	 * NB Presumes that the source stream {@code s} is set to the correct offset,
+	 * i.e. start of the plane
+	 * </p>
+	 */
+	default LargePlane readLargePlane(final DataHandle<Location> s,
+		final int imageIndex, final Interval bounds, final LargePlane plane)
+		throws IOException
+	{
+		final PlaneLayout layout = getMetadata().get(imageIndex).getLayout();
+		final long[] lengths = layout.getAxesLengthsPlanar();
+		final int n = lengths.length;
+
+		// byte strides of the planar axes in the source
+		final long[] strides = new long[n];
+		long stride = layout.getBytesPerPixel();
+		for (int i = 0; i < n; i++) {
+			strides[i] = stride;
+			stride *= lengths[i];
+		}
+
+		// leading axes read in full, plus the first partial axis, are one run
+		int k = 0;
+		while (k < n && bounds.min(k) == 0 && bounds.dimension(k) == lengths[k]) {
+			k++;
+		}
+		final long run = k < n ? strides[k] * bounds.dimension(k) : stride;
+
+		final LargeByteBuffer buf = plane.getData();
+		final long start = s.offset();
+		final long[] pos = new long[n];
+		for (int i = k + 1; i < n; i++) {
+			pos[i] = bounds.min(i);
+		}
+		long dest = 0;
+		while (true) {
+			long src = start;
+			if (k < n) src += bounds.min(k) * strides[k];
+			for (int i = k + 1; i < n; i++) {
+				src += pos[i] * strides[i];
+			}
+			s.seek(src);
+			buf.read(s, dest, run);
+			dest += run;
+
+			// advance to the next run
+			int i = k + 1;
+			while (i < n && pos[i] == bounds.max(i)) {
+				pos[i] = bounds.min(i);
+				i++;
+			}
+			if (i >= n) break;
+			pos[i]++;
+		}
+		return plane;
+	}
+}
@@ -30,10 +30,29 @@
 package io.scif;
 
 /**
+ * Amount of metadata a {@link Parser} should populate, from least to most.
+ * <p>
+ * {@link #DIMENSIONS} is the strictest level: parsers which list it in
+ * {@link Parser#getSupportedMetadataLevels()} read only the bytes needed to
+ * describe each image's axes, lengths and pixel type. They may skip original
+ * metadata, lookup tables and pixel offset scans at this level, so metadata
+ * parsed this way may need to be re-parsed at {@link #MINIMUM} or above before
+ * planes can be read. Other parsers treat it like {@link #MINIMUM}.
+ * </p>
+ *
  * @author Chris Allan
  */
 public enum MetadataLevel {
 
-		MINIMUM, NO_OVERLAYS, ALL;
+	DIMENSIONS, MINIMUM, NO_OVERLAYS, ALL;
+
+	/**
+	 * @param level Level to compare against.
+	 * @return True iff this level requests at least as much metadata as the
+	 *         given level.
+	 */
+	public boolean includes(final MetadataLevel level) {
+		return compareTo(level) >= 0;
+	}
 
 }
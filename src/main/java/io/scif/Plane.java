@@ -45,11 +45,18 @@ import org.scijava.Contextual;
  * <p>
  * This interface guarantees that a Plane will have a ColorTable, and the pixel
  * data of a Plane can ultimately be converted to a byte[].
+ * </p>
+ * <p>
+ * Planes may be opened with try-with-resources; closing a plane lets its
+ * buffer be reused for later planes. Only close planes you own, i.e. planes
+ * created with {@link Reader#createPlane}: a plane returned by a
+ * {@link Reader} may be one the reader keeps and reuses.
+ * </p>
  *
  * @see net.imglib2.display.ColorTable
  * @author Mark Hiner
  */
-public interface Plane {
+public interface Plane extends AutoCloseable {
 
 	/**
 	 * Sets the ColorTable for this plane. ColorTables are used for indexed color
@@ -140,4 +147,14 @@ public interface Plane {
 	 * Sets this plane's bounds relative to the underlying image.
 	 */
 	void setBounds(Interval bounds);
+
+	/**
+	 * Releases this plane's buffer for reuse. The plane's data must not be
+	 * used afterwards. Closing is optional: planes that are never closed are
+	 * simply garbage collected. The default implementation does nothing.
+	 */
+	@Override
+	default void close() {
+		// nothing to release
+	}
 }
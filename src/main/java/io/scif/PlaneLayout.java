@@ -0,0 +1,330 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif;
+
+import io.scif.util.FormatTools;
+
+import java.util.List;
+
+import net.imagej.axis.Axes;
+import net.imagej.axis.AxisType;
+import net.imagej.axis.CalibratedAxis;
+import net.imglib2.Interval;
+
+/**
+ * Immutable snapshot of the plane geometry of an {@link ImageMetadata}: axis
+ * order and lengths, the planar/non-planar split, non-planar strides, bytes
+ * per pixel and interleaving.
+ * <p>
+ * {@link ImageMetadata#getLayout()} caches a layout until the metadata is
+ * next modified, so per-plane code can query it without re-walking the axis
+ * lists or repeating type lookups. A layout never changes after construction;
+ * callers that modify the metadata must fetch a new one.
+ * </p>
+ */
+public final class PlaneLayout {
+
+	// -- Fields --
+
+	private final AxisType[] types;
+
+	private final long[] lengths;
+
+	private final int planarAxisCount;
+
+	private final int interleavedAxisCount;
+
+	/** Raster stride of each non-planar axis. */
+	private final long[] strides;
+
+	private final long planeCount;
+
+	private final int pixelType;
+
+	/** Bytes per pixel, or 0 if the pixel type is unknown. */
+	private final int bytesPerPixel;
+
+	private final int xIndex;
+
+	private final int yIndex;
+
+	private final int channelIndex;
+
+	private final boolean multichannel;
+
+	// -- Constructor --
+
+	public PlaneLayout(final ImageMetadata meta) {
+		final List<CalibratedAxis> axes = meta.getAxes();
+		final int n = axes.size();
+		types = new AxisType[n];
+		lengths = new long[n];
+		for (int i = 0; i < n; i++) {
+			types[i] = axes.get(i).type();
+			lengths[i] = meta.getAxisLength(axes.get(i));
+		}
+		planarAxisCount = Math.min(meta.getPlanarAxisCount(), n);
+		interleavedAxisCount = meta.getInterleavedAxisCount();
+
+		strides = new long[n - planarAxisCount];
+		long count = 1;
+		for (int i = 0; i < strides.length; i++) {
+			strides[i] = count;
+			count *= lengths[planarAxisCount + i];
+		}
+		planeCount = count;
+
+		pixelType = meta.getPixelType();
+		int bpp = 0;
+		try {
+			bpp = FormatTools.getBytesPerPixel(pixelType);
+		}
+		catch (final IllegalArgumentException e) {
+			// Reported by getBytesPerPixel() if ever asked for
+		}
+		bytesPerPixel = bpp;
+
+		xIndex = indexOf(Axes.X);
+		yIndex = indexOf(Axes.Y);
+		channelIndex = indexOf(Axes.CHANNEL);
+		multichannel = channelIndex >= 0 && channelIndex < planarAxisCount;
+	}
+
+	// -- PlaneLayout API methods --
+
+	/** @return the number of (effective) axes in the image */
+	public int getAxisCount() {
+		return types.length;
+	}
+
+	/** @return the type of the axis at the given index */
+	public AxisType getAxisType(final int axisIndex) {
+		return types[axisIndex];
+	}
+
+	/**
+	 * @return the index of the first axis of the given type, or -1 if the image
+	 *         has no such axis
+	 */
+	public int getAxisIndex(final AxisType axisType) {
+		if (axisType == Axes.X) return xIndex;
+		if (axisType == Axes.Y) return yIndex;
+		if (axisType == Axes.CHANNEL) return channelIndex;
+		return indexOf(axisType);
+	}
+
+	/**
+	 * @return the length of the axis at the given index, or 1 if the index is
+	 *         out of range
+	 */
+	public long getAxisLength(final int axisIndex) {
+		if (axisIndex < 0 || axisIndex >= lengths.length) return 1;
+		return lengths[axisIndex];
+	}
+
+	/** @return the length of the given axis type, or 1 if it is not present */
+	public long getAxisLength(final AxisType axisType) {
+		return getAxisLength(getAxisIndex(axisType));
+	}
+
+	/** @return a copy of the lengths of all axes */
+	public long[] getAxesLengths() {
+		return lengths.clone();
+	}
+
+	/** @return the number of axes that make up a single plane */
+	public int getPlanarAxisCount() {
+		return planarAxisCount;
+	}
+
+	/** @return the number of axes that enumerate planes */
+	public int getNonPlanarAxisCount() {
+		return strides.length;
+	}
+
+	/** @return the length of the given planar axis */
+	public long getPlanarLength(final int planarIndex) {
+		return lengths[planarIndex];
+	}
+
+	/** @return the length of the given non-planar axis */
+	public long getNonPlanarLength(final int nonPlanarIndex) {
+		return lengths[planarAxisCount + nonPlanarIndex];
+	}
+
+	/**
+	 * @return the distance in plane indices between consecutive positions of
+	 *         the given non-planar axis
+	 */
+	public long getNonPlanarStride(final int nonPlanarIndex) {
+		return strides[nonPlanarIndex];
+	}
+
+	/** @return a copy of the planar axis lengths */
+	public long[] getAxesLengthsPlanar() {
+		final long[] planar = new long[planarAxisCount];
+		System.arraycopy(lengths, 0, planar, 0, planar.length);
+		return planar;
+	}
+
+	/** @return a copy of the non-planar axis lengths */
+	public long[] getAxesLengthsNonPlanar() {
+		final long[] nonPlanar = new long[strides.length];
+		System.arraycopy(lengths, planarAxisCount, nonPlanar, 0, nonPlanar.length);
+		return nonPlanar;
+	}
+
+	/** @return the number of planes in the image */
+	public long getPlaneCount() {
+		return planeCount;
+	}
+
+	/** @return the pixel type, as enumerated in {@link FormatTools} */
+	public int getPixelType() {
+		return pixelType;
+	}
+
+	/**
+	 * @return the number of bytes per pixel
+	 * @throws IllegalArgumentException if the pixel type is unknown
+	 */
+	public int getBytesPerPixel() {
+		if (bytesPerPixel == 0) {
+			throw new IllegalArgumentException("Unknown pixel type: " + pixelType);
+		}
+		return bytesPerPixel;
+	}
+
+	/** @return the number of interleaved axes */
+	public int getInterleavedAxisCount() {
+		return interleavedAxisCount;
+	}
+
+	/** @return true if any axis precedes X and Y in storage order */
+	public boolean isInterleaved() {
+		return interleavedAxisCount > 0;
+	}
+
+	/** @return index of the X axis, or -1 */
+	public int getXIndex() {
+		return xIndex;
+	}
+
+	/** @return index of the Y axis, or -1 */
+	public int getYIndex() {
+		return yIndex;
+	}
+
+	/** @return index of the CHANNEL axis, or -1 */
+	public int getChannelIndex() {
+		return channelIndex;
+	}
+
+	/** @return true if CHANNEL is a planar axis */
+	public boolean isMultichannel() {
+		return multichannel;
+	}
+
+	/**
+	 * @return the number of channels stored within each plane: the CHANNEL
+	 *         length if {@link #isMultichannel()}, otherwise 1
+	 */
+	public long getPlanarChannelCount() {
+		return multichannel ? Math.max(1, lengths[channelIndex]) : 1;
+	}
+
+	/**
+	 * Converts a position along the non-planar axes to a plane index, as
+	 * {@link FormatTools#positionToRaster(long[], long[])}.
+	 */
+	public long positionToRaster(final long[] position) {
+		long raster = 0;
+		for (int i = 0; i < position.length; i++) {
+			raster += strides[i] * position[i];
+		}
+		return raster;
+	}
+
+	/**
+	 * Converts a plane index to a position along the non-planar axes, storing
+	 * the result in the given array.
+	 *
+	 * @return {@code position}
+	 */
+	public long[] rasterToPosition(long raster, final long[] position) {
+		for (int i = position.length - 1; i > 0; i--) {
+			position[i] = strides[i] == 0 ? 0 : raster / strides[i];
+			raster -= position[i] * strides[i];
+		}
+		if (position.length > 0) position[0] = raster;
+		return position;
+	}
+
+	/**
+	 * @return true if the given planar bounds cover every axis except Y
+	 *         completely
+	 */
+	public boolean isWholeRow(final Interval bounds) {
+		for (int d = 0; d < bounds.numDimensions(); d++) {
+			if (d == yIndex) continue;
+			if (bounds.min(d) != 0 || bounds.dimension(d) != getAxisLength(d)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** @return true if the given planar bounds cover a complete plane */
+	public boolean isWholePlane(final Interval bounds) {
+		return isWholeRow(bounds) && bounds.min(yIndex) == 0 && bounds.max(
+			yIndex) == getAxisLength(yIndex) - 1;
+	}
+
+	// -- Object API --
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("PlaneLayout[");
+		for (int i = 0; i < types.length; i++) {
+			if (i > 0) sb.append(i == planarAxisCount ? " | " : ", ");
+			sb.append(types[i].getLabel()).append('=').append(lengths[i]);
+		}
+		return sb.append(']').toString();
+	}
+
+	// -- Helper methods --
+
+	private int indexOf(final AxisType axisType) {
+		for (int i = 0; i < types.length; i++) {
+			if (types[i].equals(axisType)) return i;
+		}
+		return -1;
+	}
+}
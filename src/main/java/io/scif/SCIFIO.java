@@ -36,6 +36,7 @@ import io.scif.formats.tiff.TiffService;
 import io.scif.gui.GUIService;
 import io.scif.img.ImgUtilityService;
 import io.scif.img.converters.PlaneConverterService;
+import io.scif.metrics.MetricsService;
 import io.scif.services.DatasetIOService;
 import io.scif.services.FilePatternService;
 import io.scif.services.FormatService;
@@ -165,6 +166,15 @@ public class SCIFIO extends AbstractGateway {
 		return get(MetadataService.class);
 	}
 
+	/**
+	 * Gets this application context's {@link MetricsService}.
+	 *
+	 * @return The {@link MetricsService} of this application context.
+	 */
+	public MetricsService metrics() {
+		return get(MetricsService.class);
+	}
+
 	/**
 	 * Gets this application context's {@link NIOService}.
 	 *
@@ -31,6 +31,7 @@ package io.scif.codec;
 
 import io.scif.AbstractSCIFIOPlugin;
 import io.scif.FormatException;
+import io.scif.metrics.MetricsService;
 
 import java.io.IOException;
 import java.util.Random;
@@ -57,6 +58,9 @@ public abstract class AbstractCodec extends AbstractSCIFIOPlugin implements
 	@Parameter
 	private DataHandleService handles;
 
+	@Parameter
+	private MetricsService metrics;
+
 	// -- BaseCodec API methods --
 
 	/**
@@ -170,7 +174,13 @@ public abstract class AbstractCodec extends AbstractSCIFIOPlugin implements
 		throws FormatException
 	{
 		try (DataHandle<Location> handle = handles.create(new BytesLocation(data))) {
-			return decompress(handle, options);
+			if (!metrics.isEnabled()) return decompress(handle, options);
+			final long start = System.nanoTime();
+			final byte[] decompressed = decompress(handle, options);
+			final String key = getClass().getSimpleName();
+			metrics.record(MetricsService.DECODE_TIME, key, System.nanoTime() -
+				start);
+			return decompressed;
 		}
 		catch (final IOException e) {
 			throw new FormatException(e);
@@ -0,0 +1,868 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.codec;
+
+import io.scif.FormatException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.scijava.io.handle.DataHandle;
+
+/**
+ * Pure-Java decoder for baseline (and extended sequential, 8-bit,
+ * Huffman-coded) JPEG images, which decodes one MCU row at a time straight
+ * from a {@link DataHandle} and needs no AWT toolkit.
+ * <p>
+ * As rows are decoded, the decoder state at the start of each MCU row is
+ * recorded, as are the positions of any restart (RST) markers passed. A later
+ * request for a row decodes from the nearest recorded state at or before it,
+ * so that random access to the rows of a very large image does not decode
+ * from the top each time. With restart markers, rows past the furthest
+ * decoded one are reached by scanning for markers rather than by decoding.
+ * </p>
+ * <p>
+ * Progressive, lossless, hierarchical and arithmetic-coded images, and images
+ * with other than 1 or 3 components, are not supported.
+ * </p>
+ */
+public class BaselineJPEGDecoder {
+
+	// -- Constants --
+
+	/** Natural (row-major) index of each coefficient in zig-zag order. */
+	private static final int[] ZIGZAG = { 0, 1, 8, 16, 9, 2, 3, 10, 17, 24, 32,
+		25, 18, 11, 4, 5, 12, 19, 26, 33, 40, 48, 41, 34, 27, 20, 13, 6, 7, 14, 21,
+		28, 35, 42, 49, 56, 57, 50, 43, 36, 29, 22, 15, 23, 30, 37, 44, 51, 58, 59,
+		52, 45, 38, 31, 39, 46, 53, 60, 61, 54, 47, 55, 62, 63 };
+
+	/** IDCT basis: {@code IDCT[x * 8 + u] = C(u) / 2 * cos((2x + 1) u pi / 16)}. */
+	private static final float[] IDCT = new float[64];
+
+	static {
+		for (int x = 0; x < 8; x++) {
+			for (int u = 0; u < 8; u++) {
+				final double c = u == 0 ? Math.sqrt(0.5) : 1;
+				IDCT[x * 8 + u] = (float) (c / 2 * Math.cos((2 * x + 1) * u * Math.PI /
+					16));
+			}
+		}
+	}
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	// -- Fields --
+
+	private final DataHandle<?> in;
+
+	private int width, height;
+
+	private final int[][] quantTables = new int[4][];
+
+	private final HuffmanTable[] dcTables = new HuffmanTable[4];
+
+	private final HuffmanTable[] acTables = new HuffmanTable[4];
+
+	private int restartInterval;
+
+	private Component[] components;
+
+	private boolean ycbcr;
+
+	private int mcuWidth, mcuHeight, mcusPerRow, mcuRows;
+
+	/** Decoder state at the start of each MCU row, once known. */
+	private State[] rowStates;
+
+	/** Position of the data following each restart marker found so far. */
+	private final List<Long> restarts = new ArrayList<>();
+
+	/** Position up to which the data has been scanned for restart markers. */
+	private long restartScanOffset;
+
+	// -- Entropy decoder state --
+
+	private final byte[] buf = new byte[BUFFER_SIZE];
+
+	private long bufOffset;
+
+	private int pos, limit;
+
+	private int bitBuf, bitCount;
+
+	/** Marker which ended the current entropy-coded segment, or 0. */
+	private int marker;
+
+	/** Index of the next MCU to decode. */
+	private int mcu;
+
+	/** Whether the restart preceding {@link #mcu} has been processed. */
+	private boolean restarted;
+
+	private final int[] coefficients = new int[64];
+
+	private final float[] idctTemp = new float[64];
+
+	// -- Band cache --
+
+	private int bandRow = -1;
+
+	private byte[] band;
+
+	// -- Constructor --
+
+	/**
+	 * Reads the headers of the JPEG image starting at the handle's current
+	 * position.
+	 *
+	 * @throws FormatException If the image is not a JPEG image, or uses a
+	 *           feature this decoder does not support.
+	 */
+	public BaselineJPEGDecoder(final DataHandle<?> in) throws IOException,
+		FormatException
+	{
+		this.in = in;
+		readHeaders();
+	}
+
+	// -- BaselineJPEGDecoder API methods --
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/** @return 1 for grayscale images, 3 for RGB. */
+	public int getChannels() {
+		return components.length;
+	}
+
+	/** @return The height in pixels of one MCU row. */
+	public int getMCUHeight() {
+		return mcuHeight;
+	}
+
+	/**
+	 * Decodes one scanline as interleaved 8-bit samples. Rows are decoded an
+	 * MCU row at a time, and the last decoded MCU row is kept, so reading
+	 * consecutive scanlines decodes each MCU row once.
+	 */
+	public synchronized byte[] getScanline(final int y) throws IOException,
+		FormatException
+	{
+		if (y < 0 || y >= height) {
+			throw new FormatException("Scanline out of range: " + y);
+		}
+		final int row = y / mcuHeight;
+		if (row != bandRow) {
+			band = decodeRow(row, band);
+			bandRow = row;
+		}
+		final int rowLen = width * components.length;
+		final byte[] scanline = new byte[rowLen];
+		System.arraycopy(band, (y - row * mcuHeight) * rowLen, scanline, 0,
+			rowLen);
+		return scanline;
+	}
+
+	/**
+	 * Decodes the image at 1/8 scale, straight from the DCT domain: each output
+	 * pixel is the average of an 8x8 block, taken from its DC coefficient, so
+	 * no inverse DCT is needed.
+	 *
+	 * @return Interleaved 8-bit samples, {@code ceil(width / 8)} by
+	 *         {@code ceil(height / 8)} pixels.
+	 */
+	public synchronized byte[] decodeDC() throws IOException, FormatException {
+		final int n = components.length;
+		final int[][] dc = new int[n][];
+		for (int i = 0; i < n; i++) {
+			final Component c = components[i];
+			dc[i] = new int[mcusPerRow * c.h * mcuRows * c.v];
+		}
+
+		seekToMCU(0);
+		final int total = mcusPerRow * mcuRows;
+		while (mcu < total) {
+			beginMCU();
+			final int row = mcu / mcusPerRow, column = mcu % mcusPerRow;
+			for (int i = 0; i < n; i++) {
+				final Component c = components[i];
+				final int stride = mcusPerRow * c.h;
+				for (int by = 0; by < c.v; by++) {
+					for (int bx = 0; bx < c.h; bx++) {
+						decodeBlock(c, false);
+						dc[i][(row * c.v + by) * stride + column * c.h + bx] = c.pred *
+							quantTables[c.quant][0];
+					}
+				}
+			}
+			mcu++;
+			restarted = false;
+		}
+
+		final int w = (width + 7) / 8, h = (height + 7) / 8;
+		final byte[] out = new byte[w * h * n];
+		final int[] s = new int[n];
+		int o = 0;
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				for (int i = 0; i < n; i++) {
+					final Component c = components[i];
+					final int v = dc[i][(y / c.yShift) * mcusPerRow * c.h + x / c.xShift];
+					s[i] = clamp(v / 8f + 128) & 0xff;
+				}
+				o = n == 1 ? store(out, o, s[0]) : store(out, o, s[0], s[1], s[2]);
+			}
+		}
+		return out;
+	}
+
+	// -- Helper methods - headers --
+
+	private void readHeaders() throws IOException, FormatException {
+		if (readU16() != 0xffd8) throw new FormatException("Not a JPEG image");
+		int adobeTransform = -1;
+		while (true) {
+			if (readU8() != 0xff) continue;
+			int m = readU8();
+			while (m == 0xff) {
+				m = readU8();
+			}
+			if (m == 0x01 || m == 0xd8 || (m >= 0xd0 && m <= 0xd7)) continue;
+			if (m == 0xd9) throw new FormatException("No image data found");
+
+			final int length = readU16();
+			final long next = in.offset() + length - 2;
+			switch (m) {
+				case 0xdb:
+					readQuantTables(next);
+					break;
+				case 0xc4:
+					readHuffmanTables(next);
+					break;
+				case 0xdd:
+					restartInterval = readU16();
+					break;
+				case 0xc0:
+				case 0xc1:
+					readFrame();
+					break;
+				case 0xee:
+					if (length >= 14 && readU8() == 'A' && readU8() == 'd' &&
+						readU8() == 'o' && readU8() == 'b' && readU8() == 'e')
+					{
+						in.skipBytes(6);
+						adobeTransform = readU8();
+					}
+					break;
+				case 0xda:
+					readScanHeader(adobeTransform);
+					return;
+				default:
+					if (m >= 0xc2 && m <= 0xcf && m != 0xc4 && m != 0xc8 && m != 0xcc) {
+						throw new FormatException("Unsupported JPEG coding process: SOF" +
+							(m - 0xc0));
+					}
+			}
+			in.seek(next);
+		}
+	}
+
+	private void readQuantTables(final long end) throws IOException {
+		while (in.offset() < end) {
+			final int pq = readU8();
+			final int[] table = new int[64];
+			for (int k = 0; k < 64; k++) {
+				table[k] = (pq >> 4) == 0 ? readU8() : readU16();
+			}
+			quantTables[pq & 3] = table;
+		}
+	}
+
+	private void readHuffmanTables(final long end) throws IOException {
+		while (in.offset() < end) {
+			final int tc = readU8();
+			final int[] counts = new int[17];
+			int total = 0;
+			for (int l = 1; l <= 16; l++) {
+				counts[l] = readU8();
+				total += counts[l];
+			}
+			final int[] values = new int[total];
+			for (int i = 0; i < total; i++) {
+				values[i] = readU8();
+			}
+			final HuffmanTable table = new HuffmanTable(counts, values);
+			if ((tc >> 4) == 0) dcTables[tc & 3] = table;
+			else acTables[tc & 3] = table;
+		}
+	}
+
+	private void readFrame() throws IOException, FormatException {
+		final int precision = readU8();
+		if (precision != 8) {
+			throw new FormatException("Unsupported JPEG precision: " + precision);
+		}
+		height = readU16();
+		width = readU16();
+		if (height == 0 || width == 0) {
+			throw new FormatException("Unsupported JPEG dimensions: " + width +
+				" x " + height);
+		}
+		final int n = readU8();
+		if (n != 1 && n != 3) {
+			throw new FormatException("Unsupported JPEG component count: " + n);
+		}
+		components = new Component[n];
+		int hMax = 1, vMax = 1;
+		for (int i = 0; i < n; i++) {
+			final Component c = new Component();
+			c.id = readU8();
+			final int hv = readU8();
+			// a lone component is coded one block per MCU, whatever its factors
+			c.h = n == 1 ? 1 : hv >> 4;
+			c.v = n == 1 ? 1 : hv & 15;
+			c.quant = readU8() & 3;
+			hMax = Math.max(hMax, c.h);
+			vMax = Math.max(vMax, c.v);
+			components[i] = c;
+		}
+		mcuWidth = 8 * hMax;
+		mcuHeight = 8 * vMax;
+		mcusPerRow = (width + mcuWidth - 1) / mcuWidth;
+		mcuRows = (height + mcuHeight - 1) / mcuHeight;
+		for (final Component c : components) {
+			c.stride = mcusPerRow * c.h * 8;
+			c.samples = new byte[c.stride * c.v * 8];
+			c.xShift = hMax / c.h;
+			c.yShift = vMax / c.v;
+		}
+	}
+
+	private void readScanHeader(final int adobeTransform) throws IOException,
+		FormatException
+	{
+		if (components == null) throw new FormatException("No JPEG frame header");
+		final int n = readU8();
+		if (n != components.length) {
+			throw new FormatException("Unsupported non-interleaved JPEG scan");
+		}
+		for (int i = 0; i < n; i++) {
+			final int id = readU8();
+			final int tables = readU8();
+			final Component c = component(id);
+			c.dc = dcTables[tables >> 4];
+			c.ac = acTables[tables & 3];
+			if (c.dc == null || c.ac == null || quantTables[c.quant] == null) {
+				throw new FormatException("Missing JPEG table for component " + id);
+			}
+		}
+		in.skipBytes(3);
+
+		if (components.length == 3) {
+			// Adobe transform 0, or component IDs R, G, B, mean RGB
+			ycbcr = adobeTransform >= 0 ? adobeTransform != 0
+				: !(components[0].id == 'R' && components[1].id == 'G' &&
+					components[2].id == 'B');
+		}
+
+		final long start = in.offset();
+		rowStates = new State[mcuRows];
+		rowStates[0] = new State(start, 0, 0, 0, new int[components.length], 0,
+			true);
+		restartScanOffset = start;
+	}
+
+	private Component component(final int id) throws FormatException {
+		for (final Component c : components) {
+			if (c.id == id) return c;
+		}
+		throw new FormatException("Unknown JPEG component: " + id);
+	}
+
+	private int readU8() throws IOException {
+		return in.readByte() & 0xff;
+	}
+
+	private int readU16() throws IOException {
+		return (readU8() << 8) | readU8();
+	}
+
+	// -- Helper methods - MCU rows --
+
+	/** Decodes one MCU row into interleaved samples. */
+	private byte[] decodeRow(final int row, byte[] out) throws IOException,
+		FormatException
+	{
+		seekToMCU(row * mcusPerRow);
+		final int end = (row + 1) * mcusPerRow;
+		for (int m = mcu; m < end; m++) {
+			decodeMCU(m - row * mcusPerRow, true);
+		}
+		recordRowState();
+
+		final int channels = components.length;
+		final int rows = Math.min(mcuHeight, height - row * mcuHeight);
+		if (out == null || out.length < mcuHeight * width * channels) {
+			out = new byte[mcuHeight * width * channels];
+		}
+		if (channels == 1) {
+			final Component c = components[0];
+			for (int y = 0; y < rows; y++) {
+				System.arraycopy(c.samples, y * c.stride, out, y * width, width);
+			}
+			return out;
+		}
+
+		final Component c0 = components[0], c1 = components[1],
+				c2 = components[2];
+		int o = 0;
+		for (int y = 0; y < rows; y++) {
+			final int r0 = (y / c0.yShift) * c0.stride;
+			final int r1 = (y / c1.yShift) * c1.stride;
+			final int r2 = (y / c2.yShift) * c2.stride;
+			for (int x = 0; x < width; x++) {
+				o = store(out, o, c0.samples[r0 + x / c0.xShift] & 0xff,
+					c1.samples[r1 + x / c1.xShift] & 0xff, c2.samples[r2 + x /
+						c2.xShift] & 0xff);
+			}
+		}
+		return out;
+	}
+
+	private static int store(final byte[] out, final int o, final int gray) {
+		out[o] = (byte) gray;
+		return o + 1;
+	}
+
+	/** Stores one RGB pixel, converting from YCbCr if needed. */
+	private int store(final byte[] out, int o, final int s0, final int s1,
+		final int s2)
+	{
+		if (ycbcr) {
+			final float cb = s1 - 128f, cr = s2 - 128f;
+			out[o++] = clamp(s0 + 1.402f * cr);
+			out[o++] = clamp(s0 - 0.344136f * cb - 0.714136f * cr);
+			out[o++] = clamp(s0 + 1.772f * cb);
+		}
+		else {
+			out[o++] = (byte) s0;
+			out[o++] = (byte) s1;
+			out[o++] = (byte) s2;
+		}
+		return o;
+	}
+
+	/**
+	 * Positions the entropy decoder at the given MCU, which must start an MCU
+	 * row, from the nearest known state at or before it.
+	 */
+	private void seekToMCU(final int target) throws IOException,
+		FormatException
+	{
+		final int row = target / mcusPerRow;
+		if (rowStates[row] != null) {
+			restore(rowStates[row]);
+			return;
+		}
+
+		// nearest known row state, and, if there are restart markers, the
+		// nearest restart; whichever is closer to the target wins
+		int known = row;
+		while (rowStates[known] == null) {
+			known--;
+		}
+		State start = rowStates[known];
+		if (restartInterval > 0) {
+			final int interval = target / restartInterval;
+			if (interval * restartInterval > known * mcusPerRow) {
+				start = findRestart(interval);
+			}
+		}
+		restore(start);
+		while (mcu < target) {
+			decodeMCU(mcu % mcusPerRow, false);
+		}
+	}
+
+	/** Gets the decoder state just after the given restart marker. */
+	private State findRestart(final int interval) throws IOException,
+		FormatException
+	{
+		seekData(restartScanOffset);
+		while (restarts.size() < interval) {
+			final int b = rawByte();
+			if (b < 0) throw new FormatException("Missing JPEG restart marker");
+			if (b != 0xff) continue;
+			int m = rawByte();
+			while (m == 0xff) {
+				m = rawByte();
+			}
+			if (m >= 0xd0 && m <= 0xd7) restarts.add(dataOffset());
+			else if (m == 0xd9 || m < 0) {
+				throw new FormatException("Missing JPEG restart marker");
+			}
+		}
+		restartScanOffset = Math.max(restartScanOffset, dataOffset());
+		return new State(restarts.get(interval - 1), 0, 0, 0,
+			new int[components.length], interval * restartInterval, true);
+	}
+
+	/** Records the state at the start of the current MCU, if it starts a row. */
+	private void recordRowState() {
+		if (mcu % mcusPerRow != 0) return;
+		final int row = mcu / mcusPerRow;
+		if (row < mcuRows && rowStates[row] == null) rowStates[row] = capture();
+	}
+
+	private State capture() {
+		final int[] preds = new int[components.length];
+		for (int i = 0; i < preds.length; i++) {
+			preds[i] = components[i].pred;
+		}
+		return new State(dataOffset(), bitBuf, bitCount, marker, preds, mcu,
+			restarted);
+	}
+
+	private void restore(final State s) {
+		seekData(s.offset);
+		bitBuf = s.bitBuf;
+		bitCount = s.bitCount;
+		marker = s.marker;
+		for (int i = 0; i < components.length; i++) {
+			components[i].pred = s.preds[i];
+		}
+		mcu = s.mcu;
+		restarted = s.restarted;
+	}
+
+	// -- Helper methods - entropy decoding --
+
+	/**
+	 * Decodes the next MCU, the given column of its row, storing its samples
+	 * only if requested.
+	 */
+	private void decodeMCU(final int column, final boolean store)
+		throws IOException, FormatException
+	{
+		beginMCU();
+		for (final Component c : components) {
+			for (int by = 0; by < c.v; by++) {
+				for (int bx = 0; bx < c.h; bx++) {
+					decodeBlock(c, store);
+					if (store) {
+						idct(c.samples, (by * 8) * c.stride + (column * c.h + bx) * 8,
+							c.stride);
+					}
+				}
+			}
+		}
+		mcu++;
+		restarted = false;
+	}
+
+	/** Records row states and processes restart markers due before an MCU. */
+	private void beginMCU() throws IOException, FormatException {
+		if (mcu % mcusPerRow == 0) recordRowState();
+		if (restartInterval > 0 && mcu > 0 && mcu % restartInterval == 0 &&
+			!restarted)
+		{
+			processRestart();
+		}
+	}
+
+	private void processRestart() throws IOException, FormatException {
+		bitCount = 0;
+		if (marker == 0) {
+			// find the marker, skipping any padding
+			int b;
+			while ((b = rawByte()) >= 0) {
+				if (b != 0xff) continue;
+				int m = rawByte();
+				while (m == 0xff) {
+					m = rawByte();
+				}
+				if (m != 0) {
+					marker = m;
+					break;
+				}
+			}
+		}
+		if (marker < 0xd0 || marker > 0xd7) {
+			throw new FormatException("Missing JPEG restart marker at MCU " + mcu);
+		}
+		final int interval = mcu / restartInterval;
+		if (interval == restarts.size() + 1) {
+			restarts.add(dataOffset());
+			restartScanOffset = Math.max(restartScanOffset, dataOffset());
+		}
+		marker = 0;
+		for (final Component c : components) {
+			c.pred = 0;
+		}
+		restarted = true;
+	}
+
+	private void decodeBlock(final Component c, final boolean store)
+		throws IOException
+	{
+		final int[] q = quantTables[c.quant];
+		final int t = decodeHuffman(c.dc);
+		c.pred += t == 0 ? 0 : extend(getBits(t), t);
+		if (store) {
+			java.util.Arrays.fill(coefficients, 0);
+			coefficients[0] = c.pred * q[0];
+		}
+		for (int k = 1; k < 64;) {
+			final int rs = decodeHuffman(c.ac);
+			final int r = rs >> 4, s = rs & 15;
+			if (s == 0) {
+				if (r != 15) break;
+				k += 16;
+				continue;
+			}
+			k += r;
+			final int v = extend(getBits(s), s);
+			if (store && k < 64) coefficients[ZIGZAG[k]] = v * q[k];
+			k++;
+		}
+	}
+
+	/** Inverse DCT of {@link #coefficients} into 8x8 level-shifted samples. */
+	private void idct(final byte[] out, final int offset, final int stride) {
+		final int[] f = coefficients;
+		boolean dcOnly = true;
+		for (int i = 1; i < 64 && dcOnly; i++) {
+			dcOnly = f[i] == 0;
+		}
+		if (dcOnly) {
+			final byte v = clamp(f[0] / 8f + 128);
+			for (int y = 0; y < 8; y++) {
+				java.util.Arrays.fill(out, offset + y * stride, offset + y * stride + 8,
+					v);
+			}
+			return;
+		}
+		// columns: tmp[y][u] = sum_v IDCT[y][v] * f[v][u]
+		final float[] tmp = idctTemp;
+		for (int u = 0; u < 8; u++) {
+			for (int y = 0; y < 8; y++) {
+				float sum = 0;
+				for (int v = 0; v < 8; v++) {
+					sum += IDCT[y * 8 + v] * f[v * 8 + u];
+				}
+				tmp[y * 8 + u] = sum;
+			}
+		}
+		// rows: out[y][x] = sum_u IDCT[x][u] * tmp[y][u]
+		for (int y = 0; y < 8; y++) {
+			for (int x = 0; x < 8; x++) {
+				float sum = 0;
+				for (int u = 0; u < 8; u++) {
+					sum += IDCT[x * 8 + u] * tmp[y * 8 + u];
+				}
+				out[offset + y * stride + x] = clamp(sum + 128);
+			}
+		}
+	}
+
+	private int decodeHuffman(final HuffmanTable t) throws IOException {
+		fillBits(8);
+		final int peek = (bitBuf >>> (bitCount - 8)) & 0xff;
+		final int len = t.lookupLength[peek];
+		if (len != 0) {
+			bitCount -= len;
+			return t.lookupValue[peek];
+		}
+		bitCount -= 8;
+		int code = peek;
+		for (int l = 9; l <= 16; l++) {
+			code = (code << 1) | getBits(1);
+			if (code <= t.maxCode[l]) {
+				return t.values[t.valPtr[l] + code - t.minCode[l]];
+			}
+		}
+		// corrupt data; decode as zero
+		return 0;
+	}
+
+	private int getBits(final int n) throws IOException {
+		fillBits(n);
+		bitCount -= n;
+		return (bitBuf >>> bitCount) & ((1 << n) - 1);
+	}
+
+	private void fillBits(final int n) throws IOException {
+		while (bitCount < n) {
+			bitBuf = (bitBuf << 8) | (marker != 0 ? 0 : dataByte());
+			bitCount += 8;
+		}
+	}
+
+	private static int extend(final int v, final int t) {
+		return v < (1 << (t - 1)) ? v - (1 << t) + 1 : v;
+	}
+
+	private static byte clamp(final float v) {
+		final int i = Math.round(v);
+		return (byte) (i < 0 ? 0 : i > 255 ? 255 : i);
+	}
+
+	/**
+	 * Reads the next byte of entropy-coded data, removing stuffed zero bytes.
+	 * At a marker, records it and returns zero.
+	 */
+	private int dataByte() throws IOException {
+		final int b = rawByte();
+		if (b < 0) {
+			marker = 0xd9;
+			return 0;
+		}
+		if (b != 0xff) return b;
+		int m = rawByte();
+		while (m == 0xff) {
+			m = rawByte();
+		}
+		if (m == 0) return 0xff;
+		marker = m < 0 ? 0xd9 : m;
+		return 0;
+	}
+
+	private int rawByte() throws IOException {
+		if (pos >= limit) {
+			bufOffset += limit;
+			pos = limit = 0;
+			in.seek(bufOffset);
+			final int n = in.read(buf, 0, buf.length);
+			if (n <= 0) return -1;
+			limit = n;
+		}
+		return buf[pos++] & 0xff;
+	}
+
+	private long dataOffset() {
+		return bufOffset + pos;
+	}
+
+	private void seekData(final long offset) {
+		bufOffset = offset;
+		pos = limit = 0;
+	}
+
+	// -- Helper classes --
+
+	private static class Component {
+
+		private int id, h, v, quant;
+
+		private HuffmanTable dc, ac;
+
+		/** DC predictor. */
+		private int pred;
+
+		/** Samples of the current MCU row, {@code stride} bytes per line. */
+		private byte[] samples;
+
+		private int stride;
+
+		/** Subsampling factors relative to the full-resolution component. */
+		private int xShift, yShift;
+	}
+
+	/** Position and predictors of the entropy decoder at the start of an MCU. */
+	private static class State {
+
+		private final long offset;
+
+		private final int bitBuf, bitCount, marker, mcu;
+
+		private final int[] preds;
+
+		private final boolean restarted;
+
+		private State(final long offset, final int bitBuf, final int bitCount,
+			final int marker, final int[] preds, final int mcu,
+			final boolean restarted)
+		{
+			this.offset = offset;
+			this.bitBuf = bitBuf;
+			this.bitCount = bitCount;
+			this.marker = marker;
+			this.preds = preds;
+			this.mcu = mcu;
+			this.restarted = restarted;
+		}
+	}
+
+	/** Huffman table with an 8-bit lookahead table for short codes. */
+	private static class HuffmanTable {
+
+		private final int[] values;
+
+		private final int[] minCode = new int[17];
+
+		private final int[] maxCode = new int[18];
+
+		private final int[] valPtr = new int[17];
+
+		private final byte[] lookupLength = new byte[256];
+
+		private final int[] lookupValue = new int[256];
+
+		private HuffmanTable(final int[] counts, final int[] values) {
+			this.values = values;
+			int code = 0, k = 0;
+			for (int l = 1; l <= 16; l++) {
+				valPtr[l] = k;
+				minCode[l] = code;
+				for (int i = 0; i < counts[l]; i++) {
+					if (l <= 8) {
+						// all 8-bit prefixes starting with this code
+						final int shift = 8 - l;
+						for (int p = 0; p < (1 << shift); p++) {
+							lookupLength[(code << shift) | p] = (byte) l;
+							lookupValue[(code << shift) | p] = values[k];
+						}
+					}
+					code++;
+					k++;
+				}
+				maxCode[l] = counts[l] == 0 ? -1 : code - 1;
+				code <<= 1;
+			}
+			maxCode[17] = Integer.MAX_VALUE;
+		}
+	}
+}
@@ -0,0 +1,230 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.codec;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A byte-bounded cache of fully decoded frames of a delta-coded movie, i.e.
+ * one whose frames are decoded on top of the previous frame via
+ * {@link CodecOptions#previousImage}. A frame is kept every
+ * {@link #getInterval()} frames, so that decoding an arbitrary frame only
+ * needs to start from the nearest earlier checkpoint or key frame instead of
+ * from the start of the movie.
+ * <p>
+ * Key frames ("sync samples") are frames which decode without a previous
+ * image. If none are given, only the first frame is assumed to be one.
+ * </p>
+ * <p>
+ * All methods are synchronized. Frame data is copied on the way in and out,
+ * as codecs may update the previous image in place.
+ * </p>
+ */
+public class CheckpointCache {
+
+	// -- Constants --
+
+	/** Default number of frames between checkpoints. */
+	public static final int DEFAULT_INTERVAL = 16;
+
+	/** Default upper bound on the number of cached bytes (64 MiB). */
+	public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	// -- Fields --
+
+	/** Checkpoints by frame, in least-recently-used order. */
+	private final LinkedHashMap<Long, byte[]> frames = new LinkedHashMap<>(16,
+		0.75f, true);
+
+	/** Checkpointed frames, in ascending order. */
+	private final TreeSet<Long> index = new TreeSet<>();
+
+	/** Key frames, in ascending order; null if only frame 0 is one. */
+	private long[] keyFrames;
+
+	private int interval;
+
+	private long maxBytes;
+
+	private long usedBytes;
+
+	// -- Constructors --
+
+	public CheckpointCache() {
+		this(DEFAULT_INTERVAL, DEFAULT_MAX_BYTES);
+	}
+
+	public CheckpointCache(final int interval, final long maxBytes) {
+		this.interval = interval;
+		this.maxBytes = maxBytes;
+	}
+
+	// -- CheckpointCache API --
+
+	/**
+	 * Sets the key frames of the movie, e.g. from a QuickTime sync sample
+	 * table or the key frame flags of an AVI index.
+	 *
+	 * @param keyFrames Zero-based key frame indices, or null if only the first
+	 *          frame is known to be a key frame.
+	 */
+	public synchronized void setKeyFrames(final long[] keyFrames) {
+		if (keyFrames == null) this.keyFrames = null;
+		else {
+			this.keyFrames = keyFrames.clone();
+			Arrays.sort(this.keyFrames);
+		}
+	}
+
+	/** @return The last key frame at or before the given frame. */
+	public synchronized long lastKeyFrame(final long frame) {
+		if (keyFrames == null) return 0;
+		int i = Arrays.binarySearch(keyFrames, frame);
+		if (i < 0) i = -i - 2;
+		return i < 0 ? 0 : keyFrames[i];
+	}
+
+	/**
+	 * @return The last checkpointed frame at or before the given frame, or -1
+	 *         if there is none.
+	 */
+	public synchronized long lastCheckpoint(final long frame) {
+		final Long checkpoint = index.floor(frame);
+		return checkpoint == null ? -1 : checkpoint;
+	}
+
+	/**
+	 * @return A copy of the decoded data of the given frame, or null if it is
+	 *         not checkpointed.
+	 */
+	public synchronized byte[] get(final long frame) {
+		final byte[] data = frames.get(frame);
+		return data == null ? null : data.clone();
+	}
+
+	/**
+	 * Offers the decoded data of the given frame. A copy is kept if the frame
+	 * falls on the checkpoint interval and is not a key frame, evicting
+	 * least-recently-used checkpoints until the total size is within
+	 * {@link #getMaxBytes()}.
+	 */
+	public synchronized void put(final long frame, final byte[] data) {
+		if (interval <= 0 || frame % interval != 0 || data == null ||
+			data.length > maxBytes || lastKeyFrame(frame) == frame)
+		{
+			return;
+		}
+		final byte[] old = frames.put(frame, data.clone());
+		if (old != null) usedBytes -= old.length;
+		usedBytes += data.length;
+		index.add(frame);
+		evict();
+	}
+
+	/**
+	 * Starting from the last key frame or checkpoint, finds where decoding
+	 * needs to begin so that the given frame can be decoded.
+	 *
+	 * @param frame Frame to decode.
+	 * @param current Frame whose decoded data the caller already holds, or -1.
+	 * @return The first frame to decode. Decoding starts from {@code current}
+	 *         if this is {@code current + 1}, from the checkpoint
+	 *         {@code start - 1} if {@link #get} returns data for it, and from
+	 *         a key frame otherwise. If the frame itself is checkpointed, this
+	 *         is {@code frame + 1}.
+	 */
+	public synchronized long start(final long frame, final long current) {
+		final long key = lastKeyFrame(frame);
+		if (key == frame) return frame;
+		final long checkpoint = lastCheckpoint(frame);
+		if (current >= key && current < frame && current >= checkpoint) {
+			return current + 1;
+		}
+		return checkpoint >= key ? checkpoint + 1 : key;
+	}
+
+	/** Removes all checkpoints. */
+	public synchronized void clear() {
+		frames.clear();
+		index.clear();
+		usedBytes = 0;
+	}
+
+	/** Sets the number of frames between checkpoints; 0 disables them. */
+	public synchronized void setInterval(final int interval) {
+		this.interval = interval;
+		clear();
+	}
+
+	/** @return The number of frames between checkpoints. */
+	public synchronized int getInterval() {
+		return interval;
+	}
+
+	/**
+	 * Sets the upper bound on the number of cached bytes. A bound of 0 disables
+	 * checkpoints.
+	 */
+	public synchronized void setMaxBytes(final long maxBytes) {
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	/** @return The upper bound on the number of cached bytes. */
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/** @return The number of bytes currently cached. */
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	/** @return The number of checkpoints currently cached. */
+	public synchronized int size() {
+		return frames.size();
+	}
+
+	// -- Helper methods --
+
+	private void evict() {
+		final Iterator<Map.Entry<Long, byte[]>> it = frames.entrySet().iterator();
+		while (usedBytes > maxBytes && it.hasNext()) {
+			final Map.Entry<Long, byte[]> entry = it.next();
+			usedBytes -= entry.getValue().length;
+			index.remove(entry.getKey());
+			it.remove();
+		}
+	}
+}
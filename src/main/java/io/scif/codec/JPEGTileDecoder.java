@@ -66,6 +66,9 @@ public class JPEGTileDecoder extends AbstractContextual {
 
 	private DataHandle<Location> in;
 
+	/** Pure-Java decoder, used instead of the AWT toolkit when possible. */
+	private BaselineJPEGDecoder baseline;
+
 	public JPEGTileDecoder(final Context ctx) {
 		setContext(ctx);
 	}
@@ -82,6 +85,25 @@ public class JPEGTileDecoder extends AbstractContextual {
 		final int h)
 	{
 		this.in = handle;
+		baseline = null;
+
+		// decode baseline images directly, a band of rows at a time; anything
+		// else falls back to the AWT toolkit, which decodes the whole image
+		try {
+			final long fp = in.offset();
+			try {
+				baseline = new BaselineJPEGDecoder(in);
+				return;
+			}
+			catch (final FormatException e) {
+				log.debug("Falling back to AWT JPEG decoding: " + e.getMessage());
+				in.seek(fp);
+			}
+		}
+		catch (final IOException e) {
+			log.debug("", e);
+		}
+
 		tiles = new TileCache(getContext(), y, h);
 
 		// pre-process the stream to make sure that the
@@ -141,6 +163,15 @@ public class JPEGTileDecoder extends AbstractContextual {
 	}
 
 	public byte[] getScanline(final int y) {
+		if (baseline != null) {
+			try {
+				return baseline.getScanline(y);
+			}
+			catch (final FormatException | IOException e) {
+				log.debug("", e);
+				return null;
+			}
+		}
 		try {
 			return tiles.get(0, y, consumer.getWidth(), 1);
 		}
@@ -151,10 +182,12 @@ public class JPEGTileDecoder extends AbstractContextual {
 	}
 
 	public int getWidth() {
+		if (baseline != null) return baseline.getWidth();
 		return consumer.getWidth();
 	}
 
 	public int getHeight() {
+		if (baseline != null) return baseline.getHeight();
 		return consumer.getHeight();
 	}
 
@@ -169,6 +202,7 @@ public class JPEGTileDecoder extends AbstractContextual {
 		}
 		tiles = null;
 		consumer = null;
+		baseline = null;
 	}
 
 	// -- Helper classes --
@@ -205,12 +205,23 @@ public class SCIFIOConfig extends HashMap<String, Object> {
 	// -- Parser methods --
 
 	/**
-	 * @return {@link MetadataLevel} desired for parsing.
+	 * @return {@link MetadataLevel} desired for parsing, or null if none was
+	 *         set.
 	 */
 	public MetadataLevel parserGetLevel() {
 		return level;
 	}
 
+	/**
+	 * @param required Level to compare against.
+	 * @return True iff parsers should populate at least the given
+	 *         {@link MetadataLevel}. This is always the case if no level was
+	 *         set.
+	 */
+	public boolean parserIncludesLevel(final MetadataLevel required) {
+		return level == null || level.includes(required);
+	}
+
 	/**
 	 * @param level Desired metadata level for parsing.
 	 * @return This SCIFIOConfig for method chaining.
@@ -30,13 +30,24 @@
 package io.scif.filters;
 
 import io.scif.ByteArrayPlane;
+import io.scif.BufferedImagePlane;
 import io.scif.ByteArrayReader;
 import io.scif.FormatException;
 import io.scif.ImageMetadata;
+import io.scif.LargePlane;
 import io.scif.Plane;
 import io.scif.config.SCIFIOConfig;
+import io.scif.gui.AWTImageTools;
+import io.scif.metrics.MetricsService;
+import io.scif.util.ByteArrayPool;
+import io.scif.util.ColorTableLookup;
+import io.scif.util.FormatTools;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import net.imagej.axis.Axes;
 import net.imglib2.FinalInterval;
@@ -45,8 +56,9 @@ import net.imglib2.display.ColorTable;
 import net.imglib2.util.Intervals;
 
 import org.scijava.io.location.Location;
+import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
-import org.scijava.util.Bytes;
+import org.scijava.thread.ThreadService;
 
 /**
  * For indexed color data representing true color, factors out the indices,
@@ -57,25 +69,24 @@ import org.scijava.util.Bytes;
 @Plugin(type = Filter.class)
 public class ChannelFiller extends AbstractReaderFilter {
 
+	// -- Constants --
+
+	/** Expanded planes at least this many bytes are split between threads. */
+	private static final int PARALLEL_THRESHOLD = 4 * 1024 * 1024;
+
 	// -- Fields --
 
-	/**
-	 * Last image index opened.
-	 */
-	private int lastImageIndex = -1;
+	@Parameter
+	private MetricsService metrics;
 
-	/**
-	 * Last plane index opened.
-	 */
-	private long lastPlaneIndex = -1;
+	@Parameter
+	private ThreadService threadService;
 
-	/**
-	 * Cached last plane opened.
-	 */
-	private Plane lastPlane = null;
+	/** Flattened form of the most recently used color table. */
+	private volatile ColorTableLookup lookup;
 
-	/** Bounds of last plane opened. */
-	private Interval lastPlaneBounds = null;
+	/** Recently opened index planes, from which color planes are expanded. */
+	private final PlaneCache cache = new PlaneCache();
 
 	// -- Constructor --
 
@@ -83,6 +94,26 @@ public class ChannelFiller extends AbstractReaderFilter {
 		super(ChannelFillerMetadata.class);
 	}
 
+	// -- ChannelFiller API methods --
+
+	/**
+	 * Sets the maximum number of bytes of index planes to keep cached, so that
+	 * re-reading a sub-region or channel of a recently expanded plane does not
+	 * require the parent plane to be read again.
+	 *
+	 * @param maxBytes cache bound, in bytes. 0 disables caching.
+	 */
+	public void setCacheSize(final long maxBytes) {
+		cache.setMaxBytes(maxBytes);
+	}
+
+	/**
+	 * @return the maximum number of bytes of index planes to keep cached.
+	 */
+	public long getCacheSize() {
+		return cache.getMaxBytes();
+	}
+
 	// -- Filter API Methods --
 
 	@Override
@@ -157,14 +188,8 @@ public class ChannelFiller extends AbstractReaderFilter {
 		if (getParentMeta().get(imageIndex).isFalseColor() || !getParentMeta().get(
 			imageIndex).isIndexed())
 		{
-			if (!haveCached(imageIndex, planeIndex, bounds)) {
-				lastPlaneBounds = new FinalInterval(bounds);
-				lastPlaneIndex = planeIndex;
-				lastImageIndex = imageIndex;
-				lastPlane = getParent().openPlane(imageIndex, planeIndex, plane, bounds,
-					config);
-			}
-			return lastPlane;
+			return getParent().openPlane(imageIndex, planeIndex, plane, bounds,
+				config);
 		}
 
 		// If we have the cached base plane we can use it to expand, otherwise
@@ -172,56 +197,47 @@ public class ChannelFiller extends AbstractReaderFilter {
 		final int lutLength = ((ChannelFillerMetadata) getMetadata())
 			.getLutLength();
 
-		if (!haveCached(imageIndex, planeIndex, bounds)) {
-			updateLastPlaneInfo(imageIndex, lutLength, bounds);
+		final Interval parentBounds = toParentBounds(imageIndex, lutLength,
+			bounds);
+		Plane lastPlane = cache.get(imageIndex, planeIndex, parentBounds);
+		if (metrics.isEnabled()) {
+			metrics.count(lastPlane == null ? MetricsService.CACHE_MISSES
+				: MetricsService.CACHE_HITS, getClass().getSimpleName(), 1);
+		}
 
+		if (lastPlane == null) {
 			// Now we can read the desired plane
-			lastPlane = getParent().openPlane(imageIndex, planeIndex, //
-				lastPlaneBounds, config);
-			lastPlaneIndex = planeIndex;
-			lastImageIndex = imageIndex;
-
-			lastPlaneBounds = bounds;
+			lastPlane = getParent().openPlane(imageIndex, planeIndex, parentBounds,
+				config);
+			cache.put(imageIndex, planeIndex, parentBounds, lastPlane, lastPlane
+				.getBytes().length);
 		}
 
-		// Make sure we have a compatible plane type
 		final ImageMetadata imageMetadata = getMetadata().get(imageIndex);
-		if (!ByteArrayPlane.class.isAssignableFrom(plane.getClass())) {
-			plane = new ByteArrayPlane(imageMetadata, bounds);
-		}
-
-		final byte[] buf = plane.getBytes();
-		int pt = 0;
-
-		final int bytesPerIndex = getParentMeta().get(imageIndex)
-			.getBitsPerPixel() / 8;
-
 		final ColorTable lut = lastPlane.getColorTable();
+		if (lut == null) {
+			throw new FormatException("Indexed plane " + planeIndex +
+				" has no color table");
+		}
+		final ColorTableLookup l = lookup(lut, lutLength, FormatTools
+			.getBytesPerPixel(imageMetadata.getPixelType()));
+
+		// Expand straight into byte array planes; other plane types are filled
+		// from the expanded bytes afterwards
+		final boolean direct = plane instanceof ByteArrayPlane;
+		final byte[] buf = direct ? plane.getBytes() : ByteArrayPool.getShared()
+			.take((int) (Intervals.numElements(bounds) * FormatTools
+				.getBytesPerPixel(imageMetadata.getPixelType())));
 		final byte[] index = lastPlane.getBytes();
+		final int bytesPerIndex = Math.max(1, getParentMeta().get(imageIndex)
+			.getBitsPerPixel() / 8);
+		final int pixelCount = Math.min(index.length / bytesPerIndex, buf.length /
+			(l.getChannelCount() * l.getBytesPerSample()));
 
 		// Expand the index values to fill the buffer
-		if (imageMetadata.getInterleavedAxisCount() > 0) {
-			for (int i = 0; i < index.length / bytesPerIndex &&
-				pt < buf.length; i++)
-			{
-				final int iVal = Bytes.toInt(index, i * bytesPerIndex, bytesPerIndex,
-					imageMetadata.isLittleEndian());
-				for (int j = 0; j < lutLength; j++) {
-					buf[pt++] = (byte) lut.get(j, iVal);
-				}
-			}
-		}
-		else {
-			for (int j = 0; j < lutLength; j++) {
-				for (int i = 0; i < index.length / bytesPerIndex &&
-					pt < buf.length; i++)
-				{
-					final int iVal = Bytes.toInt(index, i * bytesPerIndex, bytesPerIndex,
-						imageMetadata.isLittleEndian());
-					buf[pt++] = (byte) lut.get(j, iVal);
-				}
-			}
-		}
+		expand(l, index, bytesPerIndex, imageMetadata.isLittleEndian(), buf,
+			imageMetadata.getInterleavedAxisCount() > 0, pixelCount);
+		if (!direct) plane = fill(imageIndex, plane, bounds, buf);
 
 		// Remove the color table for this plane
 		plane.setColorTable(null);
@@ -253,10 +269,10 @@ public class ChannelFiller extends AbstractReaderFilter {
 	// -- Helper Methods --
 
 	/**
-	 * Converts the given plane information using the current metadata to a format
-	 * usable by the wrapped reader, stored in the "lastPlane"... variables.
+	 * Converts the given plane bounds using the current metadata to bounds usable
+	 * by the wrapped reader.
 	 */
-	private void updateLastPlaneInfo(final int imageIndex, final int lutLength,
+	private Interval toParentBounds(final int imageIndex, final int lutLength,
 		final Interval bounds)
 	{
 		final long[] min = Intervals.minAsLongArray(bounds);
@@ -265,30 +281,103 @@ public class ChannelFiller extends AbstractReaderFilter {
 		final int cIndex = getMetadata().get(imageIndex).getAxisIndex(Axes.CHANNEL);
 		min[cIndex] = min[cIndex] / lutLength;
 		max[cIndex] = max[cIndex] / lutLength;
-		lastPlaneBounds = new FinalInterval(min, max);
+		return new FinalInterval(min, max);
 	}
 
 	/**
-	 * Returns true if we have a cached copy of the requested plane available.
+	 * Returns a flattened lookup for the given color table, reusing the previous
+	 * one if it was built from the same table.
 	 */
-	private boolean haveCached(final int imageIndex, final long planeIndex,
-		final Interval bounds)
+	private ColorTableLookup lookup(final ColorTable lut, final int channels,
+		final int bytesPerSample)
+	{
+		ColorTableLookup l = lookup;
+		if (l == null || !l.isFor(lut, channels, bytesPerSample)) {
+			l = new ColorTableLookup(lut, channels, bytesPerSample);
+			lookup = l;
+		}
+		return l;
+	}
+
+	/**
+	 * Copies expanded bytes into a plane which is not backed by a byte array.
+	 * Plane types which can not be written to are replaced by a
+	 * {@link ByteArrayPlane} wrapping the bytes.
+	 */
+	private Plane fill(final int imageIndex, final Plane plane,
+		final Interval bounds, final byte[] buf) throws FormatException,
+		IOException
 	{
-		// TODO It would be nice to fix up this logic so that we can use
-		// cached planes when requesting a sub-region of the cached plane.
-		// See https://github.com/scifio/scifio/issues/155
-		return planeIndex == lastPlaneIndex && //
-			imageIndex == lastImageIndex && //
-			lastPlane != null && lastPlaneBounds != null && //
-			Intervals.equals(bounds, lastPlaneBounds);
+		final ImageMetadata imageMetadata = getMetadata().get(imageIndex);
+		if (plane instanceof LargePlane) {
+			final LargePlane large = (LargePlane) plane;
+			if (large.getData() == null || large.getSize() < buf.length) {
+				large.populate(imageMetadata, bounds);
+			}
+			large.getData().put(0, buf, 0, buf.length);
+			// the bytes have been copied, so the buffer can be reused
+			ByteArrayPool.getShared().give(buf);
+			return large;
+		}
+		if (plane instanceof BufferedImagePlane) {
+			final BufferedImagePlane image = (BufferedImagePlane) plane;
+			image.populate(imageMetadata, AWTImageTools.openImage(plane, buf, this,
+				Intervals.dimensionsAsLongArray(bounds), imageIndex), bounds);
+			return image;
+		}
+		return new ByteArrayPlane().populate(imageMetadata, buf, bounds)
+			.setPooledData(buf);
+	}
+
+	/**
+	 * Expands the given indices into {@code buf}, splitting large planes into
+	 * one band of pixels per available processor.
+	 */
+	private void expand(final ColorTableLookup l, final byte[] index,
+		final int bytesPerIndex, final boolean little, final byte[] buf,
+		final boolean interleaved, final int pixelCount) throws FormatException
+	{
+		final int threads = Math.min(Runtime.getRuntime().availableProcessors(),
+			buf.length / (PARALLEL_THRESHOLD / 4));
+		if (buf.length < PARALLEL_THRESHOLD || threads < 2) {
+			l.expand(index, bytesPerIndex, little, buf, little, interleaved,
+				pixelCount, 0, pixelCount);
+			return;
+		}
+
+		final int band = (pixelCount + threads - 1) / threads;
+		final List<Future<?>> futures = new ArrayList<>(threads);
+		for (int start = 0; start < pixelCount; start += band) {
+			final int s = start, e = Math.min(pixelCount, start + band);
+			futures.add(threadService.run(() -> {
+				l.expand(index, bytesPerIndex, little, buf, little, interleaved,
+					pixelCount, s, e);
+				return null;
+			}));
+		}
+		try {
+			for (final Future<?> f : futures) {
+				f.get();
+			}
+		}
+		catch (final InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new FormatException("Interrupted while expanding color table",
+				exc);
+		}
+		catch (final ExecutionException exc) {
+			if (exc.getCause() instanceof FormatException) {
+				throw (FormatException) exc.getCause();
+			}
+			throw new FormatException("Failed to expand color table", exc
+				.getCause());
+		}
 	}
 
 	@Override
 	protected void cleanUp() throws IOException {
 		super.cleanUp();
-		lastPlaneIndex = 0;
-		lastImageIndex = 0;
-		lastPlane = null;
-		lastPlaneBounds = null;
+		cache.clear();
+		lookup = null;
 	}
 }
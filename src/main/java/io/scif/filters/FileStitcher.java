@@ -42,6 +42,7 @@ import io.scif.config.SCIFIOConfig;
 import io.scif.io.location.TestImgLocation;
 import io.scif.services.FilePatternService;
 import io.scif.services.InitializeService;
+import io.scif.util.ByteArrayPool;
 import io.scif.util.FormatTools;
 
 import java.io.IOException;
@@ -391,7 +392,8 @@ public class FileStitcher extends AbstractReaderFilter {
 		if (!isCompatible(plane.getClass())) {
 			bp = new ByteArrayPlane();
 			bp.populate(plane);
-			((ByteArrayPlane) bp).setData(new byte[plane.getBytes().length]);
+			((ByteArrayPlane) bp).setPooledData(ByteArrayPool.getShared().take(
+				plane.getBytes().length));
 		}
 		else bp = plane;
 
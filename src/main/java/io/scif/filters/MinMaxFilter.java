@@ -33,8 +33,10 @@ import io.scif.FormatException;
 import io.scif.ImageMetadata;
 import io.scif.Metadata;
 import io.scif.Plane;
+import io.scif.PlaneLayout;
 import io.scif.config.SCIFIOConfig;
 import io.scif.util.FormatTools;
+import io.scif.util.PositionIterator;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -289,6 +291,21 @@ public class MinMaxFilter extends AbstractReaderFilter {
 		final boolean signed = FormatTools.isSigned(pixelType);
 		final long threshold = (long) Math.pow(2, bpp * 8 - 1);
 
+		// Look up the per-axis min/max arrays once, then walk the planar
+		// position in step with the pixel index
+		final PlaneLayout layout = iMeta.getLayout();
+		final int planarAxisCount = layout.getPlanarAxisCount();
+		final double[][] planarMins = new double[planarAxisCount][];
+		final double[][] planarMaxs = new double[planarAxisCount][];
+		for (int axis = 0; axis < planarAxisCount; axis++) {
+			final AxisType type = layout.getAxisType(axis);
+			planarMins[axis] = planarAxisMin.get(imageIndex).get(type);
+			planarMaxs[axis] = planarAxisMax.get(imageIndex).get(type);
+		}
+		final PositionIterator positions = new PositionIterator(layout
+			.getAxesLengthsPlanar());
+		final long[] planarPositions = positions.getPosition();
+
 		for (int i = 0; i < pixels; i++) {
 			// get the value for this pixel
 			final int idx = bpp * i;
@@ -305,19 +322,12 @@ public class MinMaxFilter extends AbstractReaderFilter {
 			}
 
 			// Update the appropriate planar axis min/max if necessary
-			final long[] planarPositions = FormatTools.rasterToPosition(iMeta
-				.getAxesLengthsPlanar(), i);
-
-			for (int axis = 0; axis < planarPositions.length; axis++) {
-				final AxisType type = iMeta.getAxis(axis).type();
-				final double[] planarMin = planarAxisMin.get(imageIndex).get(type);
-				if (planarMin[(int) planarPositions[axis]] > v) {
-					planarMin[(int) planarPositions[axis]] = v;
-				}
-				final double[] planarMax = planarAxisMax.get(imageIndex).get(type);
-				if (planarMax[(int) planarPositions[axis]] < v) {
-					planarMax[(int) planarPositions[axis]] = v;
-				}
+			positions.fwd();
+
+			for (int axis = 0; axis < planarAxisCount; axis++) {
+				final int pos = (int) planarPositions[axis];
+				if (planarMins[axis][pos] > v) planarMins[axis][pos] = v;
+				if (planarMaxs[axis][pos] < v) planarMaxs[axis][pos] = v;
 			}
 
 			// Update the plane min/max if necessary
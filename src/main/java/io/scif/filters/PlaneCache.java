@@ -0,0 +1,202 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.filters;
+
+import io.scif.Plane;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.imglib2.Interval;
+import net.imglib2.util.Intervals;
+
+/**
+ * A byte-bounded, least-recently-used cache of {@link Plane}s, keyed by image
+ * index, plane index and planar bounds. Used by {@link Filter}s that derive
+ * several output planes from the same parent plane (e.g. one per channel of
+ * interleaved RGB data), so that the parent plane is only read and decoded
+ * once.
+ * <p>
+ * All methods are synchronized, so a single instance may be shared between
+ * threads. Cached planes are handed out as-is and must not be modified by
+ * callers.
+ * </p>
+ */
+public class PlaneCache {
+
+	// -- Constants --
+
+	/** Default upper bound on the number of cached bytes (64 MiB). */
+	public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	// -- Fields --
+
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16,
+		0.75f, true);
+
+	private long maxBytes;
+
+	private long usedBytes;
+
+	// -- Constructors --
+
+	public PlaneCache() {
+		this(DEFAULT_MAX_BYTES);
+	}
+
+	public PlaneCache(final long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	// -- PlaneCache API --
+
+	/**
+	 * @return The cached plane for the given indices and bounds, or null if no
+	 *         such plane is cached.
+	 */
+	public synchronized Plane get(final int imageIndex, final long planeIndex,
+		final Interval bounds)
+	{
+		final Entry entry = entries.get(new Key(imageIndex, planeIndex, bounds));
+		return entry == null ? null : entry.plane;
+	}
+
+	/**
+	 * Adds the given plane to this cache, evicting least-recently-used planes
+	 * until the total size is within {@link #getMaxBytes()}. Planes larger than
+	 * the bound are not cached.
+	 *
+	 * @param bytes Size of the plane's data, in bytes.
+	 */
+	public synchronized void put(final int imageIndex, final long planeIndex,
+		final Interval bounds, final Plane plane, final long bytes)
+	{
+		if (bytes > maxBytes) return;
+		final Entry old = entries.put(new Key(imageIndex, planeIndex, bounds),
+			new Entry(plane, bytes));
+		if (old != null) usedBytes -= old.bytes;
+		usedBytes += bytes;
+		evict();
+	}
+
+	/** Removes all cached planes. */
+	public synchronized void clear() {
+		entries.clear();
+		usedBytes = 0;
+	}
+
+	/**
+	 * Sets the upper bound on the number of cached bytes. A bound of 0 disables
+	 * caching.
+	 */
+	public synchronized void setMaxBytes(final long maxBytes) {
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	/** @return The upper bound on the number of cached bytes. */
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/** @return The number of bytes currently cached. */
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	/** @return The number of planes currently cached. */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	// -- Helper methods --
+
+	private void evict() {
+		final Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+		while (usedBytes > maxBytes && it.hasNext()) {
+			usedBytes -= it.next().getValue().bytes;
+			it.remove();
+		}
+	}
+
+	// -- Helper classes --
+
+	private static final class Key {
+
+		private final int imageIndex;
+
+		private final long planeIndex;
+
+		private final long[] min;
+
+		private final long[] max;
+
+		private final int hash;
+
+		private Key(final int imageIndex, final long planeIndex,
+			final Interval bounds)
+		{
+			this.imageIndex = imageIndex;
+			this.planeIndex = planeIndex;
+			min = Intervals.minAsLongArray(bounds);
+			max = Intervals.maxAsLongArray(bounds);
+			int h = 31 * imageIndex + Long.hashCode(planeIndex);
+			h = 31 * h + Arrays.hashCode(min);
+			hash = 31 * h + Arrays.hashCode(max);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (!(o instanceof Key)) return false;
+			final Key k = (Key) o;
+			return imageIndex == k.imageIndex && planeIndex == k.planeIndex &&
+				Arrays.equals(min, k.min) && Arrays.equals(max, k.max);
+		}
+	}
+
+	private static final class Entry {
+
+		private final Plane plane;
+
+		private final long bytes;
+
+		private Entry(final Plane plane, final long bytes) {
+			this.plane = plane;
+			this.bytes = bytes;
+		}
+	}
+}
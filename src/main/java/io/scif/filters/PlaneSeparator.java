@@ -33,7 +33,9 @@ import io.scif.ByteArrayPlane;
 import io.scif.FormatException;
 import io.scif.Metadata;
 import io.scif.Plane;
+import io.scif.PlaneLayout;
 import io.scif.config.SCIFIOConfig;
+import io.scif.metrics.MetricsService;
 import io.scif.util.FormatTools;
 import io.scif.util.ImageTools;
 import io.scif.util.MemoryTools;
@@ -41,15 +43,14 @@ import io.scif.util.MemoryTools;
 import java.io.IOException;
 import java.util.Arrays;
 
-import net.imagej.axis.Axes;
 import net.imagej.axis.AxisType;
-import net.imagej.axis.CalibratedAxis;
 import net.imglib2.FinalInterval;
 import net.imglib2.Interval;
 import net.imglib2.util.Intervals;
 
 import org.scijava.io.handle.DataHandle;
 import org.scijava.io.location.Location;
+import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 import org.scijava.util.ArrayUtils;
 
@@ -61,20 +62,17 @@ public class PlaneSeparator extends AbstractReaderFilter {
 
 	// -- Fields --
 
-	/** Last plane opened. */
-	private Plane lastPlane = null;
+	@Parameter
+	private MetricsService metrics;
 
-	/** Index of last plane opened. */
-	private long lastPlaneIndex = -1;
+	/** Recently opened parent planes, from which channels are extracted. */
+	private final PlaneCache cache = new PlaneCache();
 
-	/** Index of last plane opened. */
-	private int lastImageIndex = -1;
+	/** Reused position of the separated axes within the current plane. */
+	private long[] separatedPosition;
 
-	/** Offsets of last plane opened. */
-	private long[] lastPlaneMin = null;
-
-	/** Lengths of last plane opened. */
-	private long[] lastPlaneMax = null;
+	/** Reused lengths of the separated axes. */
+	private long[] separatedLengths;
 
 	// -- Constructor --
 
@@ -93,6 +91,24 @@ public class PlaneSeparator extends AbstractReaderFilter {
 		}
 	}
 
+	/**
+	 * Sets the maximum number of bytes of parent planes to keep cached. Each
+	 * cached parent plane serves every plane separated out of it, so reading the
+	 * channels of an interleaved plane costs a single read of the parent.
+	 *
+	 * @param maxBytes cache bound, in bytes. 0 disables caching.
+	 */
+	public void setCacheSize(final long maxBytes) {
+		cache.setMaxBytes(maxBytes);
+	}
+
+	/**
+	 * @return the maximum number of bytes of parent planes to keep cached.
+	 */
+	public long getCacheSize() {
+		return cache.getMaxBytes();
+	}
+
 	/**
 	 * Returns the image number in the original dataset that corresponds to the
 	 * given image number. For instance, if the original dataset was a single RGB
@@ -107,22 +123,19 @@ public class PlaneSeparator extends AbstractReaderFilter {
 		final long originalCount = getParent().getPlaneCount(imageIndex);
 
 		if (planeCount == originalCount) return planeIndex;
-		final long[] coords = FormatTools.rasterToPosition(imageIndex, planeIndex,
-			this);
 		int offset = 0;
 		if (PlaneSeparatorMetadata.class.isAssignableFrom(getMetadata()
 			.getClass()))
 		{
 			offset = ((PlaneSeparatorMetadata) getMetadata()).offset();
 		}
-		final long[] originalCoords = new long[coords.length - offset];
-		final long[] lengths = new long[coords.length - offset];
-		for (int i = 0; i < originalCoords.length; i++) {
-			originalCoords[i] = coords[i + offset];
-			lengths[i] = getMetadata().get(imageIndex).getAxesLengthsNonPlanar()[i +
-				offset];
-		}
-		return FormatTools.positionToRaster(lengths, originalCoords);
+		// The separated axes are the fastest-varying non-planar axes, so the
+		// original index is the quotient by the stride of the first axis that
+		// was not split out.
+		final PlaneLayout layout = getMetadata().get(imageIndex).getLayout();
+		if (offset >= layout.getNonPlanarAxisCount()) return 0;
+		final long stride = layout.getNonPlanarStride(offset);
+		return stride == 0 ? 0 : planeIndex / stride;
 	}
 
 	// -- AbstractReaderFilter API Methods --
@@ -214,8 +227,9 @@ public class PlaneSeparator extends AbstractReaderFilter {
 		// Get the position in the the current separated metadata
 		final int splitOffset = metaCheck() ? ((PlaneSeparatorMetadata) meta)
 			.offset() : 0;
-		final boolean interleaved = parentMeta.get(imageIndex)
-			.getInterleavedAxisCount() > 0;
+		final PlaneLayout layout = meta.get(imageIndex).getLayout();
+		final PlaneLayout parentLayout = parentMeta.get(imageIndex).getLayout();
+		final boolean interleaved = parentLayout.isInterleaved();
 
 		synchronized (this) {
 			if (!parentMeta.get(imageIndex).isIndexed()) {
@@ -228,25 +242,41 @@ public class PlaneSeparator extends AbstractReaderFilter {
 				// should
 				// just be raster to position on just the converted lengths
 
-				// Get the position of the current plane
-				final long[] completePosition = FormatTools.rasterToPosition(imageIndex,
-					planeIndex, meta);
 				// Isolate the position and lengths of the axis (axes) that have
-				// been
-				// split
-				final long[] separatedPosition = Arrays.copyOf(completePosition,
-					splitOffset);
-				final long[] separatedLengths = Arrays.copyOf(meta.get(imageIndex)
-					.getAxesLengthsNonPlanar(), splitOffset);
-				final int bpp = FormatTools.getBytesPerPixel(meta.get(imageIndex)
-					.getPixelType());
+				// been split. They are the fastest-varying non-planar axes, so
+				// their position is the low-order digits of the plane index.
+				if (separatedPosition == null ||
+					separatedPosition.length != splitOffset)
+				{
+					separatedPosition = new long[splitOffset];
+					separatedLengths = new long[splitOffset];
+				}
+				long remainder = planeIndex;
+				for (int i = 0; i < splitOffset; i++) {
+					separatedLengths[i] = layout.getNonPlanarLength(i);
+					separatedPosition[i] = remainder % separatedLengths[i];
+					remainder /= separatedLengths[i];
+				}
+				final int bpp = layout.getBytesPerPixel();
 
 				// Need a byte array plane to copy data into
 				if (!ByteArrayPlane.class.isAssignableFrom(plane.getClass())) {
 					plane = new ByteArrayPlane(meta.get(imageIndex), bounds);
 				}
 
-				if (!haveCached(source, imageIndex, bounds)) {
+				final long[] parentMin = new long[bounds.numDimensions() +
+					splitOffset];
+				final long[] parentMax = new long[parentMin.length];
+				toParentBounds(imageIndex, bounds, parentMin, parentMax);
+				final Interval parentBounds = new FinalInterval(parentMin, parentMax);
+
+				final Plane cached = cache.get(imageIndex, source, parentBounds);
+				if (metrics.isEnabled()) {
+					metrics.count(cached == null ? MetricsService.CACHE_MISSES
+						: MetricsService.CACHE_HITS, getClass().getSimpleName(), 1);
+				}
+
+				if (cached == null) {
 					int strips = 1;
 
 					// check how big the original image is; if it's larger than
@@ -256,8 +286,7 @@ public class PlaneSeparator extends AbstractReaderFilter {
 					final long availableMemory = MemoryTools.totalAvailableMemory() / 16;
 					final long planeSize = meta.get(imageIndex).getPlaneSize();
 					// If we make strips, they will be of the Y axis
-					final long h = //
-						bounds.dimension(meta.get(imageIndex).getAxisIndex(Axes.Y));
+					final long h = bounds.dimension(layout.getYIndex());
 
 					if (availableMemory < planeSize || planeSize > Integer.MAX_VALUE) {
 						strips = (int) Math.sqrt(h);
@@ -273,23 +302,36 @@ public class PlaneSeparator extends AbstractReaderFilter {
 					byte[] strip = strips == 1 ? plane.getBytes()
 						: new byte[(int) (stripHeight * ArrayUtils.safeMultiply32(Arrays
 							.copyOf(dims, dims.length - 1)) * bpp)];
-					updateLastPlaneInfo(source, imageIndex, splitOffset, bounds);
-					final int parentYIndex = parentMeta.get(imageIndex).getAxisIndex(
-						Axes.Y);
-					final int yIndex = meta.get(imageIndex).getAxisIndex(Axes.Y);
+					final long[] stripMin = parentMin.clone();
+					final long[] stripMax = parentMax.clone();
+					final int parentYIndex = parentLayout.getYIndex();
+					final int yIndex = layout.getYIndex();
+					Plane parentPlane = null;
 
 					// Populate the strips
 					for (int i = 0; i < strips; i++) {
 						// Update planar bounds for current strip
-						lastPlaneMin[parentYIndex] = bounds.min(yIndex) + (i * stripHeight);
-						lastPlaneMax[parentYIndex] = lastPlaneMin[parentYIndex] +
-							(i == strips - 1 ? lastStripHeight : stripHeight) - 1;
-
-						// Open the plane
-						lastPlane = getParent().openPlane(imageIndex, (int) source,
-							new FinalInterval(lastPlaneMin, lastPlaneMax), config);
+						stripMin[parentYIndex] = bounds.min(yIndex) + (i * stripHeight);
+						stripMax[parentYIndex] = stripMin[parentYIndex] + (i == strips -
+							1 ? lastStripHeight : stripHeight) - 1;
+
+						Plane stripPlane = null;
+						// Open the plane. Strips are opened into planes allocated
+						// here, so that they can be closed once copied.
+						final Interval stripBounds = new FinalInterval(stripMin,
+							stripMax);
+						if (strips == 1) {
+							parentPlane = getParent().openPlane(imageIndex, (int) source,
+								stripBounds, config);
+						}
+						else {
+							stripPlane = getParent().createPlane(parentMeta.get(
+								imageIndex), stripBounds);
+							parentPlane = getParent().openPlane(imageIndex, (int) source,
+								stripPlane, stripBounds, config);
+						}
 						// store the color table
-						plane.setColorTable(lastPlane.getColorTable());
+						plane.setColorTable(parentPlane.getColorTable());
 
 						// Adjust the strip array if this is the last strip, if
 						// needed
@@ -301,7 +343,7 @@ public class PlaneSeparator extends AbstractReaderFilter {
 						}
 
 						// Extract the requested channel from the plane
-						ImageTools.splitChannels(lastPlane.getBytes(), strip,
+						ImageTools.splitChannels(parentPlane.getBytes(), strip,
 							separatedPosition, separatedLengths, bpp, false, interleaved,
 							strips == 1 ? bpp * ArrayUtils.safeMultiply32(dims)
 								: strip.length);
@@ -309,13 +351,23 @@ public class PlaneSeparator extends AbstractReaderFilter {
 							System.arraycopy(strip, 0, plane.getBytes(), (int) (i *
 								stripHeight * ArrayUtils.safeMultiply32(Arrays.copyOf(dims,
 									dims.length - 1))) * bpp, strip.length);
+							// strips are not cached, so their buffers can be reused
+							stripPlane.close();
 						}
 					}
+
+					// Only whole parent planes are worth keeping: strips are
+					// only used when the plane is too large to cache anyway.
+					if (strips == 1) {
+						cache.put(imageIndex, source, parentBounds, parentPlane,
+							parentPlane.getBytes().length);
+					}
 				}
 				else {
 					// Have a cached instance of the plane containing the
 					// desired region
-					ImageTools.splitChannels(lastPlane.getBytes(), plane.getBytes(),
+					plane.setColorTable(cached.getColorTable());
+					ImageTools.splitChannels(cached.getBytes(), plane.getBytes(),
 						separatedPosition, separatedLengths, bpp, false, interleaved, bpp *
 							ArrayUtils.safeMultiply32(Intervals.numElements(bounds)));
 				}
@@ -323,17 +375,15 @@ public class PlaneSeparator extends AbstractReaderFilter {
 				return plane;
 			}
 
-			if (!haveCached(source, imageIndex, bounds)) {
-				// Convert the current positional information to the format of
-				// the
-				// parent
-				updateLastPlaneInfo(source, imageIndex, splitOffset, bounds);
-				// Delegate directly to the parent
-				lastPlane = getParent().openPlane(imageIndex, planeIndex, plane,
-					new FinalInterval(lastPlaneMin, lastPlaneMax), config);
-			}
+			// Convert the current positional information to the format of the
+			// parent and delegate directly to it. The caller's plane is filled
+			// in place, so there is nothing worth caching here.
+			final long[] parentMin = new long[bounds.numDimensions() + splitOffset];
+			final long[] parentMax = new long[parentMin.length];
+			toParentBounds(imageIndex, bounds, parentMin, parentMax);
+			return getParent().openPlane(imageIndex, planeIndex, plane,
+				new FinalInterval(parentMin, parentMax), config);
 		}
-		return lastPlane;
 	}
 
 	// -- Prioritized API --
@@ -346,79 +396,42 @@ public class PlaneSeparator extends AbstractReaderFilter {
 	// -- Helper Methods --
 
 	/**
-	 * Converts the given plane information using the current metadata to a format
-	 * usable by the wrapped reader, stored in the "lastPlane"... variables.
+	 * Converts the given plane bounds using the current metadata to bounds
+	 * usable by the wrapped reader, stored in the given min and max arrays.
 	 */
-	private void updateLastPlaneInfo(final long source, final int imageIndex,
-		final int splitOffset, final Interval bounds)
+	private void toParentBounds(final int imageIndex, final Interval bounds,
+		final long[] min, final long[] max)
 	{
-		final Metadata meta = getMetadata();
-		final Metadata parentMeta = getParentMeta();
-		lastPlaneIndex = source;
-		lastImageIndex = imageIndex;
-		// create the plane offsets and lengths to match the underlying image
-		lastPlaneMin = new long[bounds.numDimensions() + splitOffset];
-		lastPlaneMax = new long[bounds.numDimensions() + splitOffset];
+		final PlaneLayout layout = getMetadata().get(imageIndex).getLayout();
+		final PlaneLayout parentLayout = getParentMeta().get(imageIndex)
+			.getLayout();
 
 		// Create the offset and length arrays to match the underlying,
 		// unsplit dimensions. This is required to pass to the wrapped reader.
 		// The unsplit plane will then have the appropriate region extracted.
-		for (final CalibratedAxis axis : parentMeta.get(imageIndex)
-			.getAxesPlanar())
-		{
-			final int parentIndex = parentMeta.get(imageIndex).getAxisIndex(axis
-				.type());
-			final int currentIndex = meta.get(imageIndex).getAxisIndex(axis.type());
+		for (int i = 0; i < parentLayout.getPlanarAxisCount(); i++) {
+			final AxisType type = parentLayout.getAxisType(i);
+			final int parentIndex = parentLayout.getAxisIndex(type);
+			final int currentIndex = layout.getAxisIndex(type);
 			// This axis is still a planar axis, so we can read it from the
 			// current plane offsets/lengths
-			if (currentIndex >= 0 && currentIndex < meta.get(imageIndex)
-				.getPlanarAxisCount())
-			{
-				lastPlaneMin[parentIndex] = bounds.min(currentIndex);
-				lastPlaneMax[parentIndex] = bounds.max(currentIndex);
+			if (currentIndex >= 0 && currentIndex < layout.getPlanarAxisCount()) {
+				min[parentIndex] = bounds.min(currentIndex);
+				max[parentIndex] = bounds.max(currentIndex);
 			}
 			// This axis is a planar axis in the underlying metadata that was
 			// split out, so we will insert a [0,length] range
-			else if (parentMeta.get(imageIndex).getAxisIndex(axis.type()) < parentMeta
-				.get(imageIndex).getPlanarAxisCount())
-			{
-				lastPlaneMin[parentIndex] = 0;
-				lastPlaneMax[parentIndex] = parentMeta.get(imageIndex).getAxisLength(
-					axis.type()) - 1;
+			else {
+				min[parentIndex] = 0;
+				max[parentIndex] = parentLayout.getAxisLength(parentIndex) - 1;
 			}
 		}
 	}
 
-	/**
-	 * Returns true if we have a cached plane matching the given image and plane
-	 * indices, with extents to cover the desired offsets and lengths
-	 */
-	private boolean haveCached(final long source, final int imageIndex,
-		final Interval bounds)
-	{
-		if (source != lastPlaneIndex || imageIndex != lastImageIndex ||
-			lastPlane == null || lastPlaneMin == null || lastPlaneMax == null)
-		{
-			return false;
-		}
-		// TODO It would be nice to fix up this logic so that we can use
-		// cached planes when requesting a sub-region of the cached plane.
-		// See https://github.com/scifio/scifio/issues/155
-		for (int d = 0; d < bounds.numDimensions(); d++) {
-			if (bounds.min(d) != lastPlaneMin[d]) return false;
-			if (bounds.max(d) != lastPlaneMax[d]) return false;
-		}
-		return true;
-	}
-
 	/* Resets local fields. */
 	@Override
 	protected void cleanUp() throws IOException {
 		super.cleanUp();
-		lastPlane = null;
-		lastPlaneIndex = -1;
-		lastImageIndex = -1;
-		lastPlaneMin = null;
-		lastPlaneMax = null;
+		cache.clear();
 	}
 }
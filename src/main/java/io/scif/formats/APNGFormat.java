@@ -35,7 +35,8 @@ import io.scif.AbstractMetadata;
 import io.scif.AbstractParser;
 import io.scif.AbstractTranslator;
 import io.scif.AbstractWriter;
-import io.scif.BufferedImagePlane;
+import io.scif.ByteArrayPlane;
+import io.scif.ByteArrayReader;
 import io.scif.Field;
 import io.scif.FieldPrinter;
 import io.scif.Format;
@@ -44,38 +45,27 @@ import io.scif.ImageMetadata;
 import io.scif.Plane;
 import io.scif.Translator;
 import io.scif.config.SCIFIOConfig;
-import io.scif.gui.AWTImageTools;
-import io.scif.gui.BufferedImageReader;
 import io.scif.util.FormatTools;
 import io.scif.util.SCIFIOMetadataTools;
 
-import java.awt.image.BufferedImage;
 import java.awt.image.IndexColorModel;
-import java.awt.image.WritableRaster;
-import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
 import java.util.zip.DeflaterOutputStream;
-
-import javax.imageio.ImageIO;
+import java.util.zip.Inflater;
 
 import net.imagej.axis.Axes;
-import net.imglib2.FinalInterval;
 import net.imglib2.Interval;
-import net.imglib2.display.ColorTable;
 import net.imglib2.display.ColorTable8;
 
 import org.scijava.Priority;
 import org.scijava.io.handle.DataHandle;
-import org.scijava.io.handle.DataHandleInputStream;
-import org.scijava.io.handle.DataHandleService;
-import org.scijava.io.location.BytesLocation;
 import org.scijava.io.location.Location;
-import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 import org.scijava.util.Bytes;
 
@@ -94,6 +84,18 @@ public class APNGFormat extends AbstractFormat {
 	public static final byte[] PNG_SIGNATURE = new byte[] { (byte) 0x89, 0x50,
 		0x4e, 0x47, 0x0d, 0x0a, 0x1a, 0x0a };
 
+	/** fcTL dispose operations. */
+	public static final int DISPOSE_OP_NONE = 0;
+
+	public static final int DISPOSE_OP_BACKGROUND = 1;
+
+	public static final int DISPOSE_OP_PREVIOUS = 2;
+
+	/** fcTL blend operations. */
+	public static final int BLEND_OP_SOURCE = 0;
+
+	public static final int BLEND_OP_OVER = 1;
+
 	// -- AbstractFormat Methods --
 
 	@Override
@@ -126,6 +128,8 @@ public class APNGFormat extends AbstractFormat {
 
 		private PLTEChunk plte;
 
+		private transient TRNSChunk trns;
+
 		private IENDChunk iend;
 
 		// true if the default image is not part of the animation
@@ -252,8 +256,8 @@ public class APNGFormat extends AbstractFormat {
 			// Set pixel information
 			imageMeta.setBitsPerPixel(bpp);
 			try {
-				imageMeta.setPixelType(FormatTools.pixelTypeFromBytes(bpp / 8,
-					isSigned(), false));
+				imageMeta.setPixelType(FormatTools.pixelTypeFromBytes(Math.max(1,
+					bpp / 8), isSigned(), false));
 			}
 			catch (final FormatException e) {
 				log().error("Failed to find pixel type from bytes: " + (bpp / 8), e);
@@ -330,6 +334,14 @@ public class APNGFormat extends AbstractFormat {
 			this.plte = plte;
 		}
 
+		public TRNSChunk getTrns() {
+			return trns;
+		}
+
+		public void setTrns(final TRNSChunk trns) {
+			this.trns = trns;
+		}
+
 		public IENDChunk getIend() {
 			return iend;
 		}
@@ -491,6 +503,14 @@ public class APNGFormat extends AbstractFormat {
 
 					meta.setPlte(plte);
 				}
+				else if (type.equals("tRNS")) {
+					chunk = new TRNSChunk();
+					final TRNSChunk trns = (TRNSChunk) chunk;
+					final byte[] transparency = new byte[length];
+					handle.readFully(transparency);
+					trns.setTransparency(transparency);
+					meta.setTrns(trns);
+				}
 				else if (type.equals("IEND")) {
 					chunk = new IENDChunk();
 					handle.skipBytes((int) (handle.length() - handle.offset()));
@@ -513,19 +533,58 @@ public class APNGFormat extends AbstractFormat {
 	/**
 	 * File format SCIFIO Reader for Animated Portable Network Graphics (APNG)
 	 * images.
+	 * <p>
+	 * Image data is inflated and unfiltered directly, without handing frames to
+	 * ImageIO. Default images and frames which do not depend on earlier frames
+	 * are decoded only up to the last requested row. Other animation frames are
+	 * composited on a canvas which honors the fcTL dispose and blend operations,
+	 * so reading frames in order only decodes each frame once.
+	 * </p>
 	 */
-	public static class Reader extends BufferedImageReader<Metadata> {
+	public static class Reader extends ByteArrayReader<Metadata> {
+
+		// -- Constants --
+
+		/** Adam7 passes as {x start, y start, x step, y step}. */
+		private static final int[][] ADAM7 = { { 0, 0, 8, 8 }, { 4, 0, 8, 8 }, {
+			0, 4, 4, 8 }, { 2, 0, 4, 4 }, { 0, 2, 2, 4 }, { 1, 0, 2, 2 }, { 0, 1, 1,
+				2 } };
 
-		@Parameter
-		private DataHandleService dataHandleService;
+		private static final int[][] NOT_INTERLACED = { { 0, 0, 1, 1 } };
 
 		// -- Fields --
 
-		// Cached copy of the last plane that was returned.
-		private BufferedImagePlane lastPlane;
+		/** Inflater reused for every frame. */
+		private Inflater inflater;
+
+		/** Compressed data buffer, refilled from the frame's data chunks. */
+		private final byte[] input = new byte[8192];
+
+		/** Data chunks of the frame being inflated. */
+		private List<? extends APNGChunk> dataChunks;
+
+		private int chunkIndex;
+
+		private long chunkPos;
+
+		private long chunkRemaining;
+
+		/** Current and previous scanline, including the filter type byte. */
+		private byte[] curRow;
+
+		private byte[] prevRow;
+
+		/** Scanline unpacked to one byte per sample, for bit depths below 8. */
+		private byte[] unpacked;
+
+		/** Composited animation frame, pixel interleaved in PNG sample order. */
+		private byte[] canvas;
 
-		// Plane index of the last plane that was returned.
-		private long lastPlaneIndex = -1;
+		/** Canvas region covered by a frame disposed to the previous state. */
+		private byte[] saved;
+
+		/** Animation frame held by the canvas, before its disposal. */
+		private int canvasFrame = -1;
 
 		// -- AbstractReader API Methods --
 
@@ -538,179 +597,586 @@ public class APNGFormat extends AbstractFormat {
 
 		@Override
 		public void setMetadata(final Metadata meta) throws IOException {
-			lastPlaneIndex = -1;
-			lastPlane = null;
+			resetCanvas();
 			super.setMetadata(meta);
 		}
 
-		 
 		@Override
-		public BufferedImagePlane openPlane(final int imageIndex,
-			final long planeIndex, final BufferedImagePlane plane,
-			final Interval bounds, final SCIFIOConfig config) throws FormatException,
-			IOException
+		public ByteArrayPlane openPlane(final int imageIndex, final long planeIndex,
+			final ByteArrayPlane plane, final Interval bounds,
+			final SCIFIOConfig config) throws FormatException, IOException
 		{
 			final Metadata meta = getMetadata();
-			FormatTools.checkPlaneForReading(meta, imageIndex, planeIndex, -1,
+			final ImageMetadata imageMeta = meta.get(imageIndex);
+			final byte[] buf = plane.getData();
+			FormatTools.checkPlaneForReading(meta, imageIndex, planeIndex, buf.length,
 				bounds);
 
-			// If the last processed (cached) plane is requested, return the
-			// requested sub-image, but don't update the last plane (in case the
-			// full plane was not requested)
-			if (planeIndex == lastPlaneIndex && lastPlane != null) {
+			final PLTEChunk plte = meta.getPlte();
+			if (imageMeta.isIndexed() && plte != null) {
+				plane.setColorTable(new ColorTable8(plte.getRed(), plte.getGreen(),
+					plte.getBlue()));
+			}
 
-				final BufferedImage subImage = AWTImageTools.getSubimage(lastPlane
-					.getData(), meta.get(imageIndex).isLittleEndian(), bounds);
-				plane.setData(subImage);
+			final IHDRChunk ihdr = meta.getIhdr();
+			final int width = ihdr.getWidth();
+			final int height = ihdr.getHeight();
+			final PlaneSink sink = new PlaneSink(buf, bounds, imageMeta, samples(),
+				sampleBytes());
+			final int rowLimit = sink.y0 + sink.h;
+
+			// The default image is not part of the animation when it has no fcTL
+			final int frame = meta.getActl() == null ? -1 : (int) (meta
+				.isSeparateDefault() ? planeIndex - 1 : planeIndex);
+			if (frame < 0) {
+				decode(meta.getIdat(), width, height, rowLimit, sink);
 				return plane;
 			}
-			else if (lastPlane == null) {
-				lastPlane = createPlane(bounds);
-				if (getMetadata().get(imageIndex).isIndexed()) {
-					final PLTEChunk plte = meta.getPlte();
-					if (plte != null) {
-						final ColorTable ct = new ColorTable8(plte.getRed(), plte
-							.getGreen(), plte.getBlue());
-						plane.setColorTable(ct);
-					}
+			if (frame >= meta.getFctl().size()) {
+				throw new FormatException("No fcTL chunk for frame " + frame);
+			}
+
+			// A tile of a frame which replaces the whole canvas can be decoded
+			// directly, leaving the canvas untouched
+			if (frame != canvasFrame && isIndependent(frame) && !SCIFIOMetadataTools
+				.wholePlane(imageIndex, meta, bounds))
+			{
+				decode(frameData(frame), width, height, rowLimit, sink);
+				return plane;
+			}
+
+			render(frame);
+			final int rowBytes = width * samples() * sampleBytes();
+			for (int y = sink.y0; y < rowLimit; y++) {
+				sink.row(y, 0, 1, width, canvas, y * rowBytes);
+			}
+			return plane;
+		}
+
+		@Override
+		public void close(final boolean fileOnly) throws IOException {
+			super.close(fileOnly);
+			resetCanvas();
+
+			if (!fileOnly && inflater != null) {
+				inflater.end();
+				inflater = null;
+			}
+		}
+
+		// -- Helper methods --
+
+		private void resetCanvas() {
+			canvas = null;
+			saved = null;
+			canvasFrame = -1;
+		}
+
+		/** Number of samples per pixel, from the IHDR colour type. */
+		private int samples() {
+			switch (getMetadata().getIhdr().getColourType()) {
+				case 0x2:
+					return 3;
+				case 0x4:
+					return 2;
+				case 0x6:
+					return 4;
+				default:
+					return 1;
+			}
+		}
+
+		/** Bytes per decoded sample; depths below 8 are unpacked to bytes. */
+		private int sampleBytes() {
+			return getMetadata().getIhdr().getBitDepth() == 16 ? 2 : 1;
+		}
+
+		private boolean hasAlpha() {
+			final int colourType = getMetadata().getIhdr().getColourType();
+			return colourType == 0x4 || colourType == 0x6;
+		}
+
+		/** Data chunks of the given animation frame. */
+		private List<? extends APNGChunk> frameData(final int frame) {
+			final Metadata meta = getMetadata();
+			if (frame == 0 && !meta.isSeparateDefault()) return meta.getIdat();
+			return meta.getFctl().get(frame).getFdatChunks();
+		}
+
+		private boolean isFullFrame(final FCTLChunk fctl) {
+			final IHDRChunk ihdr = getMetadata().getIhdr();
+			return fctl.getxOffset() == 0 && fctl.getyOffset() == 0 && fctl
+				.getWidth() == ihdr.getWidth() && fctl.getHeight() == ihdr.getHeight();
+		}
+
+		/**
+		 * Whether the given frame's output does not depend on earlier frames. The
+		 * first frame is blended over transparent black, which equals its source
+		 * unless transparent pixels are given by tRNS and thus can not be kept.
+		 */
+		private boolean isIndependent(final int frame) {
+			final FCTLChunk fctl = getMetadata().getFctl().get(frame);
+			return isFullFrame(fctl) && (fctl.getBlendOp() == BLEND_OP_SOURCE ||
+				frame == 0 && (hasAlpha() || getMetadata().getTrns() == null));
+		}
+
+		/**
+		 * Alpha of each palette entry of an indexed image, from tRNS. Entries
+		 * past the end are opaque. Null if the image has no such transparency.
+		 */
+		private byte[] paletteAlpha() {
+			final TRNSChunk trns = getMetadata().getTrns();
+			if (trns == null || getMetadata().getIhdr().getColourType() != 0x3) {
+				return null;
+			}
+			return trns.getTransparency();
+		}
+
+		/**
+		 * Transparent grey level or RGB colour of an image without alpha, from
+		 * tRNS, laid out like a canvas pixel. Null if the image has none.
+		 */
+		private byte[] transparentColour() {
+			final TRNSChunk trns = getMetadata().getTrns();
+			final int colourType = getMetadata().getIhdr().getColourType();
+			if (trns == null || (colourType != 0x0 && colourType != 0x2)) {
+				return null;
+			}
+			final int samples = samples();
+			final int sampleBytes = sampleBytes();
+			final byte[] data = trns.getTransparency();
+			if (data.length < 2 * samples) return null;
+
+			// tRNS holds one 16-bit value per sample; lower depths use its low bits
+			final byte[] colour = new byte[samples * sampleBytes];
+			for (int c = 0; c < samples; c++) {
+				if (sampleBytes == 2) {
+					colour[2 * c] = data[2 * c];
+					colour[2 * c + 1] = data[2 * c + 1];
 				}
+				else colour[c] = data[2 * c + 1];
 			}
+			return colour;
+		}
 
-			// The default frame is requested and we can use the standard
-			// Java ImageIO to extract it
-			final DataHandle<Location> handle = getHandle();
-			if (planeIndex == 0) {
-				handle.seek(0);
-				final DataInputStream dis = new DataInputStream(new BufferedInputStream(
-					new DataHandleInputStream<>(handle), 4096));
-				BufferedImage subImg = ImageIO.read(dis);
-				lastPlane.populate(meta.get(imageIndex), subImg, bounds);
-
-				lastPlaneIndex = 0;
-
-				plane.setData(lastPlane.getData());
-
-				if (!SCIFIOMetadataTools.wholePlane(imageIndex, meta, bounds)) {
-					// updates the data of the plane to a sub-image, by
-					// reference
-					subImg = AWTImageTools.getSubimage(lastPlane.getData(), meta.get(
-						imageIndex).isLittleEndian(), bounds);
-					plane.setData(subImg);
+		/** Brings the canvas to the output state of the given animation frame. */
+		private void render(final int frame) throws FormatException, IOException {
+			final IHDRChunk ihdr = getMetadata().getIhdr();
+			final List<FCTLChunk> fctls = getMetadata().getFctl();
+			if (canvas == null) {
+				canvas = new byte[ihdr.getWidth() * ihdr.getHeight() * samples() *
+					sampleBytes()];
+				canvasFrame = -1;
+			}
+			if (frame == canvasFrame) return;
+
+			// Continue from the canvas when possible, but skip ahead to the last
+			// frame which overwrites the whole canvas and can be disposed of
+			// without knowing the earlier state
+			final boolean resume = canvasFrame >= 0 && canvasFrame < frame;
+			int first = resume ? canvasFrame + 1 : 0;
+			for (int i = frame; i > first; i--) {
+				if (isIndependent(i) && fctls.get(i)
+					.getDisposeOp() != DISPOSE_OP_PREVIOUS)
+				{
+					first = i;
+					break;
 				}
+			}
 
-				return plane;
+			final int last = canvasFrame;
+			canvasFrame = -1;
+			if (resume && first == last + 1) dispose(last);
+			else if (first == 0) Arrays.fill(canvas, (byte) 0);
+
+			for (int i = first; i <= frame; i++) {
+				if (i > first) dispose(i - 1);
+				draw(i);
+			}
+			canvasFrame = frame;
+		}
+
+		/** Applies the dispose operation of the given frame to the canvas. */
+		private void dispose(final int frame) {
+			final FCTLChunk fctl = getMetadata().getFctl().get(frame);
+			final int pixelBytes = samples() * sampleBytes();
+			final int rowBytes = getMetadata().getIhdr().getWidth() * pixelBytes;
+			final int frameRowBytes = fctl.getWidth() * pixelBytes;
+			for (int y = 0; y < fctl.getHeight(); y++) {
+				final int offset = (fctl.getyOffset() + y) * rowBytes + fctl
+					.getxOffset() * pixelBytes;
+				if (fctl.getDisposeOp() == DISPOSE_OP_BACKGROUND) {
+					Arrays.fill(canvas, offset, offset + frameRowBytes, (byte) 0);
+				}
+				else if (fctl.getDisposeOp() == DISPOSE_OP_PREVIOUS) {
+					System.arraycopy(saved, y * frameRowBytes, canvas, offset,
+						frameRowBytes);
+				}
 			}
+		}
 
-			// For a non-default frame, the appropriate chunks will be used to
-			// create
-			// a new image,
-			// which will be read with the standard Java ImageIO and pasted onto
-			// frame
-			// 0.
-			final ByteArrayOutputStream stream = new ByteArrayOutputStream();
-			stream.write(APNGFormat.PNG_SIGNATURE);
-
-			final int[] coords = getMetadata().getFctl().get((int) planeIndex)
-				.getFrameCoordinates();
-			// process IHDR chunk
+		/** Decodes the given frame onto the canvas. */
+		private void draw(final int frame) throws FormatException, IOException {
 			final IHDRChunk ihdr = getMetadata().getIhdr();
-			processChunk(imageIndex, ihdr.getLength(), ihdr.getOffset(), coords,
-				stream, true);
+			final FCTLChunk fctl = getMetadata().getFctl().get(frame);
+			if (fctl.getxOffset() < 0 || fctl.getyOffset() < 0 || fctl
+				.getxOffset() + fctl.getWidth() > ihdr.getWidth() || fctl
+					.getyOffset() + fctl.getHeight() > ihdr.getHeight())
+			{
+				throw new FormatException("Frame " + frame +
+					" exceeds the image bounds");
+			}
 
-			// process fcTL and fdAT chunks
-			final FCTLChunk fctl = getMetadata().getFctl().get((int) (getMetadata()
-				.isSeparateDefault() ? planeIndex - 1 : planeIndex));
+			final int pixelBytes = samples() * sampleBytes();
+			final int rowBytes = ihdr.getWidth() * pixelBytes;
+			final int frameRowBytes = fctl.getWidth() * pixelBytes;
+			if (fctl.getDisposeOp() == DISPOSE_OP_PREVIOUS) {
+				final int size = frameRowBytes * fctl.getHeight();
+				if (saved == null || saved.length < size) saved = new byte[size];
+				for (int y = 0; y < fctl.getHeight(); y++) {
+					System.arraycopy(canvas, (fctl.getyOffset() + y) * rowBytes + fctl
+						.getxOffset() * pixelBytes, saved, y * frameRowBytes,
+						frameRowBytes);
+				}
+			}
 
-			// fdAT chunks are converted to IDAT chunks, as we are essentially
-			// building a standalone single-frame image
-			for (final FDATChunk fdat : fctl.getFdatChunks()) {
-				handle.seek(fdat.getOffset() + 4);
-				byte[] b = new byte[fdat.getLength() + 8];
-				Bytes.unpack(fdat.getLength() - 4, b, 0, 4, getMetadata().get(
-					imageIndex).isLittleEndian());
-				b[4] = 'I';
-				b[5] = 'D';
-				b[6] = 'A';
-				b[7] = 'T';
-				handle.read(b, 8, b.length - 12);
-				final int crc = (int) computeCRC(b, b.length - 4);
-				Bytes.unpack(crc, b, b.length - 4, 4, getMetadata().get(imageIndex)
-					.isLittleEndian());
-				stream.write(b);
-				b = null;
+			final byte[] paletteAlpha = paletteAlpha();
+			final byte[] transparentColour = transparentColour();
+			final boolean over = fctl.getBlendOp() == BLEND_OP_OVER && (hasAlpha() ||
+				paletteAlpha != null || transparentColour != null);
+			decode(frameData(frame), fctl.getWidth(), fctl.getHeight(), fctl
+				.getHeight(), new CanvasSink(canvas, ihdr.getWidth(), fctl
+					.getxOffset(), fctl.getyOffset(), samples(), sampleBytes(), over,
+					paletteAlpha, transparentColour));
+		}
+
+		/**
+		 * Inflates and unfilters the given data chunks as a {@code w x h} image,
+		 * passing each scanline to the sink. Rows from {@code rowLimit} on are not
+		 * decoded unless the image is interlaced.
+		 */
+		private void decode(final List<? extends APNGChunk> chunks, final int w,
+			final int h, final int rowLimit, final RowSink sink)
+			throws FormatException, IOException
+		{
+			final IHDRChunk ihdr = getMetadata().getIhdr();
+			final int bitDepth = ihdr.getBitDepth();
+			final int samples = samples();
+			final int bpp = Math.max(1, samples * bitDepth / 8);
+			final int[][] passes = ihdr.getInterlaceMethod() == 1 ? ADAM7
+				: NOT_INTERLACED;
+
+			if (inflater == null) inflater = new Inflater();
+			inflater.reset();
+			dataChunks = chunks;
+			chunkIndex = 0;
+			chunkRemaining = 0;
+
+			for (final int[] pass : passes) {
+				final int pw = (w - pass[0] + pass[2] - 1) / pass[2];
+				final int ph = (h - pass[1] + pass[3] - 1) / pass[3];
+				if (pw <= 0 || ph <= 0) continue;
+
+				final int rowBytes = (pw * samples * bitDepth + 7) / 8;
+				if (curRow == null || curRow.length < rowBytes + 1) {
+					curRow = new byte[rowBytes + 1];
+					prevRow = new byte[rowBytes + 1];
+				}
+				if (bitDepth < 8 && (unpacked == null || unpacked.length < pw)) {
+					unpacked = new byte[pw];
+				}
+				Arrays.fill(prevRow, 0, rowBytes + 1, (byte) 0);
+
+				for (int r = 0; r < ph; r++) {
+					final int y = pass[1] + r * pass[3];
+					if (passes == NOT_INTERLACED && y >= rowLimit) return;
+
+					inflate(curRow, rowBytes + 1);
+					unfilter(curRow, prevRow, rowBytes, bpp);
+					if (bitDepth < 8) {
+						unpack(curRow, pw, bitDepth, unpacked);
+						sink.row(y, pass[0], pass[2], pw, unpacked, 0);
+					}
+					else sink.row(y, pass[0], pass[2], pw, curRow, 1);
+
+					final byte[] tmp = prevRow;
+					prevRow = curRow;
+					curRow = tmp;
+				}
 			}
+		}
 
-			// process PLTE chunks
-			final PLTEChunk plte = getMetadata().getPlte();
-			if (plte != null) {
-				processChunk(imageIndex, plte.getLength(), plte.getOffset(), coords,
-					stream, false);
+		/** Fills {@code b} with the next {@code len} bytes of inflated data. */
+		private void inflate(final byte[] b, final int len) throws FormatException,
+			IOException
+		{
+			int n = 0;
+			while (n < len) {
+				if (inflater.finished()) {
+					throw new FormatException("Truncated PNG image data");
+				}
+				if (inflater.needsInput()) {
+					while (chunkRemaining == 0) {
+						if (chunkIndex >= dataChunks.size()) {
+							throw new FormatException("Truncated PNG image data");
+						}
+						final APNGChunk chunk = dataChunks.get(chunkIndex++);
+						// fdAT data follows the sequence number
+						final int skip = chunk instanceof FDATChunk ? 4 : 0;
+						chunkPos = chunk.getOffset() + skip;
+						chunkRemaining = chunk.getLength() - skip;
+					}
+					final int count = (int) Math.min(chunkRemaining, input.length);
+					getHandle().seek(chunkPos);
+					getHandle().readFully(input, 0, count);
+					chunkPos += count;
+					chunkRemaining -= count;
+					inflater.setInput(input, 0, count);
+				}
+				else if (inflater.needsDictionary()) {
+					throw new FormatException("Unsupported zlib compression");
+				}
+				try {
+					n += inflater.inflate(b, n, len - n);
+				}
+				catch (final DataFormatException e) {
+					throw new FormatException(e.getMessage());
+				}
 			}
-			final Location loc = new BytesLocation(stream.toByteArray());
-			final DataHandleInputStream<Location> dis = new DataHandleInputStream<>(
-				dataHandleService.create(loc));
-			final BufferedImage bi = ImageIO.read(dis);
-			dis.close();
+		}
 
-			// Recover first plane
-			final Interval firstPlaneBounds = //
-				new FinalInterval(meta.get(imageIndex).getAxesLengthsPlanar());
-			openPlane(imageIndex, 0, firstPlaneBounds, config);
+		/** Reverses the scanline filter, in place. */
+		private static void unfilter(final byte[] cur, final byte[] prev,
+			final int rowBytes, final int bpp) throws FormatException
+		{
+			switch (cur[0]) {
+				case 0: // None
+					break;
+				case 1: // Sub
+					for (int i = 1 + bpp; i <= rowBytes; i++) {
+						cur[i] = (byte) (cur[i] + cur[i - bpp]);
+					}
+					break;
+				case 2: // Up
+					for (int i = 1; i <= rowBytes; i++) {
+						cur[i] = (byte) (cur[i] + prev[i]);
+					}
+					break;
+				case 3: // Average
+					for (int i = 1; i <= rowBytes; i++) {
+						final int left = i > bpp ? cur[i - bpp] & 0xff : 0;
+						cur[i] = (byte) (cur[i] + ((left + (prev[i] & 0xff)) >> 1));
+					}
+					break;
+				case 4: // Paeth
+					for (int i = 1; i <= rowBytes; i++) {
+						final int a = i > bpp ? cur[i - bpp] & 0xff : 0;
+						final int b = prev[i] & 0xff;
+						final int c = i > bpp ? prev[i - bpp] & 0xff : 0;
+						final int pa = Math.abs(b - c);
+						final int pb = Math.abs(a - c);
+						final int pc = Math.abs(a + b - 2 * c);
+						final int predictor = pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+						cur[i] = (byte) (cur[i] + predictor);
+					}
+					break;
+				default:
+					throw new FormatException("Invalid PNG filter type: " + cur[0]);
+			}
+		}
 
-			// paste current image onto first plane
-			// NB: last plane read was the first plane
+		/** Unpacks samples of fewer than 8 bits to one byte each. */
+		private static void unpack(final byte[] row, final int count,
+			final int bitDepth, final byte[] dest)
+		{
+			final int mask = (1 << bitDepth) - 1;
+			for (int k = 0; k < count; k++) {
+				final int bit = k * bitDepth;
+				final int shift = 8 - bitDepth - (bit & 7);
+				dest[k] = (byte) ((row[1 + (bit >> 3)] >> shift) & mask);
+			}
+		}
+	}
+
+	/** Receives decoded scanlines, in PNG sample order. */
+	private interface RowSink {
+
+		/**
+		 * @param y row of the frame
+		 * @param xStart column of the first pixel
+		 * @param xStep column increment between pixels
+		 * @param count number of pixels
+		 * @param data pixel data
+		 * @param offset offset of the first pixel in {@code data}
+		 */
+		void row(int y, int xStart, int xStep, int count, byte[] data,
+			int offset);
+	}
 
-			final WritableRaster firstRaster = lastPlane.getData().getRaster();
-			final WritableRaster currentRaster = bi.getRaster();
+	/** Copies decoded rows within the requested bounds into a planar plane. */
+	private static final class PlaneSink implements RowSink {
 
-			firstRaster.setDataElements(coords[0], coords[1], currentRaster);
-			final BufferedImage bImg = new BufferedImage(lastPlane.getData()
-				.getColorModel(), firstRaster, false, null);
+		private final byte[] buf;
 
-			lastPlane.populate(getMetadata().get(imageIndex), bImg, bounds);
+		private final int x0, y0, w, h, c0, cn;
 
-			lastPlaneIndex = planeIndex;
-			return plane.populate(lastPlane);
+		private final int samples, sampleBytes;
+
+		private final boolean swap;
+
+		private PlaneSink(final byte[] buf, final Interval bounds,
+			final ImageMetadata imageMeta, final int samples, final int sampleBytes)
+		{
+			final int xIndex = imageMeta.getAxisIndex(Axes.X);
+			final int yIndex = imageMeta.getAxisIndex(Axes.Y);
+			final int cIndex = imageMeta.getAxisIndex(Axes.CHANNEL);
+			this.buf = buf;
+			x0 = (int) bounds.min(xIndex);
+			y0 = (int) bounds.min(yIndex);
+			w = (int) bounds.dimension(xIndex);
+			h = (int) bounds.dimension(yIndex);
+			final boolean planarC = cIndex >= 0 && cIndex < imageMeta
+				.getPlanarAxisCount();
+			c0 = planarC ? (int) bounds.min(cIndex) : 0;
+			cn = planarC ? (int) bounds.dimension(cIndex) : 1;
+			this.samples = samples;
+			this.sampleBytes = sampleBytes;
+			swap = sampleBytes == 2 && imageMeta.isLittleEndian();
 		}
 
 		@Override
-		public void close(final boolean fileOnly) throws IOException {
-			super.close(fileOnly);
-
-			if (!fileOnly) {
-				lastPlane = null;
-				lastPlaneIndex = -1;
+		public void row(final int y, final int xStart, final int xStep,
+			final int count, final byte[] data, final int offset)
+		{
+			if (y < y0 || y >= y0 + h) return;
+			final int pixelBytes = samples * sampleBytes;
+			final int channelBytes = w * h * sampleBytes;
+			final int rowStart = (y - y0) * w;
+			int k = x0 > xStart ? (x0 - xStart + xStep - 1) / xStep : 0;
+			for (; k < count; k++) {
+				final int x = xStart + k * xStep;
+				if (x >= x0 + w) break;
+				final int src = offset + k * pixelBytes + c0 * sampleBytes;
+				int dest = (rowStart + x - x0) * sampleBytes;
+				for (int c = 0; c < cn; c++) {
+					final int s = src + c * sampleBytes;
+					if (sampleBytes == 1) buf[dest] = data[s];
+					else if (swap) {
+						buf[dest] = data[s + 1];
+						buf[dest + 1] = data[s];
+					}
+					else {
+						buf[dest] = data[s];
+						buf[dest + 1] = data[s + 1];
+					}
+					dest += channelBytes;
+				}
 			}
 		}
+	}
 
-		// -- Helper methods --
+	/** Draws decoded frame rows onto the animation canvas. */
+	private static final class CanvasSink implements RowSink {
 
-		private long computeCRC(final byte[] buf, final int len) {
-			final CRC32 crc = new CRC32();
-			crc.update(buf, 0, len);
-			return crc.getValue();
+		private final byte[] canvas;
+
+		private final int width, xOffset, yOffset;
+
+		private final int samples, sampleBytes;
+
+		private final boolean over;
+
+		/** tRNS transparency, for images without an alpha channel. */
+		private final byte[] paletteAlpha, transparentColour;
+
+		private CanvasSink(final byte[] canvas, final int width, final int xOffset,
+			final int yOffset, final int samples, final int sampleBytes,
+			final boolean over, final byte[] paletteAlpha,
+			final byte[] transparentColour)
+		{
+			this.canvas = canvas;
+			this.width = width;
+			this.xOffset = xOffset;
+			this.yOffset = yOffset;
+			this.samples = samples;
+			this.sampleBytes = sampleBytes;
+			this.over = over;
+			this.paletteAlpha = paletteAlpha;
+			this.transparentColour = transparentColour;
 		}
 
-		private void processChunk(final int imageIndex, final int length,
-			final long offset, final int[] coords, final ByteArrayOutputStream stream,
-			final boolean isIHDR) throws IOException
+		@Override
+		public void row(final int y, final int xStart, final int xStep,
+			final int count, final byte[] data, final int offset)
 		{
-			byte[] b = new byte[length + 12];
-			final boolean littleEndian = getMetadata().get(imageIndex)
-				.isLittleEndian();
-			Bytes.unpack(length, b, 0, 4, littleEndian);
-			final byte[] typeBytes = (isIHDR ? "IHDR".getBytes() : "PLTE".getBytes());
-			System.arraycopy(typeBytes, 0, b, 4, 4);
-			getHandle().seek(offset);
-			getHandle().read(b, 8, b.length - 12);
-			if (isIHDR) {
-				Bytes.unpack(coords[2], b, 8, 4, littleEndian);
-				Bytes.unpack(coords[3], b, 12, 4, littleEndian);
+			final int pixelBytes = samples * sampleBytes;
+			final int rowStart = ((yOffset + y) * width + xOffset + xStart) *
+				pixelBytes;
+			if (!over && xStep == 1) {
+				System.arraycopy(data, offset, canvas, rowStart, count * pixelBytes);
+				return;
+			}
+			for (int k = 0; k < count; k++) {
+				final int src = offset + k * pixelBytes;
+				final int dest = rowStart + k * xStep * pixelBytes;
+				if (over) blend(data, src, dest);
+				else System.arraycopy(data, src, canvas, dest, pixelBytes);
+			}
+		}
+
+		/**
+		 * Composites one non-premultiplied pixel over the canvas, as specified
+		 * for APNG_BLEND_OP_OVER. Alpha is the last sample, or comes from tRNS.
+		 * Canvas pixels without alpha can only be kept or replaced, so partially
+		 * transparent palette entries replace them.
+		 */
+		private void blend(final byte[] data, final int src, final int dest) {
+			if (paletteAlpha != null) {
+				final int index = data[src] & 0xff;
+				if (index >= paletteAlpha.length || paletteAlpha[index] != 0) {
+					canvas[dest] = data[src];
+				}
+				return;
+			}
+			if (transparentColour != null) {
+				for (int i = 0; i < transparentColour.length; i++) {
+					if (data[src + i] != transparentColour[i]) {
+						System.arraycopy(data, src, canvas, dest, transparentColour.length);
+						return;
+					}
+				}
+				return;
+			}
+			final long max = sampleBytes == 2 ? 0xffff : 0xff;
+			final int alpha = (samples - 1) * sampleBytes;
+			final long sa = sample(data, src + alpha);
+			final long da = sample(canvas, dest + alpha);
+			if (sa == max || da == 0) {
+				// over transparent black, the result is the source
+				System.arraycopy(data, src, canvas, dest, samples * sampleBytes);
+				return;
+			}
+			if (sa == 0) return;
+			final long u = sa * max + da * (max - sa);
+			for (int c = 0; c < alpha; c += sampleBytes) {
+				final long sc = sample(data, src + c);
+				final long dc = sample(canvas, dest + c);
+				put(dest + c, (sa * sc * max + (max - sa) * da * dc) / u);
+			}
+			put(dest + alpha, u / max);
+		}
+
+		private long sample(final byte[] b, final int i) {
+			if (sampleBytes == 1) return b[i] & 0xff;
+			return ((b[i] & 0xff) << 8) | (b[i + 1] & 0xff);
+		}
+
+		private void put(final int i, final long value) {
+			if (sampleBytes == 1) canvas[i] = (byte) value;
+			else {
+				canvas[i] = (byte) (value >> 8);
+				canvas[i + 1] = (byte) value;
 			}
-			final int crc = (int) computeCRC(b, b.length - 4);
-			Bytes.unpack(crc, b, b.length - 4, 4, littleEndian);
-			stream.write(b);
-			b = null;
 		}
 	}
 
@@ -1374,6 +1840,39 @@ public class APNGFormat extends AbstractFormat {
 
 	}
 
+	/**
+	 * Represents the tRNS chunk of the APNG image format.
+	 * <p>
+	 * The tRNS chunk specifies simple transparency for images without an alpha
+	 * channel: an alpha value per palette entry, or a single transparent grey
+	 * level or RGB colour.
+	 * </p>
+	 */
+	public static class TRNSChunk extends APNGChunk {
+
+		// -- Constructor --
+
+		public TRNSChunk() {
+			super(new byte[] { (byte) 0x74, 0x52, 0x4E, 0x53 });
+		}
+
+		// -- Fields --
+
+		// Raw chunk data
+		private byte[] transparency;
+
+		// -- Methods --
+
+		public byte[] getTransparency() {
+			return transparency;
+		}
+
+		public void setTransparency(final byte[] transparency) {
+			this.transparency = transparency;
+		}
+
+	}
+
 	/**
 	 * Represents the fcTL chunk of the APNG image format.
 	 * <p>
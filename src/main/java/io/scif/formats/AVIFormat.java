@@ -45,6 +45,7 @@ import io.scif.MetaTable;
 import io.scif.Plane;
 import io.scif.UnsupportedCompressionException;
 import io.scif.codec.BitBuffer;
+import io.scif.codec.CheckpointCache;
 import io.scif.codec.CodecOptions;
 import io.scif.codec.CodecService;
 import io.scif.codec.JPEGCodec;
@@ -74,6 +75,9 @@ import org.scijava.io.handle.DataHandleService;
 import org.scijava.io.location.Location;
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
+import org.scijava.util.Bytes;
+import org.scijava.util.IntArray;
+import org.scijava.util.LongArray;
 
 /**
  * AVIReader is the file format reader for AVI files. Much of this code was
@@ -96,6 +100,15 @@ public class AVIFormat extends AbstractFormat {
 
 	private static final int Y8 = 538982489;
 
+	// -- OpenDML index types --
+
+	private static final int AVI_INDEX_OF_INDEXES = 0;
+
+	private static final int AVI_INDEX_OF_CHUNKS = 1;
+
+	/** idx1 flag marking a key frame. */
+	private static final int AVIIF_KEYFRAME = 0x10;
+
 	// -- Constants --
 
 	/** Huffman table for MJPEG data. */
@@ -167,10 +180,13 @@ public class AVIFormat extends AbstractFormat {
 		// -- AVI Metadata --
 
 		/* Offset to each plane. */
-		private List<Long> offsets;
+		private long[] offsets;
 
 		/* Number of bytes in each plane. */
-		private List<Long> lengths;
+		private int[] lengths;
+
+		/* Planes flagged as key frames in the index, if any. */
+		private transient long[] keyFrames;
 
 		private short bmpBitsPerPixel;
 
@@ -216,22 +232,34 @@ public class AVIFormat extends AbstractFormat {
 			this.bmpScanLineSize = bmpScanLineSize;
 		}
 
-		public List<Long> getOffsets() {
+		public long[] getOffsets() {
 			return offsets;
 		}
 
-		public void setOffsets(final List<Long> offsets) {
+		public void setOffsets(final long[] offsets) {
 			this.offsets = offsets;
 		}
 
-		public List<Long> getLengths() {
+		public int[] getLengths() {
 			return lengths;
 		}
 
-		public void setLengths(final List<Long> lengths) {
+		public void setLengths(final int[] lengths) {
 			this.lengths = lengths;
 		}
 
+		/**
+		 * @return Indices of the planes flagged as key frames by the idx1 or
+		 *         OpenDML index, or null if no key frames are known.
+		 */
+		public long[] getKeyFrames() {
+			return keyFrames;
+		}
+
+		public void setKeyFrames(final long[] keyFrames) {
+			this.keyFrames = keyFrames;
+		}
+
 		public int getBmpColorsUsed() {
 			return bmpColorsUsed;
 		}
@@ -304,13 +332,13 @@ public class AVIFormat extends AbstractFormat {
 			iMeta.setMetadataComplete(true);
 
 			// All planes are timepoints
-			final int sizeT = getOffsets().size();
+			final int sizeT = getOffsets().length;
 
 			getTable().put("Compression", AVIUtils.getCodecName(getBmpCompression()));
 			iMeta.setPlanarAxisCount(2);
 
 			if (getBmpCompression() == JPEG) {
-				final long fileOff = getOffsets().get(0).longValue();
+				final long fileOff = getOffsets()[0];
 
 				final CodecOptions options = AVIUtils.createCodecOptions(this, 0, 0);
 
@@ -419,6 +447,7 @@ public class AVIFormat extends AbstractFormat {
 				bytesPerPlane = 0;
 				offsets = null;
 				lengths = null;
+				keyFrames = null;
 				lut = null;
 			}
 		}
@@ -460,6 +489,18 @@ public class AVIFormat extends AbstractFormat {
 
 		private int size = -1;
 
+		/* Offsets of the frames found so far. */
+		private LongArray offsets;
+
+		/* Lengths of the frames found so far. */
+		private IntArray lengths;
+
+		/* Indices of the frames flagged as key frames so far. */
+		private LongArray keyFrames;
+
+		/* Position of the OpenDML super index of the video stream, or -1. */
+		private long superIndexOffset;
+
 		// -- Parser API Methods --
 
 		@Override
@@ -472,8 +513,10 @@ public class AVIFormat extends AbstractFormat {
 			log().info("Verifying AVI format");
 
 			meta.setLastPlaneIndex(-1);
-			meta.setLengths(new ArrayList<>());
-			meta.setOffsets(new ArrayList<>());
+			offsets = new LongArray();
+			lengths = new IntArray();
+			keyFrames = new LongArray();
+			superIndexOffset = -1;
 
 			meta.createImageMetadata(1);
 
@@ -482,6 +525,13 @@ public class AVIFormat extends AbstractFormat {
 				readChunk(meta);
 			}
 
+			meta.setOffsets(offsets.copyArray());
+			meta.setLengths(lengths.copyArray());
+			meta.setKeyFrames(keyFrames.isEmpty() ? null : keyFrames.copyArray());
+			offsets = null;
+			lengths = null;
+			keyFrames = null;
+
 			log().info("Populating metadata");
 
 		}
@@ -723,14 +773,19 @@ public class AVIFormat extends AbstractFormat {
 								source.seek(spos);
 							}
 
+							// Remember where the OpenDML super index is, if any, so
+							// frames can be located without walking the movi list
+							final long strlEnd = startPos + 8 + streamSize;
 							spos = source.offset();
-							readTypeAndSize();
-							if (type.equals("strn") || type.equals("indx")) {
-								source.skipBytes(size);
-							}
-							else {
-								source.seek(spos);
+							while (spos + 8 <= strlEnd) {
+								readTypeAndSize();
+								if (type.equals("indx")) superIndexOffset = source.offset();
+								else if (!type.equals("strn") && !type.equals("vprp") &&
+									!type.equals("JUNK")) break;
+								source.skipBytes(size + (size & 1));
+								spos = source.offset();
 							}
+							source.seek(spos);
 						}
 
 						if (startPos + streamSize + 8 <= source.length()) {
@@ -742,6 +797,13 @@ public class AVIFormat extends AbstractFormat {
 
 						if (type.equals("LIST")) {
 							if (fcc.equals("movi")) {
+								// Prefer the frame index over walking every chunk
+								final long moviStart = source.offset() - 4;
+								if (readIndex(meta, moviStart, moviStart + size)) {
+									source.seek(source.length());
+									return;
+								}
+
 								spos = source.offset();
 								if (spos >= source.length() - 12) break;
 								readChunkHeader();
@@ -771,8 +833,8 @@ public class AVIFormat extends AbstractFormat {
 										foundPixels = true;
 										if (check.startsWith("d")) {
 											if (size > 0 || meta.getBmpCompression() != 0) {
-												meta.getOffsets().add(source.offset());
-												meta.getLengths().add((long) size);
+												offsets.addValue(source.offset());
+												lengths.addValue(size);
 												source.skipBytes(size);
 											}
 										}
@@ -829,10 +891,172 @@ public class AVIFormat extends AbstractFormat {
 			}
 		}
 
+		/**
+		 * Populates the frame tables from the OpenDML super index if there is
+		 * one, or from the idx1 chunk following the movi list otherwise. Leaves
+		 * the source position untouched and returns false if neither index is
+		 * present and usable.
+		 */
+		private boolean readIndex(final Metadata meta, final long moviStart,
+			final long moviEnd) throws IOException
+		{
+			final long pos = getSource().offset();
+			final boolean found = superIndexOffset >= 0 ? readSuperIndex(meta)
+				: readIdx1(meta, moviStart, moviEnd);
+			if (!found) {
+				offsets = new LongArray();
+				lengths = new IntArray();
+				keyFrames = new LongArray();
+				getSource().seek(pos);
+			}
+			return found;
+		}
+
+		/**
+		 * Reads an AVI 1.0 idx1 chunk: 16-byte entries of chunk id, flags, chunk
+		 * offset and chunk size. Offsets are normally relative to the movi list
+		 * type, but some writers store absolute file offsets.
+		 */
+		private boolean readIdx1(final Metadata meta, final long moviStart,
+			final long moviEnd) throws IOException
+		{
+			final DataHandle<Location> source = getSource();
+			final long length = source.length();
+			if (moviEnd + (moviEnd & 1) + 8 > length) return false;
+			source.seek(moviEnd + (moviEnd & 1));
+			readTypeAndSize();
+			final long idx1Start = source.offset();
+			if (!type.equals("idx1") || size < 0 || idx1Start + size > length) {
+				return false;
+			}
+
+			final byte[] index = new byte[size - size % 16];
+			source.readFully(index);
+
+			long base = -1;
+			for (int e = 0; e < index.length; e += 16) {
+				if (!isFrameChunk(index, e)) continue;
+				final int flags = Bytes.toInt(index, e + 4, 4, true);
+				final long chunkOffset = Bytes.toInt(index, e + 8, 4, true) &
+					0xffffffffL;
+				final int chunkSize = Bytes.toInt(index, e + 12, 4, true);
+				if (base < 0) base = chunkOffset < moviStart ? moviStart : 0;
+				final long offset = base + chunkOffset + 8;
+				if (chunkSize < 0 || offset + chunkSize > length) return false;
+				if (chunkSize > 0 || meta.getBmpCompression() != 0) {
+					if ((flags & AVIIF_KEYFRAME) != 0) keyFrames.addValue(offsets.size());
+					offsets.addValue(offset);
+					lengths.addValue(chunkSize);
+				}
+			}
+
+			// idx1 only covers the first RIFF; extended (AVIX) RIFFs need the
+			// OpenDML index or a chunk walk. The next chunk starts after any
+			// partial trailing entry and the pad byte of an odd-sized chunk.
+			final long next = idx1Start + size + (size & 1);
+			if (next + 12 <= length) {
+				source.seek(next);
+				if (source.readString(4).equals("RIFF")) return false;
+			}
+			return offsets.size() > 0;
+		}
+
+		/**
+		 * Reads an OpenDML (AVI 2.0) super index, and each standard index
+		 * ("ix##" chunk) it points to. Standard index entries are 8 bytes: the
+		 * offset of the chunk data relative to the index base offset, and the
+		 * chunk size (with the high bit flagging non-key frames).
+		 */
+		private boolean readSuperIndex(final Metadata meta) throws IOException {
+			final DataHandle<Location> source = getSource();
+			final long length = source.length();
+			source.seek(superIndexOffset);
+			final int longsPerEntry = source.readShort();
+			source.skipBytes(1);
+			final int indexType = source.readByte();
+			final int entries = source.readInt();
+			source.skipBytes(16);
+			if (indexType != AVI_INDEX_OF_INDEXES || longsPerEntry != 4 ||
+				entries <= 0)
+			{
+				return false;
+			}
+
+			final long[] standardIndices = new long[entries];
+			for (int i = 0; i < entries; i++) {
+				standardIndices[i] = source.readLong();
+				source.skipBytes(8);
+			}
+
+			for (final long standardIndex : standardIndices) {
+				if (standardIndex <= 0 || standardIndex + 32 > length) return false;
+				source.seek(standardIndex);
+				readTypeAndSize();
+				final int entryLongs = source.readShort();
+				final int subType = source.readByte();
+				final int chunkType = source.readByte();
+				final int count = source.readInt();
+				final String chunkId = source.readString(4);
+				final long base = source.readLong();
+				source.skipBytes(4);
+				if (!type.startsWith("ix") || chunkType != AVI_INDEX_OF_CHUNKS ||
+					entryLongs != 2 || subType != 0 || count < 0 ||
+					!(chunkId.endsWith("db") || chunkId.endsWith("dc")))
+				{
+					return false;
+				}
+
+				final byte[] index = new byte[count * 8];
+				source.readFully(index);
+				for (int e = 0; e < index.length; e += 8) {
+					final long offset = base + (Bytes.toInt(index, e, 4, true) &
+						0xffffffffL);
+					final int size = Bytes.toInt(index, e + 4, 4, true);
+					final int chunkSize = size & 0x7fffffff;
+					if (offset + chunkSize > length) return false;
+					if (chunkSize > 0 || meta.getBmpCompression() != 0) {
+						if (size >= 0) keyFrames.addValue(offsets.size());
+						offsets.addValue(offset);
+						lengths.addValue(chunkSize);
+					}
+				}
+			}
+			return offsets.size() > 0;
+		}
+
+		/** Returns true if the idx1 entry at the given offset is a video frame. */
+		private boolean isFrameChunk(final byte[] index, final int e) {
+			return index[e + 2] == 'd' && (index[e + 3] == 'b' ||
+				index[e + 3] == 'c');
+		}
 	}
 
 	public static class Reader extends ByteArrayReader<Metadata> {
 
+		// -- Fields --
+
+		/** Decoded frames to resume from when seeking in delta-coded movies. */
+		private final CheckpointCache checkpoints = new CheckpointCache();
+
+		// -- AVIReader API methods --
+
+		/**
+		 * Sets the maximum number of bytes of decoded frames kept as seek
+		 * checkpoints for delta-coded (MSRLE, MS Video 1) movies. A size of 0
+		 * disables them.
+		 */
+		public void setCacheSize(final long bytes) {
+			checkpoints.setMaxBytes(bytes);
+		}
+
+		/**
+		 * @return The maximum number of bytes of decoded frames kept as seek
+		 *         checkpoints.
+		 */
+		public long getCacheSize() {
+			return checkpoints.getMaxBytes();
+		}
+
 		// -- AbstractReader API Methods --
 
 		@Override
@@ -842,6 +1066,19 @@ public class AVIFormat extends AbstractFormat {
 
 		// -- Reader API Methods --
 
+		@Override
+		public void setMetadata(final Metadata meta) throws IOException {
+			super.setMetadata(meta);
+			checkpoints.clear();
+			checkpoints.setKeyFrames(meta.getKeyFrames());
+		}
+
+		@Override
+		public void close(final boolean fileOnly) throws IOException {
+			super.close(fileOnly);
+			if (!fileOnly) checkpoints.clear();
+		}
+
 		 
 		@Override
 		public ByteArrayPlane openPlane(final int imageIndex, final long planeIndex,
@@ -869,9 +1106,9 @@ public class AVIFormat extends AbstractFormat {
 			final int x = (int) bounds.min(xAxis), y = (int) bounds.min(yAxis), //
 					w = (int) bounds.dimension(xAxis), h = (int) bounds.dimension(yAxis);
 
-			final long fileOff = meta.getOffsets().get((int) planeIndex).longValue();
-			final long end = planeIndex < meta.getOffsets().size() - 1 ? meta
-				.getOffsets().get((int) planeIndex + 1) : getHandle().length();
+			final long fileOff = meta.getOffsets()[(int) planeIndex];
+			final long end = planeIndex < meta.getOffsets().length - 1 ? meta
+				.getOffsets()[(int) planeIndex + 1] : getHandle().length();
 			final long maxBytes = end - fileOff;
 			getHandle().seek(fileOff);
 
@@ -1016,14 +1253,42 @@ public class AVIFormat extends AbstractFormat {
 					options.previousImage = meta.getLastPlaneBytes();
 				}
 				if (options.previousImage == null && meta.getBmpCompression() != JPEG) {
+					// frames only hold the changes from the previous frame, so
+					// decode from the nearest key frame or checkpoint
+					final long current = meta.getLastPlane() == null ? -1 : meta
+						.getLastPlaneIndex();
+					final long start = checkpoints.start(planeIndex, current);
+					if (start != current + 1) {
+						final byte[] checkpoint = checkpoints.get(start - 1);
+						if (checkpoint == null) meta.setLastPlane(null);
+						else {
+							final ByteArrayPlane restored = createPlane(bounds);
+							restored.setData(checkpoint);
+							meta.setLastPlane(restored);
+						}
+						meta.setLastPlaneIndex(start - 1);
+						meta.setLastDimensions(new int[] { 0, 0, options.width,
+							options.height });
+					}
 					while (meta.getLastPlaneIndex() < planeIndex - 1) {
 						openPlane(imageIndex, meta.getLastPlaneIndex() + 1, tmpPlane);
 					}
 					options.previousImage = meta.getLastPlaneBytes();
 				}
 
-				buf = AVIUtils.extractCompression(meta, options, getHandle(), tmpPlane,
-					planeIndex, new int[] { x, y, w, h });
+				if (meta.getLastPlaneIndex() == planeIndex && meta
+					.getLastPlane() != null)
+				{
+					// restored from a checkpoint, or reopened in full above
+					buf = meta.getLastPlaneBytes();
+				}
+				else {
+					buf = AVIUtils.extractCompression(meta, options, getHandle(),
+						tmpPlane, planeIndex, new int[] { x, y, w, h });
+					if (meta.getBmpCompression() != JPEG) {
+						checkpoints.put(planeIndex, buf);
+					}
+				}
 			}
 
 			final int rowLen = (int) FormatTools.getPlaneSize(meta, w, 1, imageIndex);
@@ -1674,10 +1939,6 @@ public class AVIFormat extends AbstractFormat {
 		protected void translateImageMetadata(final List<ImageMetadata> source,
 			final Metadata dest)
 		{
-			final List<Long> offsets = new ArrayList<>();
-			final List<Long> lengths = new ArrayList<>();
-			dest.setOffsets(offsets);
-			dest.setLengths(lengths);
 			dest.add(source.get(0).copy());
 
 			int sizeX = (int) source.get(0).getAxisLength(Axes.X);
@@ -1715,14 +1976,18 @@ public class AVIFormat extends AbstractFormat {
 				length *= numChannels;
 			}
 
-			for (int i = 0; i < source.get(0).getPlaneCount() /
-				nonplanarChannels; i++)
-			{
-				offsets.add(offset);
+			final int planeCount = (int) (source.get(0).getPlaneCount() /
+				nonplanarChannels);
+			final long[] offsets = new long[planeCount];
+			final int[] lengths = new int[planeCount];
+			for (int i = 0; i < planeCount; i++) {
+				offsets[i] = offset;
 
-				lengths.add(length);
+				lengths[i] = (int) length;
 				offset += length;
 			}
+			dest.setOffsets(offsets);
+			dest.setLengths(lengths);
 
 			if (numChannels > 1) {
 				dest.setBmpColorsUsed((int) Math.pow(2.0, bpp));
@@ -1782,7 +2047,7 @@ public class AVIFormat extends AbstractFormat {
 		{
 			final int bmpCompression = meta.getBmpCompression();
 
-			final long fileOff = meta.getOffsets().get((int) planeIndex).longValue();
+			final long fileOff = meta.getOffsets()[(int) planeIndex];
 			final long filePointer = stream.offset();
 			stream.seek(fileOff);
 
@@ -1792,8 +2057,7 @@ public class AVIFormat extends AbstractFormat {
 				CodecService.class);
 
 			if (bmpCompression == MSRLE) {
-				final byte[] b = new byte[(int) meta.getLengths().get((int) planeIndex)
-					.longValue()];
+				final byte[] b = new byte[meta.getLengths()[(int) planeIndex]];
 				stream.read(b);
 				final MSRLECodec codec = codecService.getCodec(MSRLECodec.class);
 				buf = codec.decompress(b, options);
@@ -1817,8 +2081,7 @@ public class AVIFormat extends AbstractFormat {
 			else if (bmpCompression == JPEG) {
 				final JPEGCodec codec = codecService.getCodec(JPEGCodec.class);
 
-				byte[] tmpPlane = new byte[(int) meta.getLengths().get((int) planeIndex)
-					.longValue()];
+				byte[] tmpPlane = new byte[meta.getLengths()[(int) planeIndex]];
 				stream.read(tmpPlane);
 
 				final boolean motionJPEG = new String(tmpPlane, 6, 4,
@@ -298,7 +298,7 @@ public class BMPFormat extends AbstractFormat {
 			}
 			else if (nColors != 0) getSource().skipBytes(nColors * 4);
 
-			if (config.parserGetLevel() != MetadataLevel.MINIMUM) {
+			if (config.parserIncludesLevel(MetadataLevel.NO_OVERLAYS)) {
 				globalTable.put("Indexed color", meta.getColorTable(0, 0) != null);
 				globalTable.put("Image width", sizeX);
 				globalTable.put("Image height", sizeY);
@@ -601,6 +601,14 @@ public class DICOMFormat extends AbstractFormat {
 
 		// -- Parser API Methods --
 
+		@Override
+		public Set<MetadataLevel> getSupportedMetadataLevels() {
+			final Set<MetadataLevel> supportedLevels = super
+				.getSupportedMetadataLevels();
+			supportedLevels.add(MetadataLevel.DIMENSIONS);
+			return supportedLevels;
+		}
+
 		@Override
 		public int fileGroupOption(final Location id) throws FormatException,
 			IOException
@@ -649,11 +657,16 @@ public class DICOMFormat extends AbstractFormat {
 			// identifier
 
 			log().info("Verifying DICOM format");
-			final MetadataLevel level = config.parserGetLevel();
+			// at the dimensions-only level, skip the values of tags that cannot
+			// affect the image dimensions (unless needed for file grouping)
+			final boolean dimensionsOnly = !config.parserIncludesLevel(
+				MetadataLevel.MINIMUM);
+			final boolean skipInfo = dimensionsOnly && !config
+				.groupableIsGroupFiles();
 
 			getSource().seek(128);
 			if ("DICM".equals(getSource().readString(4))) {
-				if (level != MetadataLevel.MINIMUM) {
+				if (config.parserIncludesLevel(MetadataLevel.NO_OVERLAYS)) {
 					// header exists, so we'll read it
 					getSource().seek(0);
 					meta.getTable().put("Header information", getSource().readString(
@@ -800,7 +813,7 @@ public class DICOMFormat extends AbstractFormat {
 						break;
 					default:
 						final long oldfp = getSource().offset();
-						addInfo(meta, tag, s);
+						if (!skipInfo) addInfo(meta, tag, s);
 						getSource().seek(oldfp + tag.getElementLength());
 				}
 				if (getSource().offset() >= (getSource().length() - 4)) {
@@ -856,6 +869,11 @@ public class DICOMFormat extends AbstractFormat {
 			meta.setOffsets(offsets);
 
 			for (int i = 0; i < imagesPerFile; i++) {
+				if (dimensionsOnly && i > 0 && (isRLE || isJPEG || isJP2K)) {
+					// locating compressed planes means scanning the pixel data,
+					// so leave their offsets unset
+					break;
+				}
 				if (isRLE) {
 					if (i == 0) getSource().seek(baseOffset);
 					else {
@@ -1427,6 +1445,11 @@ public class DICOMFormat extends AbstractFormat {
 			final int bytes = (int) (meta.get(imageIndex).getAxisLength(Axes.X) * meta
 				.get(imageIndex).getAxisLength(Axes.Y) * bpp * ec);
 
+			if (planeIndex > 0 && meta.getOffsets()[(int) planeIndex] == 0) {
+				throw new FormatException("Plane offsets were not computed; " +
+					"metadata must be parsed at MetadataLevel.MINIMUM or above");
+			}
+
 			final DataHandle<Location> handle = getHandle();
 			handle.seek(meta.getOffsets()[(int) planeIndex]);
 
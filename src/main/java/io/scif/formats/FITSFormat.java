@@ -37,6 +37,8 @@ import io.scif.ByteArrayReader;
 import io.scif.Format;
 import io.scif.FormatException;
 import io.scif.ImageMetadata;
+import io.scif.LargePlane;
+import io.scif.LargePlaneReader;
 import io.scif.config.SCIFIOConfig;
 import io.scif.util.FormatTools;
 
@@ -185,7 +187,9 @@ public class FITSFormat extends AbstractFormat {
 		}
 	}
 
-	public static class Reader extends ByteArrayReader<Metadata> {
+	public static class Reader extends ByteArrayReader<Metadata> implements
+		LargePlaneReader
+	{
 
 		// -- AbstractReader API Methods --
 
@@ -212,5 +216,21 @@ public class FITSFormat extends AbstractFormat {
 				.getPlaneSize(this, imageIndex));
 			return readPlane(getHandle(), imageIndex, bounds, plane);
 		}
+
+		// -- LargePlaneReader API Methods --
+
+		@Override
+		public LargePlane openLargePlane(final int imageIndex,
+			final long planeIndex, final Interval bounds) throws FormatException,
+			IOException
+		{
+			FormatTools.checkPlaneForReading(getMetadata(), imageIndex, planeIndex,
+				-1, bounds);
+			final LargePlane plane = new LargePlane(getMetadata().get(imageIndex),
+				bounds);
+			getHandle().seek(getMetadata().getPixelOffset() + planeIndex * FormatTools
+				.getPlaneSize(this, imageIndex));
+			return readLargePlane(getHandle(), imageIndex, bounds, plane);
+		}
 	}
 }
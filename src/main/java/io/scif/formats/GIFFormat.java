@@ -39,13 +39,20 @@ import io.scif.Format;
 import io.scif.FormatException;
 import io.scif.HasColorTable;
 import io.scif.ImageMetadata;
+import io.scif.Plane;
 import io.scif.config.SCIFIOConfig;
+import io.scif.filters.PlaneCache;
 import io.scif.util.FormatTools;
 
 import java.io.IOException;
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import net.imagej.axis.Axes;
+import net.imglib2.FinalInterval;
 import net.imglib2.Interval;
 import net.imglib2.display.ColorTable;
 import net.imglib2.display.ColorTable8;
@@ -112,18 +119,8 @@ public class GIFFormat extends AbstractFormat {
 		/** Transparent color index. */
 		private int transIndex;
 
-		// LZW working arrays
-		private transient short[] prefix;
-
-		private transient byte[] suffix;
-
-		private transient byte[] pixelStack;
-
-		private transient byte[] pixels;
-
-		private transient Vector<byte[]> images;
-
-		private transient Vector<int[]> colorTables;
+		/** Location and disposal settings of each image in the file. */
+		private transient List<Frame> frames;
 
 		// -- GIFMetadata getters and setters --
 
@@ -243,52 +240,12 @@ public class GIFFormat extends AbstractFormat {
 			this.transIndex = transIndex;
 		}
 
-		public short[] getPrefix() {
-			return prefix;
-		}
-
-		public void setPrefix(final short[] prefix) {
-			this.prefix = prefix;
-		}
-
-		public byte[] getSuffix() {
-			return suffix;
-		}
-
-		public void setSuffix(final byte[] suffix) {
-			this.suffix = suffix;
-		}
-
-		public byte[] getPixelStack() {
-			return pixelStack;
-		}
-
-		public void setPixelStack(final byte[] pixelStack) {
-			this.pixelStack = pixelStack;
-		}
-
-		public byte[] getPixels() {
-			return pixels;
-		}
-
-		public void setPixels(final byte[] pixels) {
-			this.pixels = pixels;
-		}
-
-		public Vector<byte[]> getImages() {
-			return images;
-		}
-
-		public void setImages(final Vector<byte[]> images) {
-			this.images = images;
-		}
-
-		public Vector<int[]> getColorTables() {
-			return colorTables;
+		public List<Frame> getFrames() {
+			return frames;
 		}
 
-		public void setColorTables(final Vector<int[]> colorTables) {
-			this.colorTables = colorTables;
+		public void setFrames(final List<Frame> frames) {
+			this.frames = frames;
 		}
 
 		// -- Metadata API Methods --
@@ -317,10 +274,7 @@ public class GIFFormat extends AbstractFormat {
 				ix = iy = iw = ih = blockSize = 0;
 				dispose = lastDispose = transIndex = 0;
 				gct = act;
-				prefix = null;
-				suffix = pixelStack = pixels = null;
-				images = null;
-				colorTables = null;
+				frames = null;
 				dBlock = new byte[length];
 			}
 		}
@@ -372,8 +326,16 @@ public class GIFFormat extends AbstractFormat {
 
 		private static final int GRAPHICS = 0xf9;
 
-		/** Maximum buffer size. */
-		private static final int MAX_STACK_SIZE = 4096;
+		// -- Fields --
+
+		/** Disposal method of the next image, from its graphic control block. */
+		private int frameDispose;
+
+		/** Transparent index of the next image, or -1. */
+		private int frameTransIndex;
+
+		/** Color table of the first image. */
+		private int[] firstAct;
 
 		// -- Parser API Methods --
 
@@ -385,8 +347,10 @@ public class GIFFormat extends AbstractFormat {
 			log().info("Verifying GIF format");
 
 			stream.setOrder(ByteOrder.LITTLE_ENDIAN);
-			meta.setImages(new Vector<byte[]>());
-			meta.setColorTables(new Vector<int[]>());
+			meta.setFrames(new ArrayList<>());
+			frameDispose = Frame.DISPOSE_NONE;
+			frameTransIndex = -1;
+			firstAct = null;
 
 			final String ident = getSource().readString(6);
 
@@ -418,7 +382,8 @@ public class GIFFormat extends AbstractFormat {
 			log().info("Reading data blocks");
 
 			// Reading the GIF metadata. Checks for dispose and transparency
-			// flags.
+			// flags. Image data is only located here; it is decoded on demand
+			// by the Reader.
 			boolean done = false;
 			while (!done) {
 				int code = stream.read() & 0xff;
@@ -437,6 +402,9 @@ public class GIFFormat extends AbstractFormat {
 								stream.skipBytes(2);
 								meta.setTransIndex(stream.read() & 0xff);
 								stream.skipBytes(1);
+								frameDispose = (packed >> 2) & 7;
+								frameTransIndex = meta.isTransparency() ? meta
+									.getTransIndex() : -1;
 								break;
 							default:
 								if (readBlock() == -1) {
@@ -452,7 +420,8 @@ public class GIFFormat extends AbstractFormat {
 				}
 			}
 
-			meta.setAct(meta.getColorTables().get(0));
+			if (firstAct == null) throw new FormatException("No images found.");
+			meta.setAct(firstAct);
 		}
 
 		// -- Helper Methods --
@@ -465,6 +434,19 @@ public class GIFFormat extends AbstractFormat {
 			while (getMetadata().getBlockSize() > 0 && check != -1);
 		}
 
+		/** Skips a sequence of data sub-blocks without reading them. */
+		private void skipDataBlocks() throws IOException {
+			final DataHandle<Location> source = getSource();
+			int size;
+			do {
+				if (source.offset() >= source.length()) return;
+				size = source.read() & 0xff;
+				getMetadata().setBlockSize(size);
+				source.skipBytes(size);
+			}
+			while (size > 0);
+		}
+
 		private void readImageBlock() throws FormatException, IOException {
 			final Metadata metadata = getMetadata();
 			metadata.setIx(getSource().readShort());
@@ -481,51 +463,451 @@ public class GIFFormat extends AbstractFormat {
 
 			if (metadata.getAct() == null) throw new FormatException(
 				"Color table not found.");
+			if (firstAct == null) firstAct = metadata.getAct();
 
-			int save = 0;
-
-			if (metadata.isTransparency()) {
-				save = metadata.getAct()[metadata.getTransIndex()];
-				metadata.getAct()[metadata.getTransIndex()] = 0;
-			}
-
-			decodeImageData();
-			skipBlocks();
+			// Remember where the LZW data starts, and skip over it
+			metadata.getFrames().add(new Frame(getSource().offset(), metadata
+				.getIx(), metadata.getIy(), metadata.getIw(), metadata.getIh(),
+				metadata.isInterlace(), frameDispose, frameTransIndex));
+			getSource().skipBytes(1);
+			skipDataBlocks();
 
 			// Update the plane count
 			metadata.get(0).setAxisLength(Axes.TIME, metadata.get(0).getAxisLength(
 				Axes.TIME) + 1);
 
-			if (metadata.isTransparency()) metadata.getAct()[metadata
-				.getTransIndex()] = save;
-
 			metadata.setLastDispose(metadata.getDispose());
+
+			// Graphic control settings only apply to the image that follows them
+			frameDispose = Frame.DISPOSE_NONE;
+			frameTransIndex = -1;
 		}
 
-		/** Decodes LZW image data into a pixel array. Adapted from ImageMagick. */
-		private void decodeImageData() throws IOException {
-			final int nullCode = -1;
-			final int npix = getMetadata().getIw() * getMetadata().getIh();
+		/** Reads the next variable length block. */
+		private int readBlock() throws IOException {
+			if (getSource().offset() == getSource().length()) return -1;
+			getMetadata().setBlockSize(getSource().read() & 0xff);
+			int n = 0;
+			int count;
 
-			byte[] pixels = getMetadata().getPixels();
+			if (getMetadata().getBlockSize() > 0) {
+				try {
+					while (n < getMetadata().getBlockSize()) {
+						count = getSource().read(getMetadata().getdBlock(), n, getMetadata()
+							.getBlockSize() - n);
+						if (count == -1) break;
+						n += count;
+					}
+				}
+				catch (final IOException e) {
+					log().trace("Truncated block", e);
+				}
+			}
+			return n;
+		}
 
-			if (pixels == null || pixels.length < npix) pixels = new byte[npix];
+		/** Read a color lookup table of the specified size. */
+		private int[] readLut(final int size) throws FormatException {
+			final int nbytes = 3 * size;
+			final byte[] c = new byte[nbytes];
+			int n = 0;
+			try {
+				n = getSource().read(c);
+			}
+			catch (final IOException e) {}
+
+			if (n < nbytes) {
+				throw new FormatException("Color table not found");
+			}
+
+			final int[] lut = new int[256];
+			int j = 0;
+			for (int i = 0; i < size; i++) {
+				final int r = c[j++] & 0xff;
+				final int g = c[j++] & 0xff;
+				final int b = c[j++] & 0xff;
+				lut[i] = 0xff000000 | (r << 16) | (g << 8) | b;
+			}
+			return lut;
+		}
+	}
 
-			short[] prefix = getMetadata().getPrefix();
-			byte[] suffix = getMetadata().getSuffix();
-			byte[] pixelStack = getMetadata().getPixelStack();
+	/**
+	 * Reader for GIF files. Frames are decoded when they are first requested and
+	 * composited according to their disposal methods. To keep random access
+	 * cheap without holding every frame, the canvas is checkpointed at regular
+	 * intervals, and recently composited frames are kept in a byte-bounded
+	 * cache.
+	 */
+	public static class Reader extends ByteArrayReader<Metadata> {
+
+		// -- Constants --
 
-			if (prefix == null) prefix = new short[MAX_STACK_SIZE];
-			if (suffix == null) suffix = new byte[MAX_STACK_SIZE];
-			if (pixelStack == null) pixelStack = new byte[MAX_STACK_SIZE + 1];
+		/** Default upper bound on the bytes of composited frames to cache. */
+		public static final long DEFAULT_CACHE_BYTES = 32L * 1024 * 1024;
 
-			getMetadata().setPrefix(prefix);
-			getMetadata().setSuffix(suffix);
-			getMetadata().setPixelStack(pixelStack);
+		/** Upper bound on the bytes of canvas checkpoints to keep. */
+		private static final long CHECKPOINT_BYTES = 32L * 1024 * 1024;
+
+		/** Minimum number of frames between canvas checkpoints. */
+		private static final int MIN_CHECKPOINT_INTERVAL = 16;
+
+		// -- Fields --
+
+		private final FrameDecoder decoder = new FrameDecoder();
+
+		/** Recently composited frames. */
+		private final PlaneCache cache = new PlaneCache(DEFAULT_CACHE_BYTES);
+
+		/** Canvas onto which frame {@code i} is drawn, for some multiples i. */
+		private final Map<Integer, byte[]> checkpoints = new HashMap<>();
+
+		private int checkpointInterval;
+
+		/** Canvas onto which frame {@code stateIndex} will be drawn. */
+		private byte[] state;
+
+		private int stateIndex = -1;
+
+		/** Metadata the cached state was computed for. */
+		private Metadata stateMeta;
+
+		// -- GIFReader API Methods --
+
+		/**
+		 * Sets the maximum number of bytes of composited frames to keep cached.
+		 *
+		 * @param maxBytes cache bound, in bytes. 0 disables caching.
+		 */
+		public void setCacheSize(final long maxBytes) {
+			cache.setMaxBytes(maxBytes);
+		}
+
+		/** @return the maximum number of bytes of composited frames to cache. */
+		public long getCacheSize() {
+			return cache.getMaxBytes();
+		}
+
+		// -- AbstractReader API Methods --
+
+		@Override
+		protected String[] createDomainArray() {
+			return new String[] { FormatTools.GRAPHICS_DOMAIN };
+		}
+
+		// -- Reader API Methods --
+
+		@Override
+		public ByteArrayPlane openPlane(final int imageIndex, final long planeIndex,
+			final ByteArrayPlane plane, final Interval bounds,
+			final SCIFIOConfig config) throws FormatException, IOException
+		{
+			final byte[] buf = plane.getData();
+			final Metadata meta = getMetadata();
+			final int xIndex = meta.get(imageIndex).getAxisIndex(Axes.X);
+			final int yIndex = meta.get(imageIndex).getAxisIndex(Axes.Y);
+			plane.setColorTable(meta.getColorTable(0, 0));
+			FormatTools.checkPlaneForReading(meta, imageIndex, planeIndex, buf.length,
+				bounds);
+			final int x = (int) bounds.min(xIndex);
+			final int y = (int) bounds.min(yIndex);
+			final int w = (int) bounds.dimension(xIndex);
+			final int h = (int) bounds.dimension(yIndex);
+			final int width = (int) meta.get(imageIndex).getAxisLength(Axes.X);
+
+			final byte[] b = composite(meta, (int) planeIndex);
+
+			for (int row = 0; row < h; row++) {
+				System.arraycopy(b, (row + y) * width + x, buf, row * w, w);
+			}
+
+			return plane;
+		}
+
+		@Override
+		public void close(final boolean fileOnly) throws IOException {
+			super.close(fileOnly);
+			if (!fileOnly) reset(null);
+		}
+
+		// -- Helper Methods --
+
+		/**
+		 * Returns the given frame composited onto the frames before it. The
+		 * returned array is shared with the cache and must not be modified.
+		 */
+		private synchronized byte[] composite(final Metadata meta,
+			final int index) throws IOException
+		{
+			if (meta != stateMeta) reset(meta);
+
+			final int width = (int) meta.get(0).getAxisLength(Axes.X);
+			final int height = (int) meta.get(0).getAxisLength(Axes.Y);
+			final Interval full = new FinalInterval(width, height);
+			final Plane cached = cache.get(0, index, full);
+			if (cached != null) return cached.getBytes();
+
+			final List<Frame> frames = meta.getFrames();
+			final int size = width * height;
+			if (checkpointInterval == 0) {
+				checkpointInterval = Math.max(MIN_CHECKPOINT_INTERVAL, (int) (frames
+					.size() * (long) size / CHECKPOINT_BYTES) + 1);
+			}
+
+			// Start from the latest checkpoint at or before the requested frame,
+			// or from the running state if that is closer
+			int start = index - index % checkpointInterval;
+			while (start > 0 && !checkpoints.containsKey(start)) {
+				start -= checkpointInterval;
+			}
+			byte[] canvas;
+			if (state != null && stateIndex >= start && stateIndex <= index) {
+				canvas = state;
+				start = stateIndex;
+			}
+			else {
+				canvas = start == 0 ? new byte[size] : checkpoints.get(start).clone();
+			}
+			state = null;
+
+			for (int i = start; i < index; i++) {
+				if (i > 0 && i % checkpointInterval == 0 && !checkpoints.containsKey(
+					i))
+				{
+					checkpoints.put(i, canvas.clone());
+				}
+				advance(frames.get(i), canvas, width, height);
+			}
+			if (index > 0 && index % checkpointInterval == 0 && !checkpoints
+				.containsKey(index))
+			{
+				checkpoints.put(index, canvas.clone());
+			}
+
+			final Frame frame = frames.get(index);
+			final byte[] out = canvas.clone();
+			draw(frame, out, width, height);
+			if (frame.getDispose() == Frame.DISPOSE_PREVIOUS || frame
+				.getDispose() == Frame.DISPOSE_BACKGROUND)
+			{
+				advance(frame, canvas, width, height);
+				state = canvas;
+			}
+			else state = out.clone();
+			stateIndex = index + 1;
+
+			final ByteArrayPlane plane = new ByteArrayPlane();
+			plane.setData(out);
+			cache.put(0, index, full, plane, size);
+			return out;
+		}
+
+		/**
+		 * Turns the canvas the given frame is drawn onto into the canvas the next
+		 * frame is drawn onto, honoring the frame's disposal method. Only frames
+		 * that are left in place need to be decoded.
+		 */
+		private void advance(final Frame frame, final byte[] canvas,
+			final int width, final int height) throws IOException
+		{
+			switch (frame.getDispose()) {
+				case Frame.DISPOSE_PREVIOUS:
+					break;
+				case Frame.DISPOSE_BACKGROUND:
+					final int x0 = Math.max(0, frame.getX());
+					final int x1 = Math.min(width, frame.getX() + frame.getWidth());
+					final int y1 = Math.min(height, frame.getY() + frame.getHeight());
+					for (int y = Math.max(0, frame.getY()); y < y1; y++) {
+						if (x1 > x0) Arrays.fill(canvas, y * width + x0, y * width + x1,
+							(byte) 0);
+					}
+					break;
+				default:
+					draw(frame, canvas, width, height);
+			}
+		}
+
+		/**
+		 * Decodes the given frame and draws it onto {@code canvas}, skipping
+		 * transparent pixels.
+		 */
+		private void draw(final Frame frame, final byte[] canvas,
+			final int width, final int height) throws IOException
+		{
+			final byte[] pixels = decoder.decode(getHandle(), frame);
+			final int iw = frame.getWidth();
+			final int ih = frame.getHeight();
+			final int transIndex = frame.getTransIndex();
+
+			// copy each source line to the appropriate place in the destination
+			int pass = 1;
+			int inc = 8;
+			int iline = 0;
+			for (int i = 0; i < ih; i++) {
+				int line = i;
+				if (frame.isInterlace()) {
+					while (iline >= ih && pass < 4) {
+						pass++;
+						switch (pass) {
+							case 2:
+								iline = 4;
+								break;
+							case 3:
+								iline = 2;
+								inc = 4;
+								break;
+							case 4:
+								iline = 1;
+								inc = 2;
+								break;
+						}
+					}
+					line = iline;
+					iline += inc;
+				}
+				line += frame.getY();
+				if (line < 0 || line >= height) continue;
+				final int k = line * width;
+				int dx = k + frame.getX(); // start of line in dest
+				final int dlim = Math.min(dx + iw, k + width); // end of dest line
+				int sx = i * iw; // start of line in source
+				if (dx < k) {
+					sx += k - dx;
+					dx = k;
+				}
+				while (dx < dlim) {
+					final byte index = pixels[sx++];
+					if ((index & 0xff) != transIndex) canvas[dx] = index;
+					dx++;
+				}
+			}
+		}
+
+		/** Discards all cached frames and canvas state. */
+		private synchronized void reset(final Metadata meta) {
+			cache.clear();
+			checkpoints.clear();
+			checkpointInterval = 0;
+			state = null;
+			stateIndex = -1;
+			stateMeta = meta;
+		}
+	}
+
+	// -- Helper classes --
+
+	/**
+	 * Location and graphic control settings of a single image within a GIF
+	 * file.
+	 */
+	public static class Frame {
+
+		/** No disposal specified; the image is left in place. */
+		public static final int DISPOSE_NONE = 0;
+
+		/** The image is left in place. */
+		public static final int DISPOSE_KEEP = 1;
+
+		/** The image area is restored to the background color. */
+		public static final int DISPOSE_BACKGROUND = 2;
+
+		/** The image area is restored to what was there before the image. */
+		public static final int DISPOSE_PREVIOUS = 3;
+
+		private final long offset;
+
+		private final int x, y, width, height;
+
+		private final boolean interlace;
+
+		private final int dispose;
+
+		private final int transIndex;
+
+		public Frame(final long offset, final int x, final int y, final int width,
+			final int height, final boolean interlace, final int dispose,
+			final int transIndex)
+		{
+			this.offset = offset;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+			this.interlace = interlace;
+			this.dispose = dispose;
+			this.transIndex = transIndex;
+		}
+
+		/** @return Offset of the image's LZW minimum code size byte. */
+		public long getOffset() {
+			return offset;
+		}
+
+		public int getX() {
+			return x;
+		}
+
+		public int getY() {
+			return y;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+
+		public int getHeight() {
+			return height;
+		}
+
+		public boolean isInterlace() {
+			return interlace;
+		}
+
+		/** @return One of the {@code DISPOSE_*} constants. */
+		public int getDispose() {
+			return dispose;
+		}
+
+		/** @return The transparent color index, or -1 if there is none. */
+		public int getTransIndex() {
+			return transIndex;
+		}
+	}
+
+	/** LZW decoder for GIF image data. Adapted from ImageMagick. */
+	private static class FrameDecoder {
+
+		/** Maximum buffer size. */
+		private static final int MAX_STACK_SIZE = 4096;
+
+		// LZW working arrays
+		private final short[] prefix = new short[MAX_STACK_SIZE];
+
+		private final byte[] suffix = new byte[MAX_STACK_SIZE];
+
+		private final byte[] pixelStack = new byte[MAX_STACK_SIZE + 1];
+
+		/** Current data block. */
+		private final byte[] block = new byte[256];
+
+		private byte[] pixels;
+
+		/**
+		 * Decodes the given frame into a {@code width * height} array of color
+		 * indices. The returned array is reused by the next call.
+		 */
+		private byte[] decode(final DataHandle<Location> in, final Frame frame)
+			throws IOException
+		{
+			final int nullCode = -1;
+			final int npix = frame.getWidth() * frame.getHeight();
+
+			if (pixels == null || pixels.length < npix) pixels = new byte[npix];
 
 			// initialize GIF data stream decoder
 
-			final int read = getSource().read();
+			in.seek(frame.getOffset());
+			final int read = in.read();
 			final int dataSize = read & 0xff;
 
 			final int clear = 1 << dataSize;
@@ -549,11 +931,11 @@ public class GIFFormat extends AbstractFormat {
 				if (top == 0) {
 					if (bits < codeSize) {
 						if (count == 0) {
-							count = readBlock();
+							count = readBlock(in);
 							if (count <= 0) break;
 							bi = 0;
 						}
-						datum += (getMetadata().getdBlock()[bi] & 0xff) << bits;
+						datum += (block[bi] & 0xff) << bits;
 						bits += 8;
 						bi++;
 						count--;
@@ -617,177 +999,20 @@ public class GIFFormat extends AbstractFormat {
 
 			for (i = pi; i < npix; i++)
 				pixels[i] = 0;
-			getMetadata().setPixels(pixels);
-			setPixels();
-		}
-
-		private void setPixels() {
-			// expose destination image's pixels as an int array
-			final byte[] dest = new byte[(int) (getMetadata().get(0).getAxisLength(
-				Axes.X) * getMetadata().get(0).getAxisLength(Axes.Y))];
-			long lastImage = -1;
-
-			// fill in starting image contents based on last image's dispose
-			// code
-			if (getMetadata().getLastDispose() > 0) {
-				if (getMetadata().getLastDispose() == 3) { // use image before last
-					final long n = getMetadata().get(0).getPlaneCount() - 2;
-					if (n > 0) lastImage = n - 1;
-				}
-
-				if (lastImage != -1) {
-					final byte[] prev = getMetadata().getImages().get((int) lastImage);
-					System.arraycopy(prev, 0, dest, 0, (int) (getMetadata().get(0)
-						.getAxisLength(Axes.X) * getMetadata().get(0).getAxisLength(
-							Axes.Y)));
-				}
-			}
-
-			// copy each source line to the appropriate place in the destination
-
-			int pass = 1;
-			int inc = 8;
-			int iline = 0;
-			for (int i = 0; i < getMetadata().getIh(); i++) {
-				int line = i;
-				if (getMetadata().isInterlace()) {
-					if (iline >= getMetadata().getIh()) {
-						pass++;
-						switch (pass) {
-							case 2:
-								iline = 4;
-								break;
-							case 3:
-								iline = 2;
-								inc = 4;
-								break;
-							case 4:
-								iline = 1;
-								inc = 2;
-								break;
-						}
-					}
-					line = iline;
-					iline += inc;
-				}
-				line += getMetadata().getIy();
-				if (line < getMetadata().get(0).getAxisLength(Axes.Y)) {
-					final int k = line * (int) getMetadata().get(0).getAxisLength(Axes.X);
-					int dx = k + getMetadata().getIx(); // start of line in dest
-					int dlim = dx + getMetadata().getIw(); // end of dest line
-					if ((k + getMetadata().get(0).getAxisLength(Axes.X)) < dlim) dlim =
-						k + (int) getMetadata().get(0).getAxisLength(Axes.X);
-					int sx = i * getMetadata().getIw(); // start of line in
-					// source
-					while (dx < dlim) {
-						// map color and insert in destination
-						final int index = getMetadata().getPixels()[sx++] & 0xff;
-						dest[dx++] = (byte) index;
-					}
-				}
-			}
-			getMetadata().getColorTables().add(getMetadata().getAct());
-			getMetadata().getImages().add(dest);
+			return pixels;
 		}
 
-		/** Reads the next variable length block. */
-		private int readBlock() throws IOException {
-			if (getSource().offset() == getSource().length()) return -1;
-			getMetadata().setBlockSize(getSource().read() & 0xff);
+		/** Reads the next data sub-block into {@link #block}. */
+		private int readBlock(final DataHandle<Location> in) throws IOException {
+			if (in.offset() >= in.length()) return -1;
+			final int size = in.read() & 0xff;
 			int n = 0;
-			int count;
-
-			if (getMetadata().getBlockSize() > 0) {
-				try {
-					while (n < getMetadata().getBlockSize()) {
-						count = getSource().read(getMetadata().getdBlock(), n, getMetadata()
-							.getBlockSize() - n);
-						if (count == -1) break;
-						n += count;
-					}
-				}
-				catch (final IOException e) {
-					log().trace("Truncated block", e);
-				}
+			while (n < size) {
+				final int count = in.read(block, n, size - n);
+				if (count == -1) break;
+				n += count;
 			}
 			return n;
 		}
-
-		/** Read a color lookup table of the specified size. */
-		private int[] readLut(final int size) throws FormatException {
-			final int nbytes = 3 * size;
-			final byte[] c = new byte[nbytes];
-			int n = 0;
-			try {
-				n = getSource().read(c);
-			}
-			catch (final IOException e) {}
-
-			if (n < nbytes) {
-				throw new FormatException("Color table not found");
-			}
-
-			final int[] lut = new int[256];
-			int j = 0;
-			for (int i = 0; i < size; i++) {
-				final int r = c[j++] & 0xff;
-				final int g = c[j++] & 0xff;
-				final int b = c[j++] & 0xff;
-				lut[i] = 0xff000000 | (r << 16) | (g << 8) | b;
-			}
-			return lut;
-		}
-	}
-
-	public static class Reader extends ByteArrayReader<Metadata> {
-
-		// -- AbstractReader API Methods --
-
-		@Override
-		protected String[] createDomainArray() {
-			return new String[] { FormatTools.GRAPHICS_DOMAIN };
-		}
-
-		// -- Reader API Methods --
-
-		 
-		@Override
-		public ByteArrayPlane openPlane(final int imageIndex, final long planeIndex,
-			final ByteArrayPlane plane, final Interval bounds,
-			final SCIFIOConfig config) throws FormatException, IOException
-		{
-			final byte[] buf = plane.getData();
-			final Metadata meta = getMetadata();
-			final int xIndex = meta.get(imageIndex).getAxisIndex(Axes.X);
-			final int yIndex = meta.get(imageIndex).getAxisIndex(Axes.Y);
-			plane.setColorTable(meta.getColorTable(0, 0));
-			FormatTools.checkPlaneForReading(meta, imageIndex, planeIndex, buf.length,
-				bounds);
-			final int x = (int) bounds.min(xIndex);
-			final int y = (int) bounds.min(yIndex);
-			final int w = (int) bounds.dimension(xIndex);
-			final int h = (int) bounds.dimension(yIndex);
-			final int[] act = meta.getColorTables().get((int) planeIndex);
-
-			final byte[] b = meta.getImages().get((int) planeIndex);
-			if (planeIndex > 0 && meta.isTransparency()) {
-				final byte[] prev = meta.getImages().get((int) planeIndex - 1);
-				int idx = meta.getTransIndex();
-				if (idx >= 127) idx = 0;
-				for (int i = 0; i < b.length; i++) {
-					if ((act[b[i] & 0xff] & 0xffffff) == idx) {
-						b[i] = prev[i];
-					}
-				}
-				meta.getImages().setElementAt(b, (int) planeIndex);
-			}
-
-			for (int row = 0; row < h; row++) {
-				System.arraycopy(b, (row + y) * (int) meta.get(imageIndex)
-					.getAxisLength(Axes.X) + x, buf, row * w, w);
-			}
-
-			return plane;
-		}
 	}
 }
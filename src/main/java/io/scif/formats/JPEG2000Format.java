@@ -749,7 +749,24 @@ public class JPEG2000Format extends AbstractFormat {
 
 		// -- Reader API Methods --
 
-		 
+		/**
+		 * The codec decodes whole planes, so the optimal tile is the full plane
+		 * width.
+		 */
+		@Override
+		public long getOptimalTileWidth(final int imageIndex) {
+			return getMetadata().get(imageIndex).getAxisLength(Axes.X);
+		}
+
+		/**
+		 * The codec decodes whole planes, so the optimal tile is the full plane
+		 * height.
+		 */
+		@Override
+		public long getOptimalTileHeight(final int imageIndex) {
+			return getMetadata().get(imageIndex).getAxisLength(Axes.Y);
+		}
+
 		@Override
 		public ByteArrayPlane openPlane(final int imageIndex, final long planeIndex,
 			final ByteArrayPlane plane, final Interval bounds,
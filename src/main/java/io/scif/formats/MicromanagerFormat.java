@@ -41,6 +41,7 @@ import io.scif.FormatException;
 import io.scif.ImageMetadata;
 import io.scif.Translator;
 import io.scif.config.SCIFIOConfig;
+import io.scif.io.JSONReader;
 import io.scif.services.FormatService;
 import io.scif.services.TranslatorService;
 import io.scif.util.FormatTools;
@@ -49,13 +50,15 @@ import io.scif.xml.XMLService;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.StringTokenizer;
 
 import net.imagej.axis.Axes;
 import net.imagej.axis.CalibratedAxis;
@@ -66,6 +69,7 @@ import org.scijava.Priority;
 import org.scijava.io.handle.DataHandle;
 import org.scijava.io.handle.DataHandleService;
 import org.scijava.io.location.BrowsableLocation;
+import org.scijava.io.location.BytesLocation;
 import org.scijava.io.location.Location;
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
@@ -130,6 +134,9 @@ public class MicromanagerFormat extends AbstractFormat {
 				ms.setIndexed(false);
 				ms.setFalseColor(false);
 				ms.setMetadataComplete(true);
+				if (positions != null && i < positions.size()) {
+					positions.get(i).indexPlanes(this, i);
+				}
 			}
 		}
 
@@ -375,13 +382,7 @@ public class MicromanagerFormat extends AbstractFormat {
 			try (DataHandle<Location> handle = dataHandleService.create(
 				pos.metadataFile))
 			{
-				final long len = handle.length();
-				if (len > Integer.MAX_VALUE) {
-					throw new FormatException("MetadataFile at: " + pos.metadataFile
-						.getURI() + " is too large to be parsed!");
-				}
-				final String metaData = handle.readString((int) handle.length());
-				parsePosition(metaData, meta, posIndex);
+				parsePosition(handle, meta, posIndex);
 				buildTIFFList(meta, posIndex);
 			}
 		}
@@ -443,226 +444,76 @@ public class MicromanagerFormat extends AbstractFormat {
 		private void parsePosition(final String jsonData, final Metadata meta,
 			final int posIndex) throws IOException, FormatException
 		{
-			final Position p = meta.getPositions().get(posIndex);
-			final ImageMetadata ms = meta.get(posIndex);
-			final BrowsableLocation metadataFile = p.metadataFile;
+			final byte[] bytes = jsonData.getBytes(StandardCharsets.UTF_8);
+			try (DataHandle<Location> handle = dataHandleService.create(
+				new BytesLocation(bytes)))
+			{
+				parsePosition(handle, meta, posIndex);
+			}
+		}
 
-			// now parse the rest of the metadata
+		/**
+		 * Parses metadata.txt with a streaming JSON reader. The summary and the
+		 * first frame are parsed in full. Only the keys needed for the plane index
+		 * and the timestamps are read from later frames; their other keys can be
+		 * read on request with {@link Reader#getFrameMetadata}.
+		 */
+		private void parsePosition(final DataHandle<Location> handle,
+			final Metadata meta, final int posIndex) throws IOException,
+			FormatException
+		{
+			final Position p = meta.getPositions().get(posIndex);
 
 			// metadata.txt looks something like this:
 			//
 			// {
-			// "Section Name": {
+			// "Summary": {
 			// "Key": "Value",
 			// "Array key": [
 			// first array value, second array value
 			// ]
+			// },
+			// "FrameKey-0-0-0": {
+			// "Key": "Value",
+			// ...
 			// }
-			//
 			// }
 
 			log().info("Populating metadata");
 
 			final List<Double> stamps = new ArrayList<>();
+			final Map<String, Integer> fileCounts = new HashMap<>();
 			p.voltage = new ArrayList<>();
 
-			final StringTokenizer st = new StringTokenizer(jsonData, "\n");
-			final int[] slice = new int[3];
-			while (st.hasMoreTokens()) {
-				String token = st.nextToken().trim();
-				final boolean open = token.contains("[");
-				boolean closed = token.contains("]");
-				if (open || (!open && !closed && !token.equals("{") && !token
-					.startsWith("}")))
-				{
-					final int quote = token.indexOf("\"") + 1;
-					final String key = token.substring(quote, token.indexOf("\"", quote));
-					String value = null;
-
-					if (open == closed) {
-						value = token.substring(token.indexOf(":") + 1);
-					}
-					else if (!closed) {
-						final StringBuilder valueBuffer = new StringBuilder();
-						while (!closed) {
-							token = st.nextToken();
-							closed = token.contains("]");
-							valueBuffer.append(token);
-						}
-						value = valueBuffer.toString();
-						value = value.replaceAll("\n", "");
-					}
-					if (value == null) continue;
-
-					final int startIndex = value.indexOf("[");
-					int endIndex = value.indexOf("]");
-					if (endIndex == -1) endIndex = value.length();
-
-					value = value.substring(startIndex + 1, endIndex).trim();
-					if (value.length() == 0) {
-						continue;
-					}
-					value = value.substring(0, value.length() - 1);
-					value = value.replaceAll("\"", "");
-					if (value.endsWith(",")) value = value.substring(0, value.length() -
-						1);
-					meta.getTable().put(key, value);
-					if (key.equals("Channels")) {
-						ms.setAxisLength(Axes.CHANNEL, Integer.parseInt(value));
-					}
-					else if (key.equals("ChNames")) {
-						p.channels = value.split(",");
-						for (int q = 0; q < p.channels.length; q++) {
-							p.channels[q] = p.channels[q].replaceAll("\"", "").trim();
-						}
-					}
-					else if (key.equals("Frames")) {
-						ms.setAxisLength(Axes.TIME, Integer.parseInt(value));
-					}
-					else if (key.equals("Slices")) {
-						ms.setAxisLength(Axes.Z, Integer.parseInt(value));
-					}
-					else if (key.equals("PixelSize_um")) {
-						p.pixelSize = new Double(value);
-					}
-					else if (key.equals("z-step_um")) {
-						p.sliceThickness = new Double(value);
-					}
-					else if (key.equals("Time")) {
-						p.time = value;
-					}
-					else if (key.equals("Comment")) {
-						p.comment = value;
-					}
-					else if (key.equals("FileName")) {
-						final Location file = metadataFile.sibling(value);
-						p.locationMap.put(new Index(slice), file);
-						if (p.baseTiff == null) {
-							p.baseTiff = file;
-						}
-					}
-					else if (key.equals("Width")) {
-						ms.setAxisLength(Axes.X, Integer.parseInt(value));
-					}
-					else if (key.equals("Height")) {
-						ms.setAxisLength(Axes.Y, Integer.parseInt(value));
-					}
-					else if (key.equals("IJType")) {
-						final int type = Integer.parseInt(value);
-
-						switch (type) {
-							case 0:
-								ms.setPixelType(FormatTools.UINT8);
-								break;
-							case 1:
-								ms.setPixelType(FormatTools.UINT16);
-								break;
-							default:
-								throw new FormatException("Unknown type: " + type);
+			handle.seek(0);
+			final JSONReader json = new JSONReader(handle);
+			json.beginObject();
+			boolean firstFrame = true;
+			while (json.hasNext()) {
+				final String section = json.nextName();
+				if (section.startsWith("FrameKey")) {
+					final int[] slice = parseFrameKey(section);
+					p.frameOffsets.put(new Index(slice), json.offset());
+					if (firstFrame) {
+						final Map<String, String> frame = new LinkedHashMap<>();
+						json.readFlat(frame);
+						for (final Map.Entry<String, String> e : frame.entrySet()) {
+							parseFrameEntry(meta, p, slice, e.getKey(), e.getValue(), stamps,
+								fileCounts);
 						}
+						firstFrame = false;
 					}
+					else parseFrame(json, p, slice, stamps, fileCounts);
 				}
-
-				if (token.startsWith("\"FrameKey")) {
-					int dash = token.indexOf("-") + 1;
-					int nextDash = token.indexOf("-", dash);
-					slice[2] = Integer.parseInt(token.substring(dash, nextDash));
-					dash = nextDash + 1;
-					nextDash = token.indexOf("-", dash);
-					slice[1] = Integer.parseInt(token.substring(dash, nextDash));
-					dash = nextDash + 1;
-					slice[0] = Integer.parseInt(token.substring(dash, token.indexOf("\"",
-						dash)));
-
-					token = st.nextToken().trim();
-					String key = "", value = "";
-					boolean valueArray = false;
-					int nestedCount = 0;
-
-					while (!token.startsWith("}") || nestedCount > 0) {
-
-						if (token.trim().endsWith("{")) {
-							nestedCount++;
-							token = st.nextToken().trim();
-							continue;
-						}
-						else if (token.trim().startsWith("}")) {
-							nestedCount--;
-							token = st.nextToken().trim();
-							continue;
-						}
-
-						if (valueArray) {
-							if (token.trim().equals("],")) {
-								valueArray = false;
-							}
-							else {
-								value += token.trim().replaceAll("\"", "");
-								token = st.nextToken().trim();
-								continue;
-							}
-						}
-						else {
-							final int colon = token.indexOf(":");
-							key = token.substring(1, colon).trim();
-							value = token.substring(colon + 1, token.length() - 1).trim();
-
-							key = key.replaceAll("\"", "");
-							value = value.replaceAll("\"", "");
-
-							if (token.trim().endsWith("[")) {
-								valueArray = true;
-								token = st.nextToken().trim();
-								continue;
-							}
-						}
-
-						meta.getTable().put(key, value);
-
-						if (key.equals("Exposure-ms")) {
-							final double t = Double.parseDouble(value);
-							p.exposureTime = new Double(t / 1000);
-						}
-						else if (key.equals("ElapsedTime-ms")) {
-							final double t = Double.parseDouble(value);
-							stamps.add(new Double(t / 1000));
-						}
-						else if (key.equals("Core-Camera")) p.cameraRef = value;
-						else if (key.equals(p.cameraRef + "-Binning")) {
-							if (value.contains("x")) p.binning = value;
-							else p.binning = value + "x" + value;
-						}
-						else if (key.equals(p.cameraRef + "-CameraID")) p.detectorID =
-							value;
-						else if (key.equals(p.cameraRef + "-CameraName")) {
-							p.detectorModel = value;
-						}
-						else if (key.equals(p.cameraRef + "-Gain")) {
-							p.gain = (int) Double.parseDouble(value);
-						}
-						else if (key.equals(p.cameraRef + "-Name")) {
-							p.detectorManufacturer = value;
-						}
-						else if (key.equals(p.cameraRef + "-Temperature")) {
-							p.temperature = Double.parseDouble(value);
-						}
-						else if (key.equals(p.cameraRef + "-CCDMode")) {
-							p.cameraMode = value;
-						}
-						else if (key.startsWith("DAC-") && key.endsWith("-Volts")) {
-							p.voltage.add(new Double(value));
-						}
-						else if (key.equals("FileName")) {
-							final Location file = metadataFile.sibling(value);
-							p.locationMap.put(new Index(slice), file);
-							if (p.baseTiff == null) {
-								p.baseTiff = file;
-							}
-						}
-
-						token = st.nextToken().trim();
+				else if (json.peek() == JSONReader.Token.BEGIN_OBJECT) {
+					final Map<String, String> summary = new LinkedHashMap<>();
+					json.readFlat(summary);
+					for (final Map.Entry<String, String> e : summary.entrySet()) {
+						parseSummaryEntry(meta, posIndex, e.getKey(), e.getValue(),
+							fileCounts);
 					}
 				}
+				else json.skipValue();
 			}
 
 			p.timestamps = stamps.toArray(new Double[stamps.size()]);
@@ -676,6 +527,171 @@ public class MicromanagerFormat extends AbstractFormat {
 			}
 		}
 
+		/** Parses the (z, c, t) position from a "FrameKey-t-c-z" name. */
+		private int[] parseFrameKey(final String key) {
+			final String[] tcz = key.split("-");
+			final int[] slice = new int[3];
+			slice[2] = Integer.parseInt(tcz[1]);
+			slice[1] = Integer.parseInt(tcz[2]);
+			slice[0] = Integer.parseInt(tcz[3].trim());
+			return slice;
+		}
+
+		/**
+		 * Reads the file name and elapsed time of a frame, skipping all other
+		 * keys without decoding them.
+		 */
+		private void parseFrame(final JSONReader json, final Position p,
+			final int[] slice, final List<Double> stamps,
+			final Map<String, Integer> fileCounts) throws IOException
+		{
+			json.beginObject();
+			while (json.hasNext()) {
+				final String key = json.nextName();
+				if (json.peek() != JSONReader.Token.VALUE) {
+					json.skipValue();
+				}
+				else if (key.equals("FileName")) {
+					addPlaneFile(p, slice, json.nextValue(), fileCounts);
+				}
+				else if (key.equals("ElapsedTime-ms")) {
+					stamps.add(Double.parseDouble(json.nextValue()) / 1000);
+				}
+				else json.skipValue();
+			}
+			json.endObject();
+		}
+
+		private void parseSummaryEntry(final Metadata meta, final int posIndex,
+			final String key, String value, final Map<String, Integer> fileCounts)
+			throws IOException, FormatException
+		{
+			if (value == null || value.isEmpty()) return;
+			final Position p = meta.getPositions().get(posIndex);
+			final ImageMetadata ms = meta.get(posIndex);
+
+			value = value.trim();
+			meta.getTable().put(key, value);
+			if (key.equals("Channels")) {
+				ms.setAxisLength(Axes.CHANNEL, Integer.parseInt(value));
+			}
+			else if (key.equals("ChNames")) {
+				p.channels = value.split(",");
+				for (int q = 0; q < p.channels.length; q++) {
+					p.channels[q] = p.channels[q].trim();
+				}
+			}
+			else if (key.equals("Frames")) {
+				ms.setAxisLength(Axes.TIME, Integer.parseInt(value));
+			}
+			else if (key.equals("Slices")) {
+				ms.setAxisLength(Axes.Z, Integer.parseInt(value));
+			}
+			else if (key.equals("PixelSize_um")) {
+				p.pixelSize = new Double(value);
+			}
+			else if (key.equals("z-step_um")) {
+				p.sliceThickness = new Double(value);
+			}
+			else if (key.equals("Time")) {
+				p.time = value;
+			}
+			else if (key.equals("Comment")) {
+				p.comment = value;
+			}
+			else if (key.equals("FileName")) {
+				addPlaneFile(p, new int[3], value, fileCounts);
+			}
+			else if (key.equals("Width")) {
+				ms.setAxisLength(Axes.X, Integer.parseInt(value));
+			}
+			else if (key.equals("Height")) {
+				ms.setAxisLength(Axes.Y, Integer.parseInt(value));
+			}
+			else if (key.equals("IJType")) {
+				final int type = Integer.parseInt(value);
+
+				switch (type) {
+					case 0:
+						ms.setPixelType(FormatTools.UINT8);
+						break;
+					case 1:
+						ms.setPixelType(FormatTools.UINT16);
+						break;
+					default:
+						throw new FormatException("Unknown type: " + type);
+				}
+			}
+		}
+
+		private void parseFrameEntry(final Metadata meta, final Position p,
+			final int[] slice, final String key, final String value,
+			final List<Double> stamps, final Map<String, Integer> fileCounts)
+			throws IOException
+		{
+			if (value == null) return;
+			meta.getTable().put(key, value);
+
+			if (key.equals("Exposure-ms")) {
+				final double t = Double.parseDouble(value);
+				p.exposureTime = new Double(t / 1000);
+			}
+			else if (key.equals("ElapsedTime-ms")) {
+				final double t = Double.parseDouble(value);
+				stamps.add(new Double(t / 1000));
+			}
+			else if (key.equals("Core-Camera")) p.cameraRef = value;
+			else if (key.equals(p.cameraRef + "-Binning")) {
+				if (value.contains("x")) p.binning = value;
+				else p.binning = value + "x" + value;
+			}
+			else if (key.equals(p.cameraRef + "-CameraID")) p.detectorID = value;
+			else if (key.equals(p.cameraRef + "-CameraName")) {
+				p.detectorModel = value;
+			}
+			else if (key.equals(p.cameraRef + "-Gain")) {
+				p.gain = (int) Double.parseDouble(value);
+			}
+			else if (key.equals(p.cameraRef + "-Name")) {
+				p.detectorManufacturer = value;
+			}
+			else if (key.equals(p.cameraRef + "-Temperature")) {
+				p.temperature = Double.parseDouble(value);
+			}
+			else if (key.equals(p.cameraRef + "-CCDMode")) {
+				p.cameraMode = value;
+			}
+			else if (key.startsWith("DAC-") && key.endsWith("-Volts")) {
+				p.voltage.add(new Double(value));
+			}
+			else if (key.equals("FileName")) {
+				addPlaneFile(p, slice, value, fileCounts);
+			}
+		}
+
+		/**
+		 * Records the file holding the plane at the given (z, c, t) position. A
+		 * file named by several planes holds them as consecutive IFDs, in the
+		 * order they appear in the metadata file.
+		 */
+		private void addPlaneFile(final Position p, final int[] slice,
+			final String name, final Map<String, Integer> fileCounts)
+			throws IOException
+		{
+			final Index index = new Index(slice);
+			final Location old = p.locationMap.get(index);
+			if (old != null && old.getName().equals(name)) return;
+
+			final Location file = p.metadataFile.sibling(name);
+			final Integer count = fileCounts.get(name);
+			p.locationMap.put(index, file);
+			p.ifdMap.put(index, count == null ? 0 : count);
+			fileCounts.put(name, count == null ? 1 : count + 1);
+			if (p.baseTiff == null) {
+				p.baseTiff = file;
+			}
+		}
+
 		/**
 		 * Populate the list of TIFF files using the given file name as a pattern.
 		 *
@@ -773,6 +789,11 @@ public class MicromanagerFormat extends AbstractFormat {
 
 	public static class Reader extends ByteArrayReader<Metadata> {
 
+		// -- Constants --
+
+		/** Default number of TIFF files kept open at once. */
+		public static final int DEFAULT_MAX_OPEN_FILES = 16;
+
 		// -- Fields --
 
 		@Parameter
@@ -781,8 +802,64 @@ public class MicromanagerFormat extends AbstractFormat {
 		@Parameter
 		private DataHandleService dataHandleService;
 
-		/** Helper reader for TIFF files. */
-		private MinimalTIFFFormat.Reader<?> tiffReader;
+		/**
+		 * Helper readers for the most recently used TIFF files, with their IFDs
+		 * already parsed. Lookup, creation and eviction all synchronize on this
+		 * map.
+		 */
+		private final LinkedHashMap<Location, TIFFHandle> tiffReaders =
+			new LinkedHashMap<>(16, 0.75f, true);
+
+		private int maxOpenFiles = DEFAULT_MAX_OPEN_FILES;
+
+		// -- MicromanagerReader API methods --
+
+		/** Sets the number of TIFF files kept open at once. */
+		public void setMaxOpenFiles(final int maxOpenFiles) {
+			this.maxOpenFiles = Math.max(1, maxOpenFiles);
+			synchronized (tiffReaders) {
+				evict();
+			}
+		}
+
+		/** @return The number of TIFF files kept open at once. */
+		public int getMaxOpenFiles() {
+			return maxOpenFiles;
+		}
+
+		/** @return The number of TIFF files currently open. */
+		public int getOpenFileCount() {
+			synchronized (tiffReaders) {
+				return tiffReaders.size();
+			}
+		}
+
+		/**
+		 * Reads all keys of the given plane's frame from metadata.txt. Only the
+		 * first frame of each position is added to the metadata table during
+		 * parsing.
+		 *
+		 * @return The frame's keys and values, or an empty map if metadata.txt
+		 *         has no frame for the plane.
+		 */
+		public Map<String, String> getFrameMetadata(final int imageIndex,
+			final long planeIndex) throws IOException
+		{
+			final Metadata meta = getMetadata();
+			final Position p = meta.getPositions().get(imageIndex);
+			final Map<String, String> frame = new LinkedHashMap<>();
+			final Long offset = p.getFrameOffset(meta, imageIndex, planeIndex);
+			if (offset == null) return frame;
+
+			try (DataHandle<Location> handle = dataHandleService.create(
+				p.metadataFile))
+			{
+				final JSONReader json = new JSONReader(handle);
+				json.seek(offset);
+				json.readFlat(frame);
+			}
+			return frame;
+		}
 
 		// -- AbstractReader API Methods --
 
@@ -795,52 +872,63 @@ public class MicromanagerFormat extends AbstractFormat {
 
 		@Override
 		public void setMetadata(final Metadata meta) throws IOException {
-			tiffReader = null;
+			closeTIFFReaders();
 			super.setMetadata(meta);
 		}
 
-		 
 		@Override
 		public ByteArrayPlane openPlane(final int imageIndex, final long planeIndex,
 			final ByteArrayPlane plane, final Interval bounds,
 			final SCIFIOConfig config) throws FormatException, IOException
 		{
-			if (tiffReader == null) {
-				tiffReader = (MinimalTIFFFormat.Reader<?>) formatService
-					.getFormatFromClass(MinimalTIFFFormat.class).createReader();
-			}
-
 			final Metadata meta = getMetadata();
 			final byte[] buf = plane.getBytes();
 			FormatTools.checkPlaneForReading(meta, imageIndex, planeIndex, buf.length,
 				bounds);
 
-			if (setupReader(imageIndex)) {
-				return tiffReader.openPlane(imageIndex, 0, plane, bounds);
+			final TIFFHandle tiff = acquireTIFFReader(imageIndex, planeIndex);
+			if (tiff == null) return plane;
+
+			try {
+				final int ifdIndex = meta.getPositions().get(imageIndex).getIFDIndex(
+					planeIndex);
+				synchronized (tiff.reader) {
+					return tiff.reader.openIFD(ifdIndex, plane, bounds);
+				}
+			}
+			finally {
+				releaseTIFFReader(tiff);
 			}
-			return plane;
 		}
 
 		@Override
 		public void close(final boolean fileOnly) throws IOException {
 			super.close(fileOnly);
-			if (tiffReader != null) tiffReader.close(fileOnly);
+			closeTIFFReaders();
 		}
 
 		@Override
 		public long getOptimalTileWidth(final int imageIndex) {
-			if (tiffReader == null || tiffReader.getCurrentLocation() == null) {
-				setupReader(imageIndex);
+			final TIFFHandle tiff = acquireTIFFReader(imageIndex, 0);
+			if (tiff == null) return super.getOptimalTileWidth(imageIndex);
+			try {
+				return tiff.reader.getOptimalTileWidth(0);
+			}
+			finally {
+				releaseTIFFReader(tiff);
 			}
-			return tiffReader.getOptimalTileWidth(imageIndex);
 		}
 
 		@Override
 		public long getOptimalTileHeight(final int imageIndex) {
-			if (tiffReader == null || tiffReader.getCurrentLocation() == null) {
-				setupReader(imageIndex);
+			final TIFFHandle tiff = acquireTIFFReader(imageIndex, 0);
+			if (tiff == null) return super.getOptimalTileHeight(imageIndex);
+			try {
+				return tiff.reader.getOptimalTileHeight(0);
+			}
+			finally {
+				releaseTIFFReader(tiff);
 			}
-			return tiffReader.getOptimalTileHeight(imageIndex);
 		}
 
 		// -- Groupable API Methods --
@@ -852,28 +940,102 @@ public class MicromanagerFormat extends AbstractFormat {
 
 		// -- Helper methods --
 
-		private boolean setupReader(final int imageIndex) {
+		/**
+		 * Gets a reader for the TIFF file holding the given plane, opening the
+		 * file only if it is not already among the open files. The reader stays
+		 * open until it is passed to {@link #releaseTIFFReader}, even if it is
+		 * evicted meanwhile.
+		 *
+		 * @return The reader, or null if the file is missing.
+		 */
+		private TIFFHandle acquireTIFFReader(final int imageIndex,
+			final long planeIndex)
+		{
 			try {
 				final Location file = getMetadata().getPositions().get(imageIndex)
-					.getLocation(getMetadata(), imageIndex, 0);
-
-				if (file != null && dataHandleService.supports(file) &&
-					dataHandleService.exists(file))
-				{
-					if (tiffReader == null) {
-						tiffReader = (MinimalTIFFFormat.Reader<?>) formatService
-							.getFormatFromClass(MinimalTIFFFormat.class).createReader();
+					.getLocation(getMetadata(), imageIndex, planeIndex);
+				synchronized (tiffReaders) {
+					TIFFHandle tiff = file == null ? null : tiffReaders.get(file);
+					if (tiff == null && file != null && dataHandleService.supports(
+						file) && dataHandleService.exists(file))
+					{
+						final MinimalTIFFFormat.Reader<?> reader =
+							(MinimalTIFFFormat.Reader<?>) formatService.getFormatFromClass(
+								MinimalTIFFFormat.class).createReader();
+						reader.setSource(file);
+						tiff = new TIFFHandle(reader);
+						tiffReaders.put(file, tiff);
+					}
+					if (tiff != null) {
+						tiff.users++;
+						evict();
+						return tiff;
 					}
-					tiffReader.setSource(file);
-					return true;
 				}
-				log().warn("File for image #" + imageIndex + " (" + file +
-					") is missing or cannot be opened.");
+				log().warn("File for image #" + imageIndex + ", plane #" +
+					planeIndex + " (" + file + ") is missing or cannot be opened.");
 			}
 			catch (final Exception e) {
 				log().debug("", e);
 			}
-			return false;
+			return null;
+		}
+
+		/** Releases a reader, closing it if it was evicted while in use. */
+		private void releaseTIFFReader(final TIFFHandle tiff) {
+			synchronized (tiffReaders) {
+				tiff.users--;
+				if (tiff.users == 0 && tiff.retired) closeQuietly(tiff.reader);
+			}
+		}
+
+		/**
+		 * Removes the least recently used TIFF files beyond the limit. Readers in
+		 * use are closed when they are released.
+		 */
+		private void evict() {
+			final Iterator<TIFFHandle> iter = tiffReaders.values().iterator();
+			while (tiffReaders.size() > maxOpenFiles && iter.hasNext()) {
+				retire(iter.next());
+				iter.remove();
+			}
+		}
+
+		private void closeTIFFReaders() {
+			synchronized (tiffReaders) {
+				for (final TIFFHandle tiff : tiffReaders.values()) {
+					retire(tiff);
+				}
+				tiffReaders.clear();
+			}
+		}
+
+		private void retire(final TIFFHandle tiff) {
+			tiff.retired = true;
+			if (tiff.users == 0) closeQuietly(tiff.reader);
+		}
+
+		private void closeQuietly(final MinimalTIFFFormat.Reader<?> reader) {
+			try {
+				reader.close();
+			}
+			catch (final IOException e) {
+				log().debug("", e);
+			}
+		}
+
+		/** An open TIFF file and the number of callers using it. */
+		private static class TIFFHandle {
+
+			private final MinimalTIFFFormat.Reader<?> reader;
+
+			private int users;
+
+			private boolean retired;
+
+			private TIFFHandle(final MinimalTIFFFormat.Reader<?> reader) {
+				this.reader = reader;
+			}
 		}
 
 	}
@@ -906,6 +1068,18 @@ public class MicromanagerFormat extends AbstractFormat {
 
 		public Map<Index, Location> locationMap = new HashMap<>();
 
+		/** Index, within its file, of the IFD of each plane in the location map. */
+		public Map<Index, Integer> ifdMap = new HashMap<>();
+
+		/** Position in metadata.txt of each plane's frame metadata. */
+		public Map<Index, Long> frameOffsets = new HashMap<>();
+
+		/** File of each plane, by plane index. */
+		private transient Location[] planeFiles;
+
+		/** Index of the IFD within its file of each plane, by plane index. */
+		private transient int[] planeIFDs;
+
 		public BrowsableLocation metadataFile;
 
 		public BrowsableLocation xmlFile;
@@ -930,9 +1104,69 @@ public class MicromanagerFormat extends AbstractFormat {
 
 		public String cameraMode;
 
+		/**
+		 * Resolves the file and IFD of every plane of this position up front, so
+		 * that {@link #getLocation} is a lookup.
+		 */
+		public void indexPlanes(final Metadata meta, final int imageIndex) {
+			planeFiles = null;
+			planeIFDs = null;
+			if (tiffs == null) return;
+
+			final Map<String, Location> tiffsByName = new HashMap<>();
+			for (final Location tiff : tiffs) {
+				tiffsByName.putIfAbsent(tiff.getName(), tiff);
+			}
+
+			final int planeCount = (int) meta.get(imageIndex).getPlaneCount();
+			final Location[] files = new Location[planeCount];
+			final int[] ifdIndices = new int[planeCount];
+			for (int plane = 0; plane < planeCount; plane++) {
+				if (locationMap.isEmpty()) {
+					if (plane < tiffs.size()) files[plane] = tiffs.get(plane);
+					continue;
+				}
+				final long[] zct = FormatTools.rasterToPosition(imageIndex, plane,
+					meta, Index.expectedAxes);
+				final Index key = new Index(new int[] { (int) zct[0], (int) zct[1],
+					(int) zct[2] });
+				final Location file = locationMap.get(key);
+				if (file == null) continue;
+				files[plane] = tiffsByName.get(file.getName());
+				final Integer ifd = ifdMap.get(key);
+				ifdIndices[plane] = ifd == null ? 0 : ifd;
+			}
+			planeFiles = files;
+			planeIFDs = ifdIndices;
+		}
+
+		/**
+		 * @return The position in metadata.txt of the given plane's frame
+		 *         metadata, or null if there is none.
+		 */
+		public Long getFrameOffset(final Metadata meta, final int imageIndex,
+			final long planeIndex)
+		{
+			final long[] zct = FormatTools.rasterToPosition(imageIndex, planeIndex,
+				meta, Index.expectedAxes);
+			return frameOffsets.get(new Index(new int[] { (int) zct[0],
+				(int) zct[1], (int) zct[2] }));
+		}
+
+		/**
+		 * @return The index, within its file, of the IFD holding the given plane.
+		 */
+		public int getIFDIndex(final long planeIndex) {
+			return planeIFDs == null ? 0 : planeIFDs[(int) planeIndex];
+		}
+
 		public Location getLocation(final Metadata meta, final int imageIndex,
 			final long planeIndex)
 		{
+			if (planeFiles != null && planeIndex < planeFiles.length) {
+				return planeFiles[(int) planeIndex];
+			}
+
 			final long[] zct = FormatTools.rasterToPosition(imageIndex, planeIndex,
 				meta, Index.expectedAxes);
 
@@ -972,5 +1206,17 @@ public class MicromanagerFormat extends AbstractFormat {
 			c = zct[1];
 			t = zct[2];
 		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (!(o instanceof Index)) return false;
+			final Index other = (Index) o;
+			return z == other.z && c == other.c && t == other.t;
+		}
+
+		@Override
+		public int hashCode() {
+			return (t * 31 + c) * 31 + z;
+		}
 	}
 }
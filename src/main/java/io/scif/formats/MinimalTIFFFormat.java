@@ -39,10 +39,14 @@ import io.scif.Format;
 import io.scif.FormatException;
 import io.scif.HasColorTable;
 import io.scif.ImageMetadata;
+import io.scif.LargePlane;
+import io.scif.LargePlaneReader;
+import io.scif.MetadataLevel;
 import io.scif.codec.JPEG2000CodecOptions;
 import io.scif.config.SCIFIOConfig;
 import io.scif.formats.tiff.IFD;
 import io.scif.formats.tiff.IFDList;
+import io.scif.formats.tiff.OnDemandIFD;
 import io.scif.formats.tiff.PhotoInterp;
 import io.scif.formats.tiff.TiffCompression;
 import io.scif.formats.tiff.TiffParser;
@@ -52,6 +56,7 @@ import io.scif.util.FormatTools;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import net.imagej.axis.Axes;
 import net.imglib2.Interval;
@@ -291,6 +296,8 @@ public class MinimalTIFFFormat extends AbstractFormat {
 			if (!fileOnly) {
 				if (ifds != null) {
 					for (final IFD ifd : ifds) {
+						if (ifd instanceof OnDemandIFD && !((OnDemandIFD) ifd)
+							.isLoaded()) continue;
 						if (ifd.getOnDemandStripOffsets() != null) {
 							ifd.getOnDemandStripOffsets().close();
 						}
@@ -399,12 +406,21 @@ public class MinimalTIFFFormat extends AbstractFormat {
 
 		// -- Parser API Methods --
 
+		@Override
+		public Set<MetadataLevel> getSupportedMetadataLevels() {
+			final Set<MetadataLevel> supportedLevels = super
+				.getSupportedMetadataLevels();
+			supportedLevels.add(MetadataLevel.DIMENSIONS);
+			return supportedLevels;
+		}
+
 		@Override
 		protected void typedParse(final DataHandle<Location> stream, final M meta,
 			final SCIFIOConfig config) throws IOException, FormatException
 		{
 			final TiffParser tiffParser = new TiffParser(getContext(), stream);
 			tiffParser.setDoCaching(false);
+			tiffParser.setLazyIFDs(true);
 			tiffParser.setUse64BitOffsets(meta.isUse64Bit());
 			meta.setTiffParser(tiffParser);
 
@@ -431,6 +447,11 @@ public class MinimalTIFFFormat extends AbstractFormat {
 			meta.setThumbnailIFDs(thumbnailIFDs);
 
 			for (final IFD ifd : allIFDs) {
+				if (isDeferred(ifd)) {
+					// deferred IFDs are known to be plain image IFDs
+					ifds.add(ifd);
+					continue;
+				}
 				final Number subfile = (Number) ifd.getIFDValue(IFD.NEW_SUBFILE_TYPE);
 				final int subfileType = subfile == null ? 0 : subfile.intValue();
 				if (subfileType != 1 || allIFDs.size() <= 1) {
@@ -443,12 +464,21 @@ public class MinimalTIFFFormat extends AbstractFormat {
 
 			log().debug("Populating metadata");
 
+			// At the dimensions-only level, and for IFDs whose entries have not
+			// been read yet, the remaining IFDs are filled in by the Reader when
+			// their planes are first opened. JPEG 2000 IFDs are always processed
+			// here, as they define the resolution levels.
+			final boolean dimensionsOnly = !config.parserIncludesLevel(
+				MetadataLevel.MINIMUM);
+			final IFD firstIFD = ifds.get(0);
+			final boolean deferFill = !isJPEG2000(firstIFD);
+
 			tiffParser.setAssumeEqualStrips(meta.isEqualStrips());
 			for (final IFD ifd : ifds) {
+				if (deferFill && ifd != firstIFD && (dimensionsOnly || isDeferred(
+					ifd))) continue;
 				tiffParser.fillInIFD(ifd);
-				if (ifd.getCompression() == TiffCompression.JPEG_2000 || ifd
-					.getCompression() == TiffCompression.JPEG_2000_LOSSY)
-				{
+				if (isJPEG2000(ifd)) {
 					log().debug("Found IFD with JPEG 2000 compression");
 					final long[] stripOffsets = ifd.getStripOffsets();
 					final long[] stripByteCounts = ifd.getStripByteCounts();
@@ -526,9 +556,23 @@ public class MinimalTIFFFormat extends AbstractFormat {
 			}
 		}
 
+		// -- Helper methods --
+
+		private boolean isDeferred(final IFD ifd) {
+			return ifd instanceof OnDemandIFD && !((OnDemandIFD) ifd).isLoaded();
+		}
+
+		private boolean isJPEG2000(final IFD ifd) throws FormatException {
+			final TiffCompression compression = ifd.getCompression();
+			return compression == TiffCompression.JPEG_2000 ||
+				compression == TiffCompression.JPEG_2000_LOSSY;
+		}
+
 	}
 
-	public static class Reader<M extends Metadata> extends ByteArrayReader<M> {
+	public static class Reader<M extends Metadata> extends ByteArrayReader<M>
+		implements LargePlaneReader
+	{
 
 		// -- AbstractReader API Methods --
 
@@ -544,12 +588,107 @@ public class MinimalTIFFFormat extends AbstractFormat {
 		public ByteArrayPlane openPlane(final int imageIndex, final long planeIndex,
 			final ByteArrayPlane plane, final Interval bounds,
 			final SCIFIOConfig config) throws FormatException, IOException
+		{
+			return readIFD(imageIndex, imageIndex, planeIndex, plane, bounds);
+		}
+
+		/**
+		 * Reads the given IFD, which must have the dimensions of the first image,
+		 * with the same color table and floating point handling as
+		 * {@link #openPlane}.
+		 */
+		public ByteArrayPlane openIFD(final int ifdIndex,
+			final ByteArrayPlane plane, final Interval bounds)
+			throws FormatException, IOException
+		{
+			return readIFD(ifdIndex, 0, 0, plane, bounds);
+		}
+
+		// -- LargePlaneReader API Methods --
+
+		@Override
+		public LargePlane openLargePlane(final int imageIndex,
+			final long planeIndex, final Interval bounds) throws FormatException,
+			IOException
 		{
 			final Metadata meta = getMetadata();
+			FormatTools.checkPlaneForReading(meta, imageIndex, planeIndex, -1,
+				bounds);
+			final IFD ifd = meta.getIfds().get(imageIndex);
+			meta.getTiffParser().fillInIFD(ifd);
+			if (meta.get(imageIndex).getPixelType() == FormatTools.FLOAT && ifd
+				.getBitsPerSample()[0] < 32)
+			{
+				throw new FormatException("Sorry, " + ifd.getBitsPerSample()[0] +
+					"-bit floats are not supported for large planes");
+			}
+			meta.setLastPlane(imageIndex);
+
+			final int xIndex = meta.get(imageIndex).getAxisIndex(Axes.X);
+			final int yIndex = meta.get(imageIndex).getAxisIndex(Axes.Y);
+			final LargePlane plane = new LargePlane(meta.get(imageIndex), bounds);
 			plane.setColorTable(meta.getColorTable(imageIndex, planeIndex));
-			final byte[] buf = plane.getBytes();
+			meta.getTiffParser().getSamples(ifd, plane.getData(), bounds.min(xIndex),
+				bounds.min(yIndex), bounds.dimension(xIndex), bounds.dimension(
+					yIndex));
+			return plane;
+		}
+
+		@Override
+		public long getOptimalTileWidth(final int imageIndex) {
+			FormatTools.assertId(getHandle().get().getName(), true, 1);
+			try {
+				return getMetadata().getIfds().get(0).getTileWidth();
+			}
+			catch (final FormatException e) {
+				log().debug("Could not retrieve tile width", e);
+			}
+			return super.getOptimalTileWidth(imageIndex);
+		}
+
+		@Override
+		public long getOptimalTileHeight(final int imageIndex) {
+			FormatTools.assertId(getHandle().get().getName(), true, 1);
+			try {
+				return getMetadata().getIfds().get(0).getTileLength();
+			}
+			catch (final FormatException e) {
+				log().debug("Could not retrieve tile height", e);
+			}
+			return super.getOptimalTileHeight(imageIndex);
+		}
+
+		/**
+		 * Sets the resolution level when we have JPEG 2000 compressed data.
+		 *
+		 * @param ifd The active IFD that is being used in our current
+		 *          {@code openBytes()} calling context. It will be the
+		 *          sub-resolution IFD if {@code currentSeries > 0}.
+		 */
+		protected void setResolutionLevel(final IFD ifd) {
+			final Metadata meta = getMetadata();
+			final JPEG2000CodecOptions j2kCodecOptions = meta.getJ2kCodecOptions();
+			j2kCodecOptions.resolution = 0;
+			// FIXME: resolution levels
+//      j2kCodecOptions.resolution = Math.abs(getCoreIndex() - resolutionLevels);
+			log().debug("Using JPEG 2000 resolution level " +
+				j2kCodecOptions.resolution);
+			meta.getTiffParser().setCodecOptions(j2kCodecOptions);
+		}
+
+		// -- Helper methods --
+
+		private ByteArrayPlane readIFD(final int ifdIndex, final int imageIndex,
+			final long planeIndex, final ByteArrayPlane plane, final Interval bounds)
+			throws FormatException, IOException
+		{
+			final Metadata meta = getMetadata();
 			final IFDList ifds = meta.getIfds();
 			final TiffParser tiffParser = meta.getTiffParser();
+			tiffParser.fillInIFD(ifds.get(ifdIndex));
+			meta.setLastPlane(ifdIndex);
+			plane.setColorTable(meta.getColorTable(imageIndex, planeIndex));
+			final byte[] buf = plane.getBytes();
 			final int xIndex = meta.get(imageIndex).getAxisIndex(Axes.X);
 			final int yIndex = meta.get(imageIndex).getAxisIndex(Axes.Y);
 			final int x = (int) bounds.min(xIndex);
@@ -560,8 +699,7 @@ public class MinimalTIFFFormat extends AbstractFormat {
 				bounds);
 
 			final IFD firstIFD = ifds.get(0);
-			meta.setLastPlane(imageIndex); // BH was planeIndex
-			final IFD ifd = ifds.get((int) imageIndex); // BH was planeIndex
+			final IFD ifd = ifds.get(ifdIndex);
 			if ((firstIFD.getCompression() == TiffCompression.JPEG_2000 || firstIFD
 				.getCompression() == TiffCompression.JPEG_2000_LOSSY) && meta
 					.getResolutionLevels() != null)
@@ -629,47 +767,5 @@ public class MinimalTIFFFormat extends AbstractFormat {
 
 			return plane;
 		}
-
-		@Override
-		public long getOptimalTileWidth(final int imageIndex) {
-			FormatTools.assertId(getHandle().get().getName(), true, 1);
-			try {
-				return getMetadata().getIfds().get(0).getTileWidth();
-			}
-			catch (final FormatException e) {
-				log().debug("Could not retrieve tile width", e);
-			}
-			return super.getOptimalTileWidth(imageIndex);
-		}
-
-		@Override
-		public long getOptimalTileHeight(final int imageIndex) {
-			FormatTools.assertId(getHandle().get().getName(), true, 1);
-			try {
-				return getMetadata().getIfds().get(0).getTileLength();
-			}
-			catch (final FormatException e) {
-				log().debug("Could not retrieve tile height", e);
-			}
-			return super.getOptimalTileHeight(imageIndex);
-		}
-
-		/**
-		 * Sets the resolution level when we have JPEG 2000 compressed data.
-		 *
-		 * @param ifd The active IFD that is being used in our current
-		 *          {@code openBytes()} calling context. It will be the
-		 *          sub-resolution IFD if {@code currentSeries > 0}.
-		 */
-		protected void setResolutionLevel(final IFD ifd) {
-			final Metadata meta = getMetadata();
-			final JPEG2000CodecOptions j2kCodecOptions = meta.getJ2kCodecOptions();
-			j2kCodecOptions.resolution = 0;
-			// FIXME: resolution levels
-//      j2kCodecOptions.resolution = Math.abs(getCoreIndex() - resolutionLevels);
-			log().debug("Using JPEG 2000 resolution level " +
-				j2kCodecOptions.resolution);
-			meta.getTiffParser().setCodecOptions(j2kCodecOptions);
-		}
 	}
 }
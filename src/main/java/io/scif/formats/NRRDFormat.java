@@ -38,6 +38,8 @@ import io.scif.ByteArrayReader;
 import io.scif.Format;
 import io.scif.FormatException;
 import io.scif.ImageMetadata;
+import io.scif.LargePlane;
+import io.scif.LargePlaneReader;
 import io.scif.MetadataLevel;
 import io.scif.UnsupportedCompressionException;
 import io.scif.config.SCIFIOConfig;
@@ -436,7 +438,9 @@ public class NRRDFormat extends AbstractFormat {
 		}
 	}
 
-	public static class Reader extends ByteArrayReader<Metadata> {
+	public static class Reader extends ByteArrayReader<Metadata> implements
+		LargePlaneReader
+	{
 
 		// -- AbstractReader API Methods --
 
@@ -522,5 +526,35 @@ public class NRRDFormat extends AbstractFormat {
 			throw new FormatException("Could not find a supporting Format");
 		}
 
+		// -- LargePlaneReader API Methods --
+
+		@Override
+		public LargePlane openLargePlane(final int imageIndex,
+			final long planeIndex, final Interval bounds) throws FormatException,
+			IOException
+		{
+			final Metadata meta = getMetadata();
+			FormatTools.checkPlaneForReading(meta, imageIndex, planeIndex, -1,
+				bounds);
+			if (!meta.getEncoding().equals("raw")) {
+				throw new UnsupportedCompressionException("Unsupported encoding: " +
+					meta.getEncoding());
+			}
+
+			final LargePlane plane = new LargePlane(meta.get(imageIndex), bounds);
+			final long offset = meta.getOffset() + planeIndex * FormatTools
+				.getPlaneSize(this, imageIndex);
+			if (meta.getDataFile() == null) {
+				getHandle().seek(offset);
+				return readLargePlane(getHandle(), imageIndex, bounds, plane);
+			}
+			try (final DataHandle<Location> s = dataHandleService.create(meta
+				.getDataFile()))
+			{
+				s.seek(offset);
+				return readLargePlane(s, imageIndex, bounds, plane);
+			}
+		}
+
 	}
 }
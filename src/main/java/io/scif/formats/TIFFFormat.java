@@ -388,8 +388,9 @@ public class TIFFFormat extends AbstractFormat {
 			// check for reusable proprietary tags (65000-65535),
 			// which may contain additional metadata
 
-			final MetadataLevel level = config.parserGetLevel();
-			if (level != MetadataLevel.MINIMUM) {
+			final boolean original = config.parserIncludesLevel(
+				MetadataLevel.NO_OVERLAYS);
+			if (original) {
 				final Integer[] tags = ifds.get(0).keySet().toArray(new Integer[0]);
 				for (final Integer tag : tags) {
 					if (tag.intValue() >= 65000) {
@@ -433,13 +434,13 @@ public class TIFFFormat extends AbstractFormat {
 
 			// check for MetaMorph-style TIFF comment
 			final boolean metamorph = checkCommentMetamorph(meta, comment);
-			if (metamorph && level != MetadataLevel.MINIMUM) {
+			if (metamorph && original) {
 				parseCommentMetamorph(meta, comment);
 			}
 			table.put("MetaMorph", metamorph ? "yes" : "no");
 
 			// check for other INI-style comment
-			if (!ij && !metamorph && level != MetadataLevel.MINIMUM) {
+			if (!ij && !metamorph && original) {
 				parseCommentGeneric(meta, comment);
 			}
 
@@ -964,7 +965,7 @@ public class TIFFFormat extends AbstractFormat {
 		protected void initMetadata(final Metadata meta, final SCIFIOConfig config)
 			throws FormatException, IOException
 		{
-			if (config.parserGetLevel() == MetadataLevel.MINIMUM) {
+			if (!config.parserIncludesLevel(MetadataLevel.NO_OVERLAYS)) {
 				return;
 			}
 
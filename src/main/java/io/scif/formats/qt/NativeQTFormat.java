@@ -43,6 +43,7 @@ import io.scif.ImageMetadata;
 import io.scif.Plane;
 import io.scif.Translator;
 import io.scif.UnsupportedCompressionException;
+import io.scif.codec.CheckpointCache;
 import io.scif.codec.Codec;
 import io.scif.codec.CodecOptions;
 import io.scif.codec.CodecService;
@@ -75,6 +76,7 @@ import org.scijava.io.location.Location;
 import org.scijava.log.LogService;
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
+import org.scijava.util.LongArray;
 
 /**
  * NativeQTReader is the file format reader for QuickTime movie files. It does
@@ -121,7 +123,10 @@ public class NativeQTFormat extends AbstractFormat {
 		private int rawSize;
 
 		/** Offsets to each plane's pixel data. */
-		private List<Integer> offsets;
+		private long[] offsets;
+
+		/** Zero-based indices of the sync samples (stss), if listed. */
+		private transient long[] keyFrames;
 
 		/** Pixel data for the previous image plane. */
 		private byte[] prevPixels;
@@ -142,7 +147,7 @@ public class NativeQTFormat extends AbstractFormat {
 		private int altPlanes;
 
 		/** Amount to subtract from each offset. */
-		private int scale;
+		private long scale;
 
 		/** Number of bytes in each plane. */
 		private List<Integer> chunkSizes;
@@ -189,14 +194,26 @@ public class NativeQTFormat extends AbstractFormat {
 			this.rawSize = rawSize;
 		}
 
-		public List<Integer> getOffsets() {
+		public long[] getOffsets() {
 			return offsets;
 		}
 
-		public void setOffsets(final List<Integer> offsets) {
+		public void setOffsets(final long[] offsets) {
 			this.offsets = offsets;
 		}
 
+		/**
+		 * @return Zero-based indices of the key frames, or null if the movie has
+		 *         no sync sample table.
+		 */
+		public long[] getKeyFrames() {
+			return keyFrames;
+		}
+
+		public void setKeyFrames(final long[] keyFrames) {
+			this.keyFrames = keyFrames;
+		}
+
 		public byte[] getPrevPixels() {
 			return prevPixels;
 		}
@@ -245,11 +262,11 @@ public class NativeQTFormat extends AbstractFormat {
 			this.altPlanes = altPlanes;
 		}
 
-		public int getScale() {
+		public long getScale() {
 			return scale;
 		}
 
-		public void setScale(final int scale) {
+		public void setScale(final long scale) {
 			this.scale = scale;
 		}
 
@@ -312,6 +329,7 @@ public class NativeQTFormat extends AbstractFormat {
 			super.close(fileOnly);
 			if (!fileOnly) {
 				offsets = null;
+				keyFrames = null;
 				prevPixels = null;
 				codec = altCodec = null;
 				pixelOffset = pixelBytes = bitsPerPixel = rawSize = 0;
@@ -364,10 +382,9 @@ public class NativeQTFormat extends AbstractFormat {
 		{
 
 			meta.setSpork(true);
-			final List<Integer> offsets = new ArrayList<>();
 			final List<Integer> chunkSizes = new ArrayList<>();
 
-			meta.setOffsets(offsets);
+			meta.setOffsets(new long[0]);
 			meta.setChunkSizes(chunkSizes);
 			meta.createImageMetadata(1);
 			log().info("Parsing tags");
@@ -377,7 +394,7 @@ public class NativeQTFormat extends AbstractFormat {
 			final ImageMetadata iMeta = meta.get(0);
 
 			iMeta.setPlanarAxisCount(2);
-			iMeta.setAxisLength(Axes.TIME, offsets.size());
+			iMeta.setAxisLength(Axes.TIME, meta.getOffsets().length);
 
 			if (chunkSizes.size() < iMeta.getPlaneCount() && chunkSizes.size() > 0) {
 				iMeta.setAxisLength(Axes.TIME, chunkSizes.size());
@@ -419,14 +436,14 @@ public class NativeQTFormat extends AbstractFormat {
 
 					NativeQTUtils.stripHeader(stream);
 					NativeQTUtils.parse(stream, meta, 0, 0, getSource().length(), log());
-					meta.get(0).setAxisLength(Axes.TIME, offsets.size());
+					meta.get(0).setAxisLength(Axes.TIME, meta.getOffsets().length);
 				}
 				else {
 					log().debug("\tAbsent: " + f);
 					f = browsableBaseLoc.sibling("._" + base);
 					if (dataHandleService.exists(f)) {
 						log().debug("\t Found: " + f);
-						parseLocation(meta, offsets, f);
+						parseLocation(meta, f);
 					}
 					else {
 						log().debug("\tAbsent: " + f);
@@ -434,7 +451,7 @@ public class NativeQTFormat extends AbstractFormat {
 							File.separator + "namedfork" + File.separator + "rsrc");
 						if (dataHandleService.exists(f)) {
 							log().debug("\t Found: " + f);
-							parseLocation(meta, offsets, f);
+							parseLocation(meta, f);
 						}
 						else {
 							log().debug("\tAbsent: " + f);
@@ -451,21 +468,44 @@ public class NativeQTFormat extends AbstractFormat {
 			}
 		}
 
-		private void parseLocation(final Metadata meta, final List<Integer> offsets,
-			final Location f) throws IOException, FormatException
+		private void parseLocation(final Metadata meta, final Location f)
+			throws IOException, FormatException
 		{
 			try (final DataHandle<Location> tmpStream = dataHandleService.create(f)) {
 
 				NativeQTUtils.stripHeader(tmpStream);
 				NativeQTUtils.parse(tmpStream, meta, 0, tmpStream.offset(), tmpStream
 					.length(), log());
-				meta.get(0).setAxisLength(Axes.TIME, offsets.size());
+				meta.get(0).setAxisLength(Axes.TIME, meta.getOffsets().length);
 			}
 		}
 	}
 
 	public static class Reader extends ByteArrayReader<Metadata> {
 
+		// -- Fields --
+
+		/** Decoded frames to resume from when seeking in delta-coded movies. */
+		private final CheckpointCache checkpoints = new CheckpointCache();
+
+		// -- NativeQTReader API methods --
+
+		/**
+		 * Sets the maximum number of bytes of decoded frames kept as seek
+		 * checkpoints for delta-coded (rle) movies. A size of 0 disables them.
+		 */
+		public void setCacheSize(final long bytes) {
+			checkpoints.setMaxBytes(bytes);
+		}
+
+		/**
+		 * @return The maximum number of bytes of decoded frames kept as seek
+		 *         checkpoints.
+		 */
+		public long getCacheSize() {
+			return checkpoints.getMaxBytes();
+		}
+
 		// -- AbstractReader API Methods --
 
 		@Override
@@ -475,6 +515,13 @@ public class NativeQTFormat extends AbstractFormat {
 
 		// -- Reader API Methods --
 
+		@Override
+		public void setMetadata(final Metadata meta) throws IOException {
+			super.setMetadata(meta);
+			checkpoints.clear();
+			checkpoints.setKeyFrames(meta.getKeyFrames());
+		}
+
 		@Override
 		public ByteArrayPlane openPlane(final int imageIndex, final long planeIndex,
 			final ByteArrayPlane plane, final Interval bounds,
@@ -486,39 +533,10 @@ public class NativeQTFormat extends AbstractFormat {
 			FormatTools.checkPlaneForReading(meta, imageIndex, planeIndex, buf.length,
 				bounds);
 
-			String code = meta.getCodec();
-			if (planeIndex >= meta.get(imageIndex).getPlaneCount() - meta
-				.getAltPlanes()) code = meta.altCodec;
-
-			int offset = meta.getOffsets().get((int) planeIndex).intValue();
-			int nextOffset = (int) meta.getPixelBytes();
-
-			meta.setScale(meta.getOffsets().get(0).intValue());
-			offset -= meta.getScale();
-
-			if (planeIndex < meta.getOffsets().size() - 1) {
-				nextOffset = meta.getOffsets().get((int) planeIndex + 1).intValue() -
-					meta.getScale();
-			}
-
-			if ((nextOffset - offset) < 0) {
-				final int temp = offset;
-				offset = nextOffset;
-				nextOffset = temp;
-			}
-
-			final byte[] pixs = new byte[nextOffset - offset];
-
-			getHandle().seek(meta.getPixelOffset() + offset);
-			getHandle().read(pixs);
-
-			meta.setCanUsePrevious((meta.getPrevPixels() != null) && (meta
-				.getPrevPlane() == planeIndex - 1) && !code.equals(meta.getAltCodec()));
-
-			byte[] t = meta.getPrevPlane() == planeIndex && meta
-				.getPrevPixels() != null && !code.equals(meta.getAltCodec()) ? meta
-					.getPrevPixels() : NativeQTUtils.uncompress(pixs, code, meta);
+			final String code = getCodec(imageIndex, planeIndex);
 			if (code.equals("rpza")) {
+				final byte[] t = NativeQTUtils.uncompress(readFrame(planeIndex), code,
+					meta);
 				for (int i = 0; i < t.length; i++) {
 					t[i] = (byte) (255 - t[i]);
 				}
@@ -526,15 +544,26 @@ public class NativeQTFormat extends AbstractFormat {
 				return plane;
 			}
 
-			// on rare occassions, we need to trim the data
-			if (meta.isCanUsePrevious() && (meta.getPrevPixels().length < t.length)) {
-				final byte[] temp = t;
-				t = new byte[meta.getPrevPixels().length];
-				System.arraycopy(temp, 0, t, 0, t.length);
+			if (meta.getPrevPlane() != planeIndex || meta.getPrevPixels() == null ||
+				code.equals(meta.getAltCodec()))
+			{
+				// rle frames only hold the changes from the previous frame, so
+				// decode from the nearest key frame or checkpoint
+				long start = planeIndex;
+				if (code.equals("rle ")) {
+					final long current = meta.getPrevPixels() == null ? -1 : meta
+						.getPrevPlane();
+					start = checkpoints.start(planeIndex, current);
+					if (start != current + 1) {
+						meta.setPrevPixels(checkpoints.get(start - 1));
+						meta.setPrevPlane(start - 1);
+					}
+				}
+				for (long p = start; p <= planeIndex; p++) {
+					decodeFrame(imageIndex, p);
+				}
 			}
-
-			meta.setPrevPixels(t);
-			meta.setPrevPlane(planeIndex);
+			byte[] t = meta.getPrevPixels();
 
 			// determine whether we need to strip out any padding bytes
 
@@ -610,6 +639,76 @@ public class NativeQTFormat extends AbstractFormat {
 			}
 			return plane;
 		}
+
+		@Override
+		public void close(final boolean fileOnly) throws IOException {
+			super.close(fileOnly);
+			if (!fileOnly) checkpoints.clear();
+		}
+
+		// -- Helper methods --
+
+		private String getCodec(final int imageIndex, final long planeIndex) {
+			final Metadata meta = getMetadata();
+			if (planeIndex >= meta.get(imageIndex).getPlaneCount() - meta
+				.getAltPlanes()) return meta.getAltCodec();
+			return meta.getCodec();
+		}
+
+		/** Reads the compressed data of the given frame. */
+		private byte[] readFrame(final long planeIndex) throws IOException {
+			final Metadata meta = getMetadata();
+			final long[] offsets = meta.getOffsets();
+			long offset = offsets[(int) planeIndex];
+			long nextOffset = meta.getPixelBytes();
+
+			meta.setScale(offsets[0]);
+			offset -= meta.getScale();
+
+			if (planeIndex < offsets.length - 1) {
+				nextOffset = offsets[(int) planeIndex + 1] - meta.getScale();
+			}
+
+			if ((nextOffset - offset) < 0) {
+				final long temp = offset;
+				offset = nextOffset;
+				nextOffset = temp;
+			}
+
+			final byte[] pixs = new byte[(int) (nextOffset - offset)];
+
+			getHandle().seek(meta.getPixelOffset() + offset);
+			getHandle().read(pixs);
+			return pixs;
+		}
+
+		/**
+		 * Decodes the given frame into the metadata's previous pixels, on top of
+		 * the previous frame if that is the one held there.
+		 */
+		private void decodeFrame(final int imageIndex, final long planeIndex)
+			throws FormatException, IOException
+		{
+			final Metadata meta = getMetadata();
+			final String code = getCodec(imageIndex, planeIndex);
+			final byte[] pixs = readFrame(planeIndex);
+
+			meta.setCanUsePrevious((meta.getPrevPixels() != null) && (meta
+				.getPrevPlane() == planeIndex - 1) && !code.equals(meta.getAltCodec()));
+
+			byte[] t = NativeQTUtils.uncompress(pixs, code, meta);
+
+			// on rare occassions, we need to trim the data
+			if (meta.isCanUsePrevious() && (meta.getPrevPixels().length < t.length)) {
+				final byte[] temp = t;
+				t = new byte[meta.getPrevPixels().length];
+				System.arraycopy(temp, 0, t, 0, t.length);
+			}
+
+			meta.setPrevPixels(t);
+			meta.setPrevPlane(planeIndex);
+			if (code.equals("rle ")) checkpoints.put(planeIndex, t);
+		}
 	}
 
 	public static class Writer extends AbstractWriter<Metadata> {
@@ -1362,18 +1461,20 @@ public class NativeQTFormat extends AbstractFormat {
 								"Compressed header not supported.");
 						}
 					}
-					else if (atomType.equals("stco")) {
-						// we've found the plane offsets
+					else if (atomType.equals("stco") || atomType.equals("co64")) {
+						// we've found the plane offsets; co64 holds 64-bit offsets
 
-						if (meta.getOffsets().size() > 0) break;
+						if (meta.getOffsets().length > 0) break;
+						final boolean wide = atomType.equals("co64");
 						meta.setSpork(false);
 						stream.skipBytes(4);
 						final int planeCount = (int) meta.get(0).getAxisLength(Axes.TIME);
 						final int numPlanes = stream.readInt();
+						final LongArray offsets = new LongArray();
 						if (numPlanes != planeCount) {
-							stream.seek(stream.offset() - 4);
-							int off = stream.readInt();
-							meta.getOffsets().add(off);
+							long off = wide ? stream.readLong() : stream.readInt() &
+								0xffffffffL;
+							offsets.addValue(off);
 							for (int i = 1; i < planeCount; i++) {
 								if ((meta.getChunkSizes().isEmpty()) && (i < meta
 									.getChunkSizes().size()))
@@ -1382,14 +1483,29 @@ public class NativeQTFormat extends AbstractFormat {
 								}
 								else i = planeCount;
 								off += meta.getRawSize();
-								meta.getOffsets().add(off);
+								offsets.addValue(off);
 							}
 						}
 						else {
 							for (int i = 0; i < numPlanes; i++) {
-								meta.getOffsets().add(stream.readInt());
+								offsets.addValue(wide ? stream.readLong() : stream.readInt() &
+									0xffffffffL);
 							}
 						}
+						meta.setOffsets(offsets.copyArray());
+					}
+					else if (atomType.equals("stss")) {
+						// sync samples, as one-based sample numbers; like the plane
+						// offsets, only the first track's table is used
+
+						if (meta.getKeyFrames() != null) break;
+						stream.skipBytes(4);
+						final int numKeyFrames = Math.max(0, stream.readInt());
+						final long[] keyFrames = new long[numKeyFrames];
+						for (int i = 0; i < numKeyFrames; i++) {
+							keyFrames[i] = (stream.readInt() & 0xffffffffL) - 1;
+						}
+						meta.setKeyFrames(keyFrames);
 					}
 					else if (atomType.equals("stsd")) {
 						// found video codec and pixel depth information
@@ -0,0 +1,291 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.formats.tiff;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.location.Location;
+import org.scijava.log.LogService;
+
+/**
+ * An {@link IFD} whose directory entries are only read from the file the first
+ * time any of them is accessed. If they cannot be read, that access throws an
+ * {@link UncheckedIOException} and the IFD stays unloaded.
+ *
+ * @see TiffParser#setLazyIFDs(boolean)
+ */
+public class OnDemandIFD extends IFD {
+
+	// -- Constants --
+
+	private static final long serialVersionUID = 1L;
+
+	// -- Fields --
+
+	/** Parser from which to read the entries, or null once they are read. */
+	private transient volatile TiffParser parser;
+
+	/** Whether the entries are being read, by the thread holding the lock. */
+	private transient boolean loading;
+
+	private final long offset;
+
+	// -- Constructor --
+
+	public OnDemandIFD(final TiffParser parser, final long offset,
+		final LogService log)
+	{
+		super(log);
+		this.parser = parser;
+		this.offset = offset;
+	}
+
+	// -- OnDemandIFD methods --
+
+	/** Gets the offset of this IFD within the file. */
+	public long getOffset() {
+		return offset;
+	}
+
+	/** Gets whether the entries of this IFD have been read. */
+	public boolean isLoaded() {
+		return parser == null;
+	}
+
+	// -- Map API methods --
+
+	@Override
+	public Object get(final Object key) {
+		load();
+		return super.get(key);
+	}
+
+	@Override
+	public Object getOrDefault(final Object key, final Object defaultValue) {
+		load();
+		return super.getOrDefault(key, defaultValue);
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		load();
+		return super.containsKey(key);
+	}
+
+	@Override
+	public boolean containsValue(final Object value) {
+		load();
+		return super.containsValue(value);
+	}
+
+	@Override
+	public int size() {
+		load();
+		return super.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		load();
+		return super.isEmpty();
+	}
+
+	@Override
+	public Set<Integer> keySet() {
+		load();
+		return super.keySet();
+	}
+
+	@Override
+	public Collection<Object> values() {
+		load();
+		return super.values();
+	}
+
+	@Override
+	public Set<Map.Entry<Integer, Object>> entrySet() {
+		load();
+		return super.entrySet();
+	}
+
+	@Override
+	public Object put(final Integer key, final Object value) {
+		load();
+		return super.put(key, value);
+	}
+
+	@Override
+	public void putAll(final Map<? extends Integer, ? extends Object> m) {
+		load();
+		super.putAll(m);
+	}
+
+	@Override
+	public Object remove(final Object key) {
+		load();
+		return super.remove(key);
+	}
+
+	@Override
+	public boolean remove(final Object key, final Object value) {
+		load();
+		return super.remove(key, value);
+	}
+
+	@Override
+	public Object putIfAbsent(final Integer key, final Object value) {
+		load();
+		return super.putIfAbsent(key, value);
+	}
+
+	@Override
+	public Object replace(final Integer key, final Object value) {
+		load();
+		return super.replace(key, value);
+	}
+
+	@Override
+	public boolean replace(final Integer key, final Object oldValue,
+		final Object newValue)
+	{
+		load();
+		return super.replace(key, oldValue, newValue);
+	}
+
+	@Override
+	public Object computeIfAbsent(final Integer key,
+		final Function<? super Integer, ? extends Object> mappingFunction)
+	{
+		load();
+		return super.computeIfAbsent(key, mappingFunction);
+	}
+
+	@Override
+	public Object computeIfPresent(final Integer key,
+		final BiFunction<? super Integer, ? super Object, ? extends Object> remappingFunction)
+	{
+		load();
+		return super.computeIfPresent(key, remappingFunction);
+	}
+
+	@Override
+	public Object compute(final Integer key,
+		final BiFunction<? super Integer, ? super Object, ? extends Object> remappingFunction)
+	{
+		load();
+		return super.compute(key, remappingFunction);
+	}
+
+	@Override
+	public Object merge(final Integer key, final Object value,
+		final BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction)
+	{
+		load();
+		return super.merge(key, value, remappingFunction);
+	}
+
+	@Override
+	public void forEach(
+		final BiConsumer<? super Integer, ? super Object> action)
+	{
+		load();
+		super.forEach(action);
+	}
+
+	@Override
+	public void replaceAll(
+		final BiFunction<? super Integer, ? super Object, ? extends Object> function)
+	{
+		load();
+		super.replaceAll(function);
+	}
+
+	@Override
+	public void clear() {
+		parser = null;
+		super.clear();
+	}
+
+	@Override
+	public Object clone() {
+		load();
+		return super.clone();
+	}
+
+	// -- Serialization --
+
+	/** Ensures the entries are read before this IFD is serialized. */
+	private Object writeReplace() {
+		load();
+		return this;
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Reads the entries of this IFD, if that has not happened yet. The position
+	 * of the parser's stream is preserved. Other threads wait until the entries
+	 * have been read; calls made by {@link TiffParser#readIFD} while it fills in
+	 * this IFD return at once.
+	 *
+	 * @throws UncheckedIOException if the entries cannot be read.
+	 */
+	private void load() {
+		if (parser == null) return;
+		synchronized (this) {
+			final TiffParser p = parser;
+			if (p == null || loading) return;
+			loading = true;
+			final DataHandle<Location> in = p.getStream();
+			try {
+				final long fp = in.offset();
+				p.readIFD(this, offset);
+				in.seek(fp);
+				parser = null;
+			}
+			catch (final IOException e) {
+				super.clear();
+				throw new UncheckedIOException("Could not read IFD at offset " +
+					offset, e);
+			}
+			finally {
+				loading = false;
+			}
+		}
+	}
+}
@@ -35,10 +35,17 @@ import io.scif.codec.BitBuffer;
 import io.scif.codec.CodecOptions;
 import io.scif.common.Constants;
 import io.scif.enumeration.EnumException;
+import io.scif.io.AsyncReadable;
+import io.scif.io.AsyncReads;
+import io.scif.io.VectoredRead;
+import io.scif.metrics.MetricsService;
+import io.scif.util.LargeByteBuffer;
 
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.scijava.AbstractContextual;
 import org.scijava.Context;
@@ -59,6 +66,11 @@ import org.scijava.util.IntRect;
  */
 public class TiffParser extends AbstractContextual {
 
+	// -- Constants --
+
+	/** Key under which TIFF I/O is recorded by the {@link MetricsService}. */
+	private static final String METRICS_KEY = "TIFF";
+
 	// -- Fields --
 
 	/** Input source from which to parse TIFF data. */
@@ -79,9 +91,18 @@ public class TiffParser extends AbstractContextual {
 
 	private boolean doCaching;
 
+	/** Whether IFD entries may be read on first access instead of up front. */
+	private boolean lazyIFDs;
+
 	/** Cached list of IFDs in the current file. */
 	private IFDList ifdList;
 
+	/** Cached offsets of every top-level IFD in the current file. */
+	private long[] ifdOffsets;
+
+	/** Whether the IFDs after the first all have the same number of entries. */
+	private boolean uniformIFDs;
+
 	/** Cached first IFD in the current file. */
 	private IFD firstIFD;
 
@@ -149,6 +170,15 @@ public class TiffParser extends AbstractContextual {
 		this.doCaching = doCaching;
 	}
 
+	/**
+	 * Sets whether {@link #getIFDs()} may defer reading the entries of each IFD
+	 * until it is first accessed. This only takes effect when every IFD has the
+	 * same layout as the first, which then must not have sub-IFDs.
+	 */
+	public void setLazyIFDs(final boolean lazy) {
+		lazyIFDs = lazy;
+	}
+
 	/** Sets whether or not 64-bit offsets are used for non-BigTIFF files. */
 	public void setUse64BitOffsets(final boolean use64Bit) {
 		fakeBigTiff = use64Bit;
@@ -219,6 +249,22 @@ public class TiffParser extends AbstractContextual {
 		final long[] offsets = getIFDOffsets();
 		final IFDList ifds = new IFDList();
 
+		// the first two IFDs are read to check that the uniform remainder are
+		// plain image IFDs, rather than thumbnails or sub-IFD containers
+		if (lazyIFDs && uniformIFDs && offsets.length > 2) {
+			final IFD first = getIFD(offsets[0]);
+			final IFD second = getIFD(offsets[1]);
+			if (isPlainImage(first) && isPlainImage(second)) {
+				ifds.add(first);
+				ifds.add(second);
+				for (int i = 2; i < offsets.length; i++) {
+					ifds.add(new OnDemandIFD(this, offsets[i], log));
+				}
+				if (doCaching) ifdList = ifds;
+				return ifds;
+			}
+		}
+
 		for (final long offset : offsets) {
 			final IFD ifd = getIFD(offset);
 			if (ifd == null) continue;
@@ -289,29 +335,42 @@ public class TiffParser extends AbstractContextual {
 		return exif;
 	}
 
-	/** Gets the offsets to every IFD in the file. */
+	/**
+	 * Gets the offsets to every IFD in the file. The offsets are computed once
+	 * per parser, arithmetically when the IFDs can be shown to be evenly spaced,
+	 * and otherwise by walking the chain of IFDs.
+	 */
 	public long[] getIFDOffsets() throws IOException {
-		// check TIFF header
-		final int bytesPerEntry = bigTiff ? TiffConstants.BIG_TIFF_BYTES_PER_ENTRY
-			: TiffConstants.BYTES_PER_ENTRY;
-
-		final Vector<Long> offsets = new Vector<>();
-		long offset = getFirstOffset();
-		while (offset > 0 && offset < in.length()) {
-			in.seek(offset);
-			offsets.add(offset);
-			final int nEntries = bigTiff ? (int) in.readLong() : in
-				.readUnsignedShort();
-			in.skipBytes(nEntries * bytesPerEntry);
-			offset = getNextOffset(offset);
-		}
+		if (ifdOffsets != null) return ifdOffsets.clone();
+
+		final long first = getFirstOffset();
+		long[] f = getEvenlySpacedOffsets(first);
+		if (f == null) {
+			// the IFDs after the first are uniform if they all have the same
+			// number of entries
+			final Vector<Long> offsets = new Vector<>();
+			uniformIFDs = true;
+			int entries = -1;
+			long offset = first;
+			while (offset > 0 && offset < in.length()) {
+				final int nEntries = skipIFD(offset);
+				if (!offsets.isEmpty()) {
+					if (entries < 0) entries = nEntries;
+					else if (nEntries != entries) uniformIFDs = false;
+				}
+				offsets.add(offset);
+				offset = getNextOffset(offset);
+			}
 
-		final long[] f = new long[offsets.size()];
-		for (int i = 0; i < f.length; i++) {
-			f[i] = offsets.get(i).longValue();
+			f = new long[offsets.size()];
+			for (int i = 0; i < f.length; i++) {
+				f[i] = offsets.get(i).longValue();
+			}
 		}
+		else uniformIFDs = true;
 
-		return f;
+		ifdOffsets = f;
+		return f.clone();
 	}
 
 	/**
@@ -373,7 +432,12 @@ public class TiffParser extends AbstractContextual {
 	public IFD getIFD(final long offset) throws IOException {
 		if (offset < 0 || offset >= in.length()) return null;
 		final IFD ifd = new IFD(log);
+		readIFD(ifd, offset);
+		return ifd;
+	}
 
+	/** Reads the entries of the IFD stored at the given offset into an IFD. */
+	void readIFD(final IFD ifd, final long offset) throws IOException {
 		// save little-endian flag to internal LITTLE_ENDIAN tag
 		ifd.put(new Integer(IFD.LITTLE_ENDIAN), Boolean.valueOf(in
 			.isLittleEndian()));
@@ -384,7 +448,7 @@ public class TiffParser extends AbstractContextual {
 		in.seek(offset);
 		final long numEntries = bigTiff ? in.readLong() : in.readUnsignedShort();
 		log.trace("getIFDs: " + numEntries + " directory entries to read");
-		if (numEntries == 0 || numEntries == 1) return ifd;
+		if (numEntries == 0 || numEntries == 1) return;
 
 		final int bytesPerEntry = bigTiff ? TiffConstants.BIG_TIFF_BYTES_PER_ENTRY
 			: TiffConstants.BYTES_PER_ENTRY;
@@ -436,8 +500,6 @@ public class TiffParser extends AbstractContextual {
 		}
 
 		in.seek(offset + baseOffset + bytesPerEntry * numEntries);
-
-		return ifd;
 	}
 
 	/** Fill in IFD entries that are stored at an arbitrary offset. */
@@ -628,19 +690,65 @@ public class TiffParser extends AbstractContextual {
 
 	// -- TiffParser methods - image reading --
 
-	public byte[] getTile(final IFD ifd, byte[] buf, final int row, final int col)
-		throws FormatException, IOException
+	public byte[] getTile(final IFD ifd, final byte[] buf, final int row,
+		final int col) throws FormatException, IOException
 	{
-		final byte[] jpegTable = (byte[]) ifd.getIFDValue(IFD.JPEG_TABLES);
+		try {
+			return AsyncReads.join(getTileAsync(ifd, buf, row, col));
+		}
+		catch (final CompletionException e) {
+			if (e.getCause() instanceof FormatException) {
+				throw (FormatException) e.getCause();
+			}
+			throw e;
+		}
+	}
 
-		codecOptions.interleaved = true;
-		codecOptions.littleEndian = ifd.isLittleEndian();
+	/**
+	 * Reads and decodes a tile. If the stream is {@link AsyncReadable}, the
+	 * calling thread does not wait for the tile's bytes to arrive; otherwise the
+	 * returned future is already complete.
+	 */
+	public CompletableFuture<byte[]> getTileAsync(final IFD ifd, byte[] buf,
+		final int row, final int col) throws FormatException, IOException
+	{
+		final TileRange range = getTileRange(ifd, row, col);
+		if (buf == null) buf = new byte[range.size];
+		if (range.byteCount == 0) {
+			return CompletableFuture.completedFuture(buf);
+		}
+
+		log.debug("Reading tile Length " + range.byteCount + " Offset " +
+			range.offset);
+		final byte[] dest = buf;
+		return AsyncReads.readAsync(in, range.offset, range.byteCount).thenApply(
+			bytes -> {
+				final byte[] tile = new byte[range.byteCount];
+				bytes.get(tile, 0, Math.min(range.byteCount, bytes.remaining()));
+				final MetricsService metrics = scifio.metrics();
+				metrics.count(MetricsService.SEEKS, METRICS_KEY, 1);
+				metrics.count(MetricsService.BYTES_READ, METRICS_KEY, tile.length);
+				try {
+					decodeTile(ifd, dest, tile, range, row);
+				}
+				catch (final FormatException | IOException e) {
+					throw new CompletionException(e);
+				}
+				return dest;
+			});
+	}
 
+	/**
+	 * Locates the stored bytes of a tile. The byte count is zero if the tile is
+	 * empty or lies past the end of the stream.
+	 */
+	private TileRange getTileRange(final IFD ifd, final int row, final int col)
+		throws FormatException, IOException
+	{
 		final long tileWidth = ifd.getTileWidth();
 		final long tileLength = ifd.getTileLength();
 		final int samplesPerPixel = ifd.getSamplesPerPixel();
 		final int planarConfig = ifd.getPlanarConfiguration();
-		final TiffCompression compression = ifd.getCompression();
 
 		final long numTileCols = ifd.getTilesPerRow();
 
@@ -676,17 +784,31 @@ public class TiffParser extends AbstractContextual {
 		}
 
 		final int size = (int) (tileWidth * tileLength * pixel * effectiveChannels);
+		final int byteCount = stripOffset >= in.length() ? 0
+			: (int) stripByteCounts[countIndex];
+		return new TileRange(stripOffset, byteCount, size, nStrips);
+	}
 
-		if (buf == null) buf = new byte[size];
-		if (stripByteCounts[countIndex] == 0 || stripOffset >= in.length()) {
-			return buf;
+	/** Decompresses a tile's bytes and unpacks its samples into a buffer. */
+	private void decodeTile(final IFD ifd, final byte[] buf, byte[] tile,
+		final TileRange range, final int row) throws FormatException, IOException
+	{
+		synchronized (this) {
+			decodeTile(ifd, buf, tile, range.size, row, range.nStrips);
 		}
-		byte[] tile = new byte[(int) stripByteCounts[countIndex]];
+	}
 
-		log.debug("Reading tile Length " + tile.length + " Offset " + stripOffset);
-		in.seek(stripOffset);
-		in.read(tile);
+	private void decodeTile(final IFD ifd, final byte[] buf, byte[] tile,
+		final int size, final int row, final long nStrips) throws FormatException,
+		IOException
+	{
+		final byte[] jpegTable = (byte[]) ifd.getIFDValue(IFD.JPEG_TABLES);
+		final TiffCompression compression = ifd.getCompression();
+		final int planarConfig = ifd.getPlanarConfiguration();
+		final int pixel = ifd.getBytesPerSample()[0];
 
+		codecOptions.interleaved = true;
+		codecOptions.littleEndian = ifd.isLittleEndian();
 		codecOptions.maxBytes = Math.max(size, tile.length);
 		codecOptions.ycbcr = ifd
 			.getPhotometricInterpretation() == PhotoInterp.Y_CB_CR && ifd
@@ -722,8 +844,6 @@ public class TiffParser extends AbstractContextual {
 				}
 			}
 		}
-
-		return buf;
 	}
 
 	public byte[] getSamples(final IFD ifd, final byte[] buf)
@@ -759,7 +879,6 @@ public class TiffParser extends AbstractContextual {
 			tileLength = height;
 		}
 
-		long numTileRows = ifd.getTilesPerColumn();
 		final long numTileCols = ifd.getTilesPerRow();
 
 		final PhotoInterp photoInterp = ifd.getPhotometricInterpretation();
@@ -774,13 +893,13 @@ public class TiffParser extends AbstractContextual {
 		if (width * height > Integer.MAX_VALUE) {
 			throw new FormatException("Sorry, ImageWidth x ImageLength > " +
 				Integer.MAX_VALUE + " is not supported (" + width + " x " + height +
-				")");
+				"); see LargePlaneReader");
 		}
 		if (width * height * effectiveChannels * pixel > Integer.MAX_VALUE) {
 			throw new FormatException("Sorry, ImageWidth x ImageLength x " +
 				"SamplesPerPixel x BitsPerSample > " + Integer.MAX_VALUE +
 				" is not supported (" + width + " x " + height + " x " +
-				samplesPerPixel + " x " + (pixel * 8) + ")");
+				samplesPerPixel + " x " + (pixel * 8) + "); see LargePlaneReader");
 		}
 
 		// casting to int is safe because we have already determined that
@@ -822,6 +941,7 @@ public class TiffParser extends AbstractContextual {
 					column);
 				lastTile = Math.min(lastTile, stripOffsets.length - 1);
 
+				final VectoredRead reads = new VectoredRead();
 				int offset = 0;
 				for (int tile = firstTile; tile <= lastTile; tile++) {
 					long byteCount = equalStrips ? stripByteCounts[0]
@@ -830,116 +950,130 @@ public class TiffParser extends AbstractContextual {
 						byteCount *= pixel;
 					}
 
-					in.seek(stripOffsets[tile]);
 					final int len = (int) Math.min(buf.length - offset, byteCount);
-					in.read(buf, offset, len);
+					reads.add(stripOffsets[tile], buf, offset, len);
 					offset += len;
 				}
+				final long bytesRead = reads.read(in);
+				final MetricsService metrics = scifio.metrics();
+				metrics.count(MetricsService.SEEKS, METRICS_KEY, reads
+					.getSeekCount());
+				metrics.count(MetricsService.BYTES_READ, METRICS_KEY, bytesRead);
 			}
 			return adjustFillOrder(ifd, buf);
 		}
 
-		final long nrows = numTileRows;
-		// BH 2019.12.31 this was planarConfig == 2 ?? 
-		// that results in an ArrayOutOfBoundsException
-		if (planarConfig != 2) numTileRows *= samplesPerPixel;
+		final TileLayout layout = new TileLayout(ifd, height, overlapX,
+			overlapY);
+		final long numTileRows = layout.rowsFitting(buf.length, width * height *
+			pixel);
 
 		final IntRect imageBounds = new IntRect(x, y, (int) width, (int) height);
+		final IntRect tileBounds = new IntRect();
 
-		final int endX = (int) width + x;
-		final int endY = (int) height + y;
-
-		final long w = tileWidth;
-		final long h = tileLength;
-		final int rowLen = pixel * (int) w;// tileWidth;
-		final int tileSize = (int) (rowLen * h);// tileLength);
-
-		final int planeSize = (int) (width * height * pixel);
-		final int outputRowLen = (int) (pixel * width);
-
-		int bufferSizeSamplesPerPixel = samplesPerPixel;
-		if (ifd.getPlanarConfiguration() == 2) bufferSizeSamplesPerPixel = 1;
-		final int bpp = ifd.getBytesPerSample()[0];
-		final int bufferSize = (int) tileWidth * (int) tileLength *
-			bufferSizeSamplesPerPixel * bpp;
-
-		cachedTileBuffer = new byte[bufferSize];
-
-		final IntRect tileBounds = new IntRect(0, 0, (int) tileWidth,
-			(int) tileLength);
+		cachedTileBuffer = new byte[layout.tileSize * layout.effectiveChannels];
 
+		// fetch the stored bytes of all needed tiles in one vectored read
+		final byte[][] tiles = new byte[(int) (numTileRows * numTileCols)][];
+		final TileRange[] tileRanges = new TileRange[tiles.length];
+		final VectoredRead reads = new VectoredRead();
 		for (int row = 0; row < numTileRows; row++) {
-			// make the first row shorter to account for row overlap
-			if (row == 0) {
-				tileBounds.height = (int) (tileLength - overlapY);
+			for (int col = 0; col < numTileCols; col++) {
+				layout.setBounds(tileBounds, row, col);
+				if (!imageBounds.intersects(tileBounds)) continue;
+				final int t = (int) (row * numTileCols + col);
+				tileRanges[t] = getTileRange(ifd, row, col);
+				if (tileRanges[t].byteCount == 0) continue;
+				tiles[t] = new byte[tileRanges[t].byteCount];
+				reads.add(tileRanges[t].offset, tiles[t], 0, tiles[t].length);
 			}
+		}
+		// NB: Issue all tile reads before waiting, so that on an asynchronous
+		// handle the requests are in flight together.
+		final long bytesRead = AsyncReads.join(reads.readAsync(in));
+		final MetricsService metrics = scifio.metrics();
+		metrics.count(MetricsService.SEEKS, METRICS_KEY, reads.getSeekCount());
+		metrics.count(MetricsService.BYTES_READ, METRICS_KEY, bytesRead);
 
+		for (int row = 0; row < numTileRows; row++) {
 			for (int col = 0; col < numTileCols; col++) {
-				// make the first column narrower to account for column overlap
-				if (col == 0) {
-					tileBounds.width = (int) (tileWidth - overlapX);
-				}
-
-				tileBounds.x = col * (int) (tileWidth - overlapX);
-				tileBounds.y = row * (int) (tileLength - overlapY);
-
-				if (planarConfig == 2) {
-					tileBounds.y = (int) ((row % nrows) * (tileLength - overlapY));
-				}
-
+				layout.setBounds(tileBounds, row, col);
 				if (!imageBounds.intersects(tileBounds)) continue;
 
-				getTile(ifd, cachedTileBuffer, row, col);
+				final int t = (int) (row * numTileCols + col);
+				if (tiles[t] != null) {
+					decodeTile(ifd, cachedTileBuffer, tiles[t], tileRanges[t], row);
+					tiles[t] = null;
+				}
+				copyTile(layout, cachedTileBuffer, tileBounds, row, x, y, width,
+					height, (index, src, off, len) -> System.arraycopy(src, off, buf,
+						(int) index, len));
+			}
+		}
 
-				// adjust tile bounds, if necessary
+		return adjustFillOrder(ifd, buf);
+	}
 
-				final int tileX = Math.max(tileBounds.x, x);
-				final int tileY = Math.max(tileBounds.y, y);
-				int realX = tileX % (int) (tileWidth - overlapX);
-				int realY = tileY % (int) (tileLength - overlapY);
+	/**
+	 * Reads the given region of an image into off-heap storage. Unlike
+	 * {@link #getSamples(IFD, byte[], int, int, long, long)}, the region may
+	 * exceed {@link Integer#MAX_VALUE} bytes; each tile or strip is decoded in
+	 * turn and copied into place. As with the array version, channels are
+	 * stored one after another.
+	 *
+	 * @throws FormatException if samples are not a whole number of bytes.
+	 */
+	public LargeByteBuffer getSamples(final IFD ifd, final LargeByteBuffer buf,
+		final long x, final long y, final long width, final long height)
+		throws FormatException, IOException
+	{
+		return getSamples(ifd, buf, x, y, width, height, 0, 0);
+	}
 
-				int twidth = (int) Math.min(endX - tileX, tileWidth - realX);
-				if (twidth <= 0) {
-					twidth = (int) Math.max(endX - tileX, tileWidth - realX);
-				}
-				int theight = (int) Math.min(endY - tileY, tileLength - realY);
-				if (theight <= 0) {
-					theight = (int) Math.max(endY - tileY, tileLength - realY);
-				}
+	/**
+	 * As {@link #getSamples(IFD, LargeByteBuffer, long, long, long, long)}, for
+	 * tiles that overlap their neighbours by the given amounts.
+	 */
+	public LargeByteBuffer getSamples(final IFD ifd, final LargeByteBuffer buf,
+		final long x, final long y, final long width, final long height,
+		final int overlapX, final int overlapY) throws FormatException,
+		IOException
+	{
+		in.setLittleEndian(ifd.isLittleEndian());
 
-				// copy appropriate portion of the tile to the output buffer
+		if (ifd.getBitsPerSample()[0] % 8 != 0) {
+			throw new FormatException("Sorry, " + ifd.getBitsPerSample()[0] +
+				"-bit samples are not supported for large planes");
+		}
+		final TileLayout layout = new TileLayout(ifd, height, overlapX,
+			overlapY);
+		final long numTileRows = layout.rowsFitting(buf.capacity(), width *
+			height * layout.pixel);
 
-				final int copy = pixel * twidth;
+		final TiffCompression compression = ifd.getCompression();
+		if (compression == TiffCompression.JPEG_2000 ||
+			compression == TiffCompression.JPEG_2000_LOSSY)
+		{
+			codecOptions = compression.getCompressionCodecOptions(ifd, codecOptions);
+		}
+		else codecOptions = compression.getCompressionCodecOptions(ifd);
 
-				realX *= pixel;
-				realY *= rowLen;
+		final IntRect imageBounds = new IntRect((int) x, (int) y, (int) width,
+			(int) height);
+		final IntRect tileBounds = new IntRect();
+		final byte[] tile = new byte[layout.tileSize * layout.effectiveChannels];
 
-				for (int q = 0; q < effectiveChannels; q++) {
-					int src = q * tileSize + realX + realY;
-					int dest = q * planeSize + pixel * (tileX - x) + outputRowLen *
-						(tileY - y);
-					if (planarConfig == 2) dest += (planeSize * (row / nrows));
+		for (int row = 0; row < numTileRows; row++) {
+			for (int col = 0; col < layout.numTileCols; col++) {
+				layout.setBounds(tileBounds, row, col);
+				if (!imageBounds.intersects(tileBounds)) continue;
 
-					// copying the tile directly will only work if there is no
-					// overlap;
-					// otherwise, we may be overwriting a previous tile
-					// (or the current tile may be overwritten by a subsequent
-					// tile)
-					if (rowLen == outputRowLen && overlapX == 0 && overlapY == 0) {
-						System.arraycopy(cachedTileBuffer, src, buf, dest, copy * theight);
-					}
-					else {
-						for (int tileRow = 0; tileRow < theight; tileRow++) {
-							System.arraycopy(cachedTileBuffer, src, buf, dest, copy);
-							src += rowLen;
-							dest += outputRowLen;
-						}
-					}
-				}
+				getTile(ifd, tile, row, col);
+				adjustFillOrder(ifd, tile);
+				copyTile(layout, tile, tileBounds, row, x, y, width, height, buf::put);
 			}
 		}
-
-		return adjustFillOrder(ifd, buf);
+		return buf;
 	}
 
 	public TiffIFDEntry readTiffIFDEntry() throws IOException {
@@ -1142,6 +1276,78 @@ public class TiffParser extends AbstractContextual {
 		}
 	}
 
+	/** Checks whether an IFD holds a full image and has no sub-IFDs. */
+	private static boolean isPlainImage(final IFD ifd) {
+		if (ifd == null || !ifd.containsKey(IFD.IMAGE_WIDTH) || ifd.containsKey(
+			IFD.SUB_IFD)) return false;
+		final Object subfile = ifd.getIFDValue(IFD.NEW_SUBFILE_TYPE);
+		return !(subfile instanceof Number) || ((Number) subfile).intValue() != 1;
+	}
+
+	/**
+	 * Skips over the directory entries of the IFD at the given offset, leaving
+	 * the stream positioned at the offset of the next IFD.
+	 *
+	 * @return The number of directory entries in the IFD.
+	 */
+	private int skipIFD(final long offset) throws IOException {
+		final int bytesPerEntry = bigTiff ? TiffConstants.BIG_TIFF_BYTES_PER_ENTRY
+			: TiffConstants.BYTES_PER_ENTRY;
+		in.seek(offset);
+		final int nEntries = bigTiff ? (int) in.readLong() : in
+			.readUnsignedShort();
+		in.skipBytes(nEntries * bytesPerEntry);
+		return nEntries;
+	}
+
+	/**
+	 * Computes IFD offsets arithmetically for stacks written by ImageJ, which
+	 * declare their image count in the first IFD's description and write the
+	 * remaining IFDs back to back after the pixel data. The spacing is
+	 * confirmed at the second, third and last IFDs.
+	 *
+	 * @return The IFD offsets, or null if they are not provably evenly spaced.
+	 */
+	private long[] getEvenlySpacedOffsets(final long first) throws IOException {
+		if (first <= 0 || first >= in.length()) return null;
+		final IFD firstIFD = getIFD(first);
+		final String comment = firstIFD == null ? null : firstIFD.getComment();
+		if (comment == null || !comment.startsWith("ImageJ=")) return null;
+		final int images = getImageJImageCount(comment);
+		if (images < 3) return null;
+
+		skipIFD(first);
+		final long second = getNextOffset(first);
+		if (second <= first || second >= in.length()) return null;
+		final int nEntries = skipIFD(second);
+		final long stride = getNextOffset(second) - second;
+		final long last = second + (images - 2) * stride;
+		if (stride <= 0 || last >= in.length()) return null;
+		if (skipIFD(second + stride) != nEntries) return null;
+		if (skipIFD(last) != nEntries || getNextOffset(last) != 0) return null;
+
+		final long[] offsets = new long[images];
+		offsets[0] = first;
+		for (int i = 1; i < images; i++) {
+			offsets[i] = second + (i - 1) * stride;
+		}
+		return offsets;
+	}
+
+	/** Parses the {@code images=} entry of an ImageJ description, or -1. */
+	private static int getImageJImageCount(final String comment) {
+		final int start = comment.indexOf("\nimages=");
+		if (start < 0) return -1;
+		int end = comment.indexOf('\n', start + 1);
+		if (end < 0) end = comment.length();
+		try {
+			return Integer.parseInt(comment.substring(start + 8, end).trim());
+		}
+		catch (final NumberFormatException e) {
+			return -1;
+		}
+	}
+
 	private static long[] uint = /**@j2sNative new Uint32Array(1) || */new long[1];
 	/**
 	 * Read a file offset. For bigTiff, a 64-bit number is read. For other Tiffs, a
@@ -1207,6 +1413,50 @@ public class TiffParser extends AbstractContextual {
 		-0x49, 0x77, -0x09, 0x0f, -0x71, 0x4f, -0x31, 0x2f, -0x51, 0x6f, -0x11,
 		0x1f, -0x61, 0x5f, -0x21, 0x3f, -0x41, 0x7f, -0x01 };
 
+	/**
+	 * Copies the part of a decoded tile that lies within the requested region.
+	 * Channels are stored one after another, as with planar configuration 2.
+	 */
+	private static void copyTile(final TileLayout layout, final byte[] tile,
+		final IntRect tileBounds, final int row, final long x, final long y,
+		final long width, final long height, final TileSink sink)
+	{
+		final int pixel = layout.pixel;
+		final long tileX = Math.max(tileBounds.x, x);
+		final long tileY = Math.max(tileBounds.y, y);
+		final int realX = (int) (tileX - tileBounds.x);
+		final int realY = (int) (tileY - tileBounds.y);
+		final int twidth = (int) Math.min(x + width - tileX, layout.tileWidth -
+			realX);
+		final int theight = (int) Math.min(y + height - tileY, layout.tileLength -
+			realY);
+
+		final long planeSize = width * height * pixel;
+		final long outputRowLen = pixel * width;
+		final int copy = pixel * twidth;
+
+		// copying the tile directly will only work if there is no overlap;
+		// otherwise, we may be overwriting a previous tile
+		// (or the current tile may be overwritten by a subsequent tile)
+		final boolean direct = layout.rowLen == outputRowLen && !layout
+			.overlaps();
+
+		for (int q = 0; q < layout.effectiveChannels; q++) {
+			int src = q * layout.tileSize + pixel * realX + layout.rowLen * realY;
+			long dest = (q + layout.channel(row)) * planeSize + pixel * (tileX - x) +
+				outputRowLen * (tileY - y);
+			if (direct) {
+				sink.put(dest, tile, src, copy * theight);
+				continue;
+			}
+			for (int tileRow = 0; tileRow < theight; tileRow++) {
+				sink.put(dest, tile, src, copy);
+				src += layout.rowLen;
+				dest += outputRowLen;
+			}
+		}
+	}
+
 	private byte[] adjustFillOrder(final IFD ifd, final byte[] buf)
 		throws FormatException
 	{
@@ -1219,4 +1469,99 @@ public class TiffParser extends AbstractContextual {
 		return buf;
 	}
 
+	// -- Helper classes --
+
+	/** Destination of the bytes copied out of a decoded tile. */
+	private interface TileSink {
+
+		void put(long index, byte[] src, int off, int len);
+	}
+
+	/**
+	 * Arrangement of an IFD's tiles or strips, shared by both
+	 * {@code getSamples} variants. Tiles may overlap their neighbours, so that
+	 * they are only {@code stepX} by {@code stepY} apart. With planar
+	 * configuration 2, each channel has its own {@code nrows} rows of tiles.
+	 */
+	private static class TileLayout {
+
+		private final long tileWidth;
+		private final long tileLength;
+		private final long nrows;
+		private final long numTileRows;
+		private final long numTileCols;
+		private final int planarConfig;
+		private final int pixel;
+		private final int effectiveChannels;
+		private final int rowLen;
+		private final int tileSize;
+		private final int stepX;
+		private final int stepY;
+
+		private TileLayout(final IFD ifd, final long height, final int overlapX,
+			final int overlapY) throws FormatException
+		{
+			final int samplesPerPixel = ifd.getSamplesPerPixel();
+			final long length = ifd.getTileLength();
+			tileWidth = ifd.getTileWidth();
+			tileLength = length <= 0 ? height : length;
+			nrows = ifd.getTilesPerColumn();
+			numTileCols = ifd.getTilesPerRow();
+			planarConfig = ifd.getPlanarConfiguration();
+			numTileRows = planarConfig == 2 ? nrows * samplesPerPixel : nrows;
+			pixel = ifd.getBytesPerSample()[0];
+			effectiveChannels = planarConfig == 2 ? 1 : samplesPerPixel;
+			rowLen = pixel * (int) tileWidth;
+			tileSize = rowLen * (int) tileLength;
+			stepX = (int) (tileWidth - overlapX);
+			stepY = (int) (tileLength - overlapY);
+		}
+
+		private boolean overlaps() {
+			return stepX != tileWidth || stepY != tileLength;
+		}
+
+		/** Gets the channel whose samples the given row of tiles holds. */
+		private long channel(final int row) {
+			return planarConfig == 2 ? row / nrows : 0;
+		}
+
+		/**
+		 * Gets the number of rows of tiles to read into a buffer of the given
+		 * capacity. With planar configuration 2, channels that do not fit are
+		 * skipped rather than overrunning the buffer.
+		 */
+		private long rowsFitting(final long capacity, final long planeSize) {
+			if (planarConfig != 2 || planeSize == 0) return numTileRows;
+			return Math.min(numTileRows, Math.max(1, capacity / planeSize) * nrows);
+		}
+
+		private void setBounds(final IntRect tileBounds, final int row,
+			final int col)
+		{
+			tileBounds.width = stepX;
+			tileBounds.height = stepY;
+			tileBounds.x = col * stepX;
+			tileBounds.y = (int) ((row % nrows) * stepY);
+		}
+	}
+
+	/** Location and decoded size of a tile's stored bytes. */
+	private static class TileRange {
+
+		private final long offset;
+		private final int byteCount;
+		private final int size;
+		private final long nStrips;
+
+		private TileRange(final long offset, final int byteCount, final int size,
+			final long nStrips)
+		{
+			this.offset = offset;
+			this.byteCount = byteCount;
+			this.size = size;
+			this.nStrips = nStrips;
+		}
+	}
+
 }
@@ -846,7 +846,8 @@ public final class AWTImageTools {
 
 	/**
 	 * Creates a thumbnail image from the provided plane, scaling it to the
-	 * specified thumbnail dimensions.
+	 * specified thumbnail dimensions. See {@link ThumbnailService} to create
+	 * thumbnails without reading whole planes.
 	 *
 	 * @param plane - Plane to scale
 	 * @param r - Reader used to open the provided Plane
@@ -0,0 +1,370 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.gui;
+
+import io.scif.FormatException;
+import io.scif.ImageMetadata;
+import io.scif.Metadata;
+import io.scif.Plane;
+import io.scif.Reader;
+import io.scif.codec.BaselineJPEGDecoder;
+import io.scif.formats.JPEGFormat;
+import io.scif.formats.JPEGTileFormat;
+import io.scif.formats.MinimalTIFFFormat;
+import io.scif.formats.tiff.IFD;
+import io.scif.formats.tiff.IFDList;
+import io.scif.formats.tiff.TiffParser;
+import io.scif.services.InitializeService;
+import io.scif.util.FormatTools;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import net.imagej.axis.Axes;
+import net.imglib2.FinalInterval;
+
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.handle.DataHandleService;
+import org.scijava.io.location.Location;
+import org.scijava.log.LogService;
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+import org.scijava.service.AbstractService;
+import org.scijava.service.Service;
+
+/**
+ * Default {@link ThumbnailService} implementation. Thumbnails come from the
+ * first of these that applies:
+ * <ol>
+ * <li>the thumbnail cache;</li>
+ * <li>a reduced-resolution image of the same plane, such as a TIFF thumbnail
+ * IFD or a JPEG 2000 resolution level;</li>
+ * <li>for baseline JPEG images, the DC coefficients of each 8x8 block, giving
+ * a 1/8 scale image without an inverse DCT;</li>
+ * <li>for large planes, only the rows of the plane which the thumbnail
+ * samples, so that only the strips or tiles holding them are read;</li>
+ * <li>the whole plane.</li>
+ * </ol>
+ * <p>
+ * Unless another cache is set, thumbnails are cached in the
+ * {@code scifio-thumbnails} folder of {@code java.io.tmpdir}. The folder is
+ * only created when the first thumbnail is stored.
+ * </p>
+ */
+@Plugin(type = Service.class)
+public class DefaultThumbnailService extends AbstractService implements
+	ThumbnailService
+{
+
+	// -- Constants --
+
+	/** Planes up to this many bytes are read whole rather than sampled. */
+	public static final long SAMPLE_THRESHOLD = 16L * 1024 * 1024;
+
+	// -- Parameters --
+
+	@Parameter
+	private InitializeService initializeService;
+
+	@Parameter
+	private DataHandleService dataHandleService;
+
+	@Parameter
+	private LogService log;
+
+	// -- Fields --
+
+	private ThumbnailCache cache;
+
+	/** Whether {@link #cache} was set, either explicitly or to the default. */
+	private boolean cacheSet;
+
+	// -- ThumbnailService API methods --
+
+	@Override
+	public BufferedImage openThumbnail(final Location source)
+		throws FormatException, IOException
+	{
+		final Reader reader = initializeService.initializeReader(source);
+		try {
+			reader.setNormalized(true);
+			return openThumbnail(reader, 0, reader.getMetadata().get(0)
+				.getPlaneCount() / 2);
+		}
+		finally {
+			reader.close();
+		}
+	}
+
+	@Override
+	public BufferedImage openThumbnail(final Reader reader, final int imageIndex,
+		final long planeIndex) throws FormatException, IOException
+	{
+		final ImageMetadata iMeta = reader.getMetadata().get(imageIndex);
+		final int w = (int) Math.max(1, iMeta.getThumbSizeX());
+		final int h = (int) Math.max(1, iMeta.getThumbSizeY());
+
+		final ThumbnailCache c = getCache();
+		final String key = c == null ? null : c.key(reader.getCurrentLocation(),
+			imageIndex, planeIndex, w, h);
+		final BufferedImage cached = key == null ? null : c.get(key);
+		if (cached != null) return cached;
+
+		BufferedImage image = openReduced(reader, imageIndex, planeIndex, w, h);
+		if (image == null) image = openJPEGDC(reader, imageIndex, planeIndex, w, h);
+		if (image == null) image = openSampled(reader, imageIndex, planeIndex, w,
+			h);
+
+		image = AWTImageTools.makeUnsigned(image);
+		image = AWTImageTools.scale(image, w, h, false);
+		final BufferedImage thumb = toRGB(image);
+
+		if (key != null) {
+			try {
+				c.put(key, thumb);
+			}
+			catch (final IOException exc) {
+				log.debug("Could not cache thumbnail", exc);
+			}
+		}
+		return thumb;
+	}
+
+	@Override
+	public synchronized ThumbnailCache getCache() {
+		if (!cacheSet) {
+			cache = new ThumbnailCache(new File(System.getProperty(
+				"java.io.tmpdir"), "scifio-thumbnails"));
+			cacheSet = true;
+		}
+		return cache;
+	}
+
+	@Override
+	public synchronized void setCache(final ThumbnailCache cache) {
+		this.cache = cache;
+		cacheSet = true;
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Opens the smallest reduced-resolution copy of the plane which is at least
+	 * as large as the thumbnail, or null if there is none.
+	 */
+	private BufferedImage openReduced(final Reader reader, final int imageIndex,
+		final long planeIndex, final int w, final int h) throws FormatException,
+		IOException
+	{
+		final Metadata meta = reader.getMetadata();
+		final ImageMetadata full = meta.get(imageIndex);
+		final long fullX = full.getAxisLength(Axes.X);
+		final long fullY = full.getAxisLength(Axes.Y);
+
+		// sub-resolution images, e.g. JPEG 2000 resolution levels
+		int best = -1;
+		for (int i = 0; i < meta.getImageCount(); i++) {
+			final ImageMetadata m = meta.get(i);
+			if (i == imageIndex || !m.isThumbnail() || m.getPlaneCount() <= planeIndex)
+			{
+				continue;
+			}
+			final long x = m.getAxisLength(Axes.X), y = m.getAxisLength(Axes.Y);
+			if (x < w || y < h || x >= fullX || Math.abs(x * fullY - y * fullX) > Math
+				.max(fullX, fullY))
+			{
+				continue;
+			}
+			if (best < 0 || x < meta.get(best).getAxisLength(Axes.X)) best = i;
+		}
+		if (best >= 0) {
+			final Plane plane = reader.openPlane(best, planeIndex);
+			return AWTImageTools.openImage(plane, reader, best);
+		}
+
+		// thumbnail IFDs embedded in a TIFF, which describe its first plane
+		if (meta instanceof MinimalTIFFFormat.Metadata && imageIndex == 0 &&
+			planeIndex == 0)
+		{
+			final MinimalTIFFFormat.Metadata tiff = (MinimalTIFFFormat.Metadata) meta;
+			final IFDList thumbs = tiff.getThumbnailIFDs();
+			if (thumbs == null || thumbs.isEmpty()) return null;
+			// the smallest thumbnail large enough, else the largest
+			IFD ifd = null;
+			boolean ifdFits = false;
+			for (final IFD t : thumbs) {
+				if (t.getImageWidth() >= fullX) continue;
+				final boolean fits = t.getImageWidth() >= w && t.getImageLength() >= h;
+				if (ifd == null || (fits && (!ifdFits || t.getImageWidth() < ifd
+					.getImageWidth())) || (!fits && !ifdFits && t.getImageWidth() > ifd
+						.getImageWidth()))
+				{
+					ifd = t;
+					ifdFits = fits;
+				}
+			}
+			if (ifd == null) return null;
+			final TiffParser parser = tiff.getTiffParser();
+			parser.fillInIFD(ifd);
+			final int tw = (int) ifd.getImageWidth(), th = (int) ifd
+				.getImageLength();
+			final int c = ifd.getSamplesPerPixel();
+			final int pixelType = ifd.getPixelType();
+			final int bpp = FormatTools.getBytesPerPixel(pixelType);
+			final byte[] buf = parser.getSamples(ifd, new byte[tw * th * c * bpp]);
+			return AWTImageTools.makeImage(buf, tw, th, c, false, bpp,
+				FormatTools.isFloatingPoint(pixelType), ifd.isLittleEndian(),
+				FormatTools.isSigned(pixelType));
+		}
+		return null;
+	}
+
+	/**
+	 * Decodes a 1/8 scale image from the DC coefficients of a baseline JPEG, or
+	 * returns null if the source is not one, or is too small for it to help.
+	 */
+	private BufferedImage openJPEGDC(final Reader reader, final int imageIndex,
+		final long planeIndex, final int w, final int h) throws IOException
+	{
+		final boolean jpeg = reader.getFormat() instanceof JPEGFormat || reader
+			.getFormat() instanceof JPEGTileFormat;
+		final ImageMetadata iMeta = reader.getMetadata().get(imageIndex);
+		if (!jpeg || imageIndex != 0 || planeIndex != 0 || iMeta.getAxisLength(
+			Axes.X) < 8L * w || iMeta.getAxisLength(Axes.Y) < 8L * h)
+		{
+			return null;
+		}
+		try (DataHandle<Location> handle = dataHandleService.create(reader
+			.getCurrentLocation()))
+		{
+			final BaselineJPEGDecoder decoder = new BaselineJPEGDecoder(handle);
+			final byte[] dc = decoder.decodeDC();
+			return AWTImageTools.makeImage(dc, (decoder.getWidth() + 7) / 8,
+				(decoder.getHeight() + 7) / 8, decoder.getChannels(), true, 1, false,
+				false, false);
+		}
+		catch (final FormatException exc) {
+			log.debug("Not a baseline JPEG; reading it whole", exc);
+			return null;
+		}
+	}
+
+	/**
+	 * Reads the plane, or for large planes, only the rows and columns of it
+	 * which the thumbnail samples.
+	 */
+	private BufferedImage openSampled(final Reader reader, final int imageIndex,
+		final long planeIndex, final int w, final int h) throws FormatException,
+		IOException
+	{
+		final ImageMetadata iMeta = reader.getMetadata().get(imageIndex);
+		final long[] lengths = iMeta.getAxesLengthsPlanar();
+		final int xIndex = iMeta.getAxisIndex(Axes.X);
+		final int yIndex = iMeta.getAxisIndex(Axes.Y);
+		final int bpp = FormatTools.getBytesPerPixel(iMeta.getPixelType());
+		if (iMeta.getPlaneSize() <= SAMPLE_THRESHOLD || lengths[xIndex] <= w ||
+			lengths[yIndex] <= h)
+		{
+			final Plane plane = reader.openPlane(imageIndex, planeIndex);
+			return AWTImageTools.openImage(plane, reader, imageIndex);
+		}
+
+		// strides of the sampled image, and of one row of the plane
+		final int n = lengths.length;
+		final long[] sampled = lengths.clone();
+		sampled[xIndex] = w;
+		sampled[yIndex] = h;
+		final long[] row = lengths.clone();
+		row[yIndex] = 1;
+		final long[] outStride = new long[n], rowStride = new long[n];
+		long outSize = bpp, rowSize = bpp;
+		for (int d = 0; d < n; d++) {
+			outStride[d] = outSize;
+			rowStride[d] = rowSize;
+			outSize *= sampled[d];
+			rowSize *= row[d];
+		}
+		final long[] columns = new long[w];
+		for (int i = 0; i < w; i++) {
+			columns[i] = (2L * i + 1) * lengths[xIndex] / (2L * w);
+		}
+
+		final byte[] out = new byte[(int) outSize];
+		final long[] min = new long[n], max = new long[n];
+		for (int d = 0; d < n; d++) {
+			max[d] = lengths[d] - 1;
+		}
+		final long[] pos = new long[n];
+		Plane first = null, plane = null;
+		for (int j = 0; j < h; j++) {
+			min[yIndex] = max[yIndex] = (2L * j + 1) * lengths[yIndex] / (2L * h);
+			final FinalInterval bounds = new FinalInterval(min, max);
+			plane = plane == null ? reader.openPlane(imageIndex, planeIndex, bounds)
+				: reader.openPlane(imageIndex, planeIndex, plane, bounds);
+			if (first == null) first = plane;
+			final byte[] bytes = plane.getBytes();
+
+			// copy each sampled element of this row, over all other planar axes
+			Arrays.fill(pos, 0);
+			pos[yIndex] = j;
+			while (true) {
+				long src = 0, dst = 0;
+				for (int d = 0; d < n; d++) {
+					dst += pos[d] * outStride[d];
+					if (d == xIndex) src += columns[(int) pos[d]] * rowStride[d];
+					else if (d != yIndex) src += pos[d] * rowStride[d];
+				}
+				System.arraycopy(bytes, (int) src, out, (int) dst, bpp);
+
+				int d = 0;
+				while (d < n && (d == yIndex || ++pos[d] == sampled[d])) {
+					if (d != yIndex) pos[d] = 0;
+					d++;
+				}
+				if (d == n) break;
+			}
+		}
+		return AWTImageTools.openImage(first, out, reader, sampled, imageIndex);
+	}
+
+	/** Draws the given image into a standard RGB image. */
+	private static BufferedImage toRGB(final BufferedImage image) {
+		if (image.getType() == BufferedImage.TYPE_INT_RGB) return image;
+		final BufferedImage rgb = new BufferedImage(image.getWidth(), image
+			.getHeight(), BufferedImage.TYPE_INT_RGB);
+		final Graphics2D g = rgb.createGraphics();
+		g.drawImage(image, 0, 0, null);
+		g.dispose();
+		return rgb;
+	}
+}
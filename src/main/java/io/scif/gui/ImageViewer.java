@@ -53,6 +53,7 @@ import java.awt.image.BufferedImage;
 import java.awt.image.Raster;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Future;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -69,6 +70,7 @@ import javax.swing.JScrollPane;
 import javax.swing.JSlider;
 import javax.swing.ProgressMonitor;
 import javax.swing.SwingConstants;
+import javax.swing.Timer;
 import javax.swing.border.BevelBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.event.ChangeEvent;
@@ -80,6 +82,7 @@ import org.scijava.io.location.Location;
 import org.scijava.log.LogService;
 import org.scijava.plugin.Parameter;
 import org.scijava.service.SciJavaService;
+import org.scijava.thread.ThreadService;
 
 /**
  * A basic renderer for image data.
@@ -108,6 +111,12 @@ public class ImageViewer extends JFrame implements ActionListener,
 	@Parameter
 	private GUIService guiService;
 
+	@Parameter
+	private ThreadService threadService;
+
+	/** Name of the {@link ThreadService} queue on which files open and save. */
+	public static final String LOADER_QUEUE = "SCIFIO-Viewer";
+
 	private static final String TITLE = "SCIFIO Viewer";
 
 	private static final char ANIMATION_KEY = ' ';
@@ -144,6 +153,12 @@ public class ImageViewer extends JFrame implements ActionListener,
 
 	private boolean canCloseReader = true;
 
+	/** Timer driving the animation while the viewer is visible. */
+	private Timer animator;
+
+	/** Most recently submitted open. */
+	private Future<?> pendingOpen;
+
 	// -- Constructor --
 
 	/** Constructs an image viewer. */
@@ -412,8 +427,21 @@ public class ImageViewer extends JFrame implements ActionListener,
 	@Override
 	public void setVisible(final boolean visible) {
 		super.setVisible(visible);
-		// kick off animation thread
-		new Thread(this).start();
+		if (!visible) {
+			if (animator != null) animator.stop();
+			return;
+		}
+		// kick off animation timer
+		if (animator == null) {
+			animator = new Timer(1000 / fps, new ActionListener() {
+
+				@Override
+				public void actionPerformed(final ActionEvent e) {
+					run();
+				}
+			});
+		}
+		animator.start();
 	}
 
 	// -- ActionListener API methods --
@@ -467,7 +495,9 @@ public class ImageViewer extends JFrame implements ActionListener,
 			final String result = JOptionPane.showInputDialog(this,
 				"Animate using space bar. How many frames per second?", "" + fps);
 			try {
-				fps = Integer.parseInt(result);
+				final int value = Integer.parseInt(result);
+				if (value > 0) fps = value;
+				if (animator != null) animator.setDelay(1000 / fps);
 			}
 			catch (final NumberFormatException exc) {
 				logService.debug("Could not parse fps " + fps, exc);
@@ -540,17 +570,12 @@ public class ImageViewer extends JFrame implements ActionListener,
 
 	// -- Runnable API methods --
 
-	/** Handles animation. */
+	/** Handles animation, advancing to the next image when animating. */
 	@Override
 	public void run() {
-		while (isVisible()) {
-			try {
-				Thread.sleep(1000 / fps);
-			}
-			catch (final InterruptedException exc) {
-				logService.debug("", exc);
-			}
-		}
+		if (!anim || images == null || images.length < 2) return;
+		final int ndx = getPlaneIndex() + 1;
+		nSlider.setValue(ndx < images.length ? ndx + 1 : 1);
 	}
 
 	// -- WindowListener API methods --
@@ -575,6 +600,7 @@ public class ImageViewer extends JFrame implements ActionListener,
 
 	@Override
 	public void windowClosed(final WindowEvent e) {
+		if (animator != null) animator.stop();
 		try {
 			if (myWriter != null) {
 				myWriter.close();
@@ -646,15 +672,17 @@ public class ImageViewer extends JFrame implements ActionListener,
 
 	/**
 	 * Opens from the given data source using the specified reader in a separate
-	 * thread.
+	 * thread. Opens and saves run one at a time on {@link #LOADER_QUEUE}; an open
+	 * that has not started yet is dropped in favor of a newer one.
 	 */
 	protected void open(final String id, final Reader r) {
-		new Thread("ImageViewer-Opener") {
+		if (pendingOpen != null) pendingOpen.cancel(false);
+		pendingOpen = threadService.queue(LOADER_QUEUE, new Runnable() {
 
 			@Override
 			public void run() {
 				try {
-					myReader.close();
+					if (myReader != null) myReader.close();
 				}
 				catch (final IOException exc) {
 					logService.info("", exc);
@@ -662,7 +690,7 @@ public class ImageViewer extends JFrame implements ActionListener,
 				myReader = r;
 				open(id);
 			}
-		}.start();
+		});
 	}
 
 	/**
@@ -670,12 +698,12 @@ public class ImageViewer extends JFrame implements ActionListener,
 	 * separate thread.
 	 */
 	protected void save(final String id, final Writer w) {
-		new Thread("ImageViewer-Saver") {
+		threadService.queue(LOADER_QUEUE, new Runnable() {
 
 			@Override
 			public void run() {
 				try {
-					myWriter.close();
+					if (myWriter != null) myWriter.close();
 				}
 				catch (final IOException exc) {
 					logService.info("", exc);
@@ -683,6 +711,6 @@ public class ImageViewer extends JFrame implements ActionListener,
 				myWriter = w;
 				save(id);
 			}
-		}.start();
+		});
 	}
 }
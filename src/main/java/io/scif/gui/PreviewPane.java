@@ -31,7 +31,6 @@ package io.scif.gui;
 
 import io.scif.FormatException;
 import io.scif.ImageMetadata;
-import io.scif.Plane;
 import io.scif.Reader;
 import io.scif.services.InitializeService;
 
@@ -39,6 +38,8 @@ import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics2D;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.beans.PropertyChangeEvent;
@@ -46,6 +47,7 @@ import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -54,6 +56,7 @@ import javax.swing.JFileChooser;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.border.EmptyBorder;
 
 import net.imagej.axis.CalibratedAxis;
@@ -62,15 +65,31 @@ import org.scijava.Context;
 import org.scijava.io.location.FileLocation;
 import org.scijava.log.LogService;
 import org.scijava.plugin.Parameter;
+import org.scijava.thread.ThreadService;
 
 /**
  * PreviewPane is a panel for use as a JFileChooser accessory, displaying a
  * thumbnail for the selected image, loaded in a separate thread.
+ * <p>
+ * Loads run one at a time on a {@link ThreadService} queue shared by all
+ * preview panes. Selection changes arriving within {@link #COALESCE_DELAY}
+ * milliseconds of each other trigger a single load, a load still waiting in
+ * the queue is cancelled when a newer one is submitted, and a running load
+ * gives up at its next checkpoint once the selection has moved on.
+ * </p>
  */
 public class PreviewPane extends JPanel implements PropertyChangeListener,
 	Runnable
 {
 
+	// -- Constants --
+
+	/** Name of the {@link ThreadService} queue on which thumbnails load. */
+	public static final String LOADER_QUEUE = "SCIFIO-Preview";
+
+	/** Delay in milliseconds during which selection changes are coalesced. */
+	public static final int COALESCE_DELAY = 150;
+
 	// -- Parameters --
 
 	@Parameter
@@ -79,22 +98,28 @@ public class PreviewPane extends JPanel implements PropertyChangeListener,
 	@Parameter
 	InitializeService initializeService;
 
+	@Parameter
+	ThumbnailService thumbnailService;
+
+	@Parameter
+	ThreadService threadService;
+
 	// -- Fields --
 
 	/** Reader for use when loading thumbnails. */
 	private Reader reader;
 
 	/** Current ID to load. */
-	private String loadId;
+	private volatile String loadId;
 
 	/** Last ID loaded. */
 	private String lastId;
 
-	/** Thumbnail loading thread. */
-	private Thread loader;
+	/** Timer which submits a load once the selection settles. */
+	private Timer coalescer;
 
-	/** Flag indicating whether loader thread should keep running. */
-	private boolean loaderAlive;
+	/** Most recently submitted load. */
+	private Future<?> pending;
 
 	/** Method for syncing the view to the model. */
 	private Runnable refresher;
@@ -177,10 +202,14 @@ public class PreviewPane extends JPanel implements PropertyChangeListener,
 				}
 			};
 
-			// start separate loader thread
-			loaderAlive = true;
-			loader = new Thread(this, "Preview");
-			loader.start();
+			coalescer = new Timer(COALESCE_DELAY, new ActionListener() {
+
+				@Override
+				public void actionPerformed(final ActionEvent e) {
+					submit();
+				}
+			});
+			coalescer.setRepeats(false);
 		}
 	}
 
@@ -203,8 +232,11 @@ public class PreviewPane extends JPanel implements PropertyChangeListener,
 	public void propertyChange(final PropertyChangeEvent e) {
 		final String prop = e.getPropertyName();
 		if (prop.equals("JFileChooserDialogIsClosingProperty")) {
-			// notify loader thread that it should stop
-			loaderAlive = false;
+			// abandon any outstanding load
+			coalescer.stop();
+			loadId = null;
+			if (pending != null) pending.cancel(false);
+			return;
 		}
 
 		if (!prop.equals(JFileChooser.SELECTED_FILE_CHANGED_PROPERTY)) return;
@@ -213,101 +245,100 @@ public class PreviewPane extends JPanel implements PropertyChangeListener,
 		if (f != null && (f.isDirectory() || !f.exists())) f = null;
 
 		loadId = f == null ? null : f.getAbsolutePath();
+		coalescer.restart();
 	}
 
 	// -- Runnable API methods --
 
-	/** Thumbnail loading routine. */
+	/**
+	 * Thumbnail loading routine, which loads the current selection unless it is
+	 * already displayed.
+	 */
 	@Override
 	public void run() {
-		while (loaderAlive) {
+		try { // catch-all for unanticipated exceptions
+			final String id = loadId;
+			if (id == lastId) return;
+			lastId = id;
+
+			icon = null;
+			iconText = id == null ? "" : "Reading...";
+			formatText = resText = npText = typeText = "";
+			iconTip = id;
+			formatTip = resTip = zctTip = typeTip = "";
+
+			if (id == null) {
+				SwingUtilities.invokeLater(refresher);
+				return;
+			}
+
 			try {
-				Thread.sleep(100);
+				close();
+				reader = null;
+				reader = initializeService.initializeReader(new FileLocation(id));
+				reader.setNormalized(true);
 			}
-			catch (final InterruptedException exc) {
-				logService.info("", exc);
+			catch (final FormatException exc) {
+				logService.debug("Failed to initialize " + id, exc);
+				final boolean badFormat = exc.getMessage().startsWith(
+					"Unknown file format");
+				iconText = "Unsupported " + (badFormat ? "format" : "file");
+				formatText = resText = "";
+				SwingUtilities.invokeLater(refresher);
+				lastId = null;
+				return;
 			}
-
-			try { // catch-all for unanticipated exceptions
-				final String id = loadId;
-				if (id == lastId) continue;
-				lastId = id;
-
-				icon = null;
-				iconText = id == null ? "" : "Reading...";
-				formatText = resText = npText = typeText = "";
-				iconTip = id;
-				formatTip = resTip = zctTip = typeTip = "";
-
-				if (id == null) {
-					SwingUtilities.invokeLater(refresher);
-					continue;
-				}
-
-				try {
-					reader = initializeService.initializeReader(new FileLocation(id));
-					reader.setNormalized(true);
-				}
-				catch (final FormatException exc) {
-					logService.debug("Failed to initialize " + id, exc);
-					final boolean badFormat = exc.getMessage().startsWith(
-						"Unknown file format");
-					iconText = "Unsupported " + (badFormat ? "format" : "file");
-					formatText = resText = "";
-					SwingUtilities.invokeLater(refresher);
-					lastId = null;
-					continue;
-				}
-				catch (final IOException exc) {
-					logService.debug("Failed to initialize " + id, exc);
-					iconText = "Unsupported file";
-					formatText = resText = "";
-					SwingUtilities.invokeLater(refresher);
-					lastId = null;
-					continue;
-				}
-				if (id != loadId) {
-					SwingUtilities.invokeLater(refresher);
-					continue;
-				}
-
-				icon = new ImageIcon(makeImage("Loading..."));
-				iconText = "";
-				final String format = reader.getFormat().getFormatName();
-				formatText = format;
-				formatTip = format;
-				final ImageMetadata iMeta = reader.getMetadata().get(0);
-				resText = getText(iMeta, iMeta.getAxesPlanar());
-				npText = getText(iMeta, iMeta.getAxesNonPlanar());
+			catch (final IOException exc) {
+				logService.debug("Failed to initialize " + id, exc);
+				iconText = "Unsupported file";
+				formatText = resText = "";
 				SwingUtilities.invokeLater(refresher);
+				lastId = null;
+				return;
+			}
+			if (id != loadId) {
+				// superseded; the newer load refreshes the view
+				lastId = null;
+				return;
+			}
 
-				// open middle image thumbnail
-				final long planeIndex = iMeta.getPlaneCount() / 2;
-				Plane thumbPlane = null;
-				try {
-					thumbPlane = reader.openPlane(0, planeIndex);
-				}
-				catch (FormatException | IOException exc) {
-					logService.debug("Failed to read thumbnail #" + planeIndex +
-						" from " + id, exc);
-				}
-				final BufferedImage thumb = AWTImageTools.openThumbImage(thumbPlane,
-					reader, 0, iMeta.getAxesLengthsPlanar(), (int) iMeta.getThumbSizeX(),
-					(int) iMeta.getThumbSizeY(), false);
-				icon = new ImageIcon(thumb == null ? makeImage("Failed") : thumb);
-				iconText = "";
-
-				SwingUtilities.invokeLater(refresher);
+			icon = new ImageIcon(makeImage("Loading..."));
+			iconText = "";
+			final String format = reader.getFormat().getFormatName();
+			formatText = format;
+			formatTip = format;
+			final ImageMetadata iMeta = reader.getMetadata().get(0);
+			resText = getText(iMeta, iMeta.getAxesPlanar());
+			npText = getText(iMeta, iMeta.getAxesNonPlanar());
+			SwingUtilities.invokeLater(refresher);
+
+			// open middle image thumbnail
+			final long planeIndex = iMeta.getPlaneCount() / 2;
+			BufferedImage thumb = null;
+			try {
+				thumb = thumbnailService.openThumbnail(reader, 0, planeIndex);
 			}
-			catch (final Exception exc) {
-				logService.info("", exc);
-				icon = null;
-				iconText = "Thumbnail failure";
-				formatText = resText = npText = typeText = "";
-				iconTip = loadId;
-				formatTip = resTip = zctTip = typeTip = "";
-				SwingUtilities.invokeLater(refresher);
+			catch (FormatException | IOException exc) {
+				logService.debug("Failed to read thumbnail #" + planeIndex +
+					" from " + id, exc);
 			}
+			if (id != loadId) {
+				lastId = null;
+				return;
+			}
+			icon = new ImageIcon(thumb == null ? makeImage("Failed") : thumb);
+			iconText = "";
+
+			SwingUtilities.invokeLater(refresher);
+		}
+		catch (final Exception exc) {
+			logService.info("", exc);
+			icon = null;
+			iconText = "Thumbnail failure";
+			formatText = resText = npText = typeText = "";
+			iconTip = loadId;
+			formatTip = resTip = zctTip = typeTip = "";
+			SwingUtilities.invokeLater(refresher);
 		}
 	}
 
@@ -333,6 +364,16 @@ public class PreviewPane extends JPanel implements PropertyChangeListener,
 
 	// -- Helper methods --
 
+	/**
+	 * Queues a load of the current selection, dropping a previous load that has
+	 * not started yet. Running loads are not interrupted, since interrupting
+	 * channel-based I/O closes the underlying channel.
+	 */
+	private void submit() {
+		if (pending != null) pending.cancel(false);
+		pending = threadService.queue(LOADER_QUEUE, this);
+	}
+
 	/**
 	 * Creates a blank image with the given message painted on top (e.g., a
 	 * loading or error message), matching the size of the active reader's
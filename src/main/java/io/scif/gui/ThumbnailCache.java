@@ -0,0 +1,210 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.gui;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import javax.imageio.ImageIO;
+
+import org.scijava.io.location.FileLocation;
+import org.scijava.io.location.Location;
+
+/**
+ * A byte-bounded on-disk cache of thumbnail images, stored as PNG files in a
+ * single directory. Entries are keyed by the identity of the source file (its
+ * path, length and modification time), so a thumbnail is regenerated once its
+ * file changes; sources which are not local files are not cached.
+ * <p>
+ * When the directory grows past its bound, the least recently used entries
+ * are deleted. The modification time of each entry serves as its last use.
+ * The directory itself is only created when the first entry is stored.
+ * </p>
+ */
+public class ThumbnailCache {
+
+	// -- Constants --
+
+	/** Default upper bound on the size of the cache directory (64 MiB). */
+	public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	private static final String SUFFIX = ".png";
+
+	// -- Fields --
+
+	private final File dir;
+
+	private long maxBytes;
+
+	// -- Constructors --
+
+	public ThumbnailCache(final File dir) {
+		this(dir, DEFAULT_MAX_BYTES);
+	}
+
+	public ThumbnailCache(final File dir, final long maxBytes) {
+		this.dir = dir;
+		this.maxBytes = maxBytes;
+	}
+
+	// -- ThumbnailCache API methods --
+
+	public File getDirectory() {
+		return dir;
+	}
+
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Sets the maximum number of bytes of thumbnails to keep on disk, deleting
+	 * the least recently used ones if the cache is already larger.
+	 */
+	public synchronized void setMaxBytes(final long maxBytes) {
+		this.maxBytes = maxBytes;
+		trim();
+	}
+
+	/**
+	 * Gets the cache key of the given thumbnail, or null if the source cannot be
+	 * cached.
+	 */
+	public String key(final Location source, final int imageIndex,
+		final long planeIndex, final int width, final int height)
+	{
+		if (!(source instanceof FileLocation)) return null;
+		final File file = ((FileLocation) source).getFile();
+		if (!file.isFile()) return null;
+		return hash(file.getAbsolutePath() + "|" + file.length() + "|" + file
+			.lastModified() + "|" + imageIndex + "|" + planeIndex + "|" + width +
+			"x" + height);
+	}
+
+	/** Gets the cached thumbnail for the given key, or null if there is none. */
+	public synchronized BufferedImage get(final String key) {
+		if (key == null) return null;
+		final File file = new File(dir, key + SUFFIX);
+		if (!file.isFile()) return null;
+		try {
+			final BufferedImage image = ImageIO.read(file);
+			if (image != null) file.setLastModified(System.currentTimeMillis());
+			return image;
+		}
+		catch (final IOException exc) {
+			// corrupt or partially written entry; regenerate it
+			file.delete();
+			return null;
+		}
+	}
+
+	/** Stores the given thumbnail, then trims the cache to its bound. */
+	public synchronized void put(final String key, final BufferedImage image)
+		throws IOException
+	{
+		if (key == null || maxBytes <= 0) return;
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Cannot create thumbnail cache: " + dir);
+		}
+		// write to a temporary file first, so readers never see partial entries
+		final File tmp = new File(dir, key + ".tmp");
+		if (!ImageIO.write(image, "png", tmp)) {
+			tmp.delete();
+			throw new IOException("No PNG writer for thumbnail");
+		}
+		final File file = new File(dir, key + SUFFIX);
+		file.delete();
+		if (!tmp.renameTo(file)) {
+			tmp.delete();
+			throw new IOException("Cannot store thumbnail: " + file);
+		}
+		trim();
+	}
+
+	/** @return The total size of the cached thumbnails, in bytes. */
+	public synchronized long getUsedBytes() {
+		long used = 0;
+		for (final File file : entries()) {
+			used += file.length();
+		}
+		return used;
+	}
+
+	/** Deletes all cached thumbnails. */
+	public synchronized void clear() {
+		for (final File file : entries()) {
+			file.delete();
+		}
+	}
+
+	// -- Helper methods --
+
+	private File[] entries() {
+		final File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+		return files == null ? new File[0] : files;
+	}
+
+	/** Deletes least recently used entries until the cache fits its bound. */
+	private void trim() {
+		final File[] files = entries();
+		long used = 0;
+		for (final File file : files) {
+			used += file.length();
+		}
+		if (used <= maxBytes) return;
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (final File file : files) {
+			if (used <= maxBytes) break;
+			final long length = file.length();
+			if (file.delete()) used -= length;
+		}
+	}
+
+	private static String hash(final String key) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		}
+		catch (final NoSuchAlgorithmException exc) {
+			throw new IllegalStateException(exc);
+		}
+		final StringBuilder sb = new StringBuilder();
+		for (final byte b : digest.digest(key.getBytes(StandardCharsets.UTF_8))) {
+			sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+		}
+		return sb.toString();
+	}
+}
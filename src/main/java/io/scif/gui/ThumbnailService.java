@@ -0,0 +1,71 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.gui;
+
+import io.scif.FormatException;
+import io.scif.Reader;
+import io.scif.SCIFIOService;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.scijava.io.location.Location;
+import org.scijava.service.Service;
+
+/**
+ * A {@link Service} for creating thumbnail images, reading as little of the
+ * source image as possible.
+ */
+public interface ThumbnailService extends SCIFIOService {
+
+	/**
+	 * Creates a thumbnail of the middle plane of the first image of the given
+	 * source.
+	 */
+	BufferedImage openThumbnail(Location source) throws FormatException,
+		IOException;
+
+	/**
+	 * Creates a thumbnail of the given plane, of the size given by the image's
+	 * {@link io.scif.ImageMetadata#getThumbSizeX()} and
+	 * {@link io.scif.ImageMetadata#getThumbSizeY()}. Where available, a
+	 * reduced-resolution copy of the plane is used instead of the plane itself.
+	 *
+	 * @return An RGB thumbnail image.
+	 */
+	BufferedImage openThumbnail(Reader reader, int imageIndex, long planeIndex)
+		throws FormatException, IOException;
+
+	/** @return The on-disk cache of thumbnails, or null if caching is off. */
+	ThumbnailCache getCache();
+
+	/** Sets the on-disk cache of thumbnails; null turns caching off. */
+	void setCache(ThumbnailCache cache);
+}
@@ -32,6 +32,7 @@ package io.scif.img;
 import io.scif.FormatException;
 import io.scif.Metadata;
 import io.scif.Plane;
+import io.scif.PlaneLayout;
 import io.scif.Reader;
 import io.scif.config.SCIFIOConfig;
 import io.scif.filters.ChannelFiller;
@@ -41,8 +42,10 @@ import io.scif.filters.ReaderFilter;
 import io.scif.img.cell.SCIFIOCellImgFactory;
 import io.scif.img.converters.PlaneConverter;
 import io.scif.img.converters.PlaneConverterService;
+import io.scif.metrics.MetricsService;
 import io.scif.services.InitializeService;
 import io.scif.util.FormatTools;
+import io.scif.util.PositionIterator;
 
 import java.io.IOException;
 import java.net.URI;
@@ -88,6 +91,9 @@ public class ImgOpener extends AbstractImgIOComponent {
 	@Parameter
 	private InitializeService initializeService;
 
+	@Parameter
+	private MetricsService metrics;
+
 	private static boolean allowCellImgFactory = /** @j2sNative false && */true;
 
 	// -- Constructors --
@@ -546,43 +552,38 @@ public class ImgOpener extends AbstractImgIOComponent {
 
 		final ImageRegion region = config.imgOpenerGetRegion();
 
-		final Metadata m = r.getMetadata();
-
-		final List<CalibratedAxis> planarAxes = m.get(imageIndex).getAxesPlanar();
-		final int planarAxisCount = planarAxes.size();
+		final PlaneLayout layout = r.getMetadata().get(imageIndex).getLayout();
+		final int planarAxisCount = layout.getPlanarAxisCount();
 
 		// [min, max] of the planar dimensions
 		final long[] planarMin = new long[planarAxisCount];
 		final long[] planarMax = new long[planarAxisCount];
 		// Non-planar indices to open
-		final Range[] npRanges = new Range[m.get(imageIndex).getAxesNonPlanar()
-			.size()];
+		final Range[] npRanges = new Range[layout.getNonPlanarAxisCount()];
 		final long[] npIndices = new long[npRanges.length];
 
 		// populate plane dimensions
-		int index = 0;
-		for (final CalibratedAxis planarAxis : planarAxes) {
-			if (region != null && region.hasRange(planarAxis.type())) {
-				planarMin[index] = region.getRange(planarAxis.type()).head();
-				planarMax[index] = region.getRange(planarAxis.type()).tail();
+		for (int index = 0; index < planarAxisCount; index++) {
+			final AxisType type = layout.getAxisType(index);
+			if (region != null && region.hasRange(type)) {
+				planarMin[index] = region.getRange(type).head();
+				planarMax[index] = region.getRange(type).tail();
 			}
 			else {
 				planarMin[index] = 0;
-				planarMax[index] = m.get(imageIndex).getAxisLength(planarAxis) - 1;
+				planarMax[index] = layout.getPlanarLength(index) - 1;
 			}
-			index++;
 		}
 		final Interval bounds = new FinalInterval(planarMin, planarMax);
 
 		// determine non-planar indices to open
-		index = 0;
-		for (final CalibratedAxis npAxis : m.get(imageIndex).getAxesNonPlanar()) {
-			if (region != null && region.hasRange(npAxis.type())) {
-				npRanges[index++] = region.getRange(npAxis.type());
+		for (int index = 0; index < npRanges.length; index++) {
+			final AxisType type = layout.getAxisType(planarAxisCount + index);
+			if (region != null && region.hasRange(type)) {
+				npRanges[index] = region.getRange(type);
 			}
 			else {
-				npRanges[index++] = new Range(0l, m.get(imageIndex).getAxisLength(npAxis
-					.type()) - 1);
+				npRanges[index] = new Range(0l, layout.getNonPlanarLength(index) - 1);
 			}
 		}
 
@@ -607,66 +608,58 @@ public class ImgOpener extends AbstractImgIOComponent {
 			imageIndex);
 	}
 
-	@SuppressWarnings("rawtypes")
+	/**
+	 * Reads every plane selected by the given non-planar {@link Range}s, with
+	 * the first non-planar axis varying fastest, and copies each into the
+	 * {@link ImgPlus}.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	private void read(final int imageIndex, final ImgPlus imgPlus, final Reader r,
 		final SCIFIOConfig config, final PlaneConverter converter,
 		final Interval bounds, final Range[] npRanges, final long[] npIndices)
 		throws FormatException, IOException
 	{
-		read(imageIndex, imgPlus, r, config, converter, null, bounds, npRanges,
-			npIndices, 0, new int[] { 0 });
-	}
-
-	@SuppressWarnings({ "unchecked", "rawtypes" })
-	private Plane read(final int imageIndex, final ImgPlus imgPlus,
-		final Reader r, final SCIFIOConfig config, final PlaneConverter converter,
-		Plane tmpPlane, final Interval bounds, final Range[] npRanges,
-		final long[] npIndices, final int depth, final int[] planeCount)
-		throws FormatException, IOException
-	{
-		if (depth < npRanges.length) {
-			// We need to invert the depth index to get the current non-planar
-			// axis index, to ensure axes are iteratead in fastest to slowest
-			// order
-			final int npPosition = npRanges.length - 1 - depth;
-			// Recursive step. Sets the non-planar indices
-			for (int i = 0; i < npRanges[npPosition].size(); i++) {
-				npIndices[npPosition] = npRanges[npPosition].get(i);
-				tmpPlane = read(imageIndex, imgPlus, r, config, converter, tmpPlane,
-					bounds, npRanges, npIndices, depth + 1, planeCount);
-			}
+		final PlaneLayout layout = r.getMetadata().get(imageIndex).getLayout();
+		final long[] rangeSizes = new long[npRanges.length];
+		for (int i = 0; i < npRanges.length; i++) {
+			rangeSizes[i] = npRanges[i].size();
 		}
-		else {
-			// Terminal step. Reads the plane at the rasterized index, given the
-			// non-planar indices
-			final int planeIndex = (int) FormatTools.positionToRaster(0, r,
-				npIndices);
-
-			if (config.imgOpenerIsComputeMinMax()) {
-				populateMinMax(r, imgPlus, imageIndex);
-			}
-			// FIXME: what if tmpPlane length does not match bounds size?
-			// Invent a utility method for checking tmpPlane vs. bounds.
-			if (tmpPlane == null) {
-				tmpPlane = r.openPlane(imageIndex, planeIndex, bounds);
-			}
-			else {
-				tmpPlane = r.openPlane(imageIndex, planeIndex, tmpPlane, bounds,
-					config);
-			}
-
-			// copy the data to the ImgPlus
-			converter.populatePlane(r, imageIndex, planeCount[0], tmpPlane.getBytes(),
-				imgPlus, config);
+		final PositionIterator positions = new PositionIterator(rangeSizes);
+		final long[] rangeIndices = positions.getPosition();
+
+		// only the plane allocated here is closed, once its data has been
+		// copied: readers may return planes they keep for themselves
+		try (final Plane ownPlane = r.createPlane(r.getMetadata().get(
+			imageIndex), bounds))
+		{
+			while (positions.hasNext()) {
+				// Only the axes that rolled over need new indices
+				final int changed = positions.fwd();
+				for (int d = 0; d <= changed; d++) {
+					npIndices[d] = npRanges[d].get((int) rangeIndices[d]);
+				}
+				final int planeIndex = (int) layout.positionToRaster(npIndices);
+				final int planeCount = (int) positions.getIndex();
 
-			// store color table
-			imgPlus.setColorTable(tmpPlane.getColorTable(), planeCount[0]);
+				if (config.imgOpenerIsComputeMinMax()) {
+					populateMinMax(r, imgPlus, imageIndex);
+				}
+				final Plane tmpPlane = r.openPlane(imageIndex, planeIndex, ownPlane,
+					bounds, config);
+
+				// copy the data to the ImgPlus
+				final long start = metrics.isEnabled() ? System.nanoTime() : 0;
+				converter.populatePlane(r, imageIndex, planeCount, tmpPlane
+					.getBytes(), imgPlus, config);
+				if (metrics.isEnabled()) {
+					metrics.record(MetricsService.CONVERT_TIME, converter.getClass()
+						.getSimpleName(), System.nanoTime() - start);
+				}
 
-			// Update plane count
-			planeCount[0]++;
+				// store color table
+				imgPlus.setColorTable(tmpPlane.getColorTable(), planeCount);
+			}
 		}
-
-		return tmpPlane;
 	}
 
 	private void populateMinMax(final Reader r, final ImgPlus<?> imgPlus,
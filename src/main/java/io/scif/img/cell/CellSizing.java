@@ -0,0 +1,170 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.img.cell;
+
+import io.scif.ImageMetadata;
+import io.scif.Reader;
+import io.scif.util.FormatTools;
+
+import net.imagej.axis.Axes;
+import net.imagej.axis.AxisType;
+
+/**
+ * Chooses {@link SCIFIOCellImg} cell dimensions that line up with the native
+ * chunks of the source.
+ * <p>
+ * Along X and Y each cell spans a whole number of the reader's optimal tiles
+ * (see {@link Reader#getOptimalTileWidth} and
+ * {@link Reader#getOptimalTileHeight}): TIFF tiles, TIFF strips, or whole
+ * planes for formats which can only decode a full plane. Other planar axes,
+ * such as interleaved channels, are covered completely, and each non-planar
+ * axis is one plane deep. Cells grow in whole tiles, rows of tiles first,
+ * until they reach {@link #TARGET_CELL_BYTES}; so every native chunk falls
+ * into exactly one cell, and random access over the image decodes each chunk
+ * only once.
+ * </p>
+ * <p>
+ * Alignment is relative to the image origin, so a cropped region keeps it
+ * only if it starts on a tile boundary.
+ * </p>
+ */
+public final class CellSizing {
+
+	/** Size cells grow to, when the native chunks are smaller. */
+	public static final long TARGET_CELL_BYTES = 1024 * 1024;
+
+	/** Largest number of pixels in a single cell. */
+	private static final long MAX_CELL_PIXELS = Integer.MAX_VALUE / 2;
+
+	// -- Constructor --
+
+	private CellSizing() {}
+
+	// -- Utility methods --
+
+	/**
+	 * Computes chunk-aligned cell dimensions for an image of the given reader.
+	 *
+	 * @param reader Reader which will load the cells.
+	 * @param imageIndex Index of the image within the reader.
+	 * @param dimensions Dimensions of the cell image, in the order of the
+	 *          image's axes. These may be smaller than the axis lengths when a
+	 *          subregion is opened.
+	 * @return Cell dimensions, one for each entry of {@code dimensions}.
+	 */
+	public static int[] getCellDimensions(final Reader reader,
+		final int imageIndex, final long[] dimensions)
+	{
+		final ImageMetadata meta = reader.getMetadata().get(imageIndex);
+		final int planarCount = meta.getPlanarAxisCount();
+		final int n = dimensions.length;
+
+		int xIndex = -1, yIndex = -1;
+		long pixelBytes = FormatTools.getBytesPerPixel(meta.getPixelType());
+		final long[] cell = new long[n];
+		for (int d = 0; d < n; d++) {
+			final AxisType type = d < meta.getAxes().size() ? meta.getAxis(d).type()
+				: null;
+			if (d >= planarCount) cell[d] = 1;
+			else if (type == Axes.X) xIndex = d;
+			else if (type == Axes.Y) yIndex = d;
+			else {
+				cell[d] = dimensions[d];
+				pixelBytes *= dimensions[d];
+			}
+		}
+
+		final long tileWidth = tile(reader.getOptimalTileWidth(imageIndex),
+			xIndex < 0 ? 1 : dimensions[xIndex]);
+		final long tileHeight = tile(reader.getOptimalTileHeight(imageIndex),
+			yIndex < 0 ? 1 : dimensions[yIndex]);
+		long width = tileWidth, height = tileHeight;
+
+		if (xIndex >= 0 && yIndex >= 0) {
+			final long maxWidth = dimensions[xIndex];
+			final long maxHeight = dimensions[yIndex];
+
+			// grow by whole tiles while the cell stays under the target size
+			while (height < maxHeight && width * next(height, tileHeight,
+				maxHeight) * pixelBytes <= TARGET_CELL_BYTES)
+			{
+				height = next(height, tileHeight, maxHeight);
+			}
+			if (height == maxHeight) {
+				while (width < maxWidth && next(width, tileWidth, maxWidth) * height *
+					pixelBytes <= TARGET_CELL_BYTES)
+				{
+					width = next(width, tileWidth, maxWidth);
+				}
+			}
+
+			// shrink by whole tiles, last grown first, to fit in one array; only
+			// a single native chunk that is too large itself gets split
+			final long otherPixels = pixelBytes / FormatTools.getBytesPerPixel(meta
+				.getPixelType());
+			while (width * height * otherPixels > MAX_CELL_PIXELS && (width > 1 ||
+				height > 1))
+			{
+				if (width > tileWidth) width = previous(width, tileWidth);
+				else if (height > tileHeight) height = previous(height, tileHeight);
+				else if (height > 1) height = (height + 1) / 2;
+				else width = (width + 1) / 2;
+			}
+		}
+
+		if (xIndex >= 0) cell[xIndex] = width;
+		if (yIndex >= 0) cell[yIndex] = height;
+
+		final int[] cellDimensions = new int[n];
+		for (int d = 0; d < n; d++) {
+			cellDimensions[d] = (int) Math.max(1, Math.min(cell[d], dimensions[d]));
+		}
+		return cellDimensions;
+	}
+
+	// -- Helper methods --
+
+	/** Clamps a reported tile length to the axis length. */
+	private static long tile(final long optimal, final long length) {
+		return optimal <= 0 ? length : Math.min(optimal, length);
+	}
+
+	/** Extends a cell length by one tile, stopping at the axis end. */
+	private static long next(final long length, final long tile,
+		final long max)
+	{
+		return Math.min(length + tile, max);
+	}
+
+	/** Shortens a cell length to the last whole tile before it. */
+	private static long previous(final long length, final long tile) {
+		return (length - 1) / tile * tile;
+	}
+}
@@ -30,6 +30,7 @@
 package io.scif.img.cell;
 
 import io.scif.FormatException;
+import io.scif.Plane;
 import io.scif.Reader;
 import io.scif.img.cell.loaders.SCIFIOArrayLoader;
 
@@ -95,7 +96,12 @@ public class SCIFIOCellImg<T extends NativeType<T>, A> extends
 			dims[i] = 1;
 		final Interval bounds = new FinalInterval(dims);
 
-		return reader.openPlane(imageIndex, planeIndex, bounds).getColorTable();
+		try (final Plane plane = reader.createPlane(reader.getMetadata().get(
+			imageIndex), bounds))
+		{
+			return reader.openPlane(imageIndex, planeIndex, plane, bounds)
+				.getColorTable();
+		}
 	}
 
 	@Override
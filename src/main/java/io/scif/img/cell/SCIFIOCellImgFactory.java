@@ -30,7 +30,6 @@
 package io.scif.img.cell;
 
 import io.scif.Reader;
-import io.scif.filters.ReaderFilter;
 import io.scif.img.ImageRegion;
 import io.scif.img.cell.loaders.AbstractArrayLoader;
 import io.scif.img.cell.loaders.ByteArrayLoader;
@@ -84,7 +83,8 @@ import net.imglib2.util.Util;
 /**
  * Factory for creating {@link SCIFIOCellImg}s. See
  * {@link DiskCachedCellImgOptions} for available configuration options and
- * defaults.
+ * defaults. Unless cell dimensions are given explicitly, cells are aligned
+ * with the native chunks of the reader; see {@link CellSizing}.
  *
  * @author Tobias Pietzsch
  * @author Mark Hiner
@@ -100,6 +100,10 @@ public class SCIFIOCellImgFactory<T extends NativeType<T>> extends
 
 	private ImageRegion subregion;
 
+	/**
+	 * Explicit cell dimensions, or null to align cells with the reader's native
+	 * chunks (see {@link CellSizing}).
+	 */
 	private int[] defaultCellDimensions;
 
 	private DiskCachedCellImgOptions factoryOptions;
@@ -159,14 +163,9 @@ public class SCIFIOCellImgFactory<T extends NativeType<T>> extends
 	 * @param imageIndex Image index within the given reader that will be loaded
 	 *          by {@link SCIFIOCellImg}s.
 	 */
-	public void setReader(Reader r, final int imageIndex) {
+	public void setReader(final Reader r, final int imageIndex) {
 		reader = r;
 		index = imageIndex;
-
-		if (r instanceof ReaderFilter) r = ((ReaderFilter) r).getTail();
-
-		defaultCellDimensions = new int[] { (int) reader.getOptimalTileWidth(
-			imageIndex), (int) reader.getOptimalTileHeight(imageIndex), 1, 1, 1 };
 	}
 
 	/**
@@ -305,10 +304,15 @@ public class SCIFIOCellImgFactory<T extends NativeType<T>> extends
 		CellImgFactory.verifyDimensions(dimensions);
 		final int n = dimensions.length;
 
+		final int[] cellDims = defaultCellDimensions == null ? CellSizing
+			.getCellDimensions(reader, index, dimensions) : defaultCellDimensions;
+
+		// explicit dimensions repeat their last entry for any remaining axes
 		final int[] defaultDims = new int[dimensions.length];
 		for (int d = 0; d < defaultDims.length; d++) {
-			defaultDims[d] = dimensions[d] < defaultCellDimensions[d] ? //
-				(int) dimensions[d] : defaultCellDimensions[d];
+			final int cellDim = cellDims[Math.min(d, cellDims.length - 1)];
+			defaultDims[d] = dimensions[d] < cellDim ? (int) dimensions[d]
+				: cellDim;
 		}
 
 		final int[] cellDimensions = CellImgFactory.getCellDimensions(defaultDims,
@@ -353,7 +357,7 @@ public class SCIFIOCellImgFactory<T extends NativeType<T>> extends
 
 	@Deprecated
 	public SCIFIOCellImgFactory() {
-		this(10);
+		this.factoryOptions = DiskCachedCellImgOptions.options();
 	}
 
 	@Deprecated
@@ -33,18 +33,18 @@ import io.scif.FormatException;
 import io.scif.ImageMetadata;
 import io.scif.Metadata;
 import io.scif.Plane;
+import io.scif.PlaneLayout;
 import io.scif.Reader;
 import io.scif.filters.MetadataWrapper;
 import io.scif.img.ImageRegion;
 import io.scif.img.ImgUtilityService;
 import io.scif.img.Range;
-import io.scif.util.FormatTools;
+import io.scif.util.PositionIterator;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
-import net.imagej.axis.CalibratedAxis;
 import net.imglib2.FinalInterval;
 import net.imglib2.Interval;
 import net.imglib2.display.ColorTable;
@@ -66,6 +66,12 @@ import org.scijava.plugin.Parameter;
  */
 public abstract class AbstractArrayLoader<A> implements SCIFIOArrayLoader<A> {
 
+	/**
+	 * Number of samples converted per pass when an incompatible plane is copied
+	 * into an access that is not backed by a primitive array.
+	 */
+	protected static final int CONVERSION_CHUNK = 4096;
+
 	private int index = 0;
 
 	final private Reader reader;
@@ -102,13 +108,18 @@ public abstract class AbstractArrayLoader<A> implements SCIFIOArrayLoader<A> {
 		ColorTable ct = getTable(imageIndex, planeIndex);
 		if (ct == null && !loadedTable()[imageIndex][planeIndex]) {
 			final long[] planeMin = new long[reader.getMetadata().get(imageIndex)
-				.getAxesPlanar().size()];
+				.getLayout().getPlanarAxisCount()];
 			final long[] planeMax = new long[planeMin.length];
 			for (int i = 0; i < planeMax.length; i++)
 				planeMax[i] = 1;
 
 			final FinalInterval bounds = new FinalInterval(planeMin, planeMax);
-			ct = reader.openPlane(imageIndex, planeIndex, bounds).getColorTable();
+			try (final Plane plane = reader.createPlane(reader.getMetadata().get(
+				imageIndex), bounds))
+			{
+				ct = reader.openPlane(imageIndex, planeIndex, plane, bounds)
+					.getColorTable();
+			}
 
 			addTable(imageIndex, planeIndex, ct);
 		}
@@ -118,49 +129,42 @@ public abstract class AbstractArrayLoader<A> implements SCIFIOArrayLoader<A> {
 	@Override
 	public A loadArray(final Interval bounds) {
 		synchronized (reader) {
-			final Metadata meta = reader.getMetadata();
+			final PlaneLayout layout = reader.getMetadata().get(0).getLayout();
+			final int planarAxisCount = layout.getPlanarAxisCount();
 
 			int entities = 1;
 
 			// Starting indices for the planar dimensions
-			final long[] planarMin = new long[meta.get(0).getAxesPlanar().size()];
+			final long[] planarMin = new long[planarAxisCount];
 			// Lengths in the planar dimensions
-			final long[] planarMax = new long[meta.get(0).getAxesPlanar().size()];
+			final long[] planarMax = new long[planarAxisCount];
 			// Non-planar indices to open
-			final Range[] npRanges = new Range[meta.get(0).getAxesNonPlanar().size()];
+			final Range[] npRanges = new Range[layout.getNonPlanarAxisCount()];
 			final long[] npIndices = new long[npRanges.length];
 
-			int axisIndex = 0;
 			// Get planar ranges
-			for (final CalibratedAxis axis : meta.get(0).getAxesPlanar()) {
-				final int index = meta.get(0).getAxisIndex(axis.type());
-
+			for (int index = 0; index < planarAxisCount; index++) {
 				// Constrain on passed dims
 				if (index < bounds.numDimensions()) {
-					planarMin[axisIndex] = bounds.min(index);
-					planarMax[axisIndex] = bounds.max(index);
+					planarMin[index] = bounds.min(index);
+					planarMax[index] = bounds.max(index);
 					entities *= bounds.dimension(index);
 				}
-
-				axisIndex++;
 			}
 
-			axisIndex = 0;
-			for (final CalibratedAxis axis : meta.get(0).getAxesNonPlanar()) {
-				final int index = meta.get(0).getAxisIndex(axis.type());
+			for (int axisIndex = 0; axisIndex < npRanges.length; axisIndex++) {
+				final int index = planarAxisCount + axisIndex;
 
 				// otherwise just make a straightforward range
 				// spanning the passed dimensional constraints
 				npRanges[axisIndex] = new Range(bounds.min(index), bounds.max(index));
 
 				if (subRegion != null) {
-					entities *= subRegion.getRange(axis.type()).size();
+					entities *= subRegion.getRange(layout.getAxisType(index)).size();
 				}
 				else {
 					entities *= npRanges[axisIndex].size();
 				}
-
-				axisIndex++;
 			}
 
 			A data = null;
@@ -186,12 +190,9 @@ public abstract class AbstractArrayLoader<A> implements SCIFIOArrayLoader<A> {
 
 	public void loadArray(final Interval bounds, final A data) {
 		synchronized (reader) {
-			final Metadata meta = reader.getMetadata();
-
-			final List<CalibratedAxis> planarAxes = meta.get(0).getAxesPlanar();
-			final List<CalibratedAxis> nonPlanarAxes = meta.get(0).getAxesNonPlanar();
-			final int planarAxisCount = planarAxes.size();
-			final int nonPlanarAxisCount = nonPlanarAxes.size();
+			final PlaneLayout layout = reader.getMetadata().get(0).getLayout();
+			final int planarAxisCount = layout.getPlanarAxisCount();
+			final int nonPlanarAxisCount = layout.getNonPlanarAxisCount();
 
 			// Starting indices for the planar dimensions
 			final long[] planarMin = new long[planarAxisCount];
@@ -201,30 +202,21 @@ public abstract class AbstractArrayLoader<A> implements SCIFIOArrayLoader<A> {
 			final Range[] npRanges = new Range[nonPlanarAxisCount];
 			final long[] npIndices = new long[npRanges.length];
 
-			int axisIndex = 0;
 			// Get planar ranges
-			for (final CalibratedAxis axis : planarAxes) {
-				final int index = meta.get(0).getAxisIndex(axis.type());
-
+			for (int index = 0; index < planarAxisCount; index++) {
 				// Constrain on passed dims
 				if (index < bounds.numDimensions()) {
-					planarMin[axisIndex] = bounds.min(index);
-					planarMax[axisIndex] = bounds.max(index);
+					planarMin[index] = bounds.min(index);
+					planarMax[index] = bounds.max(index);
 				}
-
-				axisIndex++;
 			}
 
-			axisIndex = 0;
-			for (final CalibratedAxis axis : nonPlanarAxes) {
-				final int index = meta.get(0).getAxisIndex(axis.type());
+			for (int axisIndex = 0; axisIndex < nonPlanarAxisCount; axisIndex++) {
+				final int index = planarAxisCount + axisIndex;
 
 				// otherwise just make a straightforward range spanning the
-				// passed
-				// dimensional constraints
+				// passed dimensional constraints
 				npRanges[axisIndex] = new Range(bounds.min(index), bounds.max(index));
-
-				axisIndex++;
 			}
 
 			try {
@@ -243,82 +235,80 @@ public abstract class AbstractArrayLoader<A> implements SCIFIOArrayLoader<A> {
 	}
 
 	/**
-	 * Entry point for
-	 * {@link #read(Object, Plane, Interval, Range[], long[], int, int)}
+	 * Iterates over all the provided {@link Range}s, with the first non-planar
+	 * axis varying fastest, reading the corresponding bytes and storing them in
+	 * the provided data object.
 	 */
 	private void read(final A data, final Interval bounds, final Range[] npRanges,
 		final long[] npIndices) throws FormatException, IOException
 	{
-		read(data, null, bounds, npRanges, npIndices, 0, 0);
-	}
+		final PlaneLayout layout = reader.getMetadata().get(0).getLayout();
 
-	/**
-	 * Recurses over all the provided {@link Range}s, reading the corresponding
-	 * bytes and storing them in the provided data object.
-	 */
-	private void read(final A data, Plane tmpPlane, final Interval bounds,
-		final Range[] npRanges, final long[] npIndices, final int depth,
-		int planeCount) throws FormatException, IOException
-	{
-		if (depth < npRanges.length) {
-			// We need to invert the depth index to get the current non-planar
-			// axis index, to ensure axes are iteratead in fastest to slowest
-			// order
-			final int npPosition = npRanges.length - 1 - depth;
-			for (int i = 0; i < npRanges[npPosition].size(); i++) {
-				npIndices[npPosition] = npRanges[npPosition].get(i);
-				read(data, tmpPlane, bounds, npRanges, npIndices, depth + 1,
-					planeCount);
-				planeCount++;
-			}
+		final long[] rangeSizes = new long[npRanges.length];
+		for (int i = 0; i < npRanges.length; i++) {
+			rangeSizes[i] = npRanges[i].size();
 		}
-		else if (inSubregion(npIndices)) {
-			final int planeIndex = (int) FormatTools.positionToRaster(0, reader,
-				npIndices);
+		final PositionIterator positions = new PositionIterator(rangeSizes);
+		final long[] rangeIndices = positions.getPosition();
+
+		// only the plane allocated here is closed, once its data has been
+		// converted: readers may return planes they keep for themselves
+		Plane ownPlane = null;
+		try {
+			while (positions.hasNext()) {
+				// Only the axes that rolled over need new indices
+				final int changed = positions.fwd();
+				for (int d = 0; d <= changed; d++) {
+					npIndices[d] = npRanges[d].get((int) rangeIndices[d]);
+				}
+				if (!inSubregion(npIndices)) continue;
 
-			validateBounds(getPlanarAxisLengths(reader.getMetadata()), bounds);
+				final int planeIndex = (int) layout.positionToRaster(npIndices);
 
-			if (tmpPlane == null) {
-				tmpPlane = reader.openPlane(index, planeIndex, bounds);
-			}
-			else {
+				if (ownPlane == null) {
+					validateBounds(unwrap(reader.getMetadata()).getLayout(), bounds);
+					ownPlane = reader.createPlane(reader.getMetadata().get(index),
+						bounds);
+				}
+				final Plane tmpPlane = reader.openPlane(index, planeIndex, ownPlane,
+					bounds);
 				// Sanity check!
-				final long expectedLength = Intervals.numElements(bounds);
-				if (tmpPlane.getBytes().length != expectedLength) {
+				final long planeBytes = Intervals.numElements(bounds) * layout
+					.getBytesPerPixel();
+				if (tmpPlane.getBytes().length != planeBytes) {
 					throw new IllegalArgumentException("Expected tmpPlane length " +
-						expectedLength + " but was " + tmpPlane.getBytes().length);
+						planeBytes + " but was " + tmpPlane.getBytes().length);
 				}
-				tmpPlane = reader.openPlane(index, planeIndex, tmpPlane, bounds);
-			}
-			convertBytes(data, tmpPlane.getBytes(), planeCount);
+				convertBytes(data, tmpPlane.getBytes(), (int) positions.getIndex());
 
-			// update color table
-			if (!loadedTable()[index][planeIndex]) {
-				addTable(index, planeIndex, tmpPlane.getColorTable());
+				// update color table
+				if (!loadedTable()[index][planeIndex]) {
+					addTable(index, planeIndex, tmpPlane.getColorTable());
+				}
 			}
 		}
-
+		finally {
+			if (ownPlane != null) ownPlane.close();
+		}
 	}
 
-	private void validateBounds(final long[] lengths, final Interval bounds) {
-		if (lengths.length != bounds.numDimensions()) {
+	private void validateBounds(final PlaneLayout layout,
+		final Interval bounds)
+	{
+		if (layout.getPlanarAxisCount() != bounds.numDimensions()) {
 			throw new IllegalArgumentException("Expected bounds of dimensionality " +
-				lengths.length + " but was " + bounds.numDimensions());
+				layout.getPlanarAxisCount() + " but was " + bounds.numDimensions());
 		}
 		for (int d = 0; d < bounds.numDimensions(); d++) {
-			if (bounds.min(d) < 0 || bounds.max(d) >= lengths[d]) {
+			final long length = layout.getPlanarLength(d);
+			if (bounds.min(d) < 0 || bounds.max(d) >= length) {
 				throw new IllegalArgumentException("Bound #" + d + " of " + //
 					"[" + bounds.min(d) + ", " + bounds.max(d) + "] " + //
-					"is not contained in [0, " + lengths[d] + "]");
+					"is not contained in [0, " + length + "]");
 			}
 		}
 	}
 
-	private long[] getPlanarAxisLengths(final Metadata meta) {
-		final ImageMetadata imgMeta = unwrap(meta);
-		return imgMeta.getAxesLengthsPlanar();
-	}
-
 	private ImageMetadata unwrap(final Metadata meta) {
 		if (meta instanceof MetadataWrapper) return unwrap(((MetadataWrapper) meta)
 			.unwrap());
@@ -395,12 +385,11 @@ public abstract class AbstractArrayLoader<A> implements SCIFIOArrayLoader<A> {
 		boolean inSubregion = true;
 
 		if (subRegion != null) {
-			int index = 0;
-			for (final CalibratedAxis axis : reader.getMetadata().get(0)
-				.getAxesNonPlanar())
-			{
-				inSubregion = inSubregion && inRange(subRegion.getRange(axis.type()),
-					npIndices[index++]);
+			final PlaneLayout layout = reader.getMetadata().get(0).getLayout();
+			final int planarAxisCount = layout.getPlanarAxisCount();
+			for (int i = 0; inSubregion && i < npIndices.length; i++) {
+				inSubregion = inRange(subRegion.getRange(layout.getAxisType(
+					planarAxisCount + i)), npIndices[i]);
 			}
 		}
 
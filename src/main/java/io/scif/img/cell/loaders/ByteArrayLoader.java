@@ -32,6 +32,7 @@ package io.scif.img.cell.loaders;
 import io.scif.ImageMetadata;
 import io.scif.Reader;
 import io.scif.img.ImageRegion;
+import io.scif.util.ConversionTools;
 import io.scif.util.FormatTools;
 
 import net.imglib2.img.basictypeaccess.array.ByteArray;
@@ -62,13 +63,9 @@ public class ByteArrayLoader extends AbstractArrayLoader<ByteArray> {
 			final ImageMetadata iMeta = reader().getMetadata().get(0);
 			final int pixelType = iMeta.getPixelType();
 			final int bpp = FormatTools.getBytesPerPixel(pixelType);
-			final int offset = planesRead * (bytes.length / bpp);
-
-			for (int index = 0; index < bytes.length / bpp; index++) {
-				final byte value = (byte) utils().decodeWord(bytes, index * bpp,
-					pixelType, iMeta.isLittleEndian());
-				data.setValue(offset + index, value);
-			}
+			final int count = bytes.length / bpp;
+			ConversionTools.convert(bytes, 0, pixelType, iMeta.isLittleEndian(),
+				data.getCurrentStorageArray(), planesRead * count, count);
 		}
 	}
 
@@ -32,6 +32,7 @@ package io.scif.img.cell.loaders;
 import io.scif.ImageMetadata;
 import io.scif.Reader;
 import io.scif.img.ImageRegion;
+import io.scif.util.ConversionTools;
 import io.scif.util.FormatTools;
 
 import java.nio.ByteBuffer;
@@ -77,12 +78,17 @@ public class DoubleAccessLoader extends AbstractArrayLoader<DoubleAccess> {
 		else {
 			final int pixelType = iMeta.getPixelType();
 			final int bpp = FormatTools.getBytesPerPixel(pixelType);
-			final int offset = planesRead * (bytes.length / bpp);
+			final int count = bytes.length / bpp;
+			final int offset = planesRead * count;
+			final double[] values = new double[Math.min(count, CONVERSION_CHUNK)];
 
-			for (int index = 0; index < bytes.length / bpp; index++) {
-				final double value = utils().decodeWord(bytes, index * bpp, pixelType,
-					iMeta.isLittleEndian());
-				data.setValue(offset + index, value);
+			for (int index = 0; index < count; index += values.length) {
+				final int n = Math.min(values.length, count - index);
+				ConversionTools.convert(bytes, index, pixelType, iMeta
+					.isLittleEndian(), values, 0, n);
+				for (int k = 0; k < n; k++) {
+					data.setValue(offset + index + k, values[k]);
+				}
 			}
 		}
 	}
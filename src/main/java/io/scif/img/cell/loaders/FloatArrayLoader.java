@@ -32,6 +32,7 @@ package io.scif.img.cell.loaders;
 import io.scif.ImageMetadata;
 import io.scif.Reader;
 import io.scif.img.ImageRegion;
+import io.scif.util.ConversionTools;
 import io.scif.util.FormatTools;
 
 import java.nio.ByteBuffer;
@@ -70,12 +71,9 @@ public class FloatArrayLoader extends AbstractArrayLoader<FloatArray> {
 		else {
 			final int pixelType = iMeta.getPixelType();
 			final int bpp = FormatTools.getBytesPerPixel(pixelType);
-			final int offset = planesRead * (bytes.length / bpp);
-			for (int index = 0; index < bytes.length / bpp; index++) {
-				final float value = (float) utils().decodeWord(bytes, index * bpp,
-					pixelType, iMeta.isLittleEndian());
-				data.setValue(offset + index, value);
-			}
+			final int count = bytes.length / bpp;
+			ConversionTools.convert(bytes, 0, pixelType, iMeta.isLittleEndian(),
+				data.getCurrentStorageArray(), planesRead * count, count);
 		}
 	}
 
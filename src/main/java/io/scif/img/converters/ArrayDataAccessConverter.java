@@ -29,8 +29,11 @@
 
 package io.scif.img.converters;
 
+import io.scif.Metadata;
 import io.scif.Reader;
 import io.scif.config.SCIFIOConfig;
+import io.scif.img.ImageRegion;
+import io.scif.img.cell.loaders.AbstractArrayLoader;
 import io.scif.img.cell.loaders.ByteAccessLoader;
 import io.scif.img.cell.loaders.ByteArrayLoader;
 import io.scif.img.cell.loaders.CharAccessLoader;
@@ -76,6 +79,18 @@ import org.scijava.plugin.Plugin;
 @Plugin(type = PlaneConverter.class, name = "ArrayDataAccess")
 public class ArrayDataAccessConverter extends AbstractPlaneConverter {
 
+	// -- Fields --
+
+	private AbstractArrayLoader<Object> loader;
+
+	private Reader loaderReader;
+
+	private Metadata loaderMeta;
+
+	private ImageRegion loaderRegion;
+
+	private Class<?> loaderStore;
+
 	@Override
 	public <T extends RealType<T>> void populatePlane(final Reader reader,
 		final int imageIndex, final int planeIndex, final byte[] source,
@@ -94,78 +109,84 @@ public class ArrayDataAccessConverter extends AbstractPlaneConverter {
 		// however that simply may not be feasible given the variety of data
 		// types.
 
+		final AbstractArrayLoader<Object> arrayLoader = loader(reader, config
+			.imgOpenerGetRegion(), store);
+		if (arrayLoader != null) {
+			arrayLoader.convertBytes(store, source, planeIndex);
+		}
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Gets a loader for the given store, reusing the previous one while the
+	 * reader, its metadata, the region and the store type stay the same.
+	 * Constructing a loader injects its context and resolves the reader's pixel
+	 * type, which is too costly to repeat for every plane.
+	 */
+	@SuppressWarnings("unchecked")
+	private synchronized AbstractArrayLoader<Object> loader(final Reader reader,
+		final ImageRegion region, final Object store)
+	{
+		final Metadata meta = reader.getMetadata();
+		if (loader == null || loaderReader != reader || loaderMeta != meta ||
+			loaderRegion != region || loaderStore != store.getClass())
+		{
+			loader = (AbstractArrayLoader<Object>) createLoader(reader, region,
+				store);
+			loaderReader = reader;
+			loaderMeta = meta;
+			loaderRegion = region;
+			loaderStore = store.getClass();
+		}
+		return loader;
+	}
+
+	private AbstractArrayLoader<?> createLoader(final Reader reader,
+		final ImageRegion region, final Object store)
+	{
 		if (store instanceof ByteArray) {
-			final ByteArrayLoader loader = new ByteArrayLoader(reader, config
-				.imgOpenerGetRegion());
-			loader.convertBytes((ByteArray) store, source, planeIndex);
+			return new ByteArrayLoader(reader, region);
 		}
 		else if (store instanceof ShortArray) {
-			final ShortArrayLoader loader = new ShortArrayLoader(reader, config
-				.imgOpenerGetRegion());
-			loader.convertBytes((ShortArray) store, source, planeIndex);
+			return new ShortArrayLoader(reader, region);
 		}
 		else if (store instanceof LongArray) {
-			final LongArrayLoader loader = new LongArrayLoader(reader, config
-				.imgOpenerGetRegion());
-			loader.convertBytes((LongArray) store, source, planeIndex);
+			return new LongArrayLoader(reader, region);
 		}
 		else if (store instanceof CharArray) {
-			final CharArrayLoader loader = new CharArrayLoader(reader, config
-				.imgOpenerGetRegion());
-			loader.convertBytes((CharArray) store, source, planeIndex);
+			return new CharArrayLoader(reader, region);
 		}
 		else if (store instanceof DoubleArray) {
-			final DoubleArrayLoader loader = new DoubleArrayLoader(reader, config
-				.imgOpenerGetRegion());
-			loader.convertBytes((DoubleArray) store, source, planeIndex);
+			return new DoubleArrayLoader(reader, region);
 		}
 		else if (store instanceof FloatArray) {
-			final FloatArrayLoader loader = new FloatArrayLoader(reader, config
-				.imgOpenerGetRegion());
-			loader.convertBytes((FloatArray) store, source, planeIndex);
+			return new FloatArrayLoader(reader, region);
 		}
 		else if (store instanceof IntArray) {
-			final IntArrayLoader loader = new IntArrayLoader(reader, config
-				.imgOpenerGetRegion());
-			loader.convertBytes((IntArray) store, source, planeIndex);
+			return new IntArrayLoader(reader, region);
 		}
 		else if (store instanceof ByteAccess) {
-			final ByteAccessLoader loader = new ByteAccessLoader(reader, config
-				.imgOpenerGetRegion(), ByteArray::new);
-			loader.convertBytes((ByteAccess) store, source, planeIndex);
-
+			return new ByteAccessLoader(reader, region, ByteArray::new);
 		}
 		else if (store instanceof ShortAccess) {
-			final ShortAccessLoader loader = new ShortAccessLoader(reader, config
-				.imgOpenerGetRegion(), ShortArray::new);
-			loader.convertBytes((ShortAccess) store, source, planeIndex);
+			return new ShortAccessLoader(reader, region, ShortArray::new);
 		}
 		else if (store instanceof LongAccess) {
-			final LongAccessLoader loader = new LongAccessLoader(reader, config
-				.imgOpenerGetRegion(), LongArray::new);
-			loader.convertBytes((LongAccess) store, source, planeIndex);
+			return new LongAccessLoader(reader, region, LongArray::new);
 		}
 		else if (store instanceof CharAccess) {
-			final CharAccessLoader loader = new CharAccessLoader(reader, config
-				.imgOpenerGetRegion(), CharArray::new);
-			loader.convertBytes((CharAccess) store, source, planeIndex);
+			return new CharAccessLoader(reader, region, CharArray::new);
 		}
 		else if (store instanceof DoubleAccess) {
-			final DoubleAccessLoader loader = new DoubleAccessLoader(reader, config
-				.imgOpenerGetRegion(), DoubleArray::new);
-			loader.convertBytes((DoubleAccess) store, source, planeIndex);
+			return new DoubleAccessLoader(reader, region, DoubleArray::new);
 		}
 		else if (store instanceof FloatAccess) {
-			final FloatAccessLoader loader = new FloatAccessLoader(reader, config
-				.imgOpenerGetRegion(), FloatArray::new);
-			loader.convertBytes((FloatAccess) store, source, planeIndex);
+			return new FloatAccessLoader(reader, region, FloatArray::new);
 		}
 		else if (store instanceof IntAccess) {
-			final IntAccessLoader loader = new IntAccessLoader(reader, config
-				.imgOpenerGetRegion(), IntArray::new);
-			loader.convertBytes((IntAccess) store, source, planeIndex);
+			return new IntAccessLoader(reader, region, IntArray::new);
 		}
-
+		return null;
 	}
-
 }
@@ -0,0 +1,188 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+import org.scijava.io.handle.AbstractHigherOrderHandle;
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.handle.DataHandleService;
+import org.scijava.io.location.Location;
+
+/**
+ * Read-only {@link DataHandle} wrapper which also serves {@link AsyncReadable}
+ * range requests. Ordinary reads go to the wrapped handle. Range requests are
+ * coalesced through a {@link CoalescingReader} and run on the given
+ * {@link Executor}, each on a handle of its own from a pool of handles on the
+ * same location, so that e.g. the range requests of several remote tiles are
+ * in flight at once rather than queued behind one stream position.
+ */
+public class AsyncDataHandle extends AbstractHigherOrderHandle<Location>
+	implements AsyncReadable
+{
+
+	// -- Fields --
+
+	private final DataHandleService handles;
+
+	private final Executor executor;
+
+	private final CoalescingReader reader;
+
+	/** Handles used for range requests, which are not currently in use. */
+	private final Queue<DataHandle<Location>> idle =
+		new ConcurrentLinkedQueue<>();
+
+	/** All handles opened for range requests. */
+	private final List<DataHandle<Location>> opened = new ArrayList<>();
+
+	// -- Constructor --
+
+	/**
+	 * @param handles Service with which to open the handles for range requests.
+	 * @param handle Handle to wrap, used for ordinary reads.
+	 * @param executor Executor on which range requests run.
+	 */
+	public AsyncDataHandle(final DataHandleService handles,
+		final DataHandle<Location> handle, final Executor executor)
+	{
+		super(handle);
+		this.handles = handles;
+		this.executor = executor;
+		reader = new CoalescingReader((offset, length) -> CompletableFuture
+			.supplyAsync(() -> fetch(offset, length), executor));
+		setOrder(handle.getOrder());
+	}
+
+	// -- AsyncDataHandle API methods --
+
+	/** Gets the number of handles opened for range requests so far. */
+	public int getPooledHandleCount() {
+		synchronized (opened) {
+			return opened.size();
+		}
+	}
+
+	// -- AsyncReadable API methods --
+
+	@Override
+	public CompletableFuture<ByteBuffer> readAsync(final long offset,
+		final int length)
+	{
+		return reader.readAsync(offset, length);
+	}
+
+	// -- DataHandle API methods --
+
+	@Override
+	public long offset() throws IOException {
+		return handle().offset();
+	}
+
+	@Override
+	public void seek(final long pos) throws IOException {
+		handle().seek(pos);
+	}
+
+	@Override
+	public void setLength(final long length) throws IOException {
+		throw new IOException("Handle is read-only");
+	}
+
+	@Override
+	public byte readByte() throws IOException {
+		return handle().readByte();
+	}
+
+	@Override
+	public int read(final byte[] b, final int off, final int len)
+		throws IOException
+	{
+		return handle().read(b, off, len);
+	}
+
+	@Override
+	public void write(final int v) throws IOException {
+		throw new IOException("Handle is read-only");
+	}
+
+	@Override
+	public void write(final byte[] b, final int off, final int len)
+		throws IOException
+	{
+		throw new IOException("Handle is read-only");
+	}
+
+	@Override
+	protected void cleanup() throws IOException {
+		synchronized (opened) {
+			for (final DataHandle<Location> h : opened) {
+				h.close();
+			}
+			opened.clear();
+		}
+		idle.clear();
+	}
+
+	// -- Helper methods --
+
+	/** Reads a range on an idle pooled handle, opening one if needed. */
+	private ByteBuffer fetch(final long offset, final int length) {
+		try {
+			DataHandle<Location> h = idle.poll();
+			if (h == null) {
+				h = handles.create(get());
+				if (h == null) throw new IOException("Cannot open " + get());
+				synchronized (opened) {
+					opened.add(h);
+				}
+			}
+			try {
+				final byte[] bytes = new byte[length];
+				final int n = AsyncReads.read(h, offset, bytes, 0, length);
+				return ByteBuffer.wrap(bytes, 0, n);
+			}
+			finally {
+				idle.offer(h);
+			}
+		}
+		catch (final IOException e) {
+			throw new CompletionException(e);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.scijava.io.handle.DataHandle;
+
+/**
+ * Utility methods for reading from a {@link DataHandle} through the
+ * {@link AsyncReadable} interface when it is supported, and with ordinary
+ * blocking reads when it is not.
+ */
+public final class AsyncReads {
+
+	private AsyncReads() {
+		// NB: Prevent instantiation of utility class.
+	}
+
+	/** Gets whether the given handle supports non-blocking reads. */
+	public static boolean isAsync(final DataHandle<?> handle) {
+		return handle instanceof AsyncReadable;
+	}
+
+	/**
+	 * Reads a range of bytes from a handle. If the handle is not
+	 * {@link AsyncReadable}, the range is read before this method returns and
+	 * the handle's position is left unchanged.
+	 *
+	 * @see AsyncReadable#readAsync(long, int)
+	 */
+	public static CompletableFuture<ByteBuffer> readAsync(
+		final DataHandle<?> handle, final long offset, final int length)
+	{
+		if (handle instanceof AsyncReadable) {
+			return ((AsyncReadable) handle).readAsync(offset, length);
+		}
+		final CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
+		try {
+			final byte[] bytes = new byte[length];
+			final int n;
+			synchronized (handle) {
+				final long fp = handle.offset();
+				n = read(handle, offset, bytes, 0, length);
+				handle.seek(fp);
+			}
+			future.complete(ByteBuffer.wrap(bytes, 0, n));
+		}
+		catch (final IOException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * Reads a range of bytes from a handle into an array, waiting for them to
+	 * arrive. The handle is left positioned after the last byte read.
+	 *
+	 * @return The number of bytes read, which is less than {@code length} only
+	 *         if the end of the handle was reached.
+	 */
+	public static int read(final DataHandle<?> handle, final long offset,
+		final byte[] b, final int off, final int length) throws IOException
+	{
+		if (handle instanceof AsyncReadable) {
+			final ByteBuffer bytes = join(((AsyncReadable) handle).readAsync(offset,
+				length));
+			final int n = Math.min(length, bytes.remaining());
+			bytes.get(b, off, n);
+			handle.seek(offset + n);
+			return n;
+		}
+		handle.seek(offset);
+		int total = 0;
+		while (total < length) {
+			final int n = handle.read(b, off + total, length - total);
+			if (n <= 0) break;
+			total += n;
+		}
+		return total;
+	}
+
+	/**
+	 * Waits for a future to complete. {@link IOException}s and unchecked
+	 * exceptions it failed with are rethrown as they are; other failures are
+	 * rethrown as the {@link CompletionException} wrapping them.
+	 */
+	public static <T> T join(final CompletableFuture<T> future)
+		throws IOException
+	{
+		try {
+			return future.join();
+		}
+		catch (final CompletionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) throw (IOException) cause;
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.io;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An {@link AsyncReadable} which coalesces overlapping requests to another
+ * {@link AsyncReadable}. A request for a range lying entirely within a range
+ * that is already in flight is answered from that request instead of being
+ * sent to the source again, so that e.g. several threads asking for the same
+ * tile of a remote image cause only one fetch.
+ */
+public class CoalescingReader implements AsyncReadable {
+
+	// -- Fields --
+
+	private final AsyncReadable source;
+
+	/** Requests sent to the source which have not yet completed. */
+	private final List<Request> inFlight = new ArrayList<>();
+
+	// -- Constructor --
+
+	public CoalescingReader(final AsyncReadable source) {
+		this.source = source;
+	}
+
+	// -- CoalescingReader API methods --
+
+	/** Gets the number of source requests which have not yet completed. */
+	public int getInFlightCount() {
+		synchronized (inFlight) {
+			return inFlight.size();
+		}
+	}
+
+	// -- AsyncReadable API methods --
+
+	@Override
+	public CompletableFuture<ByteBuffer> readAsync(final long offset,
+		final int length)
+	{
+		final Request request;
+		synchronized (inFlight) {
+			for (final Request r : inFlight) {
+				if (r.contains(offset, length)) {
+					return r.future.thenApply(b -> slice(b, (int) (offset - r.offset),
+						length));
+				}
+			}
+			request = new Request(offset, length);
+			inFlight.add(request);
+		}
+		source.readAsync(offset, length).whenComplete((b, t) -> {
+			synchronized (inFlight) {
+				inFlight.remove(request);
+			}
+			if (t == null) request.future.complete(b);
+			else request.future.completeExceptionally(t);
+		});
+		return request.future.thenApply(ByteBuffer::duplicate);
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Gets an independent view of part of a buffer, which may be shorter than
+	 * requested if the buffer ended early.
+	 */
+	private static ByteBuffer slice(final ByteBuffer b, final int start,
+		final int length)
+	{
+		final ByteBuffer view = b.duplicate();
+		final int pos = Math.min(view.limit(), view.position() + start);
+		view.position(pos);
+		view.limit(Math.min(view.limit(), pos + length));
+		return view.slice();
+	}
+
+	// -- Helper classes --
+
+	private static class Request {
+
+		private final long offset;
+		private final int length;
+		private final CompletableFuture<ByteBuffer> future =
+			new CompletableFuture<>();
+
+		private Request(final long offset, final int length) {
+			this.offset = offset;
+			this.length = length;
+		}
+
+		private boolean contains(final long start, final int len) {
+			return start >= offset && start + len <= offset +
+				length;
+		}
+	}
+}
@@ -0,0 +1,432 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.scijava.io.handle.DataHandle;
+
+/**
+ * Streaming (pull) reader for JSON documents in a {@link DataHandle}. Tokens
+ * are read one at a time through a small buffer, so that documents of any size
+ * can be walked without holding them in memory, and unwanted values can be
+ * skipped without being decoded.
+ * <p>
+ * The reader is lenient: commas and colons are treated as separators, so
+ * trailing commas are accepted, and names and values need not be quoted.
+ * </p>
+ */
+public class JSONReader {
+
+	/** Kinds of token returned by {@link #peek()}. */
+	public enum Token {
+			BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, VALUE,
+			END_DOCUMENT
+	}
+
+	// -- Constants --
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	// -- Fields --
+
+	private final DataHandle<?> handle;
+
+	private final byte[] buf = new byte[BUFFER_SIZE];
+
+	/** Position in the handle of the first byte of the buffer. */
+	private long bufOffset;
+
+	private int pos;
+
+	private int limit;
+
+	/** Open scopes; true for objects, false for arrays. */
+	private boolean[] scopes = new boolean[32];
+
+	private int depth;
+
+	/** Whether the next token in the current object is a name. */
+	private boolean expectName;
+
+	/** Scratch space for decoding strings. */
+	private byte[] chars = new byte[256];
+
+	// -- Constructor --
+
+	/** Creates a reader starting at the handle's current position. */
+	public JSONReader(final DataHandle<?> handle) throws IOException {
+		this.handle = handle;
+		bufOffset = handle.offset();
+	}
+
+	// -- JSONReader API methods --
+
+	/** Gets the kind of the next token, without consuming it. */
+	public Token peek() throws IOException {
+		int c;
+		while ((c = current()) >= 0) {
+			if (c > ' ' && c != ',' && c != ':') break;
+			pos++;
+		}
+		switch (c) {
+			case -1:
+				return Token.END_DOCUMENT;
+			case '{':
+				return Token.BEGIN_OBJECT;
+			case '}':
+				return Token.END_OBJECT;
+			case '[':
+				return Token.BEGIN_ARRAY;
+			case ']':
+				return Token.END_ARRAY;
+			default:
+				return expectName ? Token.NAME : Token.VALUE;
+		}
+	}
+
+	/**
+	 * Gets the position in the handle of the next token. Passing it to
+	 * {@link #seek} later resumes reading at that token.
+	 */
+	public long offset() throws IOException {
+		peek();
+		return bufOffset + pos;
+	}
+
+	/**
+	 * Moves to the given position in the handle, which will be read as the
+	 * start of a new document.
+	 */
+	public void seek(final long offset) {
+		bufOffset = offset;
+		pos = limit = 0;
+		depth = 0;
+		expectName = false;
+	}
+
+	/** @return True iff the current object or array has more elements. */
+	public boolean hasNext() throws IOException {
+		final Token t = peek();
+		return t != Token.END_OBJECT && t != Token.END_ARRAY &&
+			t != Token.END_DOCUMENT;
+	}
+
+	public void beginObject() throws IOException {
+		expect(Token.BEGIN_OBJECT);
+		push(true);
+	}
+
+	public void endObject() throws IOException {
+		expect(Token.END_OBJECT);
+		pop();
+	}
+
+	public void beginArray() throws IOException {
+		expect(Token.BEGIN_ARRAY);
+		push(false);
+	}
+
+	public void endArray() throws IOException {
+		expect(Token.END_ARRAY);
+		pop();
+	}
+
+	/** Reads the name of the next member of the current object. */
+	public String nextName() throws IOException {
+		if (peek() != Token.NAME) throw error("Expected a name");
+		final String name = readText();
+		expectName = false;
+		return name;
+	}
+
+	/**
+	 * Reads a string, number, boolean or null value as its text.
+	 *
+	 * @return The value, unquoted and unescaped, or null for a JSON null.
+	 */
+	public String nextValue() throws IOException {
+		if (peek() != Token.VALUE) throw error("Expected a value");
+		final boolean quoted = current() == '"';
+		final String value = readText();
+		endValue();
+		return !quoted && value.equals("null") ? null : value;
+	}
+
+	/**
+	 * Skips the next value, including any nested objects and arrays, without
+	 * decoding it. If the next token is a name, the name and its value are
+	 * skipped.
+	 */
+	public void skipValue() throws IOException {
+		Token t = peek();
+		if (t == Token.NAME) {
+			skipText();
+			expectName = false;
+			t = peek();
+		}
+		switch (t) {
+			case BEGIN_OBJECT:
+			case BEGIN_ARRAY:
+				final int start = depth;
+				do {
+					switch (peek()) {
+						case BEGIN_OBJECT:
+							beginObject();
+							break;
+						case BEGIN_ARRAY:
+							beginArray();
+							break;
+						case END_OBJECT:
+							endObject();
+							break;
+						case END_ARRAY:
+							endArray();
+							break;
+						case NAME:
+							skipText();
+							expectName = false;
+							break;
+						case VALUE:
+							skipText();
+							endValue();
+							break;
+						default:
+							throw error("Unexpected end of document");
+					}
+				}
+				while (depth > start);
+				break;
+			case VALUE:
+				skipText();
+				endValue();
+				break;
+			default:
+				throw error("Expected a value");
+		}
+	}
+
+	/**
+	 * Reads the next object, storing its members under their names. Members of
+	 * nested objects are stored under their own names, and arrays as their
+	 * elements' text joined by commas.
+	 */
+	public void readFlat(final Map<String, String> members) throws IOException {
+		beginObject();
+		while (hasNext()) {
+			final String name = nextName();
+			switch (peek()) {
+				case BEGIN_OBJECT:
+					readFlat(members);
+					break;
+				case BEGIN_ARRAY:
+					members.put(name, readJoined());
+					break;
+				default:
+					members.put(name, nextValue());
+			}
+		}
+		endObject();
+	}
+
+	/**
+	 * Reads the next array as its elements' text joined by commas. Nested
+	 * objects and arrays are skipped.
+	 */
+	public String readJoined() throws IOException {
+		final StringBuilder sb = new StringBuilder();
+		beginArray();
+		while (hasNext()) {
+			if (peek() != Token.VALUE) {
+				skipValue();
+				continue;
+			}
+			if (sb.length() > 0) sb.append(",");
+			sb.append(nextValue());
+		}
+		endArray();
+		return sb.toString();
+	}
+
+	// -- Helper methods --
+
+	/** Gets the byte at the current position, or -1 at the end of the data. */
+	private int current() throws IOException {
+		if (pos >= limit) {
+			bufOffset += limit;
+			pos = limit = 0;
+			handle.seek(bufOffset);
+			final int n = handle.read(buf, 0, buf.length);
+			if (n <= 0) return -1;
+			limit = n;
+		}
+		return buf[pos] & 0xff;
+	}
+
+	private void expect(final Token token) throws IOException {
+		if (peek() != token) throw error("Expected " + token);
+		pos++;
+	}
+
+	private void push(final boolean object) {
+		if (depth == scopes.length) scopes = Arrays.copyOf(scopes, depth * 2);
+		scopes[depth++] = object;
+		expectName = object;
+	}
+
+	private void pop() {
+		if (depth > 0) depth--;
+		endValue();
+	}
+
+	/** Updates the state after a complete value has been read. */
+	private void endValue() {
+		expectName = depth > 0 && scopes[depth - 1];
+	}
+
+	/** Reads a quoted string, or an unquoted literal. */
+	private String readText() throws IOException {
+		int len = 0;
+		if (current() == '"') {
+			pos++;
+			// an escaped high surrogate, awaiting its low surrogate
+			char high = 0;
+			int c;
+			while ((c = current()) != '"') {
+				if (c < 0) throw error("Unterminated string");
+				pos++;
+				if (c == '\\') {
+					c = current();
+					pos++;
+					switch (c) {
+						case 'b':
+							c = '\b';
+							break;
+						case 'f':
+							c = '\f';
+							break;
+						case 'n':
+							c = '\n';
+							break;
+						case 'r':
+							c = '\r';
+							break;
+						case 't':
+							c = '\t';
+							break;
+						case 'u':
+							final char u = readHex();
+							if (high != 0 && Character.isLowSurrogate(u)) {
+								len = appendUTF8(len, new String(new char[] { high, u }));
+								high = 0;
+								continue;
+							}
+							if (high != 0) len = appendUTF8(len, String.valueOf(high));
+							high = Character.isHighSurrogate(u) ? u : 0;
+							if (high == 0) len = appendUTF8(len, String.valueOf(u));
+							continue;
+						default:
+							// NB: \" \\ and \/ stand for themselves.
+					}
+				}
+				if (high != 0) {
+					len = appendUTF8(len, String.valueOf(high));
+					high = 0;
+				}
+				len = append(len, c);
+			}
+			if (high != 0) len = appendUTF8(len, String.valueOf(high));
+			pos++;
+		}
+		else {
+			int c;
+			while ((c = current()) > ' ' && !isDelimiter(c)) {
+				len = append(len, c);
+				pos++;
+			}
+		}
+		return new String(chars, 0, len, StandardCharsets.UTF_8);
+	}
+
+	/** Skips a quoted string, or an unquoted literal. */
+	private void skipText() throws IOException {
+		int c;
+		if (current() == '"') {
+			pos++;
+			while ((c = current()) != '"') {
+				if (c < 0) throw error("Unterminated string");
+				pos++;
+				if (c == '\\' && current() >= 0) pos++;
+			}
+			pos++;
+		}
+		else {
+			while ((c = current()) > ' ' && !isDelimiter(c)) {
+				pos++;
+			}
+		}
+	}
+
+	private int append(final int len, final int c) {
+		if (len == chars.length) chars = Arrays.copyOf(chars, len * 2);
+		chars[len] = (byte) c;
+		return len + 1;
+	}
+
+	/** Appends the UTF-8 encoding of the given characters. */
+	private int appendUTF8(int len, final String s) {
+		for (final byte b : s.getBytes(StandardCharsets.UTF_8)) {
+			len = append(len, b);
+		}
+		return len;
+	}
+
+	/** Reads the four hex digits of a Unicode escape. */
+	private char readHex() throws IOException {
+		final char[] hex = new char[4];
+		for (int i = 0; i < 4; i++) {
+			hex[i] = (char) current();
+			pos++;
+		}
+		return (char) Integer.parseInt(new String(hex), 16);
+	}
+
+	private static boolean isDelimiter(final int c) {
+		return c == ',' || c == ':' || c == '{' || c == '}' || c == '[' ||
+			c == ']';
+	}
+
+	private IOException error(final String message) {
+		return new IOException(message + " at offset " + (bufOffset + pos));
+	}
+}
@@ -0,0 +1,315 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.scijava.io.handle.DataHandle;
+
+/**
+ * A batch of byte ranges to be read from a {@link DataHandle}. Ranges are
+ * sorted, and ranges separated by no more than a gap threshold are merged
+ * into a single read, so that e.g. the rows of a small region of a wide image
+ * cost a few large reads rather than one small read each.
+ * <p>
+ * Usage:
+ * </p>
+ *
+ * <pre>
+ * VectoredRead reads = new VectoredRead();
+ * for (int row = 0; row &lt; h; row++) {
+ * 	reads.add(base + (y + row) * rowLen + x, buf, row * w, w);
+ * }
+ * reads.read(handle);
+ * </pre>
+ */
+public class VectoredRead {
+
+	/** Default largest gap, in bytes, read through to merge two ranges. */
+	public static final int DEFAULT_MAX_GAP = 64 * 1024;
+
+	/** Default largest number of bytes fetched by one merged read. */
+	public static final int DEFAULT_MAX_CHUNK = 16 * 1024 * 1024;
+
+	// -- Fields --
+
+	private final int maxGap;
+
+	private final int maxChunk;
+
+	private final List<Range> ranges = new ArrayList<>();
+
+	private int chunkCount;
+
+	private int seekCount;
+
+	// -- Constructors --
+
+	public VectoredRead() {
+		this(DEFAULT_MAX_GAP, DEFAULT_MAX_CHUNK);
+	}
+
+	/**
+	 * @param maxGap Largest number of unrequested bytes that may be read to
+	 *          merge two neighbouring ranges.
+	 * @param maxChunk Largest size of a merged read. Single ranges larger than
+	 *          this are still read whole.
+	 */
+	public VectoredRead(final int maxGap, final int maxChunk) {
+		this.maxGap = maxGap;
+		this.maxChunk = maxChunk;
+	}
+
+	// -- VectoredRead API methods --
+
+	/**
+	 * Adds a range to the batch.
+	 *
+	 * @param offset Position in the handle of the first byte of the range.
+	 * @param dest Array receiving the range's bytes.
+	 * @param destOffset Position in {@code dest} of the range's first byte.
+	 * @param length Number of bytes in the range.
+	 * @return This batch, for chaining.
+	 */
+	public VectoredRead add(final long offset, final byte[] dest,
+		final int destOffset, final int length)
+	{
+		if (length > 0) ranges.add(new Range(offset, dest, destOffset, length));
+		return this;
+	}
+
+	/** Gets the number of ranges in the batch. */
+	public int getRangeCount() {
+		return ranges.size();
+	}
+
+	/** Gets the number of reads issued by the last call to {@link #read}. */
+	public int getChunkCount() {
+		return chunkCount;
+	}
+
+	/**
+	 * Gets the number of reads of the last call to {@link #read} which did not
+	 * start where the handle was already positioned.
+	 */
+	public int getSeekCount() {
+		return seekCount;
+	}
+
+	/**
+	 * Reads all ranges of the batch, then clears it. On an
+	 * {@link AsyncReadable} handle, the merged reads are all requested at once
+	 * (see {@link #readAsync}); other handles are read one merged range at a
+	 * time. The handle is left positioned after the last byte read.
+	 *
+	 * @return The number of requested bytes delivered, which is less than the
+	 *         total length of the ranges only if the end of the handle was
+	 *         reached.
+	 */
+	public long read(final DataHandle<?> handle) throws IOException {
+		if (AsyncReads.isAsync(handle)) {
+			final long[] result = AsyncReads.join(start(handle));
+			handle.seek(result[1]);
+			return result[0];
+		}
+		ranges.sort(Comparator.comparingLong(r -> r.offset));
+		chunkCount = 0;
+		seekCount = 0;
+		long position = handle.offset();
+		long delivered = 0;
+		int first = 0;
+		while (first < ranges.size()) {
+			final int last = lastMerged(first);
+			final long start = ranges.get(first).offset;
+			chunkCount++;
+			if (start != position) seekCount++;
+			if (last == first + 1) {
+				final Range r = ranges.get(first);
+				final int n = AsyncReads.read(handle, r.offset, r.dest, r.destOffset,
+					r.length);
+				delivered += n;
+				position = start + Math.max(0, n);
+			}
+			else {
+				final byte[] chunk = new byte[(int) (end(first, last) - start)];
+				final int n = AsyncReads.read(handle, start, chunk, 0, chunk.length);
+				position = start + Math.max(0, n);
+				delivered += copy(ByteBuffer.wrap(chunk, 0, Math.max(0, n)), start,
+					ranges.subList(first, last));
+			}
+			first = last;
+		}
+		ranges.clear();
+		return delivered;
+	}
+
+	/**
+	 * Requests all ranges of the batch, then clears it. Each merged range is
+	 * requested through {@link AsyncReads#readAsync}, so that on an
+	 * {@link AsyncReadable} handle they are all in flight at once; other
+	 * handles are read before this method returns. The handle's position is
+	 * not changed.
+	 *
+	 * @return A future completing with the number of requested bytes delivered
+	 *         once every range has been copied into place.
+	 */
+	public CompletableFuture<Long> readAsync(final DataHandle<?> handle)
+		throws IOException
+	{
+		return start(handle).thenApply(result -> result[0]);
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Requests each merged range of the batch, and clears it.
+	 *
+	 * @return A future completing with the number of requested bytes delivered,
+	 *         and the position after the last byte read.
+	 */
+	private CompletableFuture<long[]> start(final DataHandle<?> handle)
+		throws IOException
+	{
+		ranges.sort(Comparator.comparingLong(r -> r.offset));
+		chunkCount = 0;
+		seekCount = 0;
+		long position = handle.offset();
+		final List<CompletableFuture<Long>> chunks = new ArrayList<>();
+		long lastStart = position;
+		CompletableFuture<ByteBuffer> lastChunk = CompletableFuture
+			.completedFuture(ByteBuffer.allocate(0));
+		int first = 0;
+		while (first < ranges.size()) {
+			final int last = lastMerged(first);
+			final long start = ranges.get(first).offset;
+			final long end = end(first, last);
+			chunkCount++;
+			if (start != position) seekCount++;
+			position = end;
+
+			final List<Range> group = new ArrayList<>(ranges.subList(first, last));
+			lastStart = start;
+			lastChunk = AsyncReads.readAsync(handle, start, (int) (end - start));
+			chunks.add(lastChunk.thenApply(b -> copy(b, start, group)));
+			first = last;
+		}
+		ranges.clear();
+
+		final long endStart = lastStart;
+		final CompletableFuture<ByteBuffer> endChunk = lastChunk;
+		return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0]))
+			.thenApply(v -> {
+				long delivered = 0;
+				for (final CompletableFuture<Long> chunk : chunks) {
+					delivered += chunk.join();
+				}
+				return new long[] { delivered, endStart + endChunk.join()
+					.remaining() };
+			});
+	}
+
+	/**
+	 * Gets the index after the last range that is merged into one read with the
+	 * given first range.
+	 */
+	private int lastMerged(final int first) {
+		final long start = ranges.get(first).offset;
+		long end = ranges.get(first).end();
+		int last = first + 1;
+		while (last < ranges.size()) {
+			final Range next = ranges.get(last);
+			final long nextEnd = Math.max(end, next.end());
+			if (next.offset - end > maxGap || nextEnd - start > maxChunk) break;
+			end = nextEnd;
+			last++;
+		}
+		return last;
+	}
+
+	/** Gets the end of the merged read of the given ranges. */
+	private long end(final int first, final int last) {
+		long end = 0;
+		for (int i = first; i < last; i++) {
+			end = Math.max(end, ranges.get(i).end());
+		}
+		return end;
+	}
+
+	/**
+	 * Copies the bytes of a merged read into its ranges.
+	 *
+	 * @return The number of requested bytes delivered.
+	 */
+	private static long copy(final ByteBuffer chunk, final long start,
+		final List<Range> group)
+	{
+		final int n = chunk.remaining();
+		long delivered = 0;
+		for (final Range r : group) {
+			final int from = (int) (r.offset - start);
+			final int len = Math.max(0, Math.min(r.length, n - from));
+			if (len > 0) {
+				final ByteBuffer src = chunk.duplicate();
+				src.position(src.position() + from);
+				src.get(r.dest, r.destOffset, len);
+			}
+			delivered += len;
+		}
+		return delivered;
+	}
+
+	// -- Helper classes --
+
+	private static class Range {
+
+		private final long offset;
+		private final byte[] dest;
+		private final int destOffset;
+		private final int length;
+
+		private Range(final long offset, final byte[] dest, final int destOffset,
+			final int length)
+		{
+			this.offset = offset;
+			this.dest = dest;
+			this.destOffset = destOffset;
+			this.length = length;
+		}
+
+		private long end() {
+			return offset + length;
+		}
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.scijava.log.LogService;
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+import org.scijava.service.AbstractService;
+import org.scijava.service.Service;
+
+/**
+ * Default {@link MetricsService} implementation.
+ * <p>
+ * Metrics can be switched on without code changes by setting the
+ * {@code scifio.metrics} system property to {@code true}; the
+ * {@code scifio.metrics.logInterval} property sets the logging interval in
+ * milliseconds. Periodic logging piggybacks on recording, so no background
+ * thread is needed.
+ * </p>
+ */
+@Plugin(type = Service.class)
+public class DefaultMetricsService extends AbstractService implements
+	MetricsService
+{
+
+	// -- Parameters --
+
+	@Parameter
+	private LogService log;
+
+	// -- Fields --
+
+	private volatile boolean enabled;
+
+	private volatile long logInterval;
+
+	private final AtomicLong lastLog = new AtomicLong();
+
+	private final ConcurrentMap<String, ConcurrentMap<String, AtomicLong>> counters =
+		new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, ConcurrentMap<String, Histogram>> histograms =
+		new ConcurrentHashMap<>();
+
+	// -- MetricsService API --
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void setEnabled(final boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	@Override
+	public void count(final String metric, final String key, final long delta) {
+		if (!enabled) return;
+		counter(metric, key).addAndGet(delta);
+		maybeLog();
+	}
+
+	@Override
+	public void record(final String metric, final String key, final long value) {
+		if (!enabled) return;
+		histogram(metric, key).record(value);
+		maybeLog();
+	}
+
+	@Override
+	public long getCount(final String metric, final String key) {
+		final Map<String, AtomicLong> values = counters.get(metric);
+		if (values == null) return 0;
+		final AtomicLong value = values.get(key);
+		return value == null ? 0 : value.get();
+	}
+
+	@Override
+	public MetricsSnapshot snapshot() {
+		final Map<String, Map<String, Long>> counts = new HashMap<>();
+		for (final Entry<String, ConcurrentMap<String, AtomicLong>> metric : counters
+			.entrySet())
+		{
+			final Map<String, Long> values = new HashMap<>();
+			for (final Entry<String, AtomicLong> entry : metric.getValue()
+				.entrySet())
+			{
+				values.put(entry.getKey(), entry.getValue().get());
+			}
+			counts.put(metric.getKey(), values);
+		}
+
+		final Map<String, Map<String, Histogram>> hists = new HashMap<>();
+		for (final Entry<String, ConcurrentMap<String, Histogram>> metric : histograms
+			.entrySet())
+		{
+			final Map<String, Histogram> values = new HashMap<>();
+			for (final Entry<String, Histogram> entry : metric.getValue()
+				.entrySet())
+			{
+				values.put(entry.getKey(), entry.getValue().copy());
+			}
+			hists.put(metric.getKey(), values);
+		}
+
+		return new MetricsSnapshot(System.currentTimeMillis(), counts, hists);
+	}
+
+	@Override
+	public void reset() {
+		counters.clear();
+		histograms.clear();
+	}
+
+	@Override
+	public void setLogInterval(final long millis) {
+		logInterval = millis;
+		lastLog.set(System.currentTimeMillis());
+	}
+
+	@Override
+	public long getLogInterval() {
+		return logInterval;
+	}
+
+	// -- Service API --
+
+	@Override
+	public void initialize() {
+		enabled = Boolean.getBoolean("scifio.metrics");
+		setLogInterval(Long.getLong("scifio.metrics.logInterval", 0));
+	}
+
+	// -- Helper methods --
+
+	private AtomicLong counter(final String metric, final String key) {
+		ConcurrentMap<String, AtomicLong> values = counters.get(metric);
+		if (values == null) {
+			values = counters.computeIfAbsent(metric,
+				k -> new ConcurrentHashMap<>());
+		}
+		AtomicLong value = values.get(key);
+		if (value == null) {
+			value = values.computeIfAbsent(key, k -> new AtomicLong());
+		}
+		return value;
+	}
+
+	private Histogram histogram(final String metric, final String key) {
+		ConcurrentMap<String, Histogram> values = histograms.get(metric);
+		if (values == null) {
+			values = histograms.computeIfAbsent(metric,
+				k -> new ConcurrentHashMap<>());
+		}
+		Histogram value = values.get(key);
+		if (value == null) {
+			value = values.computeIfAbsent(key, k -> new Histogram());
+		}
+		return value;
+	}
+
+	/** Logs a snapshot if the logging interval has elapsed. */
+	private void maybeLog() {
+		final long interval = logInterval;
+		if (interval <= 0) return;
+		final long now = System.currentTimeMillis();
+		final long last = lastLog.get();
+		if (now - last >= interval && lastLog.compareAndSet(last, now)) {
+			log.info(snapshot());
+		}
+	}
+}
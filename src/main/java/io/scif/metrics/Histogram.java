@@ -0,0 +1,159 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe histogram of non-negative {@code long} values, typically
+ * durations in nanoseconds.
+ * <p>
+ * Values are binned in power-of-two buckets, so recording is a handful of
+ * atomic increments and never allocates. Percentiles are therefore only
+ * accurate to within a factor of two, which is sufficient to spot where time
+ * goes during a read.
+ * </p>
+ *
+ * @see MetricsService
+ */
+public class Histogram {
+
+	// -- Constants --
+
+	private static final int BUCKETS = 64;
+
+	// -- Fields --
+
+	/** Bucket {@code i} counts values in {@code [2^(i-1), 2^i)}. */
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+	private final AtomicLong count = new AtomicLong();
+
+	private final AtomicLong total = new AtomicLong();
+
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+	private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+	// -- Histogram methods --
+
+	/** Adds the given value to this histogram. Negative values count as 0. */
+	public void record(long value) {
+		if (value < 0) value = 0;
+		buckets.incrementAndGet(bucket(value));
+		count.incrementAndGet();
+		total.addAndGet(value);
+
+		long current = min.get();
+		while (value < current && !min.compareAndSet(current, value)) {
+			current = min.get();
+		}
+		current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	/** Gets the number of recorded values. */
+	public long getCount() {
+		return count.get();
+	}
+
+	/** Gets the sum of all recorded values. */
+	public long getTotal() {
+		return total.get();
+	}
+
+	/** Gets the smallest recorded value, or 0 if nothing was recorded. */
+	public long getMin() {
+		return getCount() == 0 ? 0 : min.get();
+	}
+
+	/** Gets the largest recorded value, or 0 if nothing was recorded. */
+	public long getMax() {
+		return getCount() == 0 ? 0 : max.get();
+	}
+
+	/** Gets the mean of all recorded values, or 0 if nothing was recorded. */
+	public double getMean() {
+		final long n = getCount();
+		return n == 0 ? 0 : (double) getTotal() / n;
+	}
+
+	/**
+	 * Gets an upper bound for the given quantile of the recorded values.
+	 *
+	 * @param quantile Quantile in the range [0, 1], e.g. 0.99.
+	 * @return The upper edge of the bucket containing the quantile, clamped to
+	 *         the largest recorded value.
+	 */
+	public long getPercentile(final double quantile) {
+		final long n = getCount();
+		if (n == 0) return 0;
+		final long rank = Math.max(1, (long) Math.ceil(quantile * n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets.get(i);
+			if (seen >= rank) {
+				return i == 0 ? 0 : Math.min(getMax(), (1L << i) - 1);
+			}
+		}
+		return getMax();
+	}
+
+	/** Creates a detached copy of the current state of this histogram. */
+	public Histogram copy() {
+		final Histogram copy = new Histogram();
+		for (int i = 0; i < BUCKETS; i++) {
+			copy.buckets.set(i, buckets.get(i));
+		}
+		copy.count.set(count.get());
+		copy.total.set(total.get());
+		copy.min.set(min.get());
+		copy.max.set(max.get());
+		return copy;
+	}
+
+	// -- Object methods --
+
+	@Override
+	public String toString() {
+		return "count=" + getCount() + ", total=" + getTotal() + ", mean=" +
+			Math.round(getMean()) + ", p50=" + getPercentile(0.5) + ", p99=" +
+			getPercentile(0.99) + ", max=" + getMax();
+	}
+
+	// -- Helper methods --
+
+	private static int bucket(final long value) {
+		return BUCKETS - Long.numberOfLeadingZeros(value);
+	}
+}
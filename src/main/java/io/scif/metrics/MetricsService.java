@@ -0,0 +1,121 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.metrics;
+
+import io.scif.SCIFIOService;
+
+/**
+ * Interface for services which gather I/O and decoding metrics.
+ * <p>
+ * Counters and timing histograms are identified by a metric name (see the
+ * constants of this interface) and a key naming the reader, format or codec
+ * the value belongs to. Recording is cheap and never blocks, and is a no-op
+ * while the service is disabled, which is the default.
+ * </p>
+ *
+ * @see MetricsSnapshot
+ */
+public interface MetricsService extends SCIFIOService {
+
+	// -- Counter metrics --
+
+	/** Number of bytes read from a data handle. */
+	String BYTES_READ = "bytesRead";
+
+	/** Number of times a data handle was moved away from its current offset. */
+	String SEEKS = "seeks";
+
+	/** Number of data handles opened. */
+	String HANDLE_OPENS = "handleOpens";
+
+	/** Number of planes opened. */
+	String PLANES_OPENED = "planesOpened";
+
+	/** Number of requests served from a cache. */
+	String CACHE_HITS = "cacheHits";
+
+	/** Number of requests which could not be served from a cache. */
+	String CACHE_MISSES = "cacheMisses";
+
+	// -- Histogram metrics --
+
+	/** Nanoseconds spent decompressing data. */
+	String DECODE_TIME = "decodeNanos";
+
+	/** Nanoseconds spent opening a plane. */
+	String OPEN_TIME = "openNanos";
+
+	/** Nanoseconds spent converting a plane into an image. */
+	String CONVERT_TIME = "convertNanos";
+
+	// -- MetricsService methods --
+
+	/** Gets whether metrics are currently being recorded. */
+	boolean isEnabled();
+
+	/** Sets whether metrics are recorded. */
+	void setEnabled(boolean enabled);
+
+	/**
+	 * Adds the given amount to a counter.
+	 *
+	 * @param metric Name of the counter, e.g. {@link #BYTES_READ}.
+	 * @param key Name of the reader, format or codec being measured.
+	 * @param delta Amount to add.
+	 */
+	void count(String metric, String key, long delta);
+
+	/**
+	 * Records a value, typically a duration in nanoseconds, in a histogram.
+	 *
+	 * @param metric Name of the histogram, e.g. {@link #DECODE_TIME}.
+	 * @param key Name of the reader, format or codec being measured.
+	 * @param value Value to record.
+	 */
+	void record(String metric, String key, long value);
+
+	/** Gets the current value of a counter. */
+	long getCount(String metric, String key);
+
+	/** Takes a snapshot of all counters and histograms. */
+	MetricsSnapshot snapshot();
+
+	/** Clears all counters and histograms. */
+	void reset();
+
+	/**
+	 * Sets the interval, in milliseconds, at which a snapshot is logged while
+	 * metrics are being recorded. A value of 0 or less disables logging.
+	 */
+	void setLogInterval(long millis);
+
+	/** Gets the snapshot logging interval, in milliseconds. */
+	long getLogInterval();
+}
@@ -0,0 +1,149 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * An immutable point-in-time copy of the metrics gathered by a
+ * {@link MetricsService}.
+ * <p>
+ * Counters and histograms are both organized as {@code metric -> key -> value}
+ * maps, where the metric is one of the {@link MetricsService} constants and the
+ * key identifies the reader, format or codec it was recorded for.
+ * </p>
+ */
+public class MetricsSnapshot {
+
+	// -- Fields --
+
+	private final long timestamp;
+
+	private final Map<String, Map<String, Long>> counters;
+
+	private final Map<String, Map<String, Histogram>> histograms;
+
+	// -- Constructor --
+
+	public MetricsSnapshot(final long timestamp,
+		final Map<String, Map<String, Long>> counters,
+		final Map<String, Map<String, Histogram>> histograms)
+	{
+		this.timestamp = timestamp;
+		this.counters = Collections.unmodifiableMap(counters);
+		this.histograms = Collections.unmodifiableMap(histograms);
+	}
+
+	// -- MetricsSnapshot methods --
+
+	/** Gets the time, in milliseconds since the epoch, of this snapshot. */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/** Gets all counters, as a {@code metric -> key -> count} map. */
+	public Map<String, Map<String, Long>> getCounters() {
+		return counters;
+	}
+
+	/** Gets all histograms, as a {@code metric -> key -> histogram} map. */
+	public Map<String, Map<String, Histogram>> getHistograms() {
+		return histograms;
+	}
+
+	/**
+	 * Gets a single counter value.
+	 *
+	 * @return The count, or 0 if nothing was recorded for the metric and key.
+	 */
+	public long getCount(final String metric, final String key) {
+		final Map<String, Long> values = counters.get(metric);
+		if (values == null) return 0;
+		final Long value = values.get(key);
+		return value == null ? 0 : value;
+	}
+
+	/**
+	 * Gets the sum of a counter over all keys.
+	 *
+	 * @return The total count, or 0 if nothing was recorded for the metric.
+	 */
+	public long getTotal(final String metric) {
+		final Map<String, Long> values = counters.get(metric);
+		if (values == null) return 0;
+		long total = 0;
+		for (final Long value : values.values()) {
+			total += value;
+		}
+		return total;
+	}
+
+	/**
+	 * Gets a single histogram.
+	 *
+	 * @return The histogram, or null if nothing was recorded for the metric and
+	 *         key.
+	 */
+	public Histogram getHistogram(final String metric, final String key) {
+		final Map<String, Histogram> values = histograms.get(metric);
+		return values == null ? null : values.get(key);
+	}
+
+	// -- Object methods --
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("SCIFIO metrics:");
+		for (final Entry<String, Map<String, Long>> metric : new TreeMap<>(
+			counters).entrySet())
+		{
+			for (final Entry<String, Long> entry : new TreeMap<>(metric.getValue())
+				.entrySet())
+			{
+				sb.append("\n  ").append(metric.getKey()).append("[").append(entry
+					.getKey()).append("] = ").append(entry.getValue());
+			}
+		}
+		for (final Entry<String, Map<String, Histogram>> metric : new TreeMap<>(
+			histograms).entrySet())
+		{
+			for (final Entry<String, Histogram> entry : new TreeMap<>(metric
+				.getValue()).entrySet())
+			{
+				sb.append("\n  ").append(metric.getKey()).append("[").append(entry
+					.getKey()).append("]: ").append(entry.getValue());
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A byte-bounded pool of {@code byte[]} buffers, keyed by exact length. Planes
+ * draw their buffers from the pool and give them back when closed, so that
+ * consumers reading many equally-sized planes in a loop reuse the same few
+ * arrays instead of allocating one per plane.
+ * <p>
+ * All methods are synchronized, so a single instance may be shared between
+ * threads. When the pool is full, the size classes used least recently are
+ * dropped first.
+ * </p>
+ *
+ * @see io.scif.ByteArrayPlane#close()
+ */
+public class ByteArrayPool {
+
+	// -- Constants --
+
+	/** Default upper bound on the number of pooled bytes (64 MiB). */
+	public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	private static final ByteArrayPool SHARED = new ByteArrayPool();
+
+	// -- Fields --
+
+	private final LinkedHashMap<Integer, ArrayDeque<byte[]>> classes =
+		new LinkedHashMap<>(16, 0.75f, true);
+
+	private long maxBytes;
+
+	private long usedBytes;
+
+	// -- Constructors --
+
+	public ByteArrayPool() {
+		this(DEFAULT_MAX_BYTES);
+	}
+
+	public ByteArrayPool(final long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	// -- Static methods --
+
+	/** @return The pool used by {@link io.scif.ByteArrayPlane}. */
+	public static ByteArrayPool getShared() {
+		return SHARED;
+	}
+
+	// -- ByteArrayPool API --
+
+	/**
+	 * @return A zero-filled array of the given length, reused from the pool if
+	 *         one is available.
+	 */
+	public byte[] take(final int length) {
+		byte[] array = null;
+		synchronized (this) {
+			final ArrayDeque<byte[]> arrays = classes.get(length);
+			if (arrays != null) {
+				array = arrays.pop();
+				usedBytes -= length;
+				if (arrays.isEmpty()) classes.remove(length);
+			}
+		}
+		if (array == null) return new byte[length];
+		Arrays.fill(array, (byte) 0);
+		return array;
+	}
+
+	/**
+	 * Returns the given array to the pool. The caller must not use the array
+	 * afterwards. Arrays larger than {@link #getMaxBytes()} are dropped.
+	 */
+	public synchronized void give(final byte[] array) {
+		if (array.length == 0 || array.length > maxBytes) return;
+		ArrayDeque<byte[]> arrays = classes.get(array.length);
+		if (arrays == null) {
+			arrays = new ArrayDeque<>();
+			classes.put(array.length, arrays);
+		}
+		arrays.push(array);
+		usedBytes += array.length;
+		evict();
+	}
+
+	/** Removes all pooled arrays. */
+	public synchronized void clear() {
+		classes.clear();
+		usedBytes = 0;
+	}
+
+	/**
+	 * Sets the upper bound on the number of pooled bytes. A bound of 0 disables
+	 * pooling.
+	 */
+	public synchronized void setMaxBytes(final long maxBytes) {
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	/** @return The upper bound on the number of pooled bytes. */
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/** @return The number of bytes currently pooled. */
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	// -- Helper methods --
+
+	private void evict() {
+		final Iterator<Map.Entry<Integer, ArrayDeque<byte[]>>> iter = classes
+			.entrySet().iterator();
+		while (usedBytes > maxBytes && iter.hasNext()) {
+			final Map.Entry<Integer, ArrayDeque<byte[]>> entry = iter.next();
+			final ArrayDeque<byte[]> arrays = entry.getValue();
+			while (usedBytes > maxBytes && !arrays.isEmpty()) {
+				arrays.pop();
+				usedBytes -= entry.getKey();
+			}
+			if (arrays.isEmpty()) iter.remove();
+		}
+	}
+}
@@ -0,0 +1,230 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.util;
+
+import io.scif.FormatException;
+
+import net.imglib2.display.ArrayColorTable;
+import net.imglib2.display.ColorTable;
+
+import org.scijava.util.Bytes;
+
+/**
+ * Expands indexed pixel data through a {@link ColorTable}. The table is
+ * flattened once into primitive per-channel arrays, so that expansion is a
+ * plain array lookup per sample rather than a {@link ColorTable#get} call.
+ * <p>
+ * Instances are immutable and may be shared between threads; the
+ * {@code expand} methods operate on a caller-specified pixel range so that
+ * large planes can be split up between workers.
+ * </p>
+ */
+public class ColorTableLookup {
+
+	// -- Fields --
+
+	private final ColorTable table;
+
+	private final int channels;
+
+	private final int bytesPerSample;
+
+	private final int maxIndex;
+
+	/** Per-channel 8-bit values, when {@code bytesPerSample == 1}. */
+	private final byte[][] bytes;
+
+	/** Per-channel 16-bit values, when {@code bytesPerSample == 2}. */
+	private final short[][] shorts;
+
+	// -- Constructor --
+
+	/**
+	 * @param table Color table to flatten.
+	 * @param channels Number of table components to expand into.
+	 * @param bytesPerSample 1 to expand into 8-bit samples, or 2 to expand into
+	 *          16-bit samples. 16-bit samples use the table's native values for
+	 *          {@link ArrayColorTable}s.
+	 */
+	public ColorTableLookup(final ColorTable table, final int channels,
+		final int bytesPerSample)
+	{
+		if (bytesPerSample != 1 && bytesPerSample != 2) {
+			throw new IllegalArgumentException("Unsupported sample size: " +
+				bytesPerSample);
+		}
+		this.table = table;
+		this.channels = Math.min(channels, table.getComponentCount());
+		this.bytesPerSample = bytesPerSample;
+		final int length = table.getLength();
+		maxIndex = length - 1;
+
+		if (bytesPerSample == 1) {
+			bytes = new byte[this.channels][length];
+			shorts = null;
+			for (int c = 0; c < this.channels; c++) {
+				for (int i = 0; i < length; i++) {
+					bytes[c][i] = (byte) table.get(c, i);
+				}
+			}
+		}
+		else {
+			bytes = null;
+			shorts = new short[this.channels][length];
+			final ArrayColorTable<?> array = table instanceof ArrayColorTable
+				? (ArrayColorTable<?>) table : null;
+			for (int c = 0; c < this.channels; c++) {
+				for (int i = 0; i < length; i++) {
+					shorts[c][i] = (short) (array == null ? table.get(c, i) : array
+						.getNative(c, i));
+				}
+			}
+		}
+	}
+
+	// -- ColorTableLookup API --
+
+	/**
+	 * @return true if this lookup was built from the given table, and can be
+	 *         reused for it.
+	 */
+	public boolean isFor(final ColorTable t, final int c, final int bps) {
+		return t == table && Math.min(c, t.getComponentCount()) == channels &&
+			bps == bytesPerSample;
+	}
+
+	/** @return Number of channels each index expands to. */
+	public int getChannelCount() {
+		return channels;
+	}
+
+	/** @return Number of bytes written per expanded sample. */
+	public int getBytesPerSample() {
+		return bytesPerSample;
+	}
+
+	/**
+	 * Expands the indices of pixels {@code [start, end)} into {@code dest}.
+	 *
+	 * @param index Packed index values, {@code bytesPerIndex} bytes each.
+	 * @param bytesPerIndex 1 or 2.
+	 * @param indexLittle Byte order of 2-byte indices.
+	 * @param dest Expanded output, {@code channels * bytesPerSample} bytes per
+	 *          pixel.
+	 * @param destLittle Byte order of 2-byte output samples.
+	 * @param interleaved If true, channels are interleaved in {@code dest};
+	 *          otherwise each channel is a contiguous block of
+	 *          {@code pixelCount} samples.
+	 * @param pixelCount Total number of pixels in the plane.
+	 * @throws FormatException if an index is past the end of the table.
+	 */
+	public void expand(final byte[] index, final int bytesPerIndex,
+		final boolean indexLittle, final byte[] dest, final boolean destLittle,
+		final boolean interleaved, final int pixelCount, final int start,
+		final int end) throws FormatException
+	{
+		if (bytesPerSample == 1) {
+			if (interleaved) {
+				int pt = start * channels;
+				for (int i = start; i < end; i++) {
+					final int v = index(index, i, bytesPerIndex, indexLittle);
+					for (int c = 0; c < channels; c++) {
+						dest[pt++] = bytes[c][v];
+					}
+				}
+			}
+			else {
+				for (int c = 0; c < channels; c++) {
+					final byte[] values = bytes[c];
+					int pt = c * pixelCount + start;
+					if (bytesPerIndex == 1 && maxIndex >= 255) {
+						for (int i = start; i < end; i++) {
+							dest[pt++] = values[index[i] & 0xff];
+						}
+					}
+					else {
+						for (int i = start; i < end; i++) {
+							dest[pt++] = values[index(index, i, bytesPerIndex,
+								indexLittle)];
+						}
+					}
+				}
+			}
+			return;
+		}
+
+		final int hi = destLittle ? 1 : 0;
+		final int lo = 1 - hi;
+		if (interleaved) {
+			int pt = start * channels * 2;
+			for (int i = start; i < end; i++) {
+				final int v = index(index, i, bytesPerIndex, indexLittle);
+				for (int c = 0; c < channels; c++) {
+					final short s = shorts[c][v];
+					dest[pt + hi] = (byte) (s >> 8);
+					dest[pt + lo] = (byte) s;
+					pt += 2;
+				}
+			}
+		}
+		else {
+			for (int c = 0; c < channels; c++) {
+				final short[] values = shorts[c];
+				int pt = (c * pixelCount + start) * 2;
+				for (int i = start; i < end; i++) {
+					final short s = values[index(index, i, bytesPerIndex,
+						indexLittle)];
+					dest[pt + hi] = (byte) (s >> 8);
+					dest[pt + lo] = (byte) s;
+					pt += 2;
+				}
+			}
+		}
+	}
+
+	// -- Helper methods --
+
+	private int index(final byte[] index, final int i, final int bytesPerIndex,
+		final boolean little) throws FormatException
+	{
+		final int v;
+		if (bytesPerIndex == 1) v = index[i] & 0xff;
+		else if (bytesPerIndex == 2) {
+			final int b0 = index[2 * i] & 0xff, b1 = index[2 * i + 1] & 0xff;
+			v = little ? (b1 << 8) | b0 : (b0 << 8) | b1;
+		}
+		else v = Bytes.toInt(index, i * bytesPerIndex, bytesPerIndex, little);
+		if (v < 0 || v > maxIndex) {
+			throw new FormatException("Color table index " + (v & 0xffffffffL) +
+				" is out of range [0, " + maxIndex + "]");
+		}
+		return v;
+	}
+}
@@ -0,0 +1,410 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Bulk conversion of raw plane bytes into primitive arrays.
+ * <p>
+ * Each {@code convert} method selects a loop specialized for the source pixel
+ * type once, then decodes {@code length} samples through a {@link ByteBuffer}
+ * view in the source byte order. The results match casting
+ * {@link io.scif.img.ImgUtilityService#decodeWord} to the target primitive:
+ * unsigned types are widened before conversion, and values out of range of
+ * {@code int} or {@code long} saturate as in a Java narrowing cast from
+ * {@code double}.
+ * </p>
+ */
+public final class ConversionTools {
+
+	/** Number of samples decoded per pass when narrowing through ints. */
+	private static final int CHUNK = 4096;
+
+	// -- Constructor --
+
+	private ConversionTools() {}
+
+	// -- Conversion methods --
+
+	/**
+	 * Decodes {@code length} samples of the given pixel type into a byte array.
+	 *
+	 * @param src raw plane bytes
+	 * @param srcIndex index of the first sample (in pixels, not bytes)
+	 * @param pixelType source pixel type, as defined in {@link FormatTools}
+	 * @param little true if the source is little-endian
+	 * @param dst destination array
+	 * @param dstIndex index of the first destination element
+	 * @param length number of samples to convert
+	 */
+	public static void convert(final byte[] src, final int srcIndex,
+		final int pixelType, final boolean little, final byte[] dst,
+		final int dstIndex, final int length)
+	{
+		if (pixelType == FormatTools.UINT8 || pixelType == FormatTools.INT8) {
+			System.arraycopy(src, srcIndex, dst, dstIndex, length);
+			return;
+		}
+		final int[] ints = new int[Math.min(length, CHUNK)];
+		for (int i = 0; i < length; i += ints.length) {
+			final int n = Math.min(ints.length, length - i);
+			decodeInts(src, srcIndex + i, pixelType, little, ints, 0, n);
+			for (int k = 0; k < n; k++) {
+				dst[dstIndex + i + k] = (byte) ints[k];
+			}
+		}
+	}
+
+	/**
+	 * Decodes {@code length} samples of the given pixel type into a short
+	 * array.
+	 *
+	 * @see #convert(byte[], int, int, boolean, byte[], int, int)
+	 */
+	public static void convert(final byte[] src, final int srcIndex,
+		final int pixelType, final boolean little, final short[] dst,
+		final int dstIndex, final int length)
+	{
+		if (pixelType == FormatTools.UINT16 || pixelType == FormatTools.INT16) {
+			final ShortBuffer sb = view(src, little).asShortBuffer();
+			sb.position(srcIndex);
+			sb.get(dst, dstIndex, length);
+			return;
+		}
+		final int[] ints = new int[Math.min(length, CHUNK)];
+		for (int i = 0; i < length; i += ints.length) {
+			final int n = Math.min(ints.length, length - i);
+			decodeInts(src, srcIndex + i, pixelType, little, ints, 0, n);
+			for (int k = 0; k < n; k++) {
+				dst[dstIndex + i + k] = (short) ints[k];
+			}
+		}
+	}
+
+	/**
+	 * Decodes {@code length} samples of the given pixel type into a char array.
+	 *
+	 * @see #convert(byte[], int, int, boolean, byte[], int, int)
+	 */
+	public static void convert(final byte[] src, final int srcIndex,
+		final int pixelType, final boolean little, final char[] dst,
+		final int dstIndex, final int length)
+	{
+		if (pixelType == FormatTools.UINT16 || pixelType == FormatTools.INT16) {
+			final CharBuffer cb = view(src, little).asCharBuffer();
+			cb.position(srcIndex);
+			cb.get(dst, dstIndex, length);
+			return;
+		}
+		final int[] ints = new int[Math.min(length, CHUNK)];
+		for (int i = 0; i < length; i += ints.length) {
+			final int n = Math.min(ints.length, length - i);
+			decodeInts(src, srcIndex + i, pixelType, little, ints, 0, n);
+			for (int k = 0; k < n; k++) {
+				dst[dstIndex + i + k] = (char) ints[k];
+			}
+		}
+	}
+
+	/**
+	 * Decodes {@code length} samples of the given pixel type into an int array.
+	 *
+	 * @see #convert(byte[], int, int, boolean, byte[], int, int)
+	 */
+	public static void convert(final byte[] src, final int srcIndex,
+		final int pixelType, final boolean little, final int[] dst,
+		final int dstIndex, final int length)
+	{
+		decodeInts(src, srcIndex, pixelType, little, dst, dstIndex, length);
+	}
+
+	/**
+	 * Decodes {@code length} samples of the given pixel type into a long array.
+	 *
+	 * @see #convert(byte[], int, int, boolean, byte[], int, int)
+	 */
+	public static void convert(final byte[] src, final int srcIndex,
+		final int pixelType, final boolean little, final long[] dst,
+		final int dstIndex, final int length)
+	{
+		switch (pixelType) {
+			case FormatTools.UINT32: {
+				final IntBuffer ib = view(src, little).asIntBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = ib.get(srcIndex + i) & 0xffffffffL;
+				}
+				break;
+			}
+			case FormatTools.FLOAT: {
+				final FloatBuffer fb = view(src, little).asFloatBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = (long) fb.get(srcIndex + i);
+				}
+				break;
+			}
+			case FormatTools.DOUBLE: {
+				final DoubleBuffer db = view(src, little).asDoubleBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = (long) db.get(srcIndex + i);
+				}
+				break;
+			}
+			default: {
+				final int[] ints = new int[Math.min(length, CHUNK)];
+				for (int i = 0; i < length; i += ints.length) {
+					final int n = Math.min(ints.length, length - i);
+					decodeInts(src, srcIndex + i, pixelType, little, ints, 0,
+						n);
+					for (int k = 0; k < n; k++) {
+						dst[dstIndex + i + k] = ints[k];
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Decodes {@code length} samples of the given pixel type into a float
+	 * array.
+	 *
+	 * @see #convert(byte[], int, int, boolean, byte[], int, int)
+	 */
+	public static void convert(final byte[] src, final int srcIndex,
+		final int pixelType, final boolean little, final float[] dst,
+		final int dstIndex, final int length)
+	{
+		switch (pixelType) {
+			case FormatTools.UINT8:
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = src[srcIndex + i] & 0xff;
+				}
+				break;
+			case FormatTools.INT8:
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = src[srcIndex + i];
+				}
+				break;
+			case FormatTools.UINT16: {
+				final ShortBuffer sb = view(src, little).asShortBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = sb.get(srcIndex + i) & 0xffff;
+				}
+				break;
+			}
+			case FormatTools.INT16: {
+				final ShortBuffer sb = view(src, little).asShortBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = sb.get(srcIndex + i);
+				}
+				break;
+			}
+			case FormatTools.UINT32: {
+				final IntBuffer ib = view(src, little).asIntBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = ib.get(srcIndex + i) & 0xffffffffL;
+				}
+				break;
+			}
+			case FormatTools.INT32: {
+				final IntBuffer ib = view(src, little).asIntBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = ib.get(srcIndex + i);
+				}
+				break;
+			}
+			case FormatTools.FLOAT: {
+				final FloatBuffer fb = view(src, little).asFloatBuffer();
+				fb.position(srcIndex);
+				fb.get(dst, dstIndex, length);
+				break;
+			}
+			case FormatTools.DOUBLE: {
+				final DoubleBuffer db = view(src, little).asDoubleBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = (float) db.get(srcIndex + i);
+				}
+				break;
+			}
+			default:
+				throw unknown(pixelType);
+		}
+	}
+
+	/**
+	 * Decodes {@code length} samples of the given pixel type into a double
+	 * array.
+	 *
+	 * @see #convert(byte[], int, int, boolean, byte[], int, int)
+	 */
+	public static void convert(final byte[] src, final int srcIndex,
+		final int pixelType, final boolean little, final double[] dst,
+		final int dstIndex, final int length)
+	{
+		switch (pixelType) {
+			case FormatTools.UINT8:
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = src[srcIndex + i] & 0xff;
+				}
+				break;
+			case FormatTools.INT8:
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = src[srcIndex + i];
+				}
+				break;
+			case FormatTools.UINT16: {
+				final ShortBuffer sb = view(src, little).asShortBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = sb.get(srcIndex + i) & 0xffff;
+				}
+				break;
+			}
+			case FormatTools.INT16: {
+				final ShortBuffer sb = view(src, little).asShortBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = sb.get(srcIndex + i);
+				}
+				break;
+			}
+			case FormatTools.UINT32: {
+				final IntBuffer ib = view(src, little).asIntBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = ib.get(srcIndex + i) & 0xffffffffL;
+				}
+				break;
+			}
+			case FormatTools.INT32: {
+				final IntBuffer ib = view(src, little).asIntBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = ib.get(srcIndex + i);
+				}
+				break;
+			}
+			case FormatTools.FLOAT: {
+				final FloatBuffer fb = view(src, little).asFloatBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = fb.get(srcIndex + i);
+				}
+				break;
+			}
+			case FormatTools.DOUBLE: {
+				final DoubleBuffer db = view(src, little).asDoubleBuffer();
+				db.position(srcIndex);
+				db.get(dst, dstIndex, length);
+				break;
+			}
+			default:
+				throw unknown(pixelType);
+		}
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Decodes samples into ints, saturating unsigned 32-bit and floating point
+	 * values as {@code (int)} of a {@code double} would.
+	 */
+	private static void decodeInts(final byte[] src, final int srcIndex,
+		final int pixelType, final boolean little, final int[] dst,
+		final int dstIndex, final int length)
+	{
+		switch (pixelType) {
+			case FormatTools.UINT8:
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = src[srcIndex + i] & 0xff;
+				}
+				break;
+			case FormatTools.INT8:
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = src[srcIndex + i];
+				}
+				break;
+			case FormatTools.UINT16: {
+				final ShortBuffer sb = view(src, little).asShortBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = sb.get(srcIndex + i) & 0xffff;
+				}
+				break;
+			}
+			case FormatTools.INT16: {
+				final ShortBuffer sb = view(src, little).asShortBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = sb.get(srcIndex + i);
+				}
+				break;
+			}
+			case FormatTools.UINT32: {
+				final IntBuffer ib = view(src, little).asIntBuffer();
+				for (int i = 0; i < length; i++) {
+					final int v = ib.get(srcIndex + i);
+					dst[dstIndex + i] = v < 0 ? Integer.MAX_VALUE : v;
+				}
+				break;
+			}
+			case FormatTools.INT32: {
+				final IntBuffer ib = view(src, little).asIntBuffer();
+				ib.position(srcIndex);
+				ib.get(dst, dstIndex, length);
+				break;
+			}
+			case FormatTools.FLOAT: {
+				final FloatBuffer fb = view(src, little).asFloatBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = (int) fb.get(srcIndex + i);
+				}
+				break;
+			}
+			case FormatTools.DOUBLE: {
+				final DoubleBuffer db = view(src, little).asDoubleBuffer();
+				for (int i = 0; i < length; i++) {
+					dst[dstIndex + i] = (int) db.get(srcIndex + i);
+				}
+				break;
+			}
+			default:
+				throw unknown(pixelType);
+		}
+	}
+
+	private static ByteBuffer view(final byte[] src, final boolean little) {
+		return ByteBuffer.wrap(src).order(little ? ByteOrder.LITTLE_ENDIAN
+			: ByteOrder.BIG_ENDIAN);
+	}
+
+	private static IllegalArgumentException unknown(final int pixelType) {
+		return new IllegalArgumentException("Unknown pixel type: " + pixelType);
+	}
+}
@@ -33,6 +33,7 @@ import io.scif.FormatException;
 import io.scif.ImageMetadata;
 import io.scif.Metadata;
 import io.scif.Plane;
+import io.scif.PlaneLayout;
 import io.scif.Reader;
 import io.scif.Writer;
 import io.scif.config.SCIFIOConfig;
@@ -383,8 +384,9 @@ public final class FormatTools {
 	public static long[] rasterToPosition(final int imageIndex,
 		final long planeIndex, final Metadata m)
 	{
-		final long[] axisLengths = m.get(imageIndex).getAxesLengthsNonPlanar();
-		return rasterToPosition(axisLengths, planeIndex);
+		final PlaneLayout layout = m.get(imageIndex).getLayout();
+		return layout.rasterToPosition(planeIndex, new long[layout
+			.getNonPlanarAxisCount()]);
 	}
 
 	/**
@@ -532,8 +534,7 @@ public final class FormatTools {
 	public static long positionToRaster(final int imageIndex, final Metadata m,
 		final long[] planeIndices)
 	{
-		final long[] planeSizes = m.get(imageIndex).getAxesLengthsNonPlanar();
-		return positionToRaster(planeSizes, planeIndices);
+		return m.get(imageIndex).getLayout().positionToRaster(planeIndices);
 	}
 
 	/**
@@ -0,0 +1,216 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.scijava.io.handle.DataHandle;
+
+/**
+ * A fixed-size sequence of bytes with {@code long} indices, stored off-heap in
+ * direct {@link ByteBuffer} chunks.
+ * <p>
+ * Unlike a {@code byte[]}, a LargeByteBuffer may hold more than
+ * {@link Integer#MAX_VALUE} bytes, and its contents are not scanned or moved by
+ * the garbage collector. Its size is bounded by the JVM's direct memory limit
+ * ({@code -XX:MaxDirectMemorySize}) rather than by the heap.
+ * </p>
+ *
+ * @see io.scif.LargePlane
+ */
+public class LargeByteBuffer {
+
+	// -- Constants --
+
+	/** Default chunk size, as a power of two: 1 GiB. */
+	public static final int DEFAULT_CHUNK_SHIFT = 30;
+
+	/** Largest {@code byte[]} that {@link #toArray()} will create. */
+	public static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+	/** Size of the scratch array used to copy from data handles. */
+	private static final int COPY_SIZE = 64 * 1024;
+
+	// -- Fields --
+
+	private final ByteBuffer[] chunks;
+
+	private final long capacity;
+
+	private final int shift;
+
+	private final long mask;
+
+	// -- Constructors --
+
+	/** Allocates a zero-filled buffer of the given size. */
+	public LargeByteBuffer(final long capacity) {
+		this(capacity, DEFAULT_CHUNK_SHIFT);
+	}
+
+	/**
+	 * Allocates a zero-filled buffer of the given size, split into chunks of
+	 * {@code 1 << chunkShift} bytes.
+	 */
+	public LargeByteBuffer(final long capacity, final int chunkShift) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Negative capacity: " + capacity);
+		}
+		if (chunkShift < 0 || chunkShift > DEFAULT_CHUNK_SHIFT) {
+			throw new IllegalArgumentException("Invalid chunk shift: " +
+				chunkShift);
+		}
+		this.capacity = capacity;
+		shift = chunkShift;
+		mask = (1L << shift) - 1;
+		final long chunkSize = 1L << shift;
+		final int count = (int) ((capacity + chunkSize - 1) >> shift);
+		chunks = new ByteBuffer[count];
+		for (int i = 0; i < count; i++) {
+			final long size = Math.min(chunkSize, capacity - i * chunkSize);
+			chunks[i] = ByteBuffer.allocateDirect((int) size);
+		}
+	}
+
+	// -- LargeByteBuffer methods --
+
+	/** Gets the number of bytes in this buffer. */
+	public long capacity() {
+		return capacity;
+	}
+
+	/** Gets the size of each chunk; the last chunk may be smaller. */
+	public long getChunkSize() {
+		return 1L << shift;
+	}
+
+	/** Gets the number of chunks backing this buffer. */
+	public int getChunkCount() {
+		return chunks.length;
+	}
+
+	/**
+	 * Gets a view of the given chunk, positioned at zero. Changes to the view's
+	 * contents are visible in this buffer.
+	 */
+	public ByteBuffer getChunk(final int chunk) {
+		return chunks[chunk].duplicate();
+	}
+
+	/** Gets the byte at the given index. */
+	public byte get(final long index) {
+		checkRange(index, 1);
+		return chunks[(int) (index >> shift)].get((int) (index & mask));
+	}
+
+	/** Sets the byte at the given index. */
+	public void put(final long index, final byte value) {
+		checkRange(index, 1);
+		chunks[(int) (index >> shift)].put((int) (index & mask), value);
+	}
+
+	/** Copies {@code len} bytes starting at {@code index} into {@code dst}. */
+	public void get(long index, final byte[] dst, int off, int len) {
+		checkRange(index, len);
+		while (len > 0) {
+			final ByteBuffer chunk = chunks[(int) (index >> shift)].duplicate();
+			chunk.position((int) (index & mask));
+			final int n = Math.min(len, chunk.remaining());
+			chunk.get(dst, off, n);
+			index += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	/** Copies {@code len} bytes from {@code src} to {@code index} onwards. */
+	public void put(long index, final byte[] src, int off, int len) {
+		checkRange(index, len);
+		while (len > 0) {
+			final ByteBuffer chunk = chunks[(int) (index >> shift)].duplicate();
+			chunk.position((int) (index & mask));
+			final int n = Math.min(len, chunk.remaining());
+			chunk.put(src, off, n);
+			index += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * Reads up to {@code len} bytes from the handle's current offset into this
+	 * buffer, starting at {@code index}.
+	 *
+	 * @return the number of bytes read, which is less than {@code len} only if
+	 *         the end of the handle was reached
+	 */
+	public long read(final DataHandle<?> in, long index, final long len)
+		throws IOException
+	{
+		checkRange(index, len);
+		final byte[] scratch = new byte[(int) Math.min(len, COPY_SIZE)];
+		long total = 0;
+		while (total < len) {
+			final int n = in.read(scratch, 0, (int) Math.min(len - total,
+				scratch.length));
+			if (n <= 0) break;
+			put(index, scratch, 0, n);
+			index += n;
+			total += n;
+		}
+		return total;
+	}
+
+	/**
+	 * Copies the contents of this buffer into a new {@code byte[]}.
+	 *
+	 * @throws UnsupportedOperationException if the buffer is larger than
+	 *           {@link #MAX_ARRAY_SIZE}
+	 */
+	public byte[] toArray() {
+		if (capacity > MAX_ARRAY_SIZE) {
+			throw new UnsupportedOperationException("Buffer of " + capacity +
+				" bytes does not fit in a byte[]");
+		}
+		final byte[] bytes = new byte[(int) capacity];
+		get(0, bytes, 0, bytes.length);
+		return bytes;
+	}
+
+	// -- Helper methods --
+
+	private void checkRange(final long index, final long len) {
+		if (index < 0 || len < 0 || index + len > capacity) {
+			throw new IndexOutOfBoundsException("index=" + index + ", length=" +
+				len + ", capacity=" + capacity);
+		}
+	}
+}
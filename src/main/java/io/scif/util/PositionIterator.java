@@ -0,0 +1,154 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.util;
+
+/**
+ * Reusable N-dimensional odometer over the positions {@code [0, lengths)},
+ * with the first dimension varying fastest (the order used by
+ * {@link FormatTools#rasterToPosition(long[], long)}).
+ * <p>
+ * The position array is advanced in place and the rasterized index of the
+ * current position is tracked incrementally, so iteration allocates nothing
+ * after construction. Like an ImgLib2 cursor, a new or {@link #reset()}
+ * iterator sits before the first position; call {@link #fwd()} to move onto
+ * it.
+ * </p>
+ */
+public final class PositionIterator {
+
+	// -- Fields --
+
+	private final long[] lengths;
+
+	private final long[] strides;
+
+	private final long[] position;
+
+	private final long size;
+
+	private long index;
+
+	// -- Constructor --
+
+	public PositionIterator(final long... lengths) {
+		this.lengths = lengths.clone();
+		strides = new long[lengths.length];
+		position = new long[lengths.length];
+		long count = 1;
+		for (int d = 0; d < lengths.length; d++) {
+			strides[d] = count;
+			count *= lengths[d];
+		}
+		size = count;
+		reset();
+	}
+
+	// -- PositionIterator API methods --
+
+	/** Moves back to before the first position. */
+	public void reset() {
+		for (int d = 0; d < position.length; d++)
+			position[d] = 0;
+		if (position.length > 0) position[0] = -1;
+		index = -1;
+	}
+
+	/** @return true if {@link #fwd()} will move onto a valid position */
+	public boolean hasNext() {
+		return index < size - 1;
+	}
+
+	/**
+	 * Advances to the next position, carrying into slower dimensions as
+	 * needed. The slowest dimension never wraps.
+	 *
+	 * @return the slowest dimension whose coordinate changed; dimensions above
+	 *         it are unchanged. The first step reports every dimension as
+	 *         changed.
+	 */
+	public int fwd() {
+		if (++index == 0) {
+			if (position.length > 0) position[0] = 0;
+			return position.length - 1;
+		}
+		int d = 0;
+		while (d < position.length - 1 && ++position[d] >= lengths[d]) {
+			position[d++] = 0;
+		}
+		if (d == position.length - 1) position[d]++;
+		return d;
+	}
+
+	/**
+	 * Jumps directly to the given rasterized index.
+	 */
+	public void setIndex(final long index) {
+		this.index = index;
+		FormatTools.rasterToPosition(lengths, index, position);
+	}
+
+	/** @return the rasterized index of the current position */
+	public long getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return the live position array. It is updated in place by
+	 *         {@link #fwd()} and must not be modified by callers.
+	 */
+	public long[] getPosition() {
+		return position;
+	}
+
+	/** @return the coordinate of the current position in dimension d */
+	public long getPosition(final int d) {
+		return position[d];
+	}
+
+	/** @return the distance in raster indices between neighbors along d */
+	public long getStride(final int d) {
+		return strides[d];
+	}
+
+	/** @return the extent of dimension d */
+	public long getLength(final int d) {
+		return lengths[d];
+	}
+
+	/** @return the number of dimensions */
+	public int numDimensions() {
+		return lengths.length;
+	}
+
+	/** @return the total number of positions */
+	public long size() {
+		return size;
+	}
+}
@@ -66,10 +66,7 @@ public class SCIFIOMetadataTools {
 	public static boolean wholePlane(final int imageIndex, final Metadata meta,
 		final Interval bounds)
 	{
-		final boolean wholePlane = wholeRow(imageIndex, meta, bounds);
-		final int yIndex = meta.get(imageIndex).getAxisIndex(Axes.Y);
-		return wholePlane && bounds.min(yIndex) == 0 && bounds.max(yIndex) == meta
-			.get(imageIndex).getAxisLength(Axes.Y) - 1;
+		return meta.get(imageIndex).getLayout().isWholePlane(bounds);
 	}
 
 	/**
@@ -78,15 +75,7 @@ public class SCIFIOMetadataTools {
 	public static boolean wholeRow(final int imageIndex, final Metadata meta,
 		final Interval bounds)
 	{
-		final int yIndex = meta.get(imageIndex).getAxisIndex(Axes.Y);
-
-		for (int d = 0; d < bounds.numDimensions(); d++) {
-			if (d == yIndex) continue;
-			final long length = meta.get(imageIndex).getAxisLength(d);
-			if (bounds.min(d) != 0 || bounds.dimension(d) != length) return false;
-		}
-
-		return true;
+		return meta.get(imageIndex).getLayout().isWholeRow(bounds);
 	}
 
 	/**
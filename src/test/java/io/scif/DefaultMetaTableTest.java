@@ -0,0 +1,194 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link DefaultMetaTable}.
+ */
+public class DefaultMetaTableTest {
+
+	@Test
+	public void testUnfiltered() {
+		final MetaTable table = new DefaultMetaTable();
+		table.put("  Key ", "<value>");
+		table.put("Char", 'c');
+		table.put("Array", new int[0]);
+		table.put(null, "ignored");
+		table.put("Null", null);
+
+		assertEquals(3, table.size());
+		assertEquals("<value>", table.get("Key"));
+		assertEquals("c", table.get("Char"));
+		assertFalse(table.containsKey("Null"));
+	}
+
+	@Test
+	public void testFiltered() {
+		final MetaTable table = new DefaultMetaTable(true);
+		table.put(" Plain ", "value");
+		table.put("Escaped&amp;Key", "a&lt;b&gt;c");
+		table.put("Ctrl\u0001Key", "x\u0002y\tz");
+		table.put("1234", "no letters");
+		table.put("&lt;", "only markup");
+		table.put("Blank", "  &amp; ");
+		table.put("Number", 5);
+		table.put("Complex", new Object());
+		final char[] longKey = new char[8193];
+		Arrays.fill(longKey, 'k');
+		table.put(new String(longKey), "too long");
+
+		assertEquals(4, table.size());
+		assertEquals("value", table.get("Plain"));
+		assertEquals("abc", table.get("EscapedKey"));
+		assertEquals("xy\tz", table.get("CtrlKey"));
+		assertEquals(5, table.get("Number"));
+		assertFalse(table.containsKey("1234"));
+		assertFalse(table.containsKey("Complex"));
+	}
+
+	@Test
+	public void testFilteredOrder() {
+		final MetaTable table = new DefaultMetaTable(true);
+		table.put("Key", "first");
+		assertEquals("first", table.get("Key"));
+		assertEquals("first", table.put(" Key", "second"));
+		assertNull(table.put("Other", "value"));
+		assertNull(table.put("Complex", new Object()));
+		table.remove("Other");
+		assertEquals("second", table.get("Key"));
+		assertNull(table.get("Other"));
+
+		table.put("Gone", "value");
+		table.clear();
+		assertTrue(table.isEmpty());
+	}
+
+	@Test
+	public void testPutList() {
+		final MetaTable table = new DefaultMetaTable();
+		table.put("Single", "a");
+		table.putList("Single", "b");
+		table.putList(" List", 1);
+		table.putList("List ", 2);
+
+		assertEquals(Arrays.asList("a", "b"), table.get("Single"));
+		assertTrue(table.get("List") instanceof Vector);
+		assertEquals(Arrays.asList(1, 2), table.get("List"));
+	}
+
+	/** Tests that an invalid value leaves the value it replaced in place. */
+	@Test
+	public void testFilteredReplacement() {
+		final MetaTable table = new DefaultMetaTable(true);
+		assertNull(table.put("Key", "first"));
+		assertEquals("first", table.put("Key", " &amp; "));
+		assertEquals("first", table.put("Key", "second"));
+		assertEquals("second", table.put("Key", 3));
+		assertEquals(3, table.get("Key"));
+		assertEquals(1, table.size());
+	}
+
+	/** Tests that pending values are sanitized once, for every reader. */
+	@Test
+	public void testConcurrentReads() throws Exception {
+		final int count = 10000;
+		final MetaTable table = new DefaultMetaTable(true);
+		for (int i = 0; i < count; i++) {
+			table.put("Key" + i, "<" + i + ">");
+		}
+
+		final ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<Integer>> sizes = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				sizes.add(pool.submit(() -> {
+					assertEquals("123", table.get("Key123"));
+					return table.size();
+				}));
+			}
+			for (final Future<Integer> size : sizes) {
+				assertEquals(count, size.get().intValue());
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+		for (final Object value : table.values()) {
+			assertTrue(value instanceof String);
+		}
+	}
+
+	@Test
+	public void testSerialization() throws Exception {
+		final MetaTable table = new DefaultMetaTable(true);
+		table.put("Key", "a&amp;b");
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(table);
+		}
+		try (final ObjectInputStream in = new ObjectInputStream(
+			new ByteArrayInputStream(bytes.toByteArray())))
+		{
+			assertEquals(table, in.readObject());
+		}
+		assertEquals("ab", table.get("Key"));
+	}
+
+	@Test
+	public void testInternedKeys() {
+		final MetaTable a = new DefaultMetaTable();
+		final MetaTable b = new DefaultMetaTable(true);
+		a.put(new String("Shared Key"), 1);
+		b.put(new String(" Shared Key "), 2);
+
+		assertSame(a.keySet().iterator().next(), b.keySet().iterator().next());
+	}
+}
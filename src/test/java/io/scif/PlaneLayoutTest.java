@@ -0,0 +1,138 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.scif.img.axes.SCIFIOAxes;
+import io.scif.util.FormatTools;
+
+import net.imagej.axis.Axes;
+import net.imglib2.FinalInterval;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link PlaneLayout}.
+ */
+public class PlaneLayoutTest {
+
+	private ImageMetadata createMetadata() {
+		final ImageMetadata meta = new DefaultImageMetadata();
+		meta.setAxisTypes(Axes.X, Axes.Y, Axes.CHANNEL, Axes.Z, Axes.TIME);
+		meta.setAxisLengths(new long[] { 64, 32, 3, 5, 7 });
+		meta.setPlanarAxisCount(3);
+		meta.setPixelType(FormatTools.UINT16);
+		return meta;
+	}
+
+	@Test
+	public void testGeometry() {
+		final ImageMetadata meta = createMetadata();
+		final PlaneLayout layout = meta.getLayout();
+
+		assertEquals(5, layout.getAxisCount());
+		assertEquals(3, layout.getPlanarAxisCount());
+		assertEquals(2, layout.getNonPlanarAxisCount());
+		assertEquals(0, layout.getXIndex());
+		assertEquals(1, layout.getYIndex());
+		assertEquals(2, layout.getChannelIndex());
+		assertEquals(4, layout.getAxisIndex(Axes.TIME));
+		assertEquals(-1, layout.getAxisIndex(SCIFIOAxes.LIFETIME));
+		assertEquals(1, layout.getAxisLength(SCIFIOAxes.LIFETIME));
+		assertTrue(layout.isMultichannel());
+		assertEquals(3, layout.getPlanarChannelCount());
+		assertEquals(2, layout.getBytesPerPixel());
+		assertEquals(meta.getPlaneCount(), layout.getPlaneCount());
+		assertArrayEquals(meta.getAxesLengthsPlanar(), layout
+			.getAxesLengthsPlanar());
+		assertArrayEquals(meta.getAxesLengthsNonPlanar(), layout
+			.getAxesLengthsNonPlanar());
+		assertEquals(1, layout.getNonPlanarStride(0));
+		assertEquals(5, layout.getNonPlanarStride(1));
+	}
+
+	@Test
+	public void testRaster() {
+		final PlaneLayout layout = createMetadata().getLayout();
+		final long[] lengths = layout.getAxesLengthsNonPlanar();
+		final long[] pos = new long[lengths.length];
+
+		for (long raster = 0; raster < layout.getPlaneCount(); raster++) {
+			layout.rasterToPosition(raster, pos);
+			assertArrayEquals(FormatTools.rasterToPosition(lengths, raster), pos);
+			assertEquals(raster, layout.positionToRaster(pos));
+			assertEquals(FormatTools.positionToRaster(lengths, pos), layout
+				.positionToRaster(pos));
+		}
+	}
+
+	@Test
+	public void testInvalidation() {
+		final ImageMetadata meta = createMetadata();
+		final PlaneLayout layout = meta.getLayout();
+		assertSame(layout, meta.getLayout());
+
+		meta.setAxisLength(Axes.Z, 4);
+		final PlaneLayout resized = meta.getLayout();
+		assertNotSame(layout, resized);
+		assertEquals(5, layout.getAxisLength(Axes.Z));
+		assertEquals(4, resized.getAxisLength(Axes.Z));
+
+		meta.setPlanarAxisCount(2);
+		assertEquals(3, meta.getLayout().getNonPlanarAxisCount());
+		assertFalse(meta.getLayout().isMultichannel());
+
+		meta.setPixelType(FormatTools.DOUBLE);
+		assertEquals(8, meta.getLayout().getBytesPerPixel());
+
+		meta.setInterleavedAxisCount(1);
+		assertTrue(meta.getLayout().isInterleaved());
+	}
+
+	@Test
+	public void testWholePlane() {
+		final PlaneLayout layout = createMetadata().getLayout();
+
+		assertTrue(layout.isWholePlane(new FinalInterval(new long[] { 0, 0, 0 },
+			new long[] { 63, 31, 2 })));
+		assertTrue(layout.isWholeRow(new FinalInterval(new long[] { 0, 4, 0 },
+			new long[] { 63, 9, 2 })));
+		assertFalse(layout.isWholePlane(new FinalInterval(new long[] { 0, 4, 0 },
+			new long[] { 63, 9, 2 })));
+		assertFalse(layout.isWholeRow(new FinalInterval(new long[] { 1, 0, 0 },
+			new long[] { 63, 31, 2 })));
+	}
+}
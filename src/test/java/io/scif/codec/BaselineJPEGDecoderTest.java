@@ -0,0 +1,223 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import io.scif.FormatException;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.handle.DataHandleService;
+import org.scijava.io.location.BytesLocation;
+import org.scijava.io.location.Location;
+import org.w3c.dom.Node;
+
+/**
+ * Tests {@link BaselineJPEGDecoder}.
+ */
+public class BaselineJPEGDecoderTest {
+
+	private static final int WIDTH = 75;
+
+	private static final int HEIGHT = 53;
+
+	/** Maximum per-sample difference from the original image. */
+	private static final int TOLERANCE = 12;
+
+	private static Context context;
+
+	private static DataHandleService handles;
+
+	@BeforeClass
+	public static void oneTimeSetup() {
+		context = new Context();
+		handles = context.getService(DataHandleService.class);
+	}
+
+	@AfterClass
+	public static void oneTimeTearDown() {
+		context.dispose();
+	}
+
+	@Test
+	public void testGray() throws Exception {
+		final BufferedImage image = createImage(BufferedImage.TYPE_BYTE_GRAY);
+		final BaselineJPEGDecoder decoder = open(encode(image, 0));
+		assertEquals(WIDTH, decoder.getWidth());
+		assertEquals(HEIGHT, decoder.getHeight());
+		assertEquals(1, decoder.getChannels());
+		for (int y = 0; y < HEIGHT; y++) {
+			assertScanline(image, y, decoder.getScanline(y));
+		}
+	}
+
+	@Test
+	public void testRGB() throws Exception {
+		final BufferedImage image = createImage(BufferedImage.TYPE_3BYTE_BGR);
+		final BaselineJPEGDecoder decoder = open(encode(image, 0));
+		assertEquals(3, decoder.getChannels());
+		// bottom to top: every row is found through the row index
+		for (int y = HEIGHT - 1; y >= 0; y--) {
+			assertScanline(image, y, decoder.getScanline(y));
+		}
+	}
+
+	@Test
+	public void testRestartMarkers() throws Exception {
+		final BufferedImage image = createImage(BufferedImage.TYPE_3BYTE_BGR);
+		for (final int interval : new int[] { 1, 2, 3, 7 }) {
+			final byte[] jpeg = encode(image, interval);
+			assertTrue(hasMarker(jpeg, 0xdd));
+			final BaselineJPEGDecoder decoder = open(jpeg);
+			// jump straight to the end, then to rows not yet decoded
+			final int[] rows = { HEIGHT - 1, 20, 0, 37, 19, HEIGHT - 1, 5 };
+			for (final int y : rows) {
+				assertScanline(image, y, decoder.getScanline(y));
+			}
+		}
+	}
+
+	@Test(expected = FormatException.class)
+	public void testProgressive() throws Exception {
+		final BufferedImage image = createImage(BufferedImage.TYPE_3BYTE_BGR);
+		final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg")
+			.next();
+		final ImageWriteParam param = writer.getDefaultWriteParam();
+		param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (MemoryCacheImageOutputStream ios = new MemoryCacheImageOutputStream(
+			out))
+		{
+			writer.setOutput(ios);
+			writer.write(null, new IIOImage(image, null, null), param);
+		}
+		writer.dispose();
+		open(out.toByteArray());
+	}
+
+	// -- Helper methods --
+
+	private BaselineJPEGDecoder open(final byte[] jpeg) throws IOException,
+		FormatException
+	{
+		final DataHandle<Location> handle = handles.create(new BytesLocation(
+			jpeg));
+		return new BaselineJPEGDecoder(handle);
+	}
+
+	/** Smooth gradients, so that JPEG artifacts stay small. */
+	private static BufferedImage createImage(final int type) {
+		final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, type);
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				final int r = x * 255 / WIDTH;
+				final int g = y * 255 / HEIGHT;
+				final int b = (x + y) * 255 / (WIDTH + HEIGHT);
+				image.setRGB(x, y, (r << 16) | (g << 8) | b);
+			}
+		}
+		return image;
+	}
+
+	/** Encodes the image, with the given restart interval if positive. */
+	private static byte[] encode(final BufferedImage image,
+		final int restartInterval) throws IOException
+	{
+		final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg")
+			.next();
+		final ImageWriteParam param = writer.getDefaultWriteParam();
+		param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+		param.setCompressionQuality(0.95f);
+		final IIOMetadata meta = writer.getDefaultImageMetadata(
+			new ImageTypeSpecifier(image), param);
+		if (restartInterval > 0) {
+			final String format = "javax_imageio_jpeg_image_1.0";
+			final Node tree = meta.getAsTree(format);
+			final IIOMetadataNode dri = new IIOMetadataNode("dri");
+			dri.setAttribute("interval", String.valueOf(restartInterval));
+			final Node markers = tree.getLastChild();
+			markers.insertBefore(dri, markers.getFirstChild());
+			meta.setFromTree(format, tree);
+		}
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (MemoryCacheImageOutputStream ios = new MemoryCacheImageOutputStream(
+			out))
+		{
+			writer.setOutput(ios);
+			writer.write(null, new IIOImage(image, null, meta), param);
+		}
+		writer.dispose();
+		return out.toByteArray();
+	}
+
+	private static boolean hasMarker(final byte[] jpeg, final int marker) {
+		for (int i = 0; i < jpeg.length - 1; i++) {
+			if ((jpeg[i] & 0xff) == 0xff && (jpeg[i + 1] & 0xff) == marker) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void assertScanline(final BufferedImage image, final int y,
+		final byte[] scanline)
+	{
+		final int channels = image.getRaster().getNumBands();
+		assertEquals(WIDTH * channels, scanline.length);
+		for (int x = 0; x < WIDTH; x++) {
+			final int rgb = image.getRGB(x, y);
+			for (int c = 0; c < channels; c++) {
+				final int expected = channels == 1 ? image.getRaster().getSample(x, y,
+					0) : (rgb >> (16 - 8 * c)) & 0xff;
+				final int actual = scanline[x * channels + c] & 0xff;
+				assertTrue("(" + x + ", " + y + ", " + c + "): expected " + expected +
+					" but was " + actual, Math.abs(expected - actual) <= TOLERANCE);
+			}
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link CheckpointCache}.
+ */
+public class CheckpointCacheTest {
+
+	@Test
+	public void testCheckpointInterval() {
+		final CheckpointCache cache = new CheckpointCache(4, 1024);
+		for (long frame = 0; frame < 10; frame++) {
+			cache.put(frame, new byte[] { (byte) frame });
+		}
+		// frame 0 is a key frame, so only 4 and 8 are kept
+		assertEquals(2, cache.size());
+		assertEquals(2, cache.getUsedBytes());
+		assertNull(cache.get(3));
+		assertArrayEquals(new byte[] { 8 }, cache.get(8));
+
+		assertEquals(-1, cache.lastCheckpoint(3));
+		assertEquals(4, cache.lastCheckpoint(7));
+		assertEquals(8, cache.lastCheckpoint(100));
+	}
+
+	@Test
+	public void testCopies() {
+		final CheckpointCache cache = new CheckpointCache(1, 1024);
+		final byte[] data = { 1, 2, 3 };
+		cache.put(1, data);
+		data[0] = 9;
+		final byte[] copy = cache.get(1);
+		assertArrayEquals(new byte[] { 1, 2, 3 }, copy);
+		copy[1] = 9;
+		assertNotSame(copy, cache.get(1));
+		assertArrayEquals(new byte[] { 1, 2, 3 }, cache.get(1));
+	}
+
+	@Test
+	public void testStart() {
+		final CheckpointCache cache = new CheckpointCache(8, 1024);
+		cache.put(8, new byte[1]);
+		cache.put(16, new byte[1]);
+
+		// nothing decoded yet: resume from the nearest checkpoint
+		assertEquals(17, cache.start(20, -1));
+		assertEquals(9, cache.start(12, -1));
+		assertEquals(0, cache.start(5, -1));
+		// the current frame is closer than any checkpoint
+		assertEquals(19, cache.start(20, 18));
+		// seeking backwards
+		assertEquals(9, cache.start(12, 18));
+		assertEquals(9, cache.start(9, 3));
+		// the checkpoint itself was requested, so there is nothing to decode
+		assertEquals(9, cache.start(8, -1));
+	}
+
+	@Test
+	public void testKeyFrames() {
+		final CheckpointCache cache = new CheckpointCache(8, 1024);
+		cache.setKeyFrames(new long[] { 10, 0, 20 });
+		assertEquals(0, cache.lastKeyFrame(9));
+		assertEquals(10, cache.lastKeyFrame(10));
+		assertEquals(10, cache.lastKeyFrame(19));
+		assertEquals(20, cache.lastKeyFrame(25));
+
+		cache.put(8, new byte[1]);
+		assertEquals(10, cache.start(10, -1));
+		assertEquals(10, cache.start(12, -1));
+		assertEquals(9, cache.start(9, -1));
+		assertEquals(12, cache.start(13, 11));
+		// key frames are cheap to decode and never checkpointed
+		cache.setInterval(10);
+		cache.put(10, new byte[1]);
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testMaxBytes() {
+		final CheckpointCache cache = new CheckpointCache(1, 4);
+		cache.put(1, new byte[2]);
+		cache.put(2, new byte[2]);
+		cache.get(1);
+		cache.put(3, new byte[2]);
+		// frame 2 was least recently used
+		assertEquals(2, cache.size());
+		assertNull(cache.get(2));
+		assertEquals(1, cache.lastCheckpoint(2));
+		// too large to keep at all
+		cache.put(4, new byte[5]);
+		assertNull(cache.get(4));
+		cache.setMaxBytes(0);
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getUsedBytes());
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.codec;
+
+import io.scif.BenchmarkRunner;
+import io.scif.FormatException;
+import io.scif.SCIFIO;
+import io.scif.formats.tiff.TiffCompression;
+import io.scif.util.FormatTools;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.RunnerException;
+
+/**
+ * Measures compression and decompression throughput of the codecs backing
+ * each {@link TiffCompression}.
+ * <p>
+ * Each benchmark reports the uncompressed bytes it handled as the
+ * {@code bytes} counter, in bytes per second, next to its rate in operations
+ * per second on a single plane of {@code size * size} pixels. The default
+ * pixel type is {@code uint8} since the lossy codecs only accept 8-bit data;
+ * wider types can be selected with {@code -p pixelType=uint16} for the
+ * lossless codecs.
+ * </p>
+ * <p>
+ * {@link PackbitsCodec} has no encoder, so {@link #compress} is not run for
+ * it, and the input of {@link #decompress} is built with a literal PackBits
+ * encoding.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CodecBenchmark {
+
+	@Param({ "uint8" })
+	public String pixelType;
+
+	/** Width and height of the plane. */
+	@Param({ "256", "1024" })
+	public int size;
+
+	private SCIFIO scifio;
+
+	private CodecService codecService;
+
+	private CodecOptions options;
+
+	private byte[] raw;
+
+	@Setup
+	public void setUp() {
+		scifio = new SCIFIO();
+		codecService = scifio.codec();
+
+		final int type = FormatTools.pixelTypeFromString(pixelType);
+		final int bpp = FormatTools.getBytesPerPixel(type);
+
+		options = CodecOptions.getDefaultOptions();
+		options.width = size;
+		options.height = size;
+		options.channels = 1;
+		options.bitsPerSample = bpp * 8;
+		options.littleEndian = true;
+		options.interleaved = true;
+		options.signed = FormatTools.isSigned(type);
+		options.maxBytes = size * size * bpp;
+
+		raw = createPlane(size * size * bpp);
+	}
+
+	@TearDown
+	public void tearDown() {
+		scifio.getContext().dispose();
+	}
+
+	@Benchmark
+	public byte[] compress(final Encoding encoding, final Throughput throughput)
+		throws FormatException
+	{
+		throughput.bytes += raw.length;
+		return encoding.tiffCompression.compress(codecService, raw, options);
+	}
+
+	@Benchmark
+	public byte[] decompress(final Decoding decoding,
+		final Throughput throughput) throws FormatException
+	{
+		throughput.bytes += raw.length;
+		return decoding.tiffCompression.decompress(codecService,
+			decoding.compressed, options);
+	}
+
+	// -- Helper classes --
+
+	/** Compressions with an encoder. */
+	@State(Scope.Benchmark)
+	public static class Encoding {
+
+		@Param({ "UNCOMPRESSED", "LZW", "DEFLATE", "JPEG", "JPEG_2000" })
+		public String encoder;
+
+		private TiffCompression tiffCompression;
+
+		@Setup
+		public void setUp() {
+			tiffCompression = TiffCompression.valueOf(encoder);
+		}
+	}
+
+	/** Compressions to decode, with the plane encoded by each. */
+	@State(Scope.Benchmark)
+	public static class Decoding {
+
+		@Param({ "UNCOMPRESSED", "LZW", "PACK_BITS", "DEFLATE", "JPEG",
+			"JPEG_2000" })
+		public String compression;
+
+		private TiffCompression tiffCompression;
+
+		private byte[] compressed;
+
+		@Setup
+		public void setUp(final CodecBenchmark plane) throws FormatException {
+			tiffCompression = TiffCompression.valueOf(compression);
+			compressed = tiffCompression == TiffCompression.PACK_BITS ? packBits(
+				plane.raw) : tiffCompression.compress(plane.codecService, plane.raw,
+					plane.options);
+		}
+	}
+
+	/** Uncompressed bytes handled, reported per second. */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Throughput {
+
+		public long bytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytes = 0;
+		}
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Creates a smooth gradient with a little noise, which compresses roughly
+	 * like real microscopy data instead of collapsing to nothing.
+	 */
+	private byte[] createPlane(final int length) {
+		final Random random = new Random(0xcafebabe);
+		final byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (byte) ((i % size) / 4 + random.nextInt(8));
+		}
+		return data;
+	}
+
+	/** Encodes the given bytes as a sequence of PackBits literal runs. */
+	private static byte[] packBits(final byte[] data) {
+		final int runs = (data.length + 127) / 128;
+		final byte[] packed = new byte[data.length + runs];
+		int in = 0;
+		int out = 0;
+		while (in < data.length) {
+			final int len = Math.min(128, data.length - in);
+			packed[out++] = (byte) (len - 1);
+			System.arraycopy(data, in, packed, out, len);
+			in += len;
+			out += len;
+		}
+		return packed;
+	}
+
+	public static void main(final String... args) throws RunnerException {
+		BenchmarkRunner.run(CodecBenchmark.class);
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.filters;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import io.scif.BufferedImagePlane;
+import io.scif.ByteArrayPlane;
+import io.scif.FormatException;
+import io.scif.ImageMetadata;
+import io.scif.LargePlane;
+import io.scif.Plane;
+import io.scif.SCIFIO;
+import io.scif.io.location.TestImgLocation;
+
+import java.io.IOException;
+
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link ChannelFiller}.
+ */
+public class ChannelFillerTest {
+
+	private SCIFIO scifio;
+
+	private ReaderFilter reader;
+
+	@Before
+	public void setUp() throws FormatException, IOException {
+		scifio = new SCIFIO();
+		reader = scifio.initializer().initializeReader(new TestImgLocation.Builder()
+			.name("indexed").axes("X", "Y").lengths(16, 8).indexed(true).lutLength(3)
+			.build());
+		reader.enable(ChannelFiller.class);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		reader.close();
+		scifio.context().dispose();
+	}
+
+	@Test
+	public void testExpand() throws FormatException, IOException {
+		final ImageMetadata meta = reader.getMetadata().get(0);
+		assertEquals(3, meta.getAxisLength(2));
+		final Plane plane = reader.openPlane(0, 0);
+		assertEquals(16 * 8 * 3, plane.getBytes().length);
+		assertNull(plane.getColorTable());
+	}
+
+	@Test
+	public void testCallerPlanes() throws FormatException, IOException {
+		final ImageMetadata meta = reader.getMetadata().get(0);
+		final Interval bounds = new FinalInterval(new long[] { 2, 1, 0 },
+			new long[] { 13, 6, 2 });
+		final byte[] expected = reader.openPlane(0, 0, bounds).getBytes();
+
+		final ByteArrayPlane bytes = new ByteArrayPlane(meta, bounds);
+		assertSame(bytes, reader.openPlane(0, 0, bytes, bounds));
+		assertArrayEquals(expected, bytes.getBytes());
+
+		final LargePlane large = new LargePlane(meta, bounds);
+		assertSame(large, reader.openPlane(0, 0, large, bounds));
+		assertArrayEquals(expected, large.getBytes());
+
+		final BufferedImagePlane image = new BufferedImagePlane(meta, bounds);
+		assertSame(image, reader.openPlane(0, 0, image, bounds));
+		assertArrayEquals(expected, image.getBytes());
+	}
+}
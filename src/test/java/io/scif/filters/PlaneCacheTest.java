@@ -0,0 +1,98 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.filters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import io.scif.ByteArrayPlane;
+import io.scif.Plane;
+
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link PlaneCache}.
+ */
+public class PlaneCacheTest {
+
+	private final Interval bounds = new FinalInterval(4, 4);
+
+	@Test
+	public void testHitAndMiss() {
+		final PlaneCache cache = new PlaneCache(1024);
+		final Plane plane = new ByteArrayPlane();
+		cache.put(0, 3, bounds, plane, 16);
+
+		assertSame(plane, cache.get(0, 3, new FinalInterval(4, 4)));
+		assertNull(cache.get(1, 3, bounds));
+		assertNull(cache.get(0, 2, bounds));
+		assertNull(cache.get(0, 3, new FinalInterval(4, 2)));
+	}
+
+	@Test
+	public void testLRUEviction() {
+		final PlaneCache cache = new PlaneCache(48);
+		final Plane p0 = new ByteArrayPlane();
+		final Plane p1 = new ByteArrayPlane();
+		final Plane p2 = new ByteArrayPlane();
+		final Plane p3 = new ByteArrayPlane();
+		cache.put(0, 0, bounds, p0, 16);
+		cache.put(0, 1, bounds, p1, 16);
+		cache.put(0, 2, bounds, p2, 16);
+		assertEquals(48, cache.getUsedBytes());
+
+		// touch plane 0 so that plane 1 becomes the eldest
+		assertSame(p0, cache.get(0, 0, bounds));
+		cache.put(0, 3, bounds, p3, 16);
+
+		assertEquals(3, cache.size());
+		assertEquals(48, cache.getUsedBytes());
+		assertNull(cache.get(0, 1, bounds));
+		assertSame(p0, cache.get(0, 0, bounds));
+		assertSame(p3, cache.get(0, 3, bounds));
+
+		// shrinking the bound evicts
+		cache.setMaxBytes(16);
+		assertEquals(1, cache.size());
+		assertSame(p3, cache.get(0, 3, bounds));
+
+		// planes larger than the bound are never cached
+		cache.put(0, 4, bounds, new ByteArrayPlane(), 17);
+		assertNull(cache.get(0, 4, bounds));
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getUsedBytes());
+	}
+}
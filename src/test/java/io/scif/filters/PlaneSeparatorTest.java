@@ -35,6 +35,7 @@ import io.scif.FormatException;
 import io.scif.Reader;
 import io.scif.SCIFIO;
 import io.scif.io.location.TestImgLocation;
+import io.scif.metrics.MetricsService;
 
 import java.io.IOException;
 
@@ -77,4 +78,36 @@ public class PlaneSeparatorTest {
 		assertEquals(0, filter.getMetadata().get(0).getInterleavedAxisCount());
 		assertEquals(2, filter.getMetadata().get(0).getAxesNonPlanar().size());
 	}
+
+	/**
+	 * Verify that separated channels of the same parent plane are served from
+	 * the parent plane cache.
+	 */
+	@Test
+	public void testParentPlaneCache() throws FormatException, IOException {
+		final Location rgb = TestImgLocation.builder().lengths(3, 64, 64, 2).axes(
+			"Channel", "X", "Y", "Z").build();
+		final ReaderFilter filter = scifio.initializer().initializeReader(rgb);
+		filter.enable(PlaneSeparator.class);
+		assertEquals(6, filter.getPlaneCount(0));
+
+		final MetricsService metrics = scifio.metrics();
+		metrics.setEnabled(true);
+		for (int z = 0; z < 2; z++) {
+			for (int c = 0; c < 3; c++) {
+				filter.openPlane(0, z * 3 + c);
+			}
+		}
+		final String key = PlaneSeparator.class.getSimpleName();
+		assertEquals(2, metrics.getCount(MetricsService.CACHE_MISSES, key));
+		assertEquals(4, metrics.getCount(MetricsService.CACHE_HITS, key));
+
+		// With caching disabled, every channel re-reads the parent plane
+		metrics.reset();
+		filter.enable(PlaneSeparator.class).setCacheSize(0);
+		filter.openPlane(0, 0);
+		filter.openPlane(0, 1);
+		assertEquals(2, metrics.getCount(MetricsService.CACHE_MISSES, key));
+		metrics.setEnabled(false);
+	}
 }
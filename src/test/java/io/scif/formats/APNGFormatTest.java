@@ -29,20 +29,68 @@
 
 package io.scif.formats;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import io.scif.FormatException;
+import io.scif.Reader;
+import io.scif.SCIFIO;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
 
 import net.imagej.axis.Axes;
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 import org.scijava.io.http.HTTPLocation;
+import org.scijava.io.location.FileLocation;
 
 public class APNGFormatTest extends AbstractFormatTest {
 
+	private static final int WIDTH = 37, HEIGHT = 29;
+
+	private static final int AW = 8, AH = 6;
+
+	private SCIFIO scifio;
+
+	private File file;
+
 	public APNGFormatTest() throws URISyntaxException, MalformedURLException {
 		super(new HTTPLocation("https://samples.scif.io/test-png.zip"));
 	}
 
+	@Before
+	public void setUp() throws IOException {
+		scifio = new SCIFIO();
+		file = Files.createTempFile("frames", ".png").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		scifio.context().dispose();
+		file.delete();
+	}
+
 	@Test
 	public void baseTest() {
 		final String metaJson =
@@ -71,4 +119,358 @@ public class APNGFormatTest extends AbstractFormatTest {
 				453 }, Axes.X, Axes.Y, Axes.TIME);
 	}
 
+	@Test
+	public void testRGB() throws IOException, FormatException {
+		final BufferedImage img = new BufferedImage(WIDTH, HEIGHT,
+			BufferedImage.TYPE_3BYTE_BGR);
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				img.setRGB(x, y, (x * 7) << 16 | (y * 5 + x) << 8 | (x * y) & 0xff);
+			}
+		}
+		final byte[] expected = new byte[WIDTH * HEIGHT * 3];
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				final int rgb = img.getRGB(x, y);
+				for (int c = 0; c < 3; c++) {
+					expected[(c * HEIGHT + y) * WIDTH + x] = (byte) (rgb >> 16 - 8 * c);
+				}
+			}
+		}
+
+		for (final boolean interlaced : new boolean[] { false, true }) {
+			write(img, interlaced);
+			final Reader reader = scifio.initializer().initializeReader(
+				new FileLocation(file));
+			assertArrayEquals(expected, reader.openPlane(0, 0).getBytes());
+			final Interval tile = new FinalInterval(new long[] { 5, 3, 0 },
+				new long[] { 20, 11, 2 });
+			assertArrayEquals(crop(expected, WIDTH, HEIGHT, tile, 1), reader
+				.openPlane(0, 0, tile).getBytes());
+			reader.close();
+		}
+	}
+
+	@Test
+	public void testGray16() throws IOException, FormatException {
+		final BufferedImage img = new BufferedImage(WIDTH, HEIGHT,
+			BufferedImage.TYPE_USHORT_GRAY);
+		final byte[] expected = new byte[WIDTH * HEIGHT * 2];
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				final int value = (x * 1811 + y * 257) & 0xffff;
+				img.getRaster().setSample(x, y, 0, value);
+				expected[(y * WIDTH + x) * 2] = (byte) (value >> 8);
+				expected[(y * WIDTH + x) * 2 + 1] = (byte) value;
+			}
+		}
+		write(img, false);
+
+		final Reader reader = scifio.initializer().initializeReader(
+			new FileLocation(file));
+		assertArrayEquals(expected, reader.openPlane(0, 0).getBytes());
+		final Interval tile = new FinalInterval(new long[] { 30, 0 },
+			new long[] { 36, 4 });
+		assertArrayEquals(crop(expected, WIDTH, HEIGHT, tile, 2), reader.openPlane(
+			0, 0, tile).getBytes());
+		reader.close();
+	}
+
+	@Test
+	public void testAnimation() throws IOException, FormatException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		out.write(APNGFormat.PNG_SIGNATURE);
+		chunk(out, "IHDR", new int[] { AW, AH }, 8, 6, 0, 0, 0);
+		chunk(out, "acTL", new int[] { 5, 0 });
+
+		// frame 0: full gradient, the default image
+		final byte[] base = new byte[AW * AH * 4];
+		for (int i = 0; i < AW * AH; i++) {
+			base[i * 4] = (byte) (i % AW * 30);
+			base[i * 4 + 1] = (byte) (i / AW * 40);
+			base[i * 4 + 2] = 100;
+			base[i * 4 + 3] = (byte) 255;
+		}
+		int seq = 0;
+		seq = frame(out, seq, true, 0, 0, AW, AH, APNGFormat.DISPOSE_OP_NONE,
+			APNGFormat.BLEND_OP_SOURCE, base);
+		// frame 1: opaque red, cleared afterwards
+		final byte[] red = { (byte) 200, 0, 0, (byte) 255 };
+		seq = frame(out, seq, false, 2, 1, 3, 2, APNGFormat.DISPOSE_OP_BACKGROUND,
+			APNGFormat.BLEND_OP_SOURCE, fill(3, 2, red));
+		// frame 2: translucent blue, blended over the canvas
+		final byte[] blue = { 0, 0, (byte) 200, (byte) 128 };
+		seq = frame(out, seq, false, 1, 2, 4, 3, APNGFormat.DISPOSE_OP_NONE,
+			APNGFormat.BLEND_OP_OVER, fill(4, 3, blue));
+		// frame 3: gray corner, reverted afterwards
+		final byte[] gray = { 9, 9, 9, (byte) 255 };
+		seq = frame(out, seq, false, 0, 0, 2, 2, APNGFormat.DISPOSE_OP_PREVIOUS,
+			APNGFormat.BLEND_OP_SOURCE, fill(2, 2, gray));
+		// frame 4: another corner
+		final byte[] dark = { 50, 50, 50, (byte) 255 };
+		frame(out, seq, false, 5, 3, 2, 2, APNGFormat.DISPOSE_OP_NONE,
+			APNGFormat.BLEND_OP_SOURCE, fill(2, 2, dark));
+		chunk(out, "IEND", new byte[0]);
+		try (final FileOutputStream fos = new FileOutputStream(file)) {
+			fos.write(bytes.toByteArray());
+		}
+
+		final byte[][] frames = new byte[5][];
+		frames[0] = base.clone();
+		frames[1] = base.clone();
+		paint(frames[1], 2, 1, 3, 2, red, false);
+		frames[2] = base.clone();
+		paint(frames[2], 2, 1, 3, 2, new byte[4], false);
+		paint(frames[2], 1, 2, 4, 3, blue, true);
+		frames[3] = frames[2].clone();
+		paint(frames[3], 0, 0, 2, 2, gray, false);
+		frames[4] = frames[2].clone();
+		paint(frames[4], 5, 3, 2, 2, dark, false);
+
+		final Reader reader = scifio.initializer().initializeReader(
+			new FileLocation(file));
+		assertEquals(5, reader.getPlaneCount(0));
+		// out of order, so that frames are composited from the start, resumed
+		// from the canvas and decoded directly
+		for (final int t : new int[] { 4, 3, 0, 1, 2, 3, 4, 2 }) {
+			assertArrayEquals("frame " + t, planar(frames[t]), reader.openPlane(0,
+				t).getBytes());
+		}
+		final Interval tile = new FinalInterval(new long[] { 1, 2, 1 },
+			new long[] { 5, 4, 3 });
+		for (final int t : new int[] { 0, 3, 1 }) {
+			assertArrayEquals("frame " + t, crop(planar(frames[t]), AW, AH, tile, 1),
+				reader.openPlane(0, t, tile).getBytes());
+		}
+		reader.close();
+	}
+
+	@Test
+	public void testTransparency() throws IOException, FormatException {
+		// palette: index 1 is transparent, index 2 translucent, 3 opaque
+		final byte[] plte = new byte[12];
+		for (int i = 0; i < plte.length; i++) {
+			plte[i] = (byte) (i * 20);
+		}
+		assertTransparency(3, plte, new byte[] { (byte) 255, 0, 100 },
+			new byte[] { 3 }, new byte[] { 2 }, new byte[] { 1 });
+		// grey level 77 is transparent
+		assertTransparency(0, null, new byte[] { 0, 77 }, new byte[] { 40 },
+			new byte[] { (byte) 200 }, new byte[] { 77 });
+		// RGB (10, 20, 30) is transparent; (10, 20, 31) is not
+		assertTransparency(2, null, new byte[] { 0, 10, 0, 20, 0, 30 },
+			new byte[] { 1, 2, 3 }, new byte[] { 10, 20, 31 }, new byte[] { 10, 20,
+				30 });
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Writes and checks a two frame APNG whose transparency is given by tRNS.
+	 * Both frames are blended over the canvas: a {@code back} background with
+	 * one {@code transparent} pixel, then a checkerboard of {@code fore} and
+	 * {@code transparent} pixels.
+	 */
+	private void assertTransparency(final int colourType, final byte[] plte,
+		final byte[] trns, final byte[] back, final byte[] fore,
+		final byte[] transparent) throws IOException, FormatException
+	{
+		final int samples = back.length;
+		final int fx = 2, fy = 1, fw = 4, fh = 3;
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		out.write(APNGFormat.PNG_SIGNATURE);
+		chunk(out, "IHDR", new int[] { AW, AH }, 8, colourType, 0, 0, 0);
+		if (plte != null) chunk(out, "PLTE", plte);
+		chunk(out, "tRNS", trns);
+		chunk(out, "acTL", new int[] { 2, 0 });
+
+		final byte[] base = fill(AW, AH, back);
+		System.arraycopy(transparent, 0, base, 0, samples);
+		final int seq = frame(out, 0, true, 0, 0, AW, AH,
+			APNGFormat.DISPOSE_OP_NONE, APNGFormat.BLEND_OP_OVER, base);
+		final byte[] checker = new byte[fw * fh * samples];
+		for (int y = 0; y < fh; y++) {
+			for (int x = 0; x < fw; x++) {
+				System.arraycopy((x + y) % 2 == 0 ? fore : transparent, 0, checker,
+					(y * fw + x) * samples, samples);
+			}
+		}
+		frame(out, seq, false, fx, fy, fw, fh, APNGFormat.DISPOSE_OP_NONE,
+			APNGFormat.BLEND_OP_OVER, checker);
+		chunk(out, "IEND", new byte[0]);
+		try (final FileOutputStream fos = new FileOutputStream(file)) {
+			fos.write(bytes.toByteArray());
+		}
+
+		// transparent pixels leave the canvas as it was
+		final byte[][] frames = new byte[2][];
+		frames[0] = fill(AW, AH, back);
+		System.arraycopy(new byte[samples], 0, frames[0], 0, samples);
+		frames[1] = frames[0].clone();
+		for (int y = 0; y < fh; y++) {
+			for (int x = 0; x < fw; x++) {
+				if ((x + y) % 2 != 0) continue;
+				System.arraycopy(fore, 0, frames[1], ((fy + y) * AW + fx + x) *
+					samples, samples);
+			}
+		}
+
+		final Reader reader = scifio.initializer().initializeReader(
+			new FileLocation(file));
+		final Interval tile = new FinalInterval(new long[] { 0, 0, 0 },
+			new long[] { 3, 2, samples - 1 });
+		for (final int t : new int[] { 1, 0, 1 }) {
+			final byte[] expected = planar(frames[t], samples);
+			assertArrayEquals("frame " + t, expected, reader.openPlane(0, t)
+				.getBytes());
+			assertArrayEquals("frame " + t, crop(expected, AW, AH, tile, 1), reader
+				.openPlane(0, t, tile).getBytes());
+		}
+		reader.close();
+	}
+
+	private void write(final BufferedImage img, final boolean interlaced)
+		throws IOException
+	{
+		final ImageWriter writer = ImageIO.getImageWritersByFormatName("png")
+			.next();
+		final ImageWriteParam param = writer.getDefaultWriteParam();
+		param.setProgressiveMode(interlaced ? ImageWriteParam.MODE_DEFAULT
+			: ImageWriteParam.MODE_DISABLED);
+		file.delete();
+		try (final ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+			writer.setOutput(out);
+			writer.write(null, new IIOImage(img, null, null), param);
+		}
+		finally {
+			writer.dispose();
+		}
+	}
+
+	private static int frame(final DataOutputStream out, int seq,
+		final boolean idat, final int x, final int y, final int w, final int h,
+		final int dispose, final int blend, final byte[] pixels) throws IOException
+	{
+		final ByteArrayOutputStream fctl = new ByteArrayOutputStream();
+		final DataOutputStream s = new DataOutputStream(fctl);
+		s.writeInt(seq++);
+		s.writeInt(w);
+		s.writeInt(h);
+		s.writeInt(x);
+		s.writeInt(y);
+		s.writeShort(1);
+		s.writeShort(10);
+		s.writeByte(dispose);
+		s.writeByte(blend);
+		chunk(out, "fcTL", fctl.toByteArray());
+
+		final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		if (!idat) new DataOutputStream(data).writeInt(seq++);
+		try (final DeflaterOutputStream deflater = new DeflaterOutputStream(
+			data))
+		{
+			final int rowBytes = pixels.length / h;
+			for (int row = 0; row < h; row++) {
+				deflater.write(0);
+				deflater.write(pixels, row * rowBytes, rowBytes);
+			}
+		}
+		chunk(out, idat ? "IDAT" : "fdAT", data.toByteArray());
+		return seq;
+	}
+
+	private static void chunk(final DataOutputStream out, final String type,
+		final int[] ints, final int... bytes) throws IOException
+	{
+		final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		final DataOutputStream s = new DataOutputStream(data);
+		for (final int i : ints) {
+			s.writeInt(i);
+		}
+		for (final int b : bytes) {
+			s.writeByte(b);
+		}
+		chunk(out, type, data.toByteArray());
+	}
+
+	private static void chunk(final DataOutputStream out, final String type,
+		final byte[] data) throws IOException
+	{
+		final byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+		final CRC32 crc = new CRC32();
+		crc.update(name);
+		crc.update(data);
+		out.writeInt(data.length);
+		out.write(name);
+		out.write(data);
+		out.writeInt((int) crc.getValue());
+	}
+
+	private static byte[] fill(final int w, final int h, final byte[] pixel) {
+		final byte[] pixels = new byte[w * h * pixel.length];
+		for (int i = 0; i < w * h; i++) {
+			System.arraycopy(pixel, 0, pixels, i * pixel.length, pixel.length);
+		}
+		return pixels;
+	}
+
+	/** Draws a solid RGBA rectangle, optionally blended over the image. */
+	private static void paint(final byte[] img, final int x0, final int y0,
+		final int w, final int h, final byte[] pixel, final boolean over)
+	{
+		for (int y = y0; y < y0 + h; y++) {
+			for (int x = x0; x < x0 + w; x++) {
+				final int i = (y * AW + x) * 4;
+				if (!over) {
+					System.arraycopy(pixel, 0, img, i, 4);
+					continue;
+				}
+				final long sa = pixel[3] & 0xff, da = img[i + 3] & 0xff;
+				final long u = sa * 255 + da * (255 - sa);
+				for (int c = 0; c < 3; c++) {
+					img[i + c] = (byte) ((sa * (pixel[c] & 0xff) * 255 + (255 - sa) *
+						da * (img[i + c] & 0xff)) / u);
+				}
+				img[i + 3] = (byte) (u / 255);
+			}
+		}
+	}
+
+	/** Converts interleaved RGBA to planar channels. */
+	private static byte[] planar(final byte[] rgba) {
+		return planar(rgba, 4);
+	}
+
+	/** Converts interleaved samples to planar channels. */
+	private static byte[] planar(final byte[] pixels, final int samples) {
+		final int n = pixels.length / samples;
+		final byte[] planes = new byte[pixels.length];
+		for (int i = 0; i < n; i++) {
+			for (int c = 0; c < samples; c++) {
+				planes[c * n + i] = pixels[i * samples + c];
+			}
+		}
+		return planes;
+	}
+
+	/** Crops a planar image to the given (inclusive) bounds. */
+	private static byte[] crop(final byte[] planes, final int w, final int h,
+		final Interval tile, final int bytes)
+	{
+		final int tw = (int) tile.dimension(0), th = (int) tile.dimension(1);
+		final int c0 = tile.numDimensions() > 2 ? (int) tile.min(2) : 0;
+		final int cn = tile.numDimensions() > 2 ? (int) tile.dimension(2) : 1;
+		final byte[] out = new byte[tw * th * cn * bytes];
+		int o = 0;
+		for (int c = c0; c < c0 + cn; c++) {
+			for (int y = (int) tile.min(1); y <= tile.max(1); y++) {
+				final int from = ((c * h + y) * w + (int) tile.min(0)) * bytes;
+				System.arraycopy(planes, from, out, o, tw * bytes);
+				o += tw * bytes;
+			}
+		}
+		return out;
+	}
 }
@@ -29,20 +29,60 @@
 
 package io.scif.formats;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.scif.FormatException;
+import io.scif.SCIFIO;
+import io.scif.img.IO;
+import io.scif.img.ImgSaver;
+import io.scif.io.location.TestImgLocation;
+
+import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.Arrays;
 
+import net.imagej.ImgPlus;
 import net.imagej.axis.Axes;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 import org.scijava.io.http.HTTPLocation;
+import org.scijava.io.location.FileLocation;
+import org.scijava.util.Bytes;
 
 public class AVIFormatTest extends AbstractFormatTest {
 
+	private SCIFIO scifio;
+
+	private File indexed;
+
+	private File unindexed;
+
 	public AVIFormatTest() throws URISyntaxException, MalformedURLException {
 		super(new HTTPLocation("https://samples.scif.io/test-avi.zip"));
 	}
 
+	@Before
+	public void setUp() throws IOException {
+		scifio = new SCIFIO();
+		indexed = Files.createTempFile("indexed", ".avi").toFile();
+		unindexed = Files.createTempFile("unindexed", ".avi").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		scifio.context().dispose();
+		indexed.delete();
+		unindexed.delete();
+	}
+
 	@Test
 	public void t1_head() {
 		final String hash_one = "41847e0e91a42f25997af1bbf636509c85914fbe";
@@ -52,4 +92,91 @@ public class AVIFormatTest extends AbstractFormatTest {
 			206, 218, 3, 36 }, Axes.X, Axes.Y, Axes.CHANNEL, Axes.TIME);
 	}
 
+	/**
+	 * Tests that frames located through the idx1 index match those found by
+	 * walking the movi list when there is no index.
+	 */
+	@Test
+	public void testIndexMatchesChunkWalk() throws IOException,
+		FormatException
+	{
+		writeAVIs();
+		final AVIFormat.Metadata fromIndex = (AVIFormat.Metadata) scifio
+			.initializer().parseMetadata(new FileLocation(indexed));
+		final AVIFormat.Metadata fromWalk = (AVIFormat.Metadata) scifio
+			.initializer().parseMetadata(new FileLocation(unindexed));
+
+		assertEquals(4, fromIndex.getOffsets().length);
+		assertArrayEquals(fromWalk.getOffsets(), fromIndex.getOffsets());
+		assertArrayEquals(fromWalk.getLengths(), fromIndex.getLengths());
+		assertEquals(4, fromIndex.get(0).getAxisLength(Axes.TIME));
+
+		// only the first frame is flagged as a key frame by the writer
+		assertArrayEquals(new long[] { 0 }, fromIndex.getKeyFrames());
+		assertNull(fromWalk.getKeyFrames());
+	}
+
+	/**
+	 * Tests that an idx1 chunk whose size is not a multiple of the entry size is
+	 * still used, and that its trailing bytes are not mistaken for a following
+	 * RIFF.
+	 */
+	@Test
+	public void testIdx1WithPartialEntry() throws IOException,
+		FormatException
+	{
+		writeAVIs();
+		final byte[] bytes = Files.readAllBytes(indexed.toPath());
+		final int idx1 = findIdx1(bytes);
+		assertEquals(bytes.length, idx1 + 8 + readInt(bytes, idx1 + 4));
+
+		// grow the idx1 chunk by a partial entry which looks like a RIFF header,
+		// and follow it with an empty JUNK chunk
+		final byte[] padded = Arrays.copyOf(bytes, bytes.length + 12);
+		System.arraycopy("RIFFJUNK".getBytes("US-ASCII"), 0, padded,
+			bytes.length, 8);
+		writeInt(padded, idx1 + 4, readInt(bytes, idx1 + 4) + 4);
+		writeInt(padded, 4, readInt(bytes, 4) + 12);
+		Files.write(unindexed.toPath(), padded);
+
+		final AVIFormat.Metadata meta = (AVIFormat.Metadata) scifio.initializer()
+			.parseMetadata(new FileLocation(unindexed));
+		assertEquals(4, meta.getOffsets().length);
+		assertArrayEquals(new long[] { 0 }, meta.getKeyFrames());
+	}
+
+	// -- Helper methods --
+
+	/** Writes a small movie, and the same movie without its idx1 chunk. */
+	private void writeAVIs() throws IOException {
+		final ImgPlus<?> img = IO.open(new TestImgLocation.Builder().name("avi")
+			.pixelType("uint8").axes("X", "Y", "Channel", "Time").lengths(32, 16, 3,
+				4).build()).get(0);
+		new ImgSaver(scifio.context()).saveImg(new FileLocation(indexed), img);
+
+		// Same file, cut off just before the idx1 chunk
+		final byte[] bytes = Files.readAllBytes(indexed.toPath());
+		Files.write(unindexed.toPath(), Arrays.copyOf(bytes, findIdx1(bytes)));
+	}
+
+	/** Finds the position of the last idx1 chunk id. */
+	private static int findIdx1(final byte[] bytes) {
+		int idx1 = -1;
+		for (int i = bytes.length - 4; i >= 0 && idx1 < 0; i--) {
+			if (bytes[i] == 'i' && bytes[i + 1] == 'd' && bytes[i + 2] == 'x' &&
+				bytes[i + 3] == '1') idx1 = i;
+		}
+		assertTrue(idx1 > 0);
+		return idx1;
+	}
+
+	private static int readInt(final byte[] bytes, final int off) {
+		return Bytes.toInt(bytes, off, 4, true);
+	}
+
+	private static void writeInt(final byte[] bytes, final int off,
+		final int value)
+	{
+		Bytes.unpack(value, bytes, off, 4, true);
+	}
 }
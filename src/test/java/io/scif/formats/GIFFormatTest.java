@@ -29,20 +29,61 @@
 
 package io.scif.formats;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import io.scif.FormatException;
+import io.scif.Reader;
+import io.scif.SCIFIO;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
 
 import net.imagej.axis.Axes;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 import org.scijava.io.http.HTTPLocation;
+import org.scijava.io.location.FileLocation;
 
 public class GIFFormatTest extends AbstractFormatTest {
 
+	private static final int WIDTH = 64, HEIGHT = 48, FRAMES = 40;
+
+	private SCIFIO scifio;
+
+	private File file;
+
 	public GIFFormatTest() throws URISyntaxException, MalformedURLException {
 		super(new HTTPLocation("https://samples.scif.io/test-gif.zip"));
 	}
 
+	@Before
+	public void setUp() throws IOException {
+		scifio = new SCIFIO();
+		file = Files.createTempFile("frames", ".gif").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		scifio.context().dispose();
+		file.delete();
+	}
+
 	@Test
 	public void testBase() {
 		final String meta =
@@ -60,4 +101,132 @@ public class GIFFormatTest extends AbstractFormatTest {
 			"b73af3c4d7ae198eb8a3156af8ac0736c1cbec07", meta, new int[] { 530, 480, 3,
 				151 }, Axes.X, Axes.Y, Axes.CHANNEL, Axes.TIME);
 	}
+
+	@Test
+	public void testRandomAccess() throws IOException, FormatException {
+		final byte[][] frames = new byte[FRAMES][];
+		for (int t = 0; t < FRAMES; t++) {
+			frames[t] = gradient(t);
+		}
+		writeGIF(WIDTH, HEIGHT, frames, null, -1);
+
+		final Reader reader = scifio.initializer().initializeReader(
+			new FileLocation(file));
+		assertEquals(FRAMES, reader.getPlaneCount(0));
+
+		// backwards first, so that each frame is composited from a checkpoint
+		for (int t = FRAMES - 1; t >= 0; t--) {
+			assertArrayEquals("frame " + t, frames[t], reader.openPlane(0, t)
+				.getBytes());
+		}
+		// then forwards, continuing from the previous frame
+		for (int t = 0; t < FRAMES; t++) {
+			assertArrayEquals("frame " + t, frames[t], reader.openPlane(0, t)
+				.getBytes());
+		}
+		reader.close();
+	}
+
+	@Test
+	public void testDisposal() throws IOException, FormatException {
+		final int w = 8, h = 4;
+		final int t = 0; // transparent index
+		// left and right half of each frame, and of the expected planes
+		final int[][] halves = { { 5, 5 }, { t, 9 }, { 7, t }, { t, 3 }, { t, t } };
+		final int[][] expected = { { 5, 5 }, { 5, 9 }, { 7, 9 }, { 5, 3 }, { 0,
+			0 } };
+		final String[] dispose = { "doNotDispose", "doNotDispose",
+			"restoreToPrevious", "restoreToBackgroundColor", "none" };
+		final byte[][] frames = new byte[halves.length][];
+		for (int i = 0; i < frames.length; i++) {
+			frames[i] = halves(w, h, halves[i]);
+		}
+
+		writeGIF(w, h, frames, dispose, t);
+
+		final Reader reader = scifio.initializer().initializeReader(
+			new FileLocation(file));
+		assertEquals(frames.length, reader.getPlaneCount(0));
+		for (int i = frames.length - 1; i >= 0; i--) {
+			assertArrayEquals("frame " + i, halves(w, h, expected[i]), reader
+				.openPlane(0, i).getBytes());
+		}
+		for (int i = 0; i < frames.length; i++) {
+			assertArrayEquals("frame " + i, halves(w, h, expected[i]), reader
+				.openPlane(0, i).getBytes());
+		}
+		reader.close();
+	}
+
+	// -- Helper methods --
+
+	private static byte[] gradient(final int t) {
+		final byte[] pixels = new byte[WIDTH * HEIGHT];
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				pixels[y * WIDTH + x] = (byte) (x + y + 7 * t);
+			}
+		}
+		return pixels;
+	}
+
+	private static byte[] halves(final int width, final int height,
+		final int[] values)
+	{
+		final byte[] pixels = new byte[width * height];
+		for (int i = 0; i < pixels.length; i++) {
+			pixels[i] = (byte) values[i % width < width / 2 ? 0 : 1];
+		}
+		return pixels;
+	}
+
+	/**
+	 * Writes the given 8-bit indexed frames to {@link #file}, with the given
+	 * disposal method per frame and transparent index, if not null and not
+	 * negative respectively.
+	 */
+	private void writeGIF(final int width, final int height,
+		final byte[][] frames, final String[] dispose, final int transIndex)
+		throws IOException
+	{
+		final byte[] gray = new byte[256];
+		for (int i = 0; i < gray.length; i++) {
+			gray[i] = (byte) i;
+		}
+		final IndexColorModel model = new IndexColorModel(8, 256, gray, gray,
+			gray);
+
+		final ImageWriter writer = ImageIO.getImageWritersByFormatName("gif")
+			.next();
+		try (final ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+			writer.setOutput(out);
+			writer.prepareWriteSequence(null);
+			for (int t = 0; t < frames.length; t++) {
+				final BufferedImage img = new BufferedImage(width, height,
+					BufferedImage.TYPE_BYTE_INDEXED, model);
+				img.getRaster().setDataElements(0, 0, width, height, frames[t]);
+				IIOMetadata meta = null;
+				if (dispose != null) {
+					meta = writer.getDefaultImageMetadata(new ImageTypeSpecifier(img),
+						null);
+					final String format = meta.getNativeMetadataFormatName();
+					final IIOMetadataNode root = (IIOMetadataNode) meta.getAsTree(
+						format);
+					final IIOMetadataNode gce = (IIOMetadataNode) root
+						.getElementsByTagName("GraphicControlExtension").item(0);
+					gce.setAttribute("disposalMethod", dispose[t]);
+					gce.setAttribute("transparentColorFlag", String.valueOf(
+						transIndex >= 0));
+					gce.setAttribute("transparentColorIndex", String.valueOf(Math.max(0,
+						transIndex)));
+					meta.setFromTree(format, root);
+				}
+				writer.writeToSequence(new IIOImage(img, null, meta), null);
+			}
+			writer.endWriteSequence();
+		}
+		finally {
+			writer.dispose();
+		}
+	}
 }
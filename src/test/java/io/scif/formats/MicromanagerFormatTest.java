@@ -0,0 +1,257 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.formats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import io.scif.ByteArrayPlane;
+import io.scif.formats.tiff.IFD;
+import io.scif.formats.tiff.TiffSaver;
+import io.scif.util.FormatTools;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.handle.DataHandleService;
+import org.scijava.io.location.FileLocation;
+import org.scijava.io.location.Location;
+
+/**
+ * Tests {@link MicromanagerFormat}.
+ */
+public class MicromanagerFormatTest {
+
+	private static final int WIDTH = 8;
+
+	private static final int HEIGHT = 4;
+
+	private static final int Z = 2;
+
+	private static final String[] CHANNELS = { "DAPI", "GFP" };
+
+	private static final int T = 3;
+
+	private File dir;
+
+	private Context context;
+
+	private MicromanagerFormat format;
+
+	private File metadataFile;
+
+	@Before
+	public void setUp() throws Exception {
+		context = new Context();
+		format = new MicromanagerFormat();
+		format.setContext(context);
+		dir = Files.createTempDirectory("micromanager").toFile();
+		metadataFile = writeAcquisition(dir);
+	}
+
+	@After
+	public void tearDown() {
+		context.dispose();
+		for (final File file : dir.listFiles()) {
+			file.delete();
+		}
+		dir.delete();
+	}
+
+	/** Checks that each plane is read from its own file. */
+	@Test
+	public void testOpenPlanes() throws Exception {
+		final MicromanagerFormat.Reader reader =
+			(MicromanagerFormat.Reader) format.createReader();
+		reader.setSource(new FileLocation(metadataFile));
+		final long planeCount = reader.getPlaneCount(0);
+		assertEquals(Z * CHANNELS.length * T, planeCount);
+
+		// read in channel-interleaved order, revisiting files
+		for (int pass = 0; pass < 2; pass++) {
+			for (long p = 0; p < planeCount; p++) {
+				final ByteArrayPlane plane = reader.openPlane(0, p);
+				assertEquals(p, plane.getBytes()[0]);
+			}
+		}
+		assertEquals(planeCount, reader.getOpenFileCount());
+		reader.close();
+		assertEquals(0, reader.getOpenFileCount());
+	}
+
+	/** Checks that no more than the allowed number of files are kept open. */
+	@Test
+	public void testBoundedOpenFiles() throws Exception {
+		final MicromanagerFormat.Reader reader =
+			(MicromanagerFormat.Reader) format.createReader();
+		reader.setSource(new FileLocation(metadataFile));
+		reader.setMaxOpenFiles(3);
+		for (long p = reader.getPlaneCount(0) - 1; p >= 0; p--) {
+			assertEquals(p, reader.openPlane(0, p).getBytes()[0]);
+			assertTrue(reader.getOpenFileCount() <= 3);
+		}
+		reader.close();
+	}
+
+	/**
+	 * Checks that concurrent reads through a small pool of open files return
+	 * the right planes, and that evicted files are still closed.
+	 */
+	@Test
+	public void testConcurrentOpen() throws Exception {
+		final MicromanagerFormat.Reader reader =
+			(MicromanagerFormat.Reader) format.createReader();
+		reader.setSource(new FileLocation(metadataFile));
+		reader.setMaxOpenFiles(2);
+		final long planeCount = reader.getPlaneCount(0);
+
+		final ExecutorService pool = Executors.newFixedThreadPool(4);
+		final List<Future<?>> results = new ArrayList<>();
+		for (int task = 0; task < 4; task++) {
+			final int offset = task;
+			results.add(pool.submit(() -> {
+				for (int pass = 0; pass < 5; pass++) {
+					for (long p = 0; p < planeCount; p++) {
+						final long plane = (p + offset) % planeCount;
+						assertEquals(plane, reader.openPlane(0, plane).getBytes()[0]);
+					}
+				}
+				return null;
+			}));
+		}
+		for (final Future<?> result : results) {
+			result.get();
+		}
+		pool.shutdown();
+		assertTrue(reader.getOpenFileCount() <= 2);
+		reader.close();
+		assertEquals(0, reader.getOpenFileCount());
+	}
+
+	/** Checks that per-frame metadata is indexed, and read on request. */
+	@Test
+	public void testFrameMetadata() throws Exception {
+		final MicromanagerFormat.Reader reader =
+			(MicromanagerFormat.Reader) format.createReader();
+		reader.setSource(new FileLocation(metadataFile));
+		final MicromanagerFormat.Metadata meta = reader.getMetadata();
+		final long planeCount = reader.getPlaneCount(0);
+
+		assertEquals(planeCount, meta.getPositions().get(0).timestamps.length);
+		assertEquals("Micro-Manager 1.4", meta.getTable().get(
+			"MicroManagerVersion"));
+		// only the first frame is in the table
+		assertEquals("frame 0", meta.getTable().get("Label"));
+
+		for (long p = 0; p < planeCount; p++) {
+			final Map<String, String> frame = reader.getFrameMetadata(0, p);
+			assertEquals("frame " + p, frame.get("Label"));
+			assertEquals("1.5", frame.get("X-um"));
+		}
+		// no TIFF was opened to read the frame metadata
+		assertEquals(0, reader.getOpenFileCount());
+		reader.close();
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Writes a metadata.txt and one single-plane TIFF per (z, c, t) position,
+	 * with the plane's index as its first pixel.
+	 */
+	private File writeAcquisition(final File dir) throws Exception {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("{\n");
+		sb.append("\"Summary\": {\n");
+		sb.append("  \"Slices\": " + Z + ",\n");
+		sb.append("  \"Channels\": " + CHANNELS.length + ",\n");
+		sb.append("  \"Frames\": " + T + ",\n");
+		sb.append("  \"Width\": " + WIDTH + ",\n");
+		sb.append("  \"Height\": " + HEIGHT + ",\n");
+		sb.append("  \"IJType\": 0,\n");
+		sb.append("  \"ChNames\": [\n");
+		sb.append("    \"" + CHANNELS[0] + "\",\n");
+		sb.append("    \"" + CHANNELS[1] + "\"\n");
+		sb.append("  ],\n");
+		sb.append("  \"MicroManagerVersion\": \"Micro-Manager 1.4\",\n");
+		sb.append("},\n");
+
+		final DataHandleService handles = context.getService(
+			DataHandleService.class);
+		for (int t = 0; t < T; t++) {
+			for (int c = 0; c < CHANNELS.length; c++) {
+				for (int z = 0; z < Z; z++) {
+					final String name = String.format("img_%09d_%s_%03d.tif", t,
+						CHANNELS[c], z);
+					sb.append("\"FrameKey-" + t + "-" + c + "-" + z + "\": {\n");
+					sb.append("  \"FileName\": \"" + name + "\",\n");
+					// plane index of (z, c, t) with axes X, Y, Z, C, T
+					final int planeIndex = z + Z * (c + CHANNELS.length * t);
+					sb.append("  \"ElapsedTime-ms\": " + (100 * t) + ",\n");
+					sb.append("  \"Label\": \"frame " + planeIndex + "\",\n");
+					sb.append("  \"Stage\": { \"X-um\": 1.5, \"Y-um\": [1, 2] },\n");
+					sb.append("},\n");
+
+					final Location file = new FileLocation(new File(dir, name));
+					try (final DataHandle<Location> out = handles.create(file)) {
+						final TiffSaver saver = new TiffSaver(context, out);
+						saver.setLittleEndian(true);
+						saver.writeHeader();
+						final IFD ifd = new IFD(null);
+						ifd.put(IFD.IMAGE_WIDTH, (long) WIDTH);
+						ifd.put(IFD.IMAGE_LENGTH, (long) HEIGHT);
+						ifd.put(IFD.LITTLE_ENDIAN, Boolean.TRUE);
+						final byte[] plane = new byte[WIDTH * HEIGHT];
+						plane[0] = (byte) planeIndex;
+						saver.writeImage(plane, ifd, 0, FormatTools.UINT8, true);
+					}
+				}
+			}
+		}
+		sb.append("}\n");
+
+		final File metadata = new File(dir, "metadata.txt");
+		Files.write(metadata.toPath(), sb.toString().getBytes(
+			StandardCharsets.UTF_8));
+		return metadata;
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.formats;
+
+import io.scif.BenchmarkRunner;
+import io.scif.FormatException;
+import io.scif.Plane;
+import io.scif.Reader;
+import io.scif.SCIFIO;
+import io.scif.img.IO;
+import io.scif.img.ImgSaver;
+import io.scif.img.SCIFIOImgPlus;
+import io.scif.io.location.TestImgLocation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.RunnerException;
+import org.scijava.io.location.FileLocation;
+import org.scijava.io.location.Location;
+
+/**
+ * Measures {@link Reader#openPlane} throughput for a selection of formats.
+ * <p>
+ * The source data is synthesized with {@link TestImgFormat} and, for on-disk
+ * formats, written once to a temporary file with the matching suffix. Each
+ * invocation opens the next plane of the dataset, cycling through the stack,
+ * either into a freshly allocated plane or into a reused one.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class OpenPlaneBenchmark {
+
+	/** File suffix of the format to read; {@code fake} reads synthetic data. */
+	@Param({ "fake", "tif", "ics" })
+	public String format;
+
+	@Param({ "uint8", "uint16", "float" })
+	public String pixelType;
+
+	/** Width and height of each plane. */
+	@Param({ "256", "1024" })
+	public int size;
+
+	private static final int PLANES = 16;
+
+	private SCIFIO scifio;
+
+	private File tempFile;
+
+	private Reader reader;
+
+	private Plane plane;
+
+	private int planeIndex;
+
+	@Setup
+	public void setUp() throws IOException, FormatException {
+		scifio = new SCIFIO();
+		final TestImgLocation source = TestImgLocation.builder().name(
+			"openPlaneBenchmark").pixelType(pixelType).axes("X", "Y", "Z").lengths(
+				size, size, PLANES).build();
+
+		final Location loc;
+		if ("fake".equals(format)) {
+			loc = source;
+		}
+		else {
+			tempFile = Files.createTempFile("openPlaneBenchmark", "." + format)
+				.toFile();
+			tempFile.delete();
+			final SCIFIOImgPlus<?> img = IO.open(source).get(0);
+			new ImgSaver(scifio.getContext()).saveImg(new FileLocation(tempFile),
+				img);
+			loc = new FileLocation(tempFile);
+		}
+		reader = scifio.initializer().initializeReader(loc);
+		plane = reader.openPlane(0, 0);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		reader.close();
+		scifio.getContext().dispose();
+		if (tempFile != null) tempFile.delete();
+	}
+
+	@Benchmark
+	public Plane openPlane() throws FormatException, IOException {
+		return reader.openPlane(0, nextPlane());
+	}
+
+	@Benchmark
+	public Plane openPlaneReused() throws FormatException, IOException {
+		return reader.openPlane(0, nextPlane(), plane);
+	}
+
+	private int nextPlane() {
+		planeIndex = (planeIndex + 1) % PLANES;
+		return planeIndex;
+	}
+
+	public static void main(final String... args) throws RunnerException {
+		BenchmarkRunner.run(OpenPlaneBenchmark.class);
+	}
+}
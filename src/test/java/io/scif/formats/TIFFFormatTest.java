@@ -0,0 +1,245 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.formats;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.scif.ByteArrayPlane;
+import io.scif.ImageMetadata;
+import io.scif.LargePlane;
+import io.scif.MetadataLevel;
+import io.scif.config.SCIFIOConfig;
+import io.scif.formats.tiff.IFD;
+import io.scif.formats.tiff.IFDList;
+import io.scif.formats.tiff.TiffSaver;
+import io.scif.util.FormatTools;
+import io.scif.util.ReadTrackingHandle;
+
+import net.imglib2.FinalInterval;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.handle.DataHandleService;
+import org.scijava.io.location.BytesLocation;
+import org.scijava.io.location.Location;
+
+/**
+ * Tests {@link TIFFFormat}.
+ */
+public class TIFFFormatTest {
+
+	private static final int WIDTH = 16;
+
+	private static final int HEIGHT = 32;
+
+	private static final int PLANES = 12;
+
+	private static Context context;
+
+	private static TIFFFormat format;
+
+	private static BytesLocation tiff;
+
+	@BeforeClass
+	public static void oneTimeSetup() throws Exception {
+		context = new Context();
+		format = new TIFFFormat();
+		format.setContext(context);
+		tiff = writeTIFF();
+	}
+
+	@AfterClass
+	public static void oneTimeTearDown() {
+		context.dispose();
+	}
+
+	/**
+	 * Checks that parsing at {@link MetadataLevel#DIMENSIONS} produces the same
+	 * image metadata as {@link MetadataLevel#MINIMUM}, without touching pixel
+	 * data or the strip tables of any IFD but the first.
+	 */
+	@Test
+	public void testDimensionsOnlyParse() throws Exception {
+		final ReadTrackingHandle minHandle = handle();
+		final TIFFFormat.Metadata minMeta = parse(minHandle,
+			MetadataLevel.MINIMUM);
+		final ReadTrackingHandle dimHandle = handle();
+		final TIFFFormat.Metadata dimMeta = parse(dimHandle,
+			MetadataLevel.DIMENSIONS);
+
+		assertEquals(minMeta.getImageCount(), dimMeta.getImageCount());
+		final ImageMetadata expected = minMeta.get(0);
+		final ImageMetadata actual = dimMeta.get(0);
+		assertArrayEquals(expected.getAxesLengths(), actual.getAxesLengths());
+		assertEquals(expected.getPlanarAxisCount(), actual.getPlanarAxisCount());
+		assertEquals(expected.getPixelType(), actual.getPixelType());
+		assertEquals(PLANES, actual.getPlaneCount());
+
+		final IFDList ifds = minMeta.getIfds();
+		for (int i = 0; i < ifds.size(); i++) {
+			minMeta.getTiffParser().fillInIFD(ifds.get(i));
+			final long[] offsets = ifds.get(i).getStripOffsets();
+			final long[] counts = ifds.get(i).getStripByteCounts();
+			for (int s = 0; s < offsets.length; s++) {
+				assertFalse(dimHandle.wasRead(offsets[s], offsets[s] + counts[s]));
+			}
+		}
+		assertTrue(dimHandle.getBytesRead() < minHandle.getBytesRead());
+	}
+
+	/**
+	 * Checks that a config without a level reports none, and parses as much
+	 * metadata as {@link MetadataLevel#ALL}.
+	 */
+	@Test
+	public void testUnsetLevel() throws Exception {
+		final SCIFIOConfig config = new SCIFIOConfig();
+		assertNull(config.parserGetLevel());
+		for (final MetadataLevel level : MetadataLevel.values()) {
+			assertTrue(config.parserIncludesLevel(level));
+		}
+		assertFalse(config.parserSetLevel(MetadataLevel.MINIMUM)
+			.parserIncludesLevel(MetadataLevel.NO_OVERLAYS));
+
+		final ReadTrackingHandle allHandle = handle();
+		final TIFFFormat.Metadata all = parse(allHandle, MetadataLevel.ALL);
+		final ReadTrackingHandle unsetHandle = handle();
+		final TIFFFormat.Metadata unset = parse(unsetHandle, null);
+		assertEquals(all.getTable().keySet(), unset.getTable().keySet());
+		assertEquals(allHandle.getBytesRead(), unsetHandle.getBytesRead());
+	}
+
+	/** Checks which parsers claim dimensions-only support. */
+	@Test
+	public void testSupportedLevels() throws Exception {
+		assertTrue(format.createParser().getSupportedMetadataLevels().contains(
+			MetadataLevel.DIMENSIONS));
+		final BMPFormat bmp = new BMPFormat();
+		bmp.setContext(context);
+		assertFalse(bmp.createParser().getSupportedMetadataLevels().contains(
+			MetadataLevel.DIMENSIONS));
+	}
+
+	/** Checks that pixels can still be read after a dimensions-only parse. */
+	@Test
+	public void testDimensionsOnlyRead() throws Exception {
+		final byte[] expected = openPlane(MetadataLevel.MINIMUM);
+		final byte[] actual = openPlane(MetadataLevel.DIMENSIONS);
+		assertEquals(WIDTH * HEIGHT, actual.length);
+		assertArrayEquals(expected, actual);
+	}
+
+	/** Checks that off-heap planes match array planes, whole and cropped. */
+	@Test
+	public void testLargePlane() throws Exception {
+		final byte[] expected = openPlane(MetadataLevel.MINIMUM);
+		final TIFFFormat.Reader<?> reader = (TIFFFormat.Reader<?>) format
+			.createReader();
+		reader.setMetadata(parse(handle(), MetadataLevel.MINIMUM));
+
+		final LargePlane whole = reader.openLargePlane(0, 0);
+		assertEquals(WIDTH * HEIGHT, whole.getSize());
+		assertArrayEquals(expected, whole.getBytes());
+
+		final int x = 3, y = 5, w = 8, h = 16;
+		final LargePlane crop = reader.openLargePlane(0, 0, new FinalInterval(
+			new long[] { x, y }, new long[] { x + w - 1, y + h - 1 }));
+		final byte[] actual = crop.getBytes();
+		assertEquals(w * h, actual.length);
+		for (int j = 0; j < h; j++) {
+			for (int i = 0; i < w; i++) {
+				assertEquals(expected[(y + j) * WIDTH + x + i], actual[j * w + i]);
+			}
+		}
+		reader.close();
+	}
+
+	// -- Helper methods --
+
+	private static ReadTrackingHandle handle() {
+		final DataHandleService handles = context.getService(
+			DataHandleService.class);
+		return new ReadTrackingHandle(handles.create(tiff));
+	}
+
+	private static TIFFFormat.Metadata parse(final DataHandle<Location> handle,
+		final MetadataLevel level) throws Exception
+	{
+		final TIFFFormat.Parser parser = (TIFFFormat.Parser) format
+			.createParser();
+		return (TIFFFormat.Metadata) parser.parse(handle, format.createMetadata(),
+			new SCIFIOConfig().parserSetLevel(level).groupableSetGroupFiles(false));
+	}
+
+	private static byte[] openPlane(final MetadataLevel level)
+		throws Exception
+	{
+		final TIFFFormat.Reader<?> reader = (TIFFFormat.Reader<?>) format
+			.createReader();
+		reader.setMetadata(parse(handle(), level));
+		final byte[] bytes = ((ByteArrayPlane) reader.openPlane(0, 0)).getBytes();
+		reader.close();
+		return bytes;
+	}
+
+	/** Writes a multi-plane TIFF with one strip per row. */
+	private static BytesLocation writeTIFF() throws Exception {
+		final BytesLocation bytes = new BytesLocation(WIDTH * HEIGHT * PLANES * 2);
+		final DataHandleService handles = context.getService(
+			DataHandleService.class);
+		try (final DataHandle<Location> out = handles.create(bytes)) {
+			final TiffSaver saver = new TiffSaver(context, out);
+			saver.setWritingSequentially(true);
+			saver.setLittleEndian(true);
+			saver.writeHeader();
+			for (int p = 0; p < PLANES; p++) {
+				final IFD ifd = new IFD(null);
+				ifd.put(IFD.IMAGE_WIDTH, (long) WIDTH);
+				ifd.put(IFD.IMAGE_LENGTH, (long) HEIGHT);
+				ifd.put(IFD.ROWS_PER_STRIP, new long[] { 1 });
+				ifd.put(IFD.LITTLE_ENDIAN, Boolean.TRUE);
+				final byte[] plane = new byte[WIDTH * HEIGHT];
+				for (int i = 0; i < plane.length; i++) {
+					plane[i] = (byte) (i + p);
+				}
+				out.seek(out.length());
+				saver.writeImage(plane, ifd, p, FormatTools.UINT8, p == PLANES - 1);
+			}
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,353 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.formats.tiff;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import io.scif.io.AsyncDataHandle;
+import io.scif.util.AsyncReadableHandle;
+import io.scif.util.FormatTools;
+import io.scif.util.LargeByteBuffer;
+import io.scif.util.ReadTrackingHandle;
+
+import java.io.EOFException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.handle.DataHandleService;
+import org.scijava.io.location.BytesLocation;
+import org.scijava.io.location.Location;
+
+/**
+ * Tests {@link TiffParser}.
+ */
+public class TiffParserTest {
+
+	private static final int WIDTH = 8;
+
+	private static final int HEIGHT = 4;
+
+	private static final int PLANES = 10;
+
+	private static Context context;
+
+	private static DataHandleService handles;
+
+	@BeforeClass
+	public static void oneTimeSetup() {
+		context = new Context();
+		handles = context.getService(DataHandleService.class);
+	}
+
+	@AfterClass
+	public static void oneTimeTearDown() {
+		context.dispose();
+	}
+
+	@Test
+	public void testLazyIFDs() throws Exception {
+		final BytesLocation tiff = writeTIFF(null);
+		final IFDList eager = new TiffParser(context, handles.create(tiff))
+			.getIFDs();
+
+		final TiffParser parser = new TiffParser(context, handles.create(tiff));
+		parser.setLazyIFDs(true);
+		final IFDList lazy = parser.getIFDs();
+
+		assertEquals(PLANES, lazy.size());
+		assertFalse(lazy.get(0) instanceof OnDemandIFD);
+		for (int i = 2; i < PLANES; i++) {
+			assertTrue(lazy.get(i) instanceof OnDemandIFD);
+			assertFalse(((OnDemandIFD) lazy.get(i)).isLoaded());
+		}
+
+		final OnDemandIFD ifd = (OnDemandIFD) lazy.get(5);
+		final long fp = parser.getStream().offset();
+		assertEquals(eager.get(5).getStripOffsets()[0], ifd.getStripOffsets()[0]);
+		assertTrue(ifd.isLoaded());
+		assertEquals(fp, parser.getStream().offset());
+		assertEquals(eager.get(5).keySet(), ifd.keySet());
+		assertFalse(((OnDemandIFD) lazy.get(6)).isLoaded());
+	}
+
+	@Test
+	public void testLazyIFDsConcurrentLoad() throws Exception {
+		final BytesLocation tiff = writeTIFF(null);
+		final IFDList eager = new TiffParser(context, handles.create(tiff))
+			.getIFDs();
+		final TiffParser parser = new TiffParser(context, handles.create(tiff));
+		parser.setLazyIFDs(true);
+		final IFDList lazy = parser.getIFDs();
+
+		final ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			for (int i = 2; i < PLANES; i++) {
+				final IFD ifd = lazy.get(i);
+				final CountDownLatch start = new CountDownLatch(1);
+				final List<Future<Integer>> sizes = new ArrayList<>();
+				for (int t = 0; t < 4; t++) {
+					sizes.add(pool.submit(() -> {
+						start.await();
+						return ifd.size();
+					}));
+				}
+				start.countDown();
+				for (final Future<Integer> size : sizes) {
+					assertEquals(eager.get(i).size(), size.get().intValue());
+				}
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testLazyIFDReadError() throws Exception {
+		final BytesLocation tiff = writeTIFF(null);
+		final TiffParser parser = new TiffParser(context, handles.create(tiff));
+		final OnDemandIFD ifd = new OnDemandIFD(parser, parser.getStream()
+			.length() - 1, null);
+		try {
+			ifd.size();
+			fail("Expected an UncheckedIOException");
+		}
+		catch (final UncheckedIOException e) {
+			assertTrue(e.getCause() instanceof EOFException);
+		}
+		assertFalse(ifd.isLoaded());
+	}
+
+	@Test
+	public void testEagerIFDsWithoutLazyFlag() throws Exception {
+		final TiffParser parser = new TiffParser(context, handles.create(writeTIFF(
+			null)));
+		for (final IFD ifd : parser.getIFDs()) {
+			assertFalse(ifd instanceof OnDemandIFD);
+		}
+	}
+
+	@Test
+	public void testChainedOffsets() throws Exception {
+		final BytesLocation tiff = writeTIFF(null);
+		final ReadTrackingHandle handle = new ReadTrackingHandle(handles.create(
+			tiff));
+		final long[] offsets = new TiffParser(context, handle).getIFDOffsets();
+		assertEquals(PLANES, offsets.length);
+		for (final long offset : offsets) {
+			assertTrue(handle.wasRead(offset, offset + 2));
+		}
+	}
+
+	@Test
+	public void testImageJOffsets() throws Exception {
+		final BytesLocation tiff = writeTIFF("ImageJ=1.53t\nimages=" + PLANES +
+			"\nslices=" + PLANES + "\n");
+		final long[] expected = new TiffParser(context, handles.create(tiff))
+			.getIFDOffsets();
+
+		final ReadTrackingHandle handle = new ReadTrackingHandle(handles.create(
+			tiff));
+		final TiffParser parser = new TiffParser(context, handle);
+		final long[] offsets = parser.getIFDOffsets();
+		assertArrayEquals(expected, offsets);
+
+		// only the first three and the last IFD are visited
+		for (int i = 3; i < PLANES - 1; i++) {
+			assertFalse(handle.wasRead(offsets[i], offsets[i] + 2));
+		}
+		assertTrue(handle.wasRead(offsets[PLANES - 1], offsets[PLANES - 1] + 2));
+
+		// the offsets are cached
+		handle.reset();
+		assertArrayEquals(expected, parser.getIFDOffsets());
+		assertEquals(0, handle.getBytesRead());
+	}
+
+	@Test
+	public void testImageJOffsetsMismatch() throws Exception {
+		// declares more images than the file holds
+		final BytesLocation tiff = writeTIFF("ImageJ=1.53t\nimages=" + (PLANES +
+			5) + "\n");
+		final long[] offsets = new TiffParser(context, handles.create(tiff))
+			.getIFDOffsets();
+		assertEquals(PLANES, offsets.length);
+	}
+
+	@Test
+	public void testAsyncTiles() throws Exception {
+		final BytesLocation tiff = writeTIFF(null);
+		final TiffParser plain = new TiffParser(context, handles.create(tiff));
+		final IFD expected = plain.getIFDs().get(3);
+
+		final AsyncReadableHandle handle = new AsyncReadableHandle(handles.create(
+			tiff));
+		final TiffParser parser = new TiffParser(context, handle);
+		final IFD ifd = parser.getIFDs().get(3);
+		handle.hold();
+		final CompletableFuture<byte[]> tile = parser.getTileAsync(ifd, null, 0,
+			0);
+		assertFalse(tile.isDone());
+		handle.release();
+		assertArrayEquals(plain.getTile(expected, null, 0, 0), tile.get());
+		assertEquals(3, tile.get()[0]);
+		assertArrayEquals(tile.get(), parser.getTile(ifd, null, 0, 0));
+		assertEquals(2, handle.getRequestCount());
+	}
+
+	@Test
+	public void testPlanarSamples() throws Exception {
+		final int size = 32, tile = 16, channels = 3;
+		final byte[] pixels = new byte[channels * size * size];
+		for (int i = 0; i < pixels.length; i++) {
+			pixels[i] = (byte) (i * 7);
+		}
+		final BytesLocation bytes = writeTiledTIFF(pixels, size, tile);
+
+		final TiffParser parser = new TiffParser(context, handles.create(bytes));
+		final IFD ifd = parser.getIFDs().get(0);
+		assertEquals(2, ifd.getPlanarConfiguration());
+
+		// a region spanning all four tiles, for every channel
+		final int x = 10, y = 5, w = 12, h = 20;
+		final byte[] expected = new byte[channels * w * h];
+		for (int c = 0; c < channels; c++) {
+			for (int row = 0; row < h; row++) {
+				System.arraycopy(pixels, (c * size + y + row) * size + x, expected,
+					(c * h + row) * w, w);
+			}
+		}
+		assertArrayEquals(expected, parser.getSamples(ifd, new byte[expected.length],
+			x, y, w, h));
+		assertArrayEquals(expected, parser.getSamples(ifd, new LargeByteBuffer(
+			expected.length), x, y, w, h).toArray());
+
+		// channels that do not fit in the buffer are skipped
+		final byte[] first = new byte[w * h];
+		parser.getSamples(ifd, first, x, y, w, h);
+		assertArrayEquals(Arrays.copyOf(expected, first.length), first);
+	}
+
+	@Test
+	public void testAsyncSamples() throws Exception {
+		final int size = 32, tile = 8;
+		final byte[] pixels = new byte[size * size];
+		for (int i = 0; i < pixels.length; i++) {
+			pixels[i] = (byte) (i * 3);
+		}
+		final BytesLocation bytes = writeTiledTIFF(pixels, size, tile);
+		final TiffParser plain = new TiffParser(context, handles.create(bytes));
+		final byte[] expected = plain.getSamples(plain.getIFDs().get(0),
+			new byte[20 * 20], 6, 6, 20, 20);
+
+		// tile fetches go through the handle's executor
+		final AtomicInteger tasks = new AtomicInteger();
+		try (final AsyncDataHandle handle = new AsyncDataHandle(handles, handles
+			.create(bytes), task -> {
+				tasks.incrementAndGet();
+				task.run();
+			}))
+		{
+			final TiffParser parser = new TiffParser(context, handle);
+			final IFD ifd = parser.getIFDs().get(0);
+			assertArrayEquals(expected, parser.getSamples(ifd, new byte[20 * 20], 6,
+				6, 20, 20));
+			assertTrue(tasks.get() > 0);
+		}
+	}
+
+	// -- Helper methods --
+
+	/** Writes a single-plane, tiled, planar TIFF of 8-bit samples. */
+	private static BytesLocation writeTiledTIFF(final byte[] pixels,
+		final int size, final int tile) throws Exception
+	{
+		final BytesLocation bytes = new BytesLocation(0);
+		try (final DataHandle<Location> out = handles.create(bytes)) {
+			final TiffSaver saver = new TiffSaver(context, out);
+			saver.setWritingSequentially(true);
+			saver.setLittleEndian(true);
+			saver.writeHeader();
+			final IFD ifd = new IFD(null);
+			ifd.put(IFD.IMAGE_WIDTH, (long) size);
+			ifd.put(IFD.IMAGE_LENGTH, (long) size);
+			ifd.put(IFD.TILE_WIDTH, (long) tile);
+			ifd.put(IFD.TILE_LENGTH, (long) tile);
+			ifd.put(IFD.PLANAR_CONFIGURATION, 2);
+			ifd.put(IFD.LITTLE_ENDIAN, Boolean.TRUE);
+			saver.writeImage(pixels, ifd, 0, FormatTools.UINT8, true);
+		}
+		return bytes;
+	}
+
+	/** Writes a multi-plane TIFF, optionally with an image description. */
+	private static BytesLocation writeTIFF(final String description)
+		throws Exception
+	{
+		final BytesLocation bytes = new BytesLocation(0);
+		try (final DataHandle<Location> out = handles.create(bytes)) {
+			final TiffSaver saver = new TiffSaver(context, out);
+			saver.setWritingSequentially(true);
+			saver.setLittleEndian(true);
+			saver.writeHeader();
+			for (int p = 0; p < PLANES; p++) {
+				final IFD ifd = new IFD(null);
+				ifd.put(IFD.IMAGE_WIDTH, (long) WIDTH);
+				ifd.put(IFD.IMAGE_LENGTH, (long) HEIGHT);
+				ifd.put(IFD.LITTLE_ENDIAN, Boolean.TRUE);
+				if (p == 0 && description != null) {
+					ifd.put(IFD.IMAGE_DESCRIPTION, description);
+				}
+				final byte[] plane = new byte[WIDTH * HEIGHT];
+				plane[0] = (byte) p;
+				out.seek(out.length());
+				saver.writeImage(plane, ifd, p, FormatTools.UINT8, p == PLANES - 1);
+			}
+		}
+		return bytes;
+	}
+}
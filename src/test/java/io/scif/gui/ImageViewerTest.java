@@ -0,0 +1,104 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.gui;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+import java.awt.EventQueue;
+import java.awt.GraphicsEnvironment;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.io.location.Location;
+
+/**
+ * Tests {@link ImageViewer}.
+ */
+public class ImageViewerTest {
+
+	private Context context;
+
+	@Before
+	public void setUp() {
+		context = new Context();
+	}
+
+	@After
+	public void tearDown() {
+		context.dispose();
+	}
+
+	/** Files open and save on the viewer queue, not the event dispatch thread. */
+	@Test
+	public void testLoadsOnQueue() throws Exception {
+		// the viewer is a frame, which cannot be created without a display
+		assumeFalse(GraphicsEnvironment.isHeadless());
+
+		final CountDownLatch opened = new CountDownLatch(1);
+		final CountDownLatch saved = new CountDownLatch(1);
+		final String[] threads = new String[2];
+		final boolean[] dispatchThreads = new boolean[2];
+		final ImageViewer viewer = new ImageViewer(context) {
+
+			@Override
+			public void open(final Location id) {
+				threads[0] = Thread.currentThread().getName();
+				dispatchThreads[0] = EventQueue.isDispatchThread();
+				opened.countDown();
+			}
+
+			@Override
+			public void save(final Location id) {
+				threads[1] = Thread.currentThread().getName();
+				dispatchThreads[1] = EventQueue.isDispatchThread();
+				saved.countDown();
+			}
+		};
+		try {
+			viewer.open("viewer.png", null);
+			viewer.save("viewer.png", null);
+			assertTrue(opened.await(10, TimeUnit.SECONDS));
+			assertTrue(saved.await(10, TimeUnit.SECONDS));
+			for (int i = 0; i < threads.length; i++) {
+				assertTrue(threads[i].endsWith(ImageViewer.LOADER_QUEUE));
+				assertFalse(dispatchThreads[i]);
+			}
+		}
+		finally {
+			viewer.dispose();
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.gui;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.scif.FormatException;
+import io.scif.Reader;
+
+import java.awt.EventQueue;
+import java.awt.image.BufferedImage;
+import java.beans.PropertyChangeEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import javax.swing.JFileChooser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scijava.Context;
+
+/**
+ * Tests {@link PreviewPane}.
+ */
+public class PreviewPaneTest {
+
+	private Context context;
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		context = new Context();
+		file = Files.createTempFile("preview", ".png").toFile();
+		ImageIO.write(new BufferedImage(64, 48, BufferedImage.TYPE_BYTE_GRAY),
+			"png", file);
+	}
+
+	@After
+	public void tearDown() {
+		context.dispose();
+		file.delete();
+	}
+
+	/** Thumbnails load on the preview queue, not the event dispatch thread. */
+	@Test
+	public void testLoadsOnQueue() throws Exception {
+		final RecordingThumbnailService thumbnails =
+			new RecordingThumbnailService();
+		context.inject(thumbnails);
+		final JFileChooser chooser = new JFileChooser();
+		final PreviewPane pane = new PreviewPane(context, chooser);
+		pane.thumbnailService = thumbnails;
+
+		pane.propertyChange(new PropertyChangeEvent(chooser,
+			JFileChooser.SELECTED_FILE_CHANGED_PROPERTY, null, file));
+		assertTrue(thumbnails.loaded.await(10, TimeUnit.SECONDS));
+		assertTrue(thumbnails.thread.endsWith(PreviewPane.LOADER_QUEUE));
+		assertFalse(thumbnails.dispatchThread);
+		assertTrue(thumbnails.finished.await(10, TimeUnit.SECONDS));
+		pane.close();
+	}
+
+	// -- Helper classes --
+
+	/** Records the thread on which a thumbnail is requested. */
+	private static class RecordingThumbnailService extends
+		DefaultThumbnailService
+	{
+
+		private final CountDownLatch loaded = new CountDownLatch(1);
+
+		private final CountDownLatch finished = new CountDownLatch(1);
+
+		private volatile String thread;
+
+		private volatile boolean dispatchThread;
+
+		@Override
+		public BufferedImage openThumbnail(final Reader reader,
+			final int imageIndex, final long planeIndex) throws FormatException,
+			IOException
+		{
+			thread = Thread.currentThread().getName();
+			dispatchThread = EventQueue.isDispatchThread();
+			loaded.countDown();
+			try {
+				return super.openThumbnail(reader, imageIndex, planeIndex);
+			}
+			finally {
+				finished.countDown();
+			}
+		}
+	}
+}
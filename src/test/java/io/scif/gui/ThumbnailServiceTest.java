@@ -0,0 +1,233 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import io.scif.formats.tiff.IFD;
+import io.scif.formats.tiff.TiffSaver;
+import io.scif.util.FormatTools;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.handle.DataHandleService;
+import org.scijava.io.location.FileLocation;
+import org.scijava.io.location.Location;
+
+/**
+ * Tests {@link ThumbnailService} and {@link ThumbnailCache}.
+ */
+public class ThumbnailServiceTest {
+
+	private Context context;
+
+	private ThumbnailService thumbnailService;
+
+	private File dir;
+
+	private ThumbnailCache cache;
+
+	@Before
+	public void setUp() throws Exception {
+		context = new Context();
+		thumbnailService = context.getService(ThumbnailService.class);
+		dir = Files.createTempDirectory("thumbnails").toFile();
+		cache = new ThumbnailCache(new File(dir, "cache"));
+		thumbnailService.setCache(cache);
+	}
+
+	@After
+	public void tearDown() {
+		context.dispose();
+		cache.clear();
+		new File(dir, "cache").delete();
+		for (final File file : dir.listFiles()) {
+			file.delete();
+		}
+		dir.delete();
+	}
+
+	/** A plane too large to read whole is sampled row by row. */
+	@Test
+	public void testSampled() throws Exception {
+		final int w = 4500, h = 4000;
+		final byte[] pixels = new byte[w * h];
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				pixels[y * w + x] = (byte) (x * 7 + y * 3);
+			}
+		}
+		final File file = writeTIFF("large.tif", pixels, w, h, null);
+
+		final BufferedImage thumb = thumbnailService.openThumbnail(
+			new FileLocation(file));
+		assertEquals(128, thumb.getWidth());
+		assertEquals(h * 128 / w, thumb.getHeight());
+		for (int j = 0; j < thumb.getHeight(); j++) {
+			final int y = (2 * j + 1) * h / (2 * thumb.getHeight());
+			for (int i = 0; i < thumb.getWidth(); i++) {
+				final int x = (2 * i + 1) * w / (2 * thumb.getWidth());
+				assertEquals((x * 7 + y * 3) & 0xff, thumb.getRGB(i, j) & 0xff);
+			}
+		}
+
+		// the second request is served from the cache
+		assertTrue(cache.getUsedBytes() > 0);
+		assertEquals(1, cache.getDirectory().list().length);
+		final BufferedImage cached = thumbnailService.openThumbnail(
+			new FileLocation(file));
+		for (int j = 0; j < thumb.getHeight(); j++) {
+			for (int i = 0; i < thumb.getWidth(); i++) {
+				assertEquals(thumb.getRGB(i, j), cached.getRGB(i, j));
+			}
+		}
+
+		// a bound of zero empties the cache
+		cache.setMaxBytes(0);
+		assertEquals(0, cache.getUsedBytes());
+	}
+
+	/** An embedded thumbnail IFD is used instead of the full image. */
+	@Test
+	public void testThumbnailIFD() throws Exception {
+		final int w = 600, h = 400;
+		final byte[] thumbPixels = new byte[150 * 100];
+		Arrays.fill(thumbPixels, (byte) 42);
+		final File file = writeTIFF("thumbs.tif", new byte[w * h], w, h,
+			thumbPixels);
+
+		final BufferedImage thumb = thumbnailService.openThumbnail(
+			new FileLocation(file));
+		assertEquals(150, thumb.getWidth());
+		assertEquals(100, thumb.getHeight());
+		assertEquals(42, thumb.getRGB(75, 50) & 0xff);
+	}
+
+	/** Large JPEGs are reduced from their DC coefficients. */
+	@Test
+	public void testJPEG() throws Exception {
+		final int w = 1600, h = 1200;
+		final BufferedImage image = new BufferedImage(w, h,
+			BufferedImage.TYPE_3BYTE_BGR);
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				image.setRGB(x, y, ((x * 255 / w) << 16) | ((y * 255 / h) << 8) | 128);
+			}
+		}
+		final File file = new File(dir, "large.jpg");
+		ImageIO.write(image, "jpg", file);
+
+		final BufferedImage thumb = thumbnailService.openThumbnail(
+			new FileLocation(file));
+		assertNotNull(thumb);
+		assertEquals(128, thumb.getWidth());
+		assertEquals(96, thumb.getHeight());
+		for (final int[] p : new int[][] { { 10, 10 }, { 64, 48 }, { 120, 90 } }) {
+			final int expected = image.getRGB(p[0] * w / 128, p[1] * h / 96);
+			final int actual = thumb.getRGB(p[0], p[1]);
+			for (int shift = 0; shift < 24; shift += 8) {
+				assertEquals(expected >> shift & 0xff, actual >> shift & 0xff, 16);
+			}
+		}
+	}
+
+	/** The default cache folder is only created once a thumbnail is stored. */
+	@Test
+	public void testDefaultCacheCreatedOnWrite() throws Exception {
+		final File file = writeTIFF("small.tif", new byte[64 * 64], 64, 64, null);
+		final File defaultDir = new File(dir, "scifio-thumbnails");
+		final String tmpDir = System.getProperty("java.io.tmpdir");
+		System.setProperty("java.io.tmpdir", dir.getPath());
+		final Context defaultContext = new Context();
+		ThumbnailCache defaultCache = null;
+		try {
+			final ThumbnailService service = defaultContext.getService(
+				ThumbnailService.class);
+			assertFalse(defaultDir.exists());
+			service.openThumbnail(new FileLocation(file));
+			defaultCache = service.getCache();
+			assertEquals(defaultDir, defaultCache.getDirectory());
+			assertEquals(1, defaultDir.list().length);
+		}
+		finally {
+			System.setProperty("java.io.tmpdir", tmpDir);
+			if (defaultCache != null) defaultCache.clear();
+			defaultDir.delete();
+			defaultContext.dispose();
+		}
+	}
+
+	// -- Helper methods --
+
+	/** Writes an 8-bit TIFF, with an optional 150x100 thumbnail IFD. */
+	private File writeTIFF(final String name, final byte[] pixels, final int w,
+		final int h, final byte[] thumbPixels) throws Exception
+	{
+		final File file = new File(dir, name);
+		final DataHandleService handles = context.getService(
+			DataHandleService.class);
+		try (final DataHandle<Location> out = handles.create(new FileLocation(
+			file)))
+		{
+			final TiffSaver saver = new TiffSaver(context, out);
+			saver.setWritingSequentially(true);
+			saver.setLittleEndian(true);
+			saver.writeHeader();
+			final IFD ifd = new IFD(null);
+			ifd.put(IFD.IMAGE_WIDTH, (long) w);
+			ifd.put(IFD.IMAGE_LENGTH, (long) h);
+			ifd.put(IFD.LITTLE_ENDIAN, Boolean.TRUE);
+			saver.writeImage(pixels, ifd, 0, FormatTools.UINT8, thumbPixels == null);
+			if (thumbPixels != null) {
+				final IFD thumb = new IFD(null);
+				thumb.put(IFD.IMAGE_WIDTH, 150L);
+				thumb.put(IFD.IMAGE_LENGTH, 100L);
+				thumb.put(IFD.LITTLE_ENDIAN, Boolean.TRUE);
+				thumb.put(IFD.NEW_SUBFILE_TYPE, 1L);
+				out.seek(out.length());
+				saver.writeImage(thumbPixels, thumb, 1, FormatTools.UINT8, true);
+			}
+		}
+		return file;
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.img;
+
+import io.scif.BenchmarkRunner;
+import io.scif.io.location.TestImgLocation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.RunnerException;
+import org.scijava.Context;
+import org.scijava.io.location.FileLocation;
+
+/**
+ * Measures end-to-end {@link ImgOpener} and {@link ImgSaver} times for a
+ * synthetic stack written to, and read back from, a temporary file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImgIOBenchmark {
+
+	/** File suffix of the format to write and read. */
+	@Param({ "tif", "ics" })
+	public String format;
+
+	@Param({ "uint8", "uint16", "float" })
+	public String pixelType;
+
+	/** Width and height of each plane. */
+	@Param({ "256", "1024" })
+	public int size;
+
+	private static final int PLANES = 16;
+
+	private Context context;
+
+	private ImgOpener opener;
+
+	private ImgSaver saver;
+
+	private SCIFIOImgPlus<?> img;
+
+	private File readFile;
+
+	private File writeFile;
+
+	@Setup
+	public void setUp() throws IOException {
+		context = new Context();
+		opener = new ImgOpener(context);
+		saver = new ImgSaver(context);
+		img = opener.openImgs(TestImgLocation.builder().name("imgIOBenchmark")
+			.pixelType(pixelType).axes("X", "Y", "Z").lengths(size, size, PLANES)
+			.build()).get(0);
+
+		readFile = createTempFile();
+		writeFile = createTempFile();
+		saver.saveImg(new FileLocation(readFile), img);
+	}
+
+	@TearDown
+	public void tearDown() {
+		readFile.delete();
+		writeFile.delete();
+		context.dispose();
+	}
+
+	@Benchmark
+	public List<SCIFIOImgPlus<?>> open() {
+		return opener.openImgs(new FileLocation(readFile));
+	}
+
+	@Benchmark
+	public void save() {
+		writeFile.delete();
+		saver.saveImg(new FileLocation(writeFile), img);
+	}
+
+	private File createTempFile() throws IOException {
+		final File file = Files.createTempFile("imgIOBenchmark", "." + format)
+			.toFile();
+		file.delete();
+		return file;
+	}
+
+	public static void main(final String... args) throws RunnerException {
+		BenchmarkRunner.run(ImgIOBenchmark.class);
+	}
+}
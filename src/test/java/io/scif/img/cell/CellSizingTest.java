@@ -0,0 +1,150 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.img.cell;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import io.scif.Format;
+import io.scif.Reader;
+import io.scif.SCIFIO;
+import io.scif.formats.TIFFFormat;
+import io.scif.formats.tiff.IFD;
+import io.scif.formats.tiff.TiffSaver;
+import io.scif.io.location.TestImgLocation;
+import io.scif.util.FormatTools;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.handle.DataHandleService;
+import org.scijava.io.location.BytesLocation;
+import org.scijava.io.location.Location;
+
+/**
+ * Tests {@link CellSizing}.
+ */
+public class CellSizingTest {
+
+	private SCIFIO scifio;
+
+	@Before
+	public void setUp() {
+		scifio = new SCIFIO();
+	}
+
+	@After
+	public void tearDown() {
+		scifio.getContext().dispose();
+	}
+
+	/** Tests that cells span whole TIFF tiles, growing rows of tiles first. */
+	@Test
+	public void testTiles() throws Exception {
+		final Format format = scifio.format().getFormatFromClass(TIFFFormat.class);
+		final Reader reader = format.createReader();
+		reader.setMetadata(format.createParser().parse(writeTiledTIFF(2048, 1024,
+			256, 128)));
+		assertEquals(256, reader.getOptimalTileWidth(0));
+		assertEquals(128, reader.getOptimalTileHeight(0));
+
+		// full height, then as many tile columns as fit in the target size
+		final int[] cell = CellSizing.getCellDimensions(reader, 0, new long[] {
+			2048, 1024 });
+		assertArrayEquals(new int[] { 1024, 1024 }, cell);
+		reader.close();
+	}
+
+	/** Tests that strips grow by whole strips and other axes stay one deep. */
+	@Test
+	public void testStrips() throws Exception {
+		final Reader reader = scifio.initializer().initializeReader(TestImgLocation
+			.builder().axes("X", "Y", "Channel", "Z").lengths(4000, 3000, 3, 5)
+			.pixelType("uint16").build());
+		final long rows = reader.getOptimalTileHeight(0);
+		final int[] cell = CellSizing.getCellDimensions(reader, 0, new long[] {
+			4000, 3000, 3, 5 });
+		assertEquals(4000, cell[0]);
+		assertEquals(0, cell[1] % rows);
+		assertEquals(1, cell[2]);
+		assertEquals(1, cell[3]);
+		final long bytes = (long) cell[0] * cell[1] * 2;
+		assertTrue(bytes <= CellSizing.TARGET_CELL_BYTES);
+		assertTrue(bytes + cell[0] * rows * 2 > CellSizing.TARGET_CELL_BYTES);
+		reader.close();
+	}
+
+	/** Tests that cells never exceed a cropped image. */
+	@Test
+	public void testSmallImage() throws Exception {
+		final Reader reader = scifio.initializer().initializeReader(TestImgLocation
+			.builder().axes("X", "Y", "Time").lengths(40, 30, 7).build());
+		assertArrayEquals(new int[] { 20, 30, 1 }, CellSizing.getCellDimensions(
+			reader, 0, new long[] { 20, 30, 7 }));
+		reader.close();
+	}
+
+	/** Tests that only a chunk too large for one array is split. */
+	@Test
+	public void testOversizedChunk() throws Exception {
+		final Reader reader = scifio.initializer().initializeReader(TestImgLocation
+			.builder().axes("X", "Y").lengths(1500000000, 4).build());
+		assertEquals(1500000000, reader.getOptimalTileWidth(0));
+		assertArrayEquals(new int[] { 750000000, 1 }, CellSizing
+			.getCellDimensions(reader, 0, new long[] { 1500000000, 4 }));
+		reader.close();
+	}
+
+	// -- Helper methods --
+
+	/** Writes a single-plane, uint8 TIFF with the given tile size. */
+	private BytesLocation writeTiledTIFF(final int width, final int height,
+		final int tileWidth, final int tileHeight) throws Exception
+	{
+		final BytesLocation bytes = new BytesLocation(width * height + 4096);
+		try (final DataHandle<Location> out = scifio.getContext()
+			.getService(DataHandleService.class).create(bytes)) {
+			final TiffSaver saver = new TiffSaver(scifio.getContext(), out);
+			saver.setLittleEndian(true);
+			saver.writeHeader();
+			final IFD ifd = new IFD(null);
+			ifd.put(IFD.IMAGE_WIDTH, (long) width);
+			ifd.put(IFD.IMAGE_LENGTH, (long) height);
+			ifd.put(IFD.TILE_WIDTH, (long) tileWidth);
+			ifd.put(IFD.TILE_LENGTH, (long) tileHeight);
+			ifd.put(IFD.LITTLE_ENDIAN, Boolean.TRUE);
+			saver.writeImage(new byte[width * height], ifd, 0, FormatTools.UINT8,
+				true);
+		}
+		return bytes;
+	}
+}
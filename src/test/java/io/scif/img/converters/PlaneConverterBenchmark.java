@@ -0,0 +1,185 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.img.converters;
+
+import io.scif.BenchmarkRunner;
+import io.scif.FormatException;
+import io.scif.Reader;
+import io.scif.SCIFIO;
+import io.scif.config.SCIFIOConfig;
+import io.scif.img.cell.loaders.ByteArrayLoader;
+import io.scif.img.cell.loaders.DoubleArrayLoader;
+import io.scif.img.cell.loaders.FloatArrayLoader;
+import io.scif.img.cell.loaders.IntArrayLoader;
+import io.scif.img.cell.loaders.ShortArrayLoader;
+import io.scif.io.location.TestImgLocation;
+
+import java.io.IOException;
+
+import net.imagej.ImgPlus;
+import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.img.basictypeaccess.array.ByteArray;
+import net.imglib2.img.basictypeaccess.array.DoubleArray;
+import net.imglib2.img.basictypeaccess.array.FloatArray;
+import net.imglib2.img.basictypeaccess.array.IntArray;
+import net.imglib2.img.basictypeaccess.array.ShortArray;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.type.numeric.integer.ShortType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.RunnerException;
+
+/**
+ * Measures the throughput of {@link PlaneConverter#populatePlane} and of the
+ * underlying {@code AbstractArrayLoader#convertBytes} conversion.
+ * <p>
+ * The {@code target} primitive is independent of the source
+ * {@code pixelType}, so the parameter matrix covers both the compatible
+ * (bulk copy) and the incompatible (per-element decoding) conversion paths.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class PlaneConverterBenchmark {
+
+	@Param({ "uint8", "int16", "float" })
+	public String pixelType;
+
+	@Param({ "byte", "short", "int", "float", "double" })
+	public String target;
+
+	/** Width and height of each plane. */
+	@Param({ "256", "1024" })
+	public int size;
+
+	private SCIFIO scifio;
+
+	private Reader reader;
+
+	private SCIFIOConfig config;
+
+	private PlaneConverter converter;
+
+	private byte[] source;
+
+	private ImgPlus<?> dest;
+
+	private Runnable convertBytes;
+
+	@Setup
+	public void setUp() throws IOException, FormatException {
+		scifio = new SCIFIO();
+		reader = scifio.initializer().initializeReader(TestImgLocation.builder()
+			.name("planeConverterBenchmark").pixelType(pixelType).axes("X", "Y")
+			.lengths(size, size).build());
+		config = new SCIFIOConfig();
+		converter = scifio.planeConverter().getArrayConverter();
+		source = reader.openPlane(0, 0).getBytes();
+
+		final int count = size * size;
+		switch (target) {
+			case "byte": {
+				dest = createImg(new ByteType());
+				final ByteArrayLoader loader = new ByteArrayLoader(reader, null);
+				final ByteArray data = loader.emptyArray(count);
+				convertBytes = () -> loader.convertBytes(data, source, 0);
+				break;
+			}
+			case "short": {
+				dest = createImg(new ShortType());
+				final ShortArrayLoader loader = new ShortArrayLoader(reader, null);
+				final ShortArray data = loader.emptyArray(count);
+				convertBytes = () -> loader.convertBytes(data, source, 0);
+				break;
+			}
+			case "int": {
+				dest = createImg(new IntType());
+				final IntArrayLoader loader = new IntArrayLoader(reader, null);
+				final IntArray data = loader.emptyArray(count);
+				convertBytes = () -> loader.convertBytes(data, source, 0);
+				break;
+			}
+			case "float": {
+				dest = createImg(new FloatType());
+				final FloatArrayLoader loader = new FloatArrayLoader(reader, null);
+				final FloatArray data = loader.emptyArray(count);
+				convertBytes = () -> loader.convertBytes(data, source, 0);
+				break;
+			}
+			case "double": {
+				dest = createImg(new DoubleType());
+				final DoubleArrayLoader loader = new DoubleArrayLoader(reader, null);
+				final DoubleArray data = loader.emptyArray(count);
+				convertBytes = () -> loader.convertBytes(data, source, 0);
+				break;
+			}
+			default:
+				throw new IllegalArgumentException("Unknown target: " + target);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		reader.close();
+		scifio.getContext().dispose();
+	}
+
+	@Benchmark
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void populatePlane() {
+		converter.populatePlane(reader, 0, 0, source, (ImgPlus) dest, config);
+	}
+
+	@Benchmark
+	public void convertBytes() {
+		convertBytes.run();
+	}
+
+	// -- Helper methods --
+
+	private <T extends RealType<T> & NativeType<T>> ImgPlus<T> createImg(
+		final T type)
+	{
+		return new ImgPlus<>(new ArrayImgFactory<>(type).create(size, size));
+	}
+
+	public static void main(final String... args) throws RunnerException {
+		BenchmarkRunner.run(PlaneConverterBenchmark.class);
+	}
+}
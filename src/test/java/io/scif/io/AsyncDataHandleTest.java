@@ -0,0 +1,181 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.io.handle.DataHandleService;
+import org.scijava.io.location.BytesLocation;
+
+/**
+ * Tests {@link AsyncDataHandle}.
+ */
+public class AsyncDataHandleTest {
+
+	private static final int LENGTH = 256;
+
+	private Context context;
+
+	private DataHandleService handles;
+
+	private BytesLocation location;
+
+	/** Range requests waiting to run. */
+	private final List<Runnable> tasks = new ArrayList<>();
+
+	private final Executor executor = tasks::add;
+
+	@Before
+	public void setUp() {
+		context = new Context(DataHandleService.class);
+		handles = context.getService(DataHandleService.class);
+		final byte[] bytes = new byte[LENGTH];
+		for (int i = 0; i < LENGTH; i++) {
+			bytes[i] = (byte) i;
+		}
+		location = new BytesLocation(bytes);
+	}
+
+	@After
+	public void tearDown() {
+		context.dispose();
+	}
+
+	@Test
+	public void testRangeReads() throws IOException {
+		try (final AsyncDataHandle handle = new AsyncDataHandle(handles, handles
+			.create(location), Runnable::run))
+		{
+			assertBytes(10, 20, handle.readAsync(10, 20).join());
+			assertBytes(250, 6, handle.readAsync(250, 20).join());
+			assertEquals(0, handle.offset());
+		}
+	}
+
+	@Test
+	public void testRequestsOverlap() throws IOException {
+		try (final AsyncDataHandle handle = new AsyncDataHandle(handles, handles
+			.create(location), executor))
+		{
+			final CompletableFuture<ByteBuffer> first = handle.readAsync(0, 16);
+			final CompletableFuture<ByteBuffer> second = handle.readAsync(128, 16);
+			final CompletableFuture<ByteBuffer> inner = handle.readAsync(4, 8);
+
+			// both distinct ranges are requested before either completes
+			assertEquals(2, tasks.size());
+			assertFalse(first.isDone());
+			assertFalse(second.isDone());
+
+			tasks.get(1).run();
+			assertTrue(second.isDone());
+			assertFalse(first.isDone());
+			tasks.get(0).run();
+
+			assertBytes(0, 16, first.join());
+			assertBytes(128, 16, second.join());
+			assertBytes(4, 8, inner.join());
+			assertEquals(1, handle.getPooledHandleCount());
+		}
+	}
+
+	@Test
+	public void testVectoredRead() throws IOException {
+		try (final AsyncDataHandle handle = new AsyncDataHandle(handles, handles
+			.create(location), executor))
+		{
+			final byte[] buf = new byte[32];
+			final VectoredRead reads = new VectoredRead(16,
+				VectoredRead.DEFAULT_MAX_CHUNK);
+			reads.add(200, buf, 16, 16);
+			reads.add(0, buf, 0, 16);
+			final CompletableFuture<Long> read = reads.readAsync(handle);
+			assertEquals(2, tasks.size());
+			assertFalse(read.isDone());
+
+			for (final Runnable task : tasks) {
+				task.run();
+			}
+			assertEquals(32L, (long) read.join());
+			for (int i = 0; i < 16; i++) {
+				assertEquals((byte) i, buf[i]);
+				assertEquals((byte) (200 + i), buf[16 + i]);
+			}
+		}
+	}
+
+	@Test
+	public void testBlockingReads() throws IOException {
+		try (final AsyncDataHandle handle = new AsyncDataHandle(handles, handles
+			.create(location), executor))
+		{
+			handle.seek(100);
+			assertEquals(100, handle.readByte());
+			final byte[] b = new byte[4];
+			assertEquals(4, handle.read(b));
+			assertArrayEquals(new byte[] { 101, 102, 103, 104 }, b);
+			assertEquals(105, handle.offset());
+			assertEquals(LENGTH, handle.length());
+			assertTrue(tasks.isEmpty());
+			try {
+				handle.writeByte(0);
+				fail("Expected IOException");
+			}
+			catch (final IOException e) {
+				// expected
+			}
+		}
+	}
+
+	// -- Helper methods --
+
+	private void assertBytes(final int offset, final int length,
+		final ByteBuffer bytes)
+	{
+		assertEquals(length, bytes.remaining());
+		for (int i = 0; i < length; i++) {
+			assertEquals((byte) (offset + i), bytes.get());
+		}
+	}
+}
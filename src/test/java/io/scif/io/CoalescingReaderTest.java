@@ -0,0 +1,140 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.scif.util.AsyncReadableHandle;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.handle.DataHandleService;
+import org.scijava.io.location.BytesLocation;
+import org.scijava.io.location.Location;
+
+/**
+ * Tests {@link CoalescingReader} and {@link AsyncReads}.
+ */
+public class CoalescingReaderTest {
+
+	private static final int LENGTH = 256;
+
+	private Context context;
+
+	private DataHandleService handles;
+
+	private BytesLocation location;
+
+	@Before
+	public void setUp() {
+		context = new Context(DataHandleService.class);
+		handles = context.getService(DataHandleService.class);
+		final byte[] bytes = new byte[LENGTH];
+		for (int i = 0; i < LENGTH; i++) {
+			bytes[i] = (byte) i;
+		}
+		location = new BytesLocation(bytes);
+	}
+
+	@After
+	public void tearDown() {
+		context.dispose();
+	}
+
+	@Test
+	public void testContainedRequestsShareFetch() throws Exception {
+		final AsyncReadableHandle source = new AsyncReadableHandle(handles.create(
+			location));
+		final CoalescingReader reader = new CoalescingReader(source);
+		source.hold();
+
+		final CompletableFuture<ByteBuffer> whole = reader.readAsync(16, 64);
+		final CompletableFuture<ByteBuffer> same = reader.readAsync(16, 64);
+		final CompletableFuture<ByteBuffer> inner = reader.readAsync(32, 8);
+		final CompletableFuture<ByteBuffer> outside = reader.readAsync(70, 20);
+		assertEquals(2, source.getRequestCount());
+		assertEquals(2, reader.getInFlightCount());
+		assertFalse(whole.isDone());
+
+		source.release();
+		assertEquals(0, reader.getInFlightCount());
+		assertBytes(whole.get(), 16, 64);
+		assertBytes(same.get(), 16, 64);
+		assertBytes(inner.get(), 32, 8);
+		assertBytes(outside.get(), 70, 20);
+
+		// completed requests are not reused
+		assertBytes(reader.readAsync(16, 64).get(), 16, 64);
+		assertEquals(3, source.getRequestCount());
+	}
+
+	@Test
+	public void testShortReadAtEnd() throws Exception {
+		final CoalescingReader reader = new CoalescingReader(
+			new AsyncReadableHandle(handles.create(location)));
+		assertBytes(reader.readAsync(LENGTH - 10, 20).get(), LENGTH - 10, 10);
+	}
+
+	@Test
+	public void testBlockingFallback() throws Exception {
+		final DataHandle<Location> handle = handles.create(location);
+		assertFalse(AsyncReads.isAsync(handle));
+		handle.seek(5);
+		final CompletableFuture<ByteBuffer> future = AsyncReads.readAsync(handle,
+			100, 30);
+		assertTrue(future.isDone());
+		assertBytes(future.get(), 100, 30);
+		assertEquals(5, handle.offset());
+
+		final byte[] b = new byte[12];
+		assertEquals(12, AsyncReads.read(handle, 40, b, 0, b.length));
+		assertBytes(ByteBuffer.wrap(b), 40, 12);
+		assertEquals(52, handle.offset());
+	}
+
+	// -- Helper methods --
+
+	private static void assertBytes(final ByteBuffer b, final int start,
+		final int length)
+	{
+		assertEquals(length, b.remaining());
+		for (int i = 0; i < length; i++) {
+			assertEquals((byte) (start + i), b.get(b.position() + i));
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.handle.DataHandleService;
+import org.scijava.io.location.BytesLocation;
+import org.scijava.io.location.Location;
+
+/**
+ * Tests {@link JSONReader}.
+ */
+public class JSONReaderTest {
+
+	private Context context;
+
+	private DataHandleService handles;
+
+	@Before
+	public void setUp() {
+		context = new Context(DataHandleService.class);
+		handles = context.getService(DataHandleService.class);
+	}
+
+	@After
+	public void tearDown() {
+		context.dispose();
+	}
+
+	@Test
+	public void testValues() throws Exception {
+		final JSONReader json = reader("{\"a\": 1.5, \"b\": \"x\\\"y\\n\\u00e9\"," +
+			" \"c\": null, \"d\": true, \"e\": [1, 2, [3]], \"f\": {\"g\": 4}}");
+		json.beginObject();
+		assertEquals("a", json.nextName());
+		assertEquals("1.5", json.nextValue());
+		assertEquals("b", json.nextName());
+		assertEquals("x\"y\n\u00e9", json.nextValue());
+		assertEquals("c", json.nextName());
+		assertNull(json.nextValue());
+		assertEquals("d", json.nextName());
+		assertEquals("true", json.nextValue());
+		assertEquals("e", json.nextName());
+		assertEquals("1,2", json.readJoined());
+		assertEquals("f", json.nextName());
+		json.beginObject();
+		assertEquals("g", json.nextName());
+		assertEquals("4", json.nextValue());
+		json.endObject();
+		assertFalse(json.hasNext());
+		json.endObject();
+		assertEquals(JSONReader.Token.END_DOCUMENT, json.peek());
+	}
+
+	@Test
+	public void testSurrogatePairs() throws Exception {
+		final JSONReader json = reader("[\"\\ud83d\\ude00\", \"a\\ud83db\"]");
+		json.beginArray();
+		assertEquals(new String(Character.toChars(0x1f600)), json.nextValue());
+		assertEquals("a?b", json.nextValue());
+		json.endArray();
+	}
+
+	@Test
+	public void testSkipAndSeek() throws Exception {
+		final JSONReader json = reader("{\"skip\": {\"x\": [\"]}\", {\"y\": 1}]," +
+			" \"z\": \"\\\"\"}, \"keep\": {\"k\": \"v\",},}");
+		json.beginObject();
+		json.skipValue();
+		assertEquals("keep", json.nextName());
+		final long offset = json.offset();
+		json.skipValue();
+		assertFalse(json.hasNext());
+		json.endObject();
+
+		json.seek(offset);
+		final Map<String, String> members = new LinkedHashMap<>();
+		json.readFlat(members);
+		assertEquals(1, members.size());
+		assertEquals("v", members.get("k"));
+	}
+
+	@Test
+	public void testAcrossBuffers() throws Exception {
+		// long enough that tokens straddle the reader's buffer boundaries
+		final StringBuilder sb = new StringBuilder("{");
+		final int count = 20000;
+		for (int i = 0; i < count; i++) {
+			sb.append("\"key" + i + "\": \"value\\\\" + i + "\",\n");
+		}
+		sb.append("}");
+		final JSONReader json = reader(sb.toString());
+		json.beginObject();
+		for (int i = 0; i < count; i++) {
+			if (i % 2 == 0) {
+				json.skipValue();
+				continue;
+			}
+			assertEquals("key" + i, json.nextName());
+			assertEquals("value\\" + i, json.nextValue());
+		}
+		assertFalse(json.hasNext());
+		json.endObject();
+	}
+
+	// -- Helper methods --
+
+	private JSONReader reader(final String s) throws Exception {
+		final DataHandle<Location> handle = handles.create(new BytesLocation(s
+			.getBytes(StandardCharsets.UTF_8)));
+		return new JSONReader(handle);
+	}
+}
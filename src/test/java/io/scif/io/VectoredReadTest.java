@@ -0,0 +1,160 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import io.scif.util.AsyncReadableHandle;
+import io.scif.util.ReadTrackingHandle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.io.handle.DataHandleService;
+import org.scijava.io.location.BytesLocation;
+
+/**
+ * Tests {@link VectoredRead}.
+ */
+public class VectoredReadTest {
+
+	private static final int LENGTH = 4096;
+
+	private Context context;
+
+	private DataHandleService handles;
+
+	private BytesLocation location;
+
+	@Before
+	public void setUp() {
+		context = new Context(DataHandleService.class);
+		handles = context.getService(DataHandleService.class);
+		final byte[] bytes = new byte[LENGTH];
+		for (int i = 0; i < LENGTH; i++) {
+			bytes[i] = (byte) (i * 7);
+		}
+		location = new BytesLocation(bytes);
+	}
+
+	@After
+	public void tearDown() {
+		context.dispose();
+	}
+
+	@Test
+	public void testRowsMerged() throws Exception {
+		// 16 rows of 8 bytes from an image 128 bytes wide
+		final ReadTrackingHandle handle = new ReadTrackingHandle(handles.create(
+			location));
+		final byte[] region = new byte[16 * 8];
+		final VectoredRead reads = new VectoredRead();
+		// added out of order, as for multiple channels
+		for (int row = 15; row >= 0; row--) {
+			reads.add(row * 128 + 40, region, row * 8, 8);
+		}
+		assertEquals(16, reads.getRangeCount());
+		assertEquals(region.length, reads.read(handle));
+		assertEquals(1, reads.getChunkCount());
+		assertEquals(1, reads.getSeekCount());
+		assertEquals(0, reads.getRangeCount());
+		assertEquals(15 * 128 + 48, handle.offset());
+		for (int row = 0; row < 16; row++) {
+			assertRange(region, row * 8, row * 128 + 40, 8);
+		}
+	}
+
+	@Test
+	public void testGapThreshold() throws Exception {
+		final ReadTrackingHandle handle = new ReadTrackingHandle(handles.create(
+			location));
+		final byte[] b = new byte[30];
+		final VectoredRead reads = new VectoredRead(100, 1000);
+		reads.add(0, b, 0, 10).add(110, b, 10, 10).add(1000, b, 20, 10);
+		assertEquals(30, reads.read(handle));
+		assertEquals(2, reads.getChunkCount());
+		// the first chunk starts where the handle already is
+		assertEquals(1, reads.getSeekCount());
+		assertFalse(handle.wasRead(120, 1000));
+		assertRange(b, 0, 0, 10);
+		assertRange(b, 10, 110, 10);
+		assertRange(b, 20, 1000, 10);
+	}
+
+	@Test
+	public void testChunkLimit() throws Exception {
+		final byte[] b = new byte[300];
+		final VectoredRead reads = new VectoredRead(100, 200);
+		for (int i = 0; i < 3; i++) {
+			reads.add(i * 100, b, i * 100, 100);
+		}
+		reads.read(handles.create(location));
+		assertEquals(2, reads.getChunkCount());
+		assertEquals(0, reads.getSeekCount());
+		assertRange(b, 0, 0, 300);
+	}
+
+	@Test
+	public void testShortReadAtEnd() throws Exception {
+		final byte[] b = new byte[40];
+		final VectoredRead reads = new VectoredRead();
+		reads.add(LENGTH - 30, b, 0, 20).add(LENGTH - 10, b, 20, 20);
+		assertEquals(30, reads.read(handles.create(location)));
+		assertRange(b, 0, LENGTH - 30, 30);
+	}
+
+	@Test
+	public void testAsyncHandle() throws Exception {
+		final AsyncReadableHandle handle = new AsyncReadableHandle(handles.create(
+			location));
+		final byte[] b = new byte[64];
+		final VectoredRead reads = new VectoredRead();
+		for (int i = 0; i < 8; i++) {
+			reads.add(i * 256, b, i * 8, 8);
+		}
+		reads.read(handle);
+		assertEquals(1, handle.getRequestCount());
+		for (int i = 0; i < 8; i++) {
+			assertRange(b, i * 8, i * 256, 8);
+		}
+	}
+
+	// -- Helper methods --
+
+	private static void assertRange(final byte[] b, final int off,
+		final int start, final int length)
+	{
+		for (int i = 0; i < length; i++) {
+			assertEquals((byte) ((start + i) * 7), b[off + i]);
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import io.scif.FormatException;
+import io.scif.Reader;
+import io.scif.SCIFIO;
+import io.scif.io.location.TestImgLocation;
+
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link MetricsService} and {@link Histogram}.
+ */
+public class MetricsServiceTest {
+
+	private SCIFIO scifio;
+
+	private MetricsService metrics;
+
+	@Before
+	public void setUp() {
+		scifio = new SCIFIO();
+		metrics = scifio.metrics();
+	}
+
+	@After
+	public void tearDown() {
+		scifio.getContext().dispose();
+	}
+
+	/** Tests that nothing is recorded while metrics are disabled. */
+	@Test
+	public void testDisabled() {
+		metrics.setEnabled(false);
+		metrics.count(MetricsService.BYTES_READ, "test", 10);
+		metrics.record(MetricsService.DECODE_TIME, "test", 10);
+		assertEquals(0, metrics.getCount(MetricsService.BYTES_READ, "test"));
+		assertEquals(0, metrics.snapshot().getHistograms().size());
+	}
+
+	/** Tests counting, snapshots and resetting. */
+	@Test
+	public void testCounters() {
+		metrics.setEnabled(true);
+		metrics.count(MetricsService.BYTES_READ, "a", 10);
+		metrics.count(MetricsService.BYTES_READ, "a", 5);
+		metrics.count(MetricsService.BYTES_READ, "b", 1);
+
+		final MetricsSnapshot snapshot = metrics.snapshot();
+		assertEquals(15, snapshot.getCount(MetricsService.BYTES_READ, "a"));
+		assertEquals(16, snapshot.getTotal(MetricsService.BYTES_READ));
+
+		// snapshots are detached from further recording
+		metrics.count(MetricsService.BYTES_READ, "a", 1);
+		assertEquals(15, snapshot.getCount(MetricsService.BYTES_READ, "a"));
+
+		metrics.reset();
+		assertEquals(0, metrics.getCount(MetricsService.BYTES_READ, "a"));
+	}
+
+	/** Tests that opening planes is recorded per format. */
+	@Test
+	public void testOpenPlane() throws FormatException, IOException {
+		metrics.setEnabled(true);
+		final Reader reader = scifio.initializer().initializeReader(TestImgLocation
+			.builder().axes("X", "Y", "Z").lengths(64, 64, 3).build());
+		for (int i = 0; i < 3; i++) {
+			reader.openPlane(0, i);
+		}
+		final MetricsSnapshot snapshot = metrics.snapshot();
+		final String key = reader.getFormat().getFormatName();
+		assertEquals(3, snapshot.getCount(MetricsService.PLANES_OPENED, key));
+		final Histogram openTime = snapshot.getHistogram(MetricsService.OPEN_TIME,
+			key);
+		assertNotNull(openTime);
+		assertEquals(3, openTime.getCount());
+		reader.close();
+	}
+
+	/** Tests the {@link Histogram} statistics. */
+	@Test
+	public void testHistogram() {
+		final Histogram histogram = new Histogram();
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i);
+		}
+		assertEquals(100, histogram.getCount());
+		assertEquals(5050, histogram.getTotal());
+		assertEquals(1, histogram.getMin());
+		assertEquals(100, histogram.getMax());
+		assertEquals(50.5, histogram.getMean(), 0);
+
+		// percentiles are accurate to within a power of two
+		final long p50 = histogram.getPercentile(0.5);
+		assertTrue(p50 >= 50 && p50 < 100);
+		assertEquals(100, histogram.getPercentile(1));
+	}
+}
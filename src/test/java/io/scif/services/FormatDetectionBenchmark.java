@@ -0,0 +1,125 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.services;
+
+import io.scif.BenchmarkRunner;
+import io.scif.Format;
+import io.scif.FormatException;
+import io.scif.SCIFIO;
+import io.scif.config.SCIFIOConfig;
+import io.scif.img.IO;
+import io.scif.img.ImgSaver;
+import io.scif.io.location.TestImgLocation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.RunnerException;
+import org.scijava.io.location.FileLocation;
+import org.scijava.io.location.Location;
+
+/**
+ * Measures the latency of {@link FormatService#getFormat(Location)}, with and
+ * without the checkers being allowed to open the source.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormatDetectionBenchmark {
+
+	/** File suffix of the format to detect; {@code fake} is synthetic data. */
+	@Param({ "fake", "tif", "ics", "png" })
+	public String format;
+
+	@Param({ "uint8", "uint16" })
+	public String pixelType;
+
+	/** Width and height of the image. */
+	@Param({ "256" })
+	public int size;
+
+	/** Whether checkers may open the file to inspect its contents. */
+	@Param({ "true", "false" })
+	public boolean open;
+
+	private SCIFIO scifio;
+
+	private SCIFIOConfig config;
+
+	private File tempFile;
+
+	private Location loc;
+
+	@Setup
+	public void setUp() throws IOException {
+		scifio = new SCIFIO();
+		config = new SCIFIOConfig().checkerSetOpen(open);
+		final TestImgLocation source = TestImgLocation.builder().name(
+			"formatDetectionBenchmark").pixelType(pixelType).axes("X", "Y").lengths(
+				size, size).build();
+
+		if ("fake".equals(format)) {
+			loc = source;
+		}
+		else {
+			tempFile = Files.createTempFile("formatDetectionBenchmark", "." +
+				format).toFile();
+			tempFile.delete();
+			loc = new FileLocation(tempFile);
+			new ImgSaver(scifio.getContext()).saveImg(loc, IO.open(source).get(0));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		scifio.getContext().dispose();
+		if (tempFile != null) tempFile.delete();
+	}
+
+	@Benchmark
+	public Format getFormat() throws FormatException {
+		return scifio.format().getFormat(loc, config);
+	}
+
+	public static void main(final String... args) throws RunnerException {
+		BenchmarkRunner.run(FormatDetectionBenchmark.class);
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.util;
+
+import io.scif.io.AsyncReadable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.location.Location;
+
+/**
+ * Stand-in for a remote {@link DataHandle}: a {@link ReadTrackingHandle} which
+ * also serves {@link AsyncReadable} range requests. While held, requests are
+ * not answered until {@link #release()} is called, as if waiting on the
+ * network.
+ */
+public class AsyncReadableHandle extends ReadTrackingHandle implements
+	AsyncReadable
+{
+
+	private final List<Runnable> pending = new ArrayList<>();
+
+	private boolean held;
+
+	private int requests;
+
+	public AsyncReadableHandle(final DataHandle<Location> handle) {
+		super(handle);
+	}
+
+	/** @return The number of range requests received so far. */
+	public int getRequestCount() {
+		return requests;
+	}
+
+	/** Holds back answers to range requests until {@link #release()}. */
+	public synchronized void hold() {
+		held = true;
+	}
+
+	/** Answers all held range requests, and stops holding new ones. */
+	public void release() {
+		final List<Runnable> answers;
+		synchronized (this) {
+			held = false;
+			answers = new ArrayList<>(pending);
+			pending.clear();
+		}
+		answers.forEach(Runnable::run);
+	}
+
+	// -- AsyncReadable methods --
+
+	@Override
+	public CompletableFuture<ByteBuffer> readAsync(final long offset,
+		final int length)
+	{
+		final CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
+		final Runnable answer = () -> {
+			try {
+				final byte[] bytes = new byte[length];
+				final int n;
+				synchronized (this) {
+					final long fp = offset();
+					seek(offset);
+					n = Math.max(0, read(bytes, 0, length));
+					seek(fp);
+				}
+				future.complete(ByteBuffer.wrap(bytes, 0, n));
+			}
+			catch (final IOException e) {
+				future.completeExceptionally(e);
+			}
+		};
+		synchronized (this) {
+			requests++;
+			if (held) {
+				pending.add(answer);
+				return future;
+			}
+		}
+		answer.run();
+		return future;
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import io.scif.ByteArrayPlane;
+import io.scif.DefaultImageMetadata;
+import io.scif.ImageMetadata;
+
+import net.imglib2.FinalInterval;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link ByteArrayPool}.
+ */
+public class ByteArrayPoolTest {
+
+	@Test
+	public void testReuse() {
+		final ByteArrayPool pool = new ByteArrayPool(1024);
+		final byte[] a = pool.take(100);
+		a[7] = 42;
+		pool.give(a);
+		assertEquals(100, pool.getUsedBytes());
+
+		// same length is reused and cleared; other lengths are not
+		assertNotSame(a, pool.take(99));
+		final byte[] b = pool.take(100);
+		assertSame(a, b);
+		assertEquals(0, b[7]);
+		assertEquals(0, pool.getUsedBytes());
+	}
+
+	@Test
+	public void testEviction() {
+		final ByteArrayPool pool = new ByteArrayPool(250);
+		final byte[] a = new byte[100], b = new byte[50], c = new byte[100];
+		pool.give(a);
+		pool.give(b);
+		pool.give(c);
+		assertEquals(250, pool.getUsedBytes());
+
+		// the least recently used size class loses its newest array first
+		pool.give(new byte[50]);
+		assertEquals(200, pool.getUsedBytes());
+		assertSame(a, pool.take(100));
+		assertNotSame(c, pool.take(100));
+
+		// arrays larger than the bound are not pooled
+		pool.give(new byte[300]);
+		assertEquals(100, pool.getUsedBytes());
+
+		pool.setMaxBytes(0);
+		assertEquals(0, pool.getUsedBytes());
+	}
+
+	@Test
+	public void testPlaneClose() {
+		final ImageMetadata meta = new DefaultImageMetadata();
+		meta.setPixelType(FormatTools.UINT16);
+		final FinalInterval bounds = new FinalInterval(7, 5);
+
+		final ByteArrayPlane plane = new ByteArrayPlane(meta, bounds);
+		final byte[] data = plane.getData();
+		assertEquals(70, data.length);
+		data[3] = 9;
+		plane.close();
+		assertNull(plane.getData());
+
+		try (final ByteArrayPlane reused = new ByteArrayPlane(meta, bounds)) {
+			assertSame(data, reused.getData());
+			assertEquals(0, data[3]);
+		}
+
+		// arrays supplied by the caller are not pooled
+		final byte[] own = new byte[70];
+		final ByteArrayPlane wrapper = new ByteArrayPlane();
+		wrapper.populate(meta, own, bounds);
+		wrapper.close();
+		assertSame(own, wrapper.getData());
+
+		// unless they are marked as taken from the shared pool
+		final byte[] taken = ByteArrayPool.getShared().take(70);
+		final ByteArrayPlane adopted = new ByteArrayPlane();
+		adopted.populate(meta, new byte[70], bounds).setPooledData(taken);
+		assertSame(taken, adopted.getBytes());
+		adopted.close();
+		assertNull(adopted.getData());
+		try (final ByteArrayPlane reused = new ByteArrayPlane(meta, bounds)) {
+			assertSame(taken, reused.getData());
+		}
+	}
+}
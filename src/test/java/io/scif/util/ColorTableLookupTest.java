@@ -0,0 +1,91 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.util;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import io.scif.FormatException;
+
+import net.imglib2.display.ColorTable16;
+import net.imglib2.display.ColorTable8;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link ColorTableLookup}.
+ */
+public class ColorTableLookupTest {
+
+	private final ColorTable8 lut8 = new ColorTable8( //
+		new byte[] { 10, 11, 12 }, //
+		new byte[] { 20, 21, 22 }, //
+		new byte[] { 30, 31, 32 });
+
+	@Test
+	public void testInterleaved() throws FormatException {
+		final ColorTableLookup l = new ColorTableLookup(lut8, 3, 1);
+		final byte[] dest = new byte[9];
+		l.expand(new byte[] { 2, 0, 1 }, 1, true, dest, true, true, 3, 0, 3);
+		assertArrayEquals(new byte[] { 12, 22, 32, 10, 20, 30, 11, 21, 31 },
+			dest);
+	}
+
+	@Test
+	public void testPlanarRanges() throws FormatException {
+		final ColorTableLookup l = new ColorTableLookup(lut8, 3, 1);
+		final byte[] dest = new byte[9];
+		final byte[] index = { 2, 0, 1 };
+		// expand in two bands, as a parallel expansion would
+		l.expand(index, 1, true, dest, true, false, 3, 0, 1);
+		l.expand(index, 1, true, dest, true, false, 3, 1, 3);
+		assertArrayEquals(new byte[] { 12, 10, 11, 22, 20, 21, 32, 30, 31 },
+			dest);
+	}
+
+	@Test(expected = FormatException.class)
+	public void testIndexOutOfRange() throws FormatException {
+		final ColorTableLookup l = new ColorTableLookup(lut8, 1, 1);
+		final byte[] dest = new byte[2];
+		l.expand(new byte[] { 0, 0, 0, 7 }, 2, false, dest, true, true, 2, 0, 2);
+	}
+
+	@Test
+	public void testShortSamples() throws FormatException {
+		final ColorTable16 lut16 = new ColorTable16( //
+			new short[] { 0x0102, 0x0304 }, //
+			new short[] { 0x0506, 0x0708 });
+		final ColorTableLookup l = new ColorTableLookup(lut16, 2, 2);
+		final byte[] dest = new byte[4];
+		l.expand(new byte[] { 1 }, 1, true, dest, false, true, 1, 0, 1);
+		assertArrayEquals(new byte[] { 3, 4, 7, 8 }, dest);
+		l.expand(new byte[] { 0 }, 1, true, dest, true, true, 1, 0, 1);
+		assertArrayEquals(new byte[] { 2, 1, 6, 5 }, dest);
+	}
+}
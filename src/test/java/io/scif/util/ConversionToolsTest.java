@@ -0,0 +1,160 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.scijava.util.Bytes;
+
+/**
+ * Tests {@link ConversionTools}.
+ */
+public class ConversionToolsTest {
+
+	private static final int[] TYPES = { FormatTools.UINT8, FormatTools.INT8,
+		FormatTools.UINT16, FormatTools.INT16, FormatTools.UINT32,
+		FormatTools.INT32, FormatTools.FLOAT, FormatTools.DOUBLE };
+
+	/** More samples than one conversion chunk, plus a ragged tail. */
+	private static final int COUNT = 5000;
+
+	@Test
+	public void testMatchesDecodeWord() {
+		final Random r = new Random(0xC0FFEE);
+		for (final int type : TYPES) {
+			for (final boolean little : new boolean[] { false, true }) {
+				final byte[] src = sample(r, type, little);
+				final String msg = FormatTools.getPixelTypeString(type) + //
+					(little ? " LE" : " BE");
+				final double[] expected = new double[COUNT];
+				for (int i = 0; i < COUNT; i++) {
+					expected[i] = decode(src, i, type, little);
+				}
+
+				final byte[] b = new byte[COUNT];
+				final short[] s = new short[COUNT];
+				final char[] c = new char[COUNT];
+				final int[] n = new int[COUNT];
+				final long[] l = new long[COUNT];
+				final float[] f = new float[COUNT];
+				final double[] d = new double[COUNT];
+				ConversionTools.convert(src, 0, type, little, b, 0, COUNT);
+				ConversionTools.convert(src, 0, type, little, s, 0, COUNT);
+				ConversionTools.convert(src, 0, type, little, c, 0, COUNT);
+				ConversionTools.convert(src, 0, type, little, n, 0, COUNT);
+				ConversionTools.convert(src, 0, type, little, l, 0, COUNT);
+				ConversionTools.convert(src, 0, type, little, f, 0, COUNT);
+				ConversionTools.convert(src, 0, type, little, d, 0, COUNT);
+
+				for (int i = 0; i < COUNT; i++) {
+					final double v = expected[i];
+					assertEquals(msg, (byte) v, b[i]);
+					assertEquals(msg, (short) v, s[i]);
+					assertEquals(msg, (char) v, c[i]);
+					assertEquals(msg, (int) v, n[i]);
+					assertEquals(msg, (long) v, l[i]);
+					assertEquals(msg, Float.floatToIntBits((float) v), Float
+						.floatToIntBits(f[i]));
+					assertEquals(msg, Double.doubleToLongBits(v), Double
+						.doubleToLongBits(d[i]));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testOffsets() {
+		final byte[] src = { 0, 1, 0, 2, 0, 3, 0, 4 };
+		final float[] f = new float[4];
+		ConversionTools.convert(src, 1, FormatTools.UINT16, false, f, 2, 2);
+		assertArrayEquals(new float[] { 0, 0, 2, 3 }, f, 0);
+
+		final int[] n = new int[3];
+		ConversionTools.convert(src, 2, FormatTools.INT16, true, n, 0, 2);
+		assertArrayEquals(new int[] { 768, 1024, 0 }, n);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownType() {
+		ConversionTools.convert(new byte[4], 0, -1, false, new float[1], 0, 1);
+	}
+
+	// -- Helper methods --
+
+	private static byte[] sample(final Random r, final int type,
+		final boolean little)
+	{
+		final int bpp = FormatTools.getBytesPerPixel(type);
+		final byte[] src = new byte[COUNT * bpp];
+		r.nextBytes(src);
+		// keep floating point samples finite, in and out of integer range
+		if (type == FormatTools.FLOAT) {
+			for (int i = 0; i < COUNT; i++) {
+				final float v = (float) (r.nextGaussian() * Math.pow(10, i % 12));
+				Bytes.unpack(Float.floatToIntBits(v), src, i * 4, 4, little);
+			}
+		}
+		else if (type == FormatTools.DOUBLE) {
+			for (int i = 0; i < COUNT; i++) {
+				final double v = r.nextGaussian() * Math.pow(10, i % 22);
+				Bytes.unpack(Double.doubleToLongBits(v), src, i * 8, 8, little);
+			}
+		}
+		return src;
+	}
+
+	/** Reference decoding of the sample at the given pixel index. */
+	private static double decode(final byte[] src, final int i, final int type,
+		final boolean little)
+	{
+		switch (type) {
+			case FormatTools.UINT8:
+				return src[i] & 0xff;
+			case FormatTools.INT8:
+				return src[i];
+			case FormatTools.UINT16:
+				return Bytes.toShort(src, 2 * i, 2, little) & 0xffff;
+			case FormatTools.INT16:
+				return Bytes.toShort(src, 2 * i, 2, little);
+			case FormatTools.UINT32:
+				return Bytes.toInt(src, 4 * i, 4, little) & 0xffffffffL;
+			case FormatTools.INT32:
+				return Bytes.toInt(src, 4 * i, 4, little);
+			case FormatTools.FLOAT:
+				return Bytes.toFloat(src, 4 * i, 4, little);
+			default:
+				return Bytes.toDouble(src, 8 * i, 8, little);
+		}
+	}
+}
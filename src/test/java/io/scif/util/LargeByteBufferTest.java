@@ -0,0 +1,105 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.handle.DataHandleService;
+import org.scijava.io.location.BytesLocation;
+import org.scijava.io.location.Location;
+
+/**
+ * Tests {@link LargeByteBuffer}, using small chunks so that accesses cross
+ * chunk boundaries.
+ */
+public class LargeByteBufferTest {
+
+	@Test
+	public void testChunks() {
+		final LargeByteBuffer buf = new LargeByteBuffer(100, 4);
+		assertEquals(100, buf.capacity());
+		assertEquals(16, buf.getChunkSize());
+		assertEquals(7, buf.getChunkCount());
+		assertEquals(4, buf.getChunk(6).capacity());
+	}
+
+	@Test
+	public void testGetPut() {
+		final LargeByteBuffer buf = new LargeByteBuffer(100, 4);
+		final byte[] src = new byte[50];
+		for (int i = 0; i < src.length; i++) {
+			src[i] = (byte) (i + 1);
+		}
+		buf.put(13, src, 0, src.length);
+		assertEquals(0, buf.get(12));
+		assertEquals(1, buf.get(13));
+		assertEquals(50, buf.get(62));
+		assertEquals(0, buf.get(63));
+
+		final byte[] dst = new byte[50];
+		buf.get(13, dst, 0, dst.length);
+		assertArrayEquals(src, dst);
+
+		buf.put(99, (byte) 7);
+		assertEquals(7, buf.toArray()[99]);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testOutOfBounds() {
+		new LargeByteBuffer(100, 4).get(95, new byte[10], 0, 10);
+	}
+
+	@Test
+	public void testRead() throws Exception {
+		final byte[] data = new byte[200];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i * 3);
+		}
+		final Context context = new Context(DataHandleService.class);
+		try (final DataHandle<Location> in = context.getService(
+			DataHandleService.class).create(new BytesLocation(data)))
+		{
+			final LargeByteBuffer buf = new LargeByteBuffer(100, 4);
+			in.seek(150);
+			// only 50 bytes remain in the handle
+			assertEquals(50, buf.read(in, 5, 80));
+			for (int i = 0; i < 50; i++) {
+				assertEquals(data[150 + i], buf.get(5 + i));
+			}
+		}
+		finally {
+			context.dispose();
+		}
+	}
+}
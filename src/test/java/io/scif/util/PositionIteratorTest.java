@@ -0,0 +1,98 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link PositionIterator}.
+ */
+public class PositionIteratorTest {
+
+	@Test
+	public void testMatchesRasterToPosition() {
+		final long[] lengths = { 3, 1, 4, 2 };
+		final PositionIterator positions = new PositionIterator(lengths);
+		assertEquals(24, positions.size());
+
+		long raster = 0;
+		while (positions.hasNext()) {
+			positions.fwd();
+			assertEquals(raster, positions.getIndex());
+			assertArrayEquals(FormatTools.rasterToPosition(lengths, raster),
+				positions.getPosition());
+			assertEquals(raster, FormatTools.positionToRaster(lengths, positions
+				.getPosition()));
+			raster++;
+		}
+		assertEquals(24, raster);
+	}
+
+	@Test
+	public void testChangedDimension() {
+		final PositionIterator positions = new PositionIterator(2, 3);
+		assertEquals(1, positions.fwd());
+		assertEquals(0, positions.fwd());
+		assertEquals(1, positions.fwd());
+		assertArrayEquals(new long[] { 0, 1 }, positions.getPosition());
+		assertEquals(2, positions.getStride(1));
+	}
+
+	@Test
+	public void testResetAndJump() {
+		final PositionIterator positions = new PositionIterator(4, 5);
+		positions.setIndex(13);
+		assertArrayEquals(new long[] { 1, 3 }, positions.getPosition());
+		positions.fwd();
+		assertArrayEquals(new long[] { 2, 3 }, positions.getPosition());
+		assertEquals(14, positions.getIndex());
+
+		positions.reset();
+		assertTrue(positions.hasNext());
+		positions.fwd();
+		assertArrayEquals(new long[] { 0, 0 }, positions.getPosition());
+	}
+
+	@Test
+	public void testDegenerate() {
+		final PositionIterator none = new PositionIterator();
+		assertTrue(none.hasNext());
+		none.fwd();
+		assertFalse(none.hasNext());
+
+		final PositionIterator empty = new PositionIterator(3, 0);
+		assertFalse(empty.hasNext());
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * #%L
+ * SCIFIO library for reading and converting scientific file formats.
+ * %%
+ * Copyright (C) 2011 - 2017 SCIFIO developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package io.scif.util;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+import org.scijava.io.handle.AbstractHigherOrderHandle;
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.location.Location;
+
+/**
+ * Read-only {@link DataHandle} wrapper that records how many bytes are read,
+ * and which offsets of the underlying handle they came from.
+ */
+public class ReadTrackingHandle extends AbstractHigherOrderHandle<Location> {
+
+	private final BitSet touched = new BitSet();
+
+	private long bytesRead;
+
+	public ReadTrackingHandle(final DataHandle<Location> handle) {
+		super(handle);
+		setOrder(handle.getOrder());
+	}
+
+	/** @return The total number of bytes read through this handle. */
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * @return True iff any byte in {@code [start, end)} has been read through
+	 *         this handle.
+	 */
+	public boolean wasRead(final long start, final long end) {
+		final int next = touched.nextSetBit((int) start);
+		return next >= 0 && next < end;
+	}
+
+	/** Forgets all reads recorded so far. */
+	public void reset() {
+		touched.clear();
+		bytesRead = 0;
+	}
+
+	// -- DataHandle methods --
+
+	@Override
+	public long offset() throws IOException {
+		return handle().offset();
+	}
+
+	@Override
+	public void seek(final long pos) throws IOException {
+		handle().seek(pos);
+	}
+
+	@Override
+	public void setLength(final long length) throws IOException {
+		throw new IOException("Handle is read-only");
+	}
+
+	@Override
+	public byte readByte() throws IOException {
+		record(handle().offset(), 1);
+		return handle().readByte();
+	}
+
+	@Override
+	public int read(final byte[] b, final int off, final int len)
+		throws IOException
+	{
+		final long pos = handle().offset();
+		final int n = handle().read(b, off, len);
+		if (n > 0) record(pos, n);
+		return n;
+	}
+
+	@Override
+	public void write(final int v) throws IOException {
+		throw new IOException("Handle is read-only");
+	}
+
+	@Override
+	public void write(final byte[] b, final int off, final int len)
+		throws IOException
+	{
+		throw new IOException("Handle is read-only");
+	}
+
+	@Override
+	protected void cleanup() {
+		// NB: No action needed.
+	}
+
+	// -- Helper methods --
+
+	private void record(final long pos, final int n) {
+		touched.set((int) pos, (int) pos + n);
+		bytesRead += n;
+	}
+}